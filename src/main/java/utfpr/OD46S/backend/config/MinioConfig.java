@@ -2,15 +2,24 @@ package utfpr.OD46S.backend.config;
 
 import io.minio.MinioClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 @Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "minio", matchIfMissing = true)
 public class MinioConfig {
 
     @Value("${minio.url}")
     private String minioUrl;
 
+    @Value("${minio.public.url:${minio.url}}")
+    private String minioPublicUrl;
+
+    @Value("${minio.region:us-east-1}")
+    private String minioRegion;
+
     @Value("${minio.access.key}")
     private String accessKey;
 
@@ -18,11 +27,26 @@ public class MinioConfig {
     private String secretKey;
 
     @Bean
+    @Primary
     public MinioClient minioClient() {
         return MinioClient.builder()
                 .endpoint(minioUrl)
                 .credentials(accessKey, secretKey)
                 .build();
     }
-}
 
+    /**
+     * Cliente usado apenas para assinar URLs pré-assinadas.
+     * A assinatura inclui o host, então as URLs precisam ser geradas com o endereço
+     * que o app mobile/frontend enxerga (minio.public.url), não o endereço interno do Docker.
+     * A região é fixa para que a assinatura não dispare uma consulta de região ao MinIO.
+     */
+    @Bean
+    public MinioClient minioPresignClient() {
+        return MinioClient.builder()
+                .endpoint(minioPublicUrl)
+                .region(minioRegion)
+                .credentials(accessKey, secretKey)
+                .build();
+    }
+}
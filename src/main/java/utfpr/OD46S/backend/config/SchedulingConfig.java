@@ -0,0 +1,12 @@
+package utfpr.OD46S.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas periódicas (@Scheduled), como a reconciliação do painel ao vivo
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,35 @@
+package utfpr.OD46S.backend.config;
+
+import io.minio.MinioClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import utfpr.OD46S.backend.services.storage.LocalObjectStorage;
+import utfpr.OD46S.backend.services.storage.MinioObjectStorage;
+import utfpr.OD46S.backend.services.storage.ObjectStorage;
+
+import java.nio.file.Path;
+
+/**
+ * Seleciona o backend de armazenamento de arquivos: storage.backend=minio (padrão) ou local
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "minio", matchIfMissing = true)
+    public ObjectStorage minioObjectStorage(
+            MinioClient minioClient,
+            @Qualifier("minioPresignClient") MinioClient minioPresignClient,
+            @Value("${minio.bucket.name}") String bucketName) {
+        return new MinioObjectStorage(minioClient, minioPresignClient, bucketName);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+    public ObjectStorage localObjectStorage(@Value("${storage.local.root:./data/storage}") String root) {
+        return new LocalObjectStorage(Path.of(root));
+    }
+}
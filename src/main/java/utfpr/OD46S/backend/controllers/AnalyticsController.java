@@ -0,0 +1,84 @@
+package utfpr.OD46S.backend.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import utfpr.OD46S.backend.enums.CollectionType;
+import utfpr.OD46S.backend.services.ExecutionRollupService;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Analytics", description = "Relatórios agregados de execuções")
+@RestController
+@RequestMapping("/api/v1/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    @Autowired
+    private ExecutionRollupService rollupService;
+
+    @Operation(summary = "Somar execuções por período",
+               description = "Somas diárias pré-calculadas (concluídas, canceladas, peso, km e pontos) " +
+                       "agrupadas por data, rota, motorista, veículo e/ou tipo de coleta")
+    @GetMapping("/executions/rollup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rollup(
+            @Parameter(description = "Data inicial (YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start_date,
+            @Parameter(description = "Data final (YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end_date,
+            @Parameter(description = "Agrupamento: date, route, driver, vehicle, collection_type (separados por vírgula)") @RequestParam(required = false) List<String> group_by,
+            @RequestParam(required = false) Long route_id,
+            @RequestParam(required = false) Long driver_id,
+            @RequestParam(required = false) Long vehicle_id,
+            @RequestParam(required = false) CollectionType collection_type) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", rollupService.query(start_date, end_date, group_by,
+                    route_id, driver_id, vehicle_id, collection_type));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", e.getMessage());
+        } catch (RuntimeException e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "ANALYTICS_ERROR", e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Recalcular somas diárias",
+               description = "Reconstrói as somas do período a partir das execuções (carga inicial ou correções)")
+    @PostMapping("/executions/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuild(
+            @Parameter(description = "Data inicial (YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start_date,
+            @Parameter(description = "Data final (YYYY-MM-DD)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end_date) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", rollupService.rebuild(start_date, end_date));
+            response.put("message", "Execution rollups rebuilt successfully");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", e.getMessage());
+        } catch (RuntimeException e) {
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "ANALYTICS_ERROR", e.getMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String code, String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", Map.of(
+            "code", code,
+            "message", message != null ? message : code
+        ));
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
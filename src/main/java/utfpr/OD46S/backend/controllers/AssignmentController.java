@@ -27,7 +27,9 @@ public class AssignmentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'DRIVER')")
     @Operation(
             summary = "Listar escalas/atribuições",
-            description = "Lista todas as escalas com filtros opcionais. Admin vê todas, Driver vê apenas suas."
+            description = "Lista todas as escalas com filtros opcionais. Admin vê todas, Driver vê apenas suas. " +
+                    "Com include_total=false ou cursor não há contagem total; ordenado por createdAt, " +
+                    "a resposta traz next_cursor para a próxima página"
     )
     public ResponseEntity<Map<String, Object>> listarAssignments(
             @RequestParam(required = false) Long route_id,
@@ -38,6 +40,8 @@ public class AssignmentController {
             @RequestParam(defaultValue = "20") Integer limit,
             @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean include_total,
             Authentication authentication) {
         
         // Se for driver, filtra apenas suas escalas
@@ -47,9 +51,20 @@ public class AssignmentController {
             // Por enquanto, manteremos o filtro passado
         }
 
-        Map<String, Object> response = assignmentService.listarAssignments(
-                route_id, driver_id, vehicle_id, status, page, limit, sort, order);
-        return ResponseEntity.ok(response);
+        try {
+            Map<String, Object> response = assignmentService.listarAssignments(
+                    route_id, driver_id, vehicle_id, status, page, limit, sort, order, cursor, include_total);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "success", false,
+                            "error", Map.of(
+                                    "code", "VALIDATION_ERROR",
+                                    "message", e.getMessage()
+                            )
+                    ));
+        }
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,34 @@
+package utfpr.OD46S.backend.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import utfpr.OD46S.backend.services.LiveDashboardService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Tag(name = "Dashboard", description = "Painel de operação em tempo real")
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    @Autowired
+    private LiveDashboardService liveDashboardService;
+
+    @Operation(summary = "Indicadores ao vivo",
+               description = "Execuções em andamento, pontos e kg coletados hoje, caminhões em movimento/parados " +
+                       "e problemas abertos. Lido da memória, sem consultas ao banco (próprio para polling)")
+    @GetMapping("/live")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> live() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", liveDashboardService.snapshot());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -29,7 +29,9 @@ public class ExecutionController {
     @PreAuthorize("hasAnyRole('ADMIN', 'DRIVER')")
     @Operation(
             summary = "Listar histórico de execuções",
-            description = "Lista todas as execuções de coletas com filtros opcionais. Admin vê todas, Driver vê apenas suas."
+            description = "Lista todas as execuções de coletas com filtros opcionais. Admin vê todas, Driver vê apenas suas. " +
+                    "Com include_total=false ou cursor não há contagem total; ordenado por executionDate, " +
+                    "a resposta traz next_cursor para a próxima página"
     )
     public ResponseEntity<Map<String, Object>> listarExecutions(
             @RequestParam(required = false) Long assignment_id,
@@ -41,6 +43,8 @@ public class ExecutionController {
             @RequestParam(defaultValue = "20") Integer limit,
             @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean include_total,
             Authentication authentication) {
 
         // Se for driver, filtra apenas suas execuções
@@ -50,9 +54,21 @@ public class ExecutionController {
             // Por enquanto, manteremos o filtro passado
         }
 
-        Map<String, Object> response = executionService.listarExecutions(
-                assignment_id, driver_id, status, start_date, end_date, page, limit, sort, order);
-        return ResponseEntity.ok(response);
+        try {
+            Map<String, Object> response = executionService.listarExecutions(
+                    assignment_id, driver_id, status, start_date, end_date, page, limit, sort, order,
+                    cursor, include_total);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "success", false,
+                            "error", Map.of(
+                                    "code", "VALIDATION_ERROR",
+                                    "message", e.getMessage()
+                            )
+                    ));
+        }
     }
 
     @GetMapping("/{id}")
@@ -3,16 +3,25 @@ package utfpr.OD46S.backend.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import utfpr.OD46S.backend.services.MinioStorageService;
+import utfpr.OD46S.backend.services.GPSTrackingService;
+import utfpr.OD46S.backend.services.PhotoStorageService;
+import utfpr.OD46S.backend.services.PhotoUploadService;
+import utfpr.OD46S.backend.services.storage.StoredObject;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/files")
@@ -20,8 +29,20 @@ import java.io.InputStream;
 @SecurityRequirement(name = "bearer-key")
 public class FileController {
 
+    // Atributos de request do Tomcat para envio com sendfile
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private PhotoStorageService photoStorageService;
+
+    @Autowired
+    private GPSTrackingService gpsTrackingService;
+
     @Autowired
-    private MinioStorageService minioStorageService;
+    private PhotoUploadService photoUploadService;
 
     @GetMapping("/gps-photos/{executionId}/{gpsRecordId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'DRIVER')")
@@ -31,13 +52,17 @@ public class FileController {
     )
     public ResponseEntity<InputStreamResource> downloadGPSPhoto(
             @PathVariable Long executionId,
-            @PathVariable Long gpsRecordId) {
+            @PathVariable Long gpsRecordId,
+            HttpServletRequest request) {
         
         try {
-            InputStream inputStream = minioStorageService.getGPSPhoto(executionId, gpsRecordId);
+            StoredObject photo = photoStorageService.findGPSPhotoObject(executionId, gpsRecordId)
+                    .orElseThrow(() -> new RuntimeException("GPS photo not found for record ID: " + gpsRecordId));
 
             // Obter extensão do arquivo
-            String extension = minioStorageService.getGPSPhotoExtension(executionId, gpsRecordId);
+            String extension = photo.key().contains(".")
+                    ? photo.key().substring(photo.key().lastIndexOf('.') + 1)
+                    : "jpg";
             
             // Determinar content type
             String contentType = determineContentType(extension);
@@ -45,16 +70,185 @@ public class FileController {
             // Nome do arquivo para download
             String filename = String.format("photo_%d.%s", gpsRecordId, extension);
 
-            return ResponseEntity.ok()
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
                     .contentType(MediaType.parseMediaType(contentType))
-                    .body(new InputStreamResource(inputStream));
+                    .contentLength(photo.size());
+
+            // Storage em disco: o Tomcat envia o arquivo com sendfile (zero-copy), sem passar pela JVM
+            Optional<Path> localPath = photoStorageService.getLocalPath(photo.key());
+            if (localPath.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, localPath.get().toRealPath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, photo.size());
+                return builder.build();
+            }
+
+            InputStream inputStream = photoStorageService.getFile(photo.key());
+            return builder.body(new InputStreamResource(inputStream));
 
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @PostMapping("/gps-photos/{executionId}/{gpsRecordId}/upload-url")
+    @PreAuthorize("hasRole('DRIVER')")
+    @Operation(
+            summary = "Gerar URL de upload da foto",
+            description = "Gera uma URL pré-assinada (PUT) para o app enviar a foto direto ao storage. Após o envio, chamar /confirm. Apenas DRIVER."
+    )
+    public ResponseEntity<?> gerarUrlUploadFoto(
+            @PathVariable Long executionId,
+            @PathVariable Long gpsRecordId,
+            @RequestBody Map<String, Object> request) {
+        try {
+            String contentType = request.get("content_type") != null ? request.get("content_type").toString() : null;
+            Map<String, Object> response = gpsTrackingService.gerarUrlUploadFoto(executionId, gpsRecordId, contentType);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return buildErrorResponse(e);
+        }
+    }
+
+    @PostMapping("/gps-photos/{executionId}/{gpsRecordId}/confirm")
+    @PreAuthorize("hasRole('DRIVER')")
+    @Operation(
+            summary = "Confirmar upload da foto",
+            description = "Valida o objeto enviado pela URL pré-assinada (tamanho e tipo) e vincula a foto ao registro GPS. Apenas DRIVER."
+    )
+    public ResponseEntity<?> confirmarUploadFoto(
+            @PathVariable Long executionId,
+            @PathVariable Long gpsRecordId) {
+        try {
+            Map<String, Object> response = gpsTrackingService.confirmarUploadFoto(executionId, gpsRecordId);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return buildErrorResponse(e);
+        }
+    }
+
+    @GetMapping("/gps-photos/{executionId}/{gpsRecordId}/download-url")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DRIVER')")
+    @Operation(
+            summary = "Gerar URL de download da foto",
+            description = "Gera uma URL pré-assinada (GET) para baixar a foto direto do storage, sem passar pela API."
+    )
+    public ResponseEntity<?> gerarUrlDownloadFoto(
+            @PathVariable Long executionId,
+            @PathVariable Long gpsRecordId) {
+        try {
+            Map<String, Object> response = gpsTrackingService.gerarUrlDownloadFoto(executionId, gpsRecordId);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return buildErrorResponse(e);
+        }
+    }
+
+    @PostMapping("/gps-photos/{executionId}/{gpsRecordId}/uploads")
+    @PreAuthorize("hasRole('DRIVER')")
+    @Operation(
+            summary = "Iniciar upload resumível da foto",
+            description = "Cria uma sessão de upload em partes (content_type, total_size, chunk_size opcional). Apenas DRIVER."
+    )
+    public ResponseEntity<?> iniciarUploadFoto(
+            @PathVariable Long executionId,
+            @PathVariable Long gpsRecordId,
+            @RequestBody Map<String, Object> request) {
+        try {
+            Map<String, Object> response = photoUploadService.iniciarUpload(executionId, gpsRecordId, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RuntimeException e) {
+            return buildErrorResponse(e);
+        }
+    }
+
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{chunkIndex}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('DRIVER')")
+    @Operation(
+            summary = "Enviar parte do upload",
+            description = "Envia a parte N (corpo binário). Reenviar uma parte já recebida a sobrescreve. Apenas DRIVER."
+    )
+    public ResponseEntity<?> enviarParteFoto(
+            @PathVariable String uploadId,
+            @PathVariable int chunkIndex,
+            HttpServletRequest httpRequest) {
+        try {
+            Map<String, Object> response = photoUploadService.enviarParte(
+                    uploadId, chunkIndex, httpRequest.getInputStream(), httpRequest.getContentLengthLong());
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            return buildErrorResponse(new RuntimeException("Failed to read chunk: " + e.getMessage(), e));
+        } catch (RuntimeException e) {
+            return buildErrorResponse(e);
+        }
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('DRIVER')")
+    @Operation(
+            summary = "Consultar upload resumível",
+            description = "Retorna as partes recebidas e as que faltam, para retomar o envio após perda de conexão."
+    )
+    public ResponseEntity<?> obterStatusUploadFoto(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(photoUploadService.obterStatus(uploadId));
+        } catch (RuntimeException e) {
+            return buildErrorResponse(e);
+        }
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasRole('DRIVER')")
+    @Operation(
+            summary = "Concluir upload resumível",
+            description = "Monta a foto a partir das partes e vincula ao registro GPS. Apenas DRIVER."
+    )
+    public ResponseEntity<?> concluirUploadFoto(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(photoUploadService.concluirUpload(uploadId));
+        } catch (RuntimeException e) {
+            return buildErrorResponse(e);
+        }
+    }
+
+    private ResponseEntity<?> buildErrorResponse(RuntimeException e) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        String errorCode = "VALIDATION_ERROR";
+
+        if (e.getMessage() != null && e.getMessage().contains("not found")) {
+            status = HttpStatus.NOT_FOUND;
+            errorCode = "PHOTO_NOT_FOUND";
+            if (e.getMessage().startsWith("GPS record")) {
+                errorCode = "GPS_RECORD_NOT_FOUND";
+            } else if (e.getMessage().startsWith("Upload session")) {
+                errorCode = "UPLOAD_NOT_FOUND";
+            }
+        } else if (e.getMessage() != null && e.getMessage().startsWith("Upload session")) {
+            status = HttpStatus.CONFLICT;
+            errorCode = e.getMessage().contains("expired") ? "UPLOAD_EXPIRED"
+                    : e.getMessage().contains("being assembled") ? "UPLOAD_ASSEMBLING" : "UPLOAD_ALREADY_COMPLETED";
+        } else if (e.getMessage() != null && e.getMessage().startsWith("Upload incomplete")) {
+            status = HttpStatus.CONFLICT;
+            errorCode = "UPLOAD_INCOMPLETE";
+        } else if (e instanceof UnsupportedOperationException) {
+            status = HttpStatus.NOT_IMPLEMENTED;
+            errorCode = "NOT_SUPPORTED";
+        } else if (e.getMessage() != null && e.getMessage().startsWith("Failed")) {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            errorCode = "STORAGE_ERROR";
+        }
+
+        return ResponseEntity.status(status)
+                .body(Map.of(
+                        "success", false,
+                        "error", Map.of(
+                                "code", errorCode,
+                                "message", e.getMessage() != null ? e.getMessage() : "Unexpected error"
+                        )
+                ));
+    }
+
     private String determineContentType(String extension) {
         return switch (extension.toLowerCase()) {
             case "jpg", "jpeg" -> "image/jpeg";
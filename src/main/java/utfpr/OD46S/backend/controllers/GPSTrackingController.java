@@ -11,6 +11,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import utfpr.OD46S.backend.services.GPSTrackingService;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -99,14 +100,31 @@ public class GPSTrackingController {
     @PreAuthorize("hasAnyRole('ADMIN', 'DRIVER')")
     @Operation(
             summary = "Obter rastro GPS",
-            description = "Retorna o rastro completo de GPS de uma execução, com estatísticas de distância e pontos"
+            description = "Retorna o rastro completo de GPS de uma execução, com estatísticas de distância e pontos. " +
+                    "precision define as casas decimais de latitude/longitude (padrão 6)"
     )
     public ResponseEntity<?> obterRastroGPS(
             @PathVariable Long executionId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start_time,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end_time) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end_time,
+            @RequestParam(required = false) Integer precision) {
+        int coordinatePrecision;
         try {
-            Map<String, Object> response = gpsTrackingService.obterRastroGPS(executionId, start_time, end_time);
+            coordinatePrecision = CoordinateWriter.resolvePrecision(precision);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                            "success", false,
+                            "error", Map.of(
+                                    "code", "VALIDATION_ERROR",
+                                    "message", e.getMessage()
+                            )
+                    ));
+        }
+
+        try {
+            Map<String, Object> response = gpsTrackingService.obterRastroGPS(executionId, start_time, end_time,
+                    coordinatePrecision);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             HttpStatus status = HttpStatus.NOT_FOUND;
@@ -13,6 +13,7 @@ import utfpr.OD46S.backend.dtos.RouteCollectionPointDTO;
 import utfpr.OD46S.backend.dtos.RouteDTO;
 import utfpr.OD46S.backend.services.RouteAreaService;
 import utfpr.OD46S.backend.services.RouteService;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -90,12 +91,28 @@ public class RouteController {
     }
 
     @Operation(summary = "Obter áreas de uma rota específica",
-               description = "Retorna as áreas (GeoJSON) associadas a uma rota específica")
+               description = "Retorna as áreas (GeoJSON) associadas a uma rota específica. " +
+                       "precision define as casas decimais das coordenadas (padrão 6)")
     @GetMapping("/{id}/map")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DRIVER')")
-    public ResponseEntity<Map<String, Object>> getRouteMap(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getRouteMap(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer precision) {
+        int coordinatePrecision;
         try {
-            Map<String, Object> result = routeAreaService.getRouteMap(id);
+            coordinatePrecision = CoordinateWriter.resolvePrecision(precision);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "VALIDATION_ERROR",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+
+        try {
+            Map<String, Object> result = routeAreaService.getRouteMap(id, coordinatePrecision);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -3,15 +3,30 @@ package utfpr.OD46S.backend.controllers;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import utfpr.OD46S.backend.dtos.GeoJsonFeatureCollection;
+import utfpr.OD46S.backend.services.GeoJsonImportJobService;
+import utfpr.OD46S.backend.services.GeoJsonSnapshotService;
 import utfpr.OD46S.backend.services.RouteAreaService;
+import utfpr.OD46S.backend.services.VectorTileService;
+import utfpr.OD46S.backend.services.VectorTileService.VectorTile;
+import utfpr.OD46S.backend.services.GeoJsonSnapshotService.GeoJsonSnapshot;
+import utfpr.OD46S.backend.utils.geo.BoundingBox;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
+import utfpr.OD46S.backend.utils.geo.GeometryDetail;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,28 +36,82 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class RouteMapController {
 
+    @Autowired
+    private GeoJsonSnapshotService geoJsonSnapshotService;
+
+    @Autowired
+    private GeoJsonImportJobService geoJsonImportJobService;
+
     @Autowired
     private RouteAreaService routeAreaService;
 
+    @Autowired
+    private VectorTileService vectorTileService;
+
+    private static final MediaType VECTOR_TILE = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
     /**
      * Import GeoJSON FeatureCollection
      * POST /api/v1/routes/map/import-geojson
+     *
+     * Starts a background import job and returns 202 with its id; poll the job endpoint for progress.
      */
     @Operation(summary = "Importar áreas de rotas via GeoJSON", 
-               description = "Importa um FeatureCollection GeoJSON e cria/atualiza rotas e áreas de rotas")
+               description = "Inicia a importação em segundo plano de um FeatureCollection GeoJSON e retorna o job_id. " +
+                       "Acompanhe o progresso em GET /api/v1/routes/map/import-jobs/{jobId}")
     @PostMapping("/import-geojson")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> importGeoJson(@RequestBody GeoJsonFeatureCollection featureCollection) {
         try {
             Long adminId = getCurrentAdminId();
-            Map<String, Object> result = routeAreaService.importGeoJson(featureCollection, adminId);
+            Map<String, Object> job = geoJsonImportJobService.startImport(featureCollection, adminId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", result);
-            response.put("message", "Map imported successfully");
+            response.put("data", job);
+            response.put("message", "Map import started");
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/v1/routes/map/import-jobs/" + job.get("job_id")))
+                    .body(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "IMPORT_ERROR",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    /**
+     * Import KMZ/KML map
+     * POST /api/v1/routes/map/import-kmz
+     *
+     * Same background job as the GeoJSON import; the file is streamed, so large KMZ exports
+     * are imported without loading them into memory.
+     */
+    @Operation(summary = "Importar áreas de rotas via KMZ/KML",
+               description = "Recebe um arquivo .kmz ou .kml (multipart, campo 'file') e inicia a importação em segundo plano. " +
+                       "waste_type é aplicado às placemarks que não o definem em ExtendedData")
+    @PostMapping(value = "/import-kmz", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> importKmz(
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            @RequestParam(value = "waste_type", required = false) String wasteType) {
+        try {
+            Long adminId = getCurrentAdminId();
+            Map<String, Object> job = geoJsonImportJobService.startKmzImport(file, wasteType, adminId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", job);
+            response.put("message", "Map import started");
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/v1/routes/map/import-jobs/" + job.get("job_id")))
+                    .body(response);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -54,37 +123,244 @@ public class RouteMapController {
         }
     }
 
+    /**
+     * Get import job progress
+     * GET /api/v1/routes/map/import-jobs/{jobId}
+     */
+    @Operation(summary = "Consultar importação de mapa",
+               description = "Retorna status, contadores (processadas, criadas, atualizadas) e erros da importação")
+    @GetMapping("/import-jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getImportJob(@PathVariable String jobId) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", geoJsonImportJobService.getJobStatus(jobId));
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "IMPORT_JOB_NOT_FOUND",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        }
+    }
+
     /**
      * Get all route areas as GeoJSON
      * GET /api/v1/routes/map/geo
+     *
+     * Served from a precompressed snapshot that is rebuilt only after an import.
+     * Clients revalidate with If-None-Match and get 304 while the areas are unchanged.
+     * Viewport (bbox) responses are built per request, without ETag, and gzipped only for clients that accept it.
+     * bbox (minLon,minLat,maxLon,maxLat) limits the result to the viewport; zoom picks a simplified geometry;
+     * precision sets the coordinate decimals (default 6).
      */
     @Operation(summary = "Obter todas as áreas de rotas em formato GeoJSON",
-               description = "Retorna um FeatureCollection com todas as áreas de rotas, opcionalmente filtradas")
+               description = "Retorna um FeatureCollection com todas as áreas de rotas, opcionalmente filtradas. " +
+                       "Aceita bbox (viewport), zoom (geometria simplificada) e precision (casas decimais das coordenadas, padrão 6). " +
+                       "Suporta ETag/If-None-Match (304) e gzip via Accept-Encoding")
     @GetMapping("/geo")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DRIVER')")
-    public ResponseEntity<Map<String, Object>> getGeoJson(
+    public ResponseEntity<?> getGeoJson(
             @RequestParam(required = false) String wasteType,
             @RequestParam(required = false) Long routeId,
-            @RequestParam(required = false) Boolean active) {
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(required = false) Integer precision,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        BoundingBox viewport;
+        GeometryDetail detail;
+        int coordinatePrecision;
         try {
-            GeoJsonFeatureCollection geojson = routeAreaService.getGeoJsonFeatureCollection(wasteType, routeId, active);
-            
+            viewport = BoundingBox.parse(bbox);
+            detail = GeometryDetail.forZoom(zoom);
+            coordinatePrecision = CoordinateWriter.resolvePrecision(precision);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "VALIDATION_ERROR",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+
+        try {
+            GeoJsonSnapshot snapshot = geoJsonSnapshotService.getSnapshot(wasteType, routeId, active, viewport, detail,
+                    coordinatePrecision);
+            boolean gzip = acceptsGzip(acceptEncoding);
+            String etag = gzip ? snapshot.gzipEtag() : snapshot.etag();
+
+            if (snapshot.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            // Viewport responses are built per request and carry no ETag
+            if (etag != null) {
+                builder.eTag(etag);
+            }
+            if (gzip) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzipBody());
+            }
+            return builder.body(snapshot.json());
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "GEOJSON_ERROR",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    /**
+     * Find the route areas that contain a point
+     * GET /api/v1/routes/map/lookup?lon=..&lat=..
+     */
+    @Operation(summary = "Buscar áreas que contêm um ponto",
+               description = "Retorna as áreas ativas (e suas rotas) cujo polígono contém a coordenada informada")
+    @GetMapping("/lookup")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DRIVER')")
+    public ResponseEntity<Map<String, Object>> lookupAreas(
+            @RequestParam Double lon,
+            @RequestParam Double lat,
+            @RequestParam(required = false) String wasteType) {
+        if (lon < -180 || lon > 180 || lat < -90 || lat > 90) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "VALIDATION_ERROR",
+                "message", "lon must be between -180 and 180 and lat between -90 and 90"
+            ));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+
+        try {
+            Map<String, Object> data = new HashMap<>();
+            data.put("areas", routeAreaService.findAreasContaining(lon, lat, wasteType));
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", Map.of("geojson", geojson));
-            
+            response.put("data", data);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
             errorResponse.put("error", Map.of(
-                "code", "GEOJSON_ERROR",
+                "code", "LOOKUP_ERROR",
                 "message", e.getMessage()
             ));
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
 
+    /**
+     * Route areas (and optionally the GPS tracks of a day) as a Mapbox Vector Tile
+     * GET /api/v1/routes/map/tiles/{z}/{x}/{y}.mvt
+     *
+     * Geometries are clipped to the tile, simplified for the zoom level and quantized to the tile grid.
+     * Area-only tiles are cached until the next import; an empty tile returns 204.
+     */
+    @Operation(summary = "Obter tile vetorial (MVT) das áreas de rotas",
+               description = "Retorna as áreas de rotas (camada route_areas) e, se date for informado, " +
+                       "os trajetos GPS do dia (camada tracks, a partir do zoom minimo configurado) no formato Mapbox Vector Tile. " +
+                       "Suporta ETag/If-None-Match (304) e gzip via Accept-Encoding")
+    @GetMapping("/tiles/{z}/{x}/{y}.mvt")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DRIVER')")
+    public ResponseEntity<?> getVectorTile(
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y,
+            @RequestParam(required = false) String wasteType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (z < 0 || z > 22 || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "VALIDATION_ERROR",
+                "message", "z must be between 0 and 22 and x, y between 0 and 2^z - 1"
+            ));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+
+        try {
+            VectorTile tile = vectorTileService.getTile(z, x, y, wasteType, date);
+            if (tile.isEmpty()) {
+                return ResponseEntity.noContent().cacheControl(CacheControl.noCache().cachePrivate()).build();
+            }
+
+            boolean gzip = acceptsGzip(acceptEncoding);
+            String etag = gzip ? tile.gzipEtag() : tile.etag();
+
+            if (tile.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(VECTOR_TILE)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(tile.gzip());
+            }
+            return builder.body(tile.data());
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "TILE_ERROR",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
     private Long getCurrentAdminId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof String) {
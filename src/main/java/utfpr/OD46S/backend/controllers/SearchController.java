@@ -0,0 +1,56 @@
+package utfpr.OD46S.backend.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import utfpr.OD46S.backend.services.SearchService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Tag(name = "Busca", description = "Busca unificada de usuários, rotas e veículos")
+@RestController
+@RequestMapping("/api/v1/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Operation(summary = "Buscar usuários, rotas e veículos",
+               description = "Resultados ordenados por similaridade (pg_trgm) com nome/email do usuário, " +
+                       "nome da rota e placa/modelo do veículo")
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> search(
+            @Parameter(description = "Texto buscado (mínimo 2 caracteres)") @RequestParam(required = false) String q,
+            @Parameter(description = "Máximo de resultados por grupo (1-20, padrão 5)") @RequestParam(required = false) Integer limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", searchService.search(q, limit));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "VALIDATION_ERROR",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (RuntimeException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", Map.of(
+                "code", "SEARCH_ERROR",
+                "message", e.getMessage()
+            ));
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package utfpr.OD46S.backend.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -26,8 +27,9 @@ public class VeiculoController {
     @Operation(summary = "Listar veículos")
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('DRIVER')")
-    public ResponseEntity<List<VeiculoDTO>> listar() {
-        return ResponseEntity.ok(veiculoService.listarTodos());
+    public ResponseEntity<List<VeiculoDTO>> listar(
+            @Parameter(description = "Buscar por placa ou modelo (ordenado por similaridade)") @RequestParam(required = false) String search) {
+        return ResponseEntity.ok(veiculoService.listarTodos(search));
     }
 
     @Operation(summary = "Cadastrar veículo")
@@ -0,0 +1,28 @@
+package utfpr.OD46S.backend.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Read-side GeoJSON feature. The geometry is the JSON text stored in route_areas.geometry_geojson
+ * and is written to the response as-is, so it is never parsed into a Map tree on the read path.
+ * Only use it with geometry that came from the JSONB column (always valid JSON).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "properties", "geometry"})
+public class GeoJsonRawFeature {
+    private String type = "Feature";
+    private Map<String, Object> properties;
+
+    @JsonRawValue
+    private String geometry;
+}
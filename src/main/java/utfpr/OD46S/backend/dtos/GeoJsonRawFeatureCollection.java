@@ -0,0 +1,17 @@
+package utfpr.OD46S.backend.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GeoJsonRawFeatureCollection {
+    private String type = "FeatureCollection";
+    private List<GeoJsonRawFeature> features;
+}
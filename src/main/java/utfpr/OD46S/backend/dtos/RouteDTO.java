@@ -48,5 +48,15 @@ public class RouteDTO {
     
     @JsonProperty("collection_points_count")
     private Integer collectionPointsCount;
+
+    // Route list projection (RouteRepository.findSummariesByFilters): points are counted, not loaded
+    public RouteDTO(Long id, String name, String description, CollectionType collectionType, String periodicity,
+                    Priority priority, Integer estimatedTimeMinutes, BigDecimal distanceKm, Boolean active,
+                    String notes, Long createdBy, LocalDateTime createdAt, LocalDateTime updatedAt,
+                    Long collectionPointsCount) {
+        this(id, name, description, collectionType, periodicity, priority, estimatedTimeMinutes, distanceKm,
+                active, notes, createdBy, createdAt, updatedAt, null,
+                collectionPointsCount != null ? collectionPointsCount.intValue() : 0);
+    }
 }
 
@@ -1,10 +1,13 @@
 package utfpr.OD46S.backend.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import utfpr.OD46S.backend.enums.ExecutionStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class RouteExecutionDTO {
 
@@ -26,6 +29,14 @@ public class RouteExecutionDTO {
     private String cancellationReason;
     private Integer driverRating;
     private LocalDateTime createdAt;
+    @JsonProperty("area_coverage_percent")
+    private BigDecimal areaCoveragePercent;
+    @JsonProperty("area_coverage_computed_at")
+    private LocalDateTime areaCoverageComputedAt;
+    // Only filled in the execution detail
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("missed_points")
+    private List<MissedPointDTO> missedPoints;
 
     // Constructors
     public RouteExecutionDTO() {
@@ -176,6 +187,30 @@ public class RouteExecutionDTO {
         this.createdAt = createdAt;
     }
 
+    public BigDecimal getAreaCoveragePercent() {
+        return areaCoveragePercent;
+    }
+
+    public void setAreaCoveragePercent(BigDecimal areaCoveragePercent) {
+        this.areaCoveragePercent = areaCoveragePercent;
+    }
+
+    public LocalDateTime getAreaCoverageComputedAt() {
+        return areaCoverageComputedAt;
+    }
+
+    public void setAreaCoverageComputedAt(LocalDateTime areaCoverageComputedAt) {
+        this.areaCoverageComputedAt = areaCoverageComputedAt;
+    }
+
+    public List<MissedPointDTO> getMissedPoints() {
+        return missedPoints;
+    }
+
+    public void setMissedPoints(List<MissedPointDTO> missedPoints) {
+        this.missedPoints = missedPoints;
+    }
+
     // Nested DTO for assignment details
     public static class AssignmentDetailsDTO {
         private Long id;
@@ -326,5 +361,46 @@ public class RouteExecutionDTO {
             this.brand = brand;
         }
     }
-}
 
+    // Collection point the truck never passed near
+    public static class MissedPointDTO {
+        @JsonProperty("point_id")
+        private Long pointId;
+        @JsonProperty("sequence_order")
+        private Integer sequenceOrder;
+        private String address;
+
+        public MissedPointDTO() {
+        }
+
+        public MissedPointDTO(Long pointId, Integer sequenceOrder, String address) {
+            this.pointId = pointId;
+            this.sequenceOrder = sequenceOrder;
+            this.address = address;
+        }
+
+        public Long getPointId() {
+            return pointId;
+        }
+
+        public void setPointId(Long pointId) {
+            this.pointId = pointId;
+        }
+
+        public Integer getSequenceOrder() {
+            return sequenceOrder;
+        }
+
+        public void setSequenceOrder(Integer sequenceOrder) {
+            this.sequenceOrder = sequenceOrder;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package utfpr.OD46S.backend.entitys;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import utfpr.OD46S.backend.enums.CollectionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Closed executions summed per day, route, driver, vehicle and collection type.
+ * Derived from route_executions (see ExecutionRollupService), so it can always be rebuilt.
+ */
+@Entity
+@Table(name = "execution_daily_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_execution_daily_rollups_key",
+               columnNames = {"rollup_date", "route_id", "driver_id", "vehicle_id", "collection_type"}))
+@NoArgsConstructor
+@Getter
+@Setter
+public class ExecutionDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "collection_type", nullable = false, length = 20)
+    private CollectionType collectionType;
+
+    @Column(name = "executions_completed", nullable = false)
+    private Integer executionsCompleted = 0;
+
+    @Column(name = "executions_cancelled", nullable = false)
+    private Integer executionsCancelled = 0;
+
+    // Sums below cover COMPLETED executions only
+    @Column(name = "collected_weight_kg", nullable = false, precision = 12, scale = 2)
+    private BigDecimal collectedWeightKg = BigDecimal.ZERO;
+
+    @Column(name = "km_driven", nullable = false)
+    private Long kmDriven = 0L;
+
+    @Column(name = "points_visited", nullable = false)
+    private Long pointsVisited = 0L;
+
+    @Column(name = "points_collected", nullable = false)
+    private Long pointsCollected = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -53,6 +53,10 @@ public class GPSRecord {
     // URL da foto (opcional) - armazenada no MinIO
     @Column(name = "photo_url", length = 500)
     private String photoUrl;
+
+    // SHA-256 da foto (referência para photo_objects) - fotos iguais compartilham o mesmo objeto
+    @Column(name = "photo_hash", length = 64)
+    private String photoHash;
     
     // Campos opcionais para eventos de COLETA em pontos
     @Column(name = "point_id")
@@ -194,6 +198,14 @@ public class GPSRecord {
         this.photoUrl = photoUrl;
     }
 
+    public String getPhotoHash() {
+        return photoHash;
+    }
+
+    public void setPhotoHash(String photoHash) {
+        this.photoHash = photoHash;
+    }
+
     public Long getPointId() {
         return pointId;
     }
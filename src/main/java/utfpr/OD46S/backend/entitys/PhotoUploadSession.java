@@ -0,0 +1,170 @@
+package utfpr.OD46S.backend.entitys;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Sessão de upload resumível (em partes) da foto de um registro GPS.
+ * Guarda quais partes já chegaram para o app retomar o envio após perder a conexão.
+ */
+@Entity
+@Table(name = "photo_upload_sessions")
+public class PhotoUploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "execution_id", nullable = false)
+    private Long executionId;
+
+    @Column(name = "gps_record_id", nullable = false)
+    private Long gpsRecordId;
+
+    @Column(name = "content_type", nullable = false, length = 50)
+    private String contentType;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @Column(name = "total_chunks", nullable = false)
+    private Integer totalChunks;
+
+    // Índices das partes recebidas, separados por vírgula (ex: "0,1,3")
+    @Column(name = "received_chunks", columnDefinition = "TEXT")
+    private String receivedChunks = "";
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status = "IN_PROGRESS";  // IN_PROGRESS, ASSEMBLING, COMPLETED
+
+    @Column(name = "photo_url", length = 500)
+    private String photoUrl;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getExecutionId() {
+        return executionId;
+    }
+
+    public void setExecutionId(Long executionId) {
+        this.executionId = executionId;
+    }
+
+    public Long getGpsRecordId() {
+        return gpsRecordId;
+    }
+
+    public void setGpsRecordId(Long gpsRecordId) {
+        this.gpsRecordId = gpsRecordId;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(Long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Integer getTotalChunks() {
+        return totalChunks;
+    }
+
+    public void setTotalChunks(Integer totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+    public String getReceivedChunks() {
+        return receivedChunks;
+    }
+
+    public void setReceivedChunks(String receivedChunks) {
+        this.receivedChunks = receivedChunks;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPhotoUrl() {
+        return photoUrl;
+    }
+
+    public void setPhotoUrl(String photoUrl) {
+        this.photoUrl = photoUrl;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
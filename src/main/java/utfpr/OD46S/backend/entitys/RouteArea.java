@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @Setter
 public class RouteArea {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts during map import
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "route_areas_id_seq")
+    @SequenceGenerator(name = "route_areas_id_seq", sequenceName = "route_areas_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,6 +36,39 @@ public class RouteArea {
     @Column(name = "geometry_geojson", nullable = false, columnDefinition = "JSONB")
     private String geometryGeojson; // Stored as JSON string, will be parsed when needed
 
+    // Bounding box of geometryGeojson, used for viewport filtering
+    @Column(name = "min_lon")
+    private Double minLon;
+
+    @Column(name = "min_lat")
+    private Double minLat;
+
+    @Column(name = "max_lon")
+    private Double maxLon;
+
+    @Column(name = "max_lat")
+    private Double maxLat;
+
+    // geometryGeojson with coordinates rounded to CoordinateWriter.DEFAULT_PRECISION, served as stored
+    @Column(name = "geometry_rounded", columnDefinition = "TEXT")
+    private String geometryRounded;
+
+    // Simplified variants of geometryGeojson for low and medium zoom levels (see GeometryDetail),
+    // stored at CoordinateWriter.DEFAULT_PRECISION
+    @Column(name = "geometry_low", columnDefinition = "TEXT")
+    private String geometryLow;
+
+    @Column(name = "geometry_medium", columnDefinition = "TEXT")
+    private String geometryMedium;
+
+    // geometryGeojson packed as quantized delta-encoded coordinates (see PackedGeometry); read by the geometry cache
+    @Column(name = "geometry_binary", columnDefinition = "BYTEA")
+    private byte[] geometryBinary;
+
+    // SHA-256 of canonical geometry + style, lets re-imports skip unchanged areas
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "stroke_color", length = 9)
     private String strokeColor = "#000000";
 
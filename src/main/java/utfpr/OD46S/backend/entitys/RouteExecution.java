@@ -49,6 +49,23 @@ public class RouteExecution {
     @Column(name = "points_collected")
     private Integer pointsCollected = 0;
 
+    // Totals sent by the app on completion, kept only to cross-check the computed ones above
+    @Column(name = "reported_collected_weight_kg", precision = 10, scale = 2)
+    private BigDecimal reportedCollectedWeightKg;
+
+    @Column(name = "reported_points_visited")
+    private Integer reportedPointsVisited;
+
+    @Column(name = "reported_points_collected")
+    private Integer reportedPointsCollected;
+
+    // Share of the route's area polygons swept by the track, filled in the background after completion
+    @Column(name = "area_coverage_percent", precision = 5, scale = 2)
+    private BigDecimal areaCoveragePercent;
+
+    @Column(name = "area_coverage_computed_at")
+    private LocalDateTime areaCoverageComputedAt;
+
     @Column(name = "initial_notes", columnDefinition = "TEXT")
     private String initialNotes;
 
@@ -203,6 +220,46 @@ public class RouteExecution {
         this.cancellationReason = cancellationReason;
     }
 
+    public BigDecimal getReportedCollectedWeightKg() {
+        return reportedCollectedWeightKg;
+    }
+
+    public void setReportedCollectedWeightKg(BigDecimal reportedCollectedWeightKg) {
+        this.reportedCollectedWeightKg = reportedCollectedWeightKg;
+    }
+
+    public Integer getReportedPointsVisited() {
+        return reportedPointsVisited;
+    }
+
+    public void setReportedPointsVisited(Integer reportedPointsVisited) {
+        this.reportedPointsVisited = reportedPointsVisited;
+    }
+
+    public Integer getReportedPointsCollected() {
+        return reportedPointsCollected;
+    }
+
+    public void setReportedPointsCollected(Integer reportedPointsCollected) {
+        this.reportedPointsCollected = reportedPointsCollected;
+    }
+
+    public BigDecimal getAreaCoveragePercent() {
+        return areaCoveragePercent;
+    }
+
+    public void setAreaCoveragePercent(BigDecimal areaCoveragePercent) {
+        this.areaCoveragePercent = areaCoveragePercent;
+    }
+
+    public LocalDateTime getAreaCoverageComputedAt() {
+        return areaCoverageComputedAt;
+    }
+
+    public void setAreaCoverageComputedAt(LocalDateTime areaCoverageComputedAt) {
+        this.areaCoverageComputedAt = areaCoverageComputedAt;
+    }
+
     public Integer getDriverRating() {
         return driverRating;
     }
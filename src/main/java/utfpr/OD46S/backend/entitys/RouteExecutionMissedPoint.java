@@ -0,0 +1,32 @@
+package utfpr.OD46S.backend.entitys;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Active collection point of the route that the execution's GPS track never passed near.
+ */
+@Entity
+@Table(name = "route_execution_missed_points")
+@NoArgsConstructor
+@Getter
+@Setter
+public class RouteExecutionMissedPoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "execution_id", nullable = false)
+    private Long executionId;
+
+    @Column(name = "point_id", nullable = false)
+    private Long pointId;
+
+    public RouteExecutionMissedPoint(Long executionId, Long pointId) {
+        this.executionId = executionId;
+        this.pointId = pointId;
+    }
+}
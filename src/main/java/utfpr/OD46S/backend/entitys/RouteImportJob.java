@@ -0,0 +1,84 @@
+package utfpr.OD46S.backend.entitys;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background GeoJSON map import. Counters are updated after every batch so clients can poll progress.
+ */
+@Entity
+@Table(name = "route_import_jobs")
+@NoArgsConstructor
+@Getter
+@Setter
+public class RouteImportJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status = "PENDING"; // PENDING, RUNNING, COMPLETED, FAILED
+
+    @Column(name = "total_features", nullable = false)
+    private Integer totalFeatures = 0;
+
+    @Column(name = "processed_features", nullable = false)
+    private Integer processedFeatures = 0;
+
+    @Column(name = "routes_created", nullable = false)
+    private Integer routesCreated = 0;
+
+    @Column(name = "routes_linked", nullable = false)
+    private Integer routesLinked = 0;
+
+    @Column(name = "areas_created", nullable = false)
+    private Integer areasCreated = 0;
+
+    @Column(name = "areas_updated", nullable = false)
+    private Integer areasUpdated = 0;
+
+    @Column(name = "areas_unchanged", nullable = false)
+    private Integer areasUnchanged = 0;
+
+    @Column(name = "error_count", nullable = false)
+    private Integer errorCount = 0;
+
+    // JSON array with the first feature errors (feature_index, message)
+    @Column(name = "errors", columnDefinition = "TEXT")
+    private String errors;
+
+    // Reason the job stopped, when status is FAILED
+    @Column(name = "failure_message", length = 500)
+    private String failureMessage;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,65 @@
+package utfpr.OD46S.backend.repositorys;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import utfpr.OD46S.backend.entitys.ExecutionDailyRollup;
+import utfpr.OD46S.backend.enums.CollectionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExecutionDailyRollupRepository extends JpaRepository<ExecutionDailyRollup, Long> {
+
+    /**
+     * One rollup key recomputed from route_executions. Counts cover COMPLETED and CANCELLED
+     * executions; weight, km and points only COMPLETED ones (km only when final_km >= initial_km).
+     */
+    interface RollupRow {
+        LocalDate getRollupDate();
+        Long getRouteId();
+        Long getDriverId();
+        Long getVehicleId();
+        CollectionType getCollectionType();
+        Long getExecutionsCompleted();
+        Long getExecutionsCancelled();
+        BigDecimal getCollectedWeightKg();
+        Long getKmDriven();
+        Long getPointsVisited();
+        Long getPointsCollected();
+    }
+
+    Optional<ExecutionDailyRollup> findByRollupDateAndRouteIdAndDriverIdAndVehicleIdAndCollectionType(
+            LocalDate rollupDate, Long routeId, Long driverId, Long vehicleId, CollectionType collectionType);
+
+    @Modifying
+    @Query("DELETE FROM ExecutionDailyRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    int deleteByRollupDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT re.executionDate AS rollupDate, r.id AS routeId, d.id AS driverId, v.id AS vehicleId, " +
+           "r.collectionType AS collectionType, " +
+           "SUM(CASE WHEN re.status = 'COMPLETED' THEN 1L ELSE 0L END) AS executionsCompleted, " +
+           "SUM(CASE WHEN re.status = 'CANCELLED' THEN 1L ELSE 0L END) AS executionsCancelled, " +
+           "COALESCE(SUM(CASE WHEN re.status = 'COMPLETED' THEN re.totalCollectedWeightKg END), 0) AS collectedWeightKg, " +
+           "COALESCE(SUM(CASE WHEN re.status = 'COMPLETED' AND re.finalKm >= re.initialKm " +
+           "THEN re.finalKm - re.initialKm END), 0) AS kmDriven, " +
+           "COALESCE(SUM(CASE WHEN re.status = 'COMPLETED' THEN re.pointsVisited END), 0) AS pointsVisited, " +
+           "COALESCE(SUM(CASE WHEN re.status = 'COMPLETED' THEN re.pointsCollected END), 0) AS pointsCollected " +
+           "FROM RouteExecution re JOIN re.assignment a JOIN a.route r JOIN a.driver d JOIN a.vehicle v " +
+           "WHERE re.executionDate BETWEEN :startDate AND :endDate " +
+           "AND re.status IN ('COMPLETED', 'CANCELLED') " +
+           "AND (:routeId IS NULL OR r.id = :routeId) " +
+           "AND (:driverId IS NULL OR d.id = :driverId) " +
+           "AND (:vehicleId IS NULL OR v.id = :vehicleId) " +
+           "GROUP BY re.executionDate, r.id, d.id, v.id, r.collectionType")
+    List<RollupRow> aggregateExecutions(@Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate,
+                                        @Param("routeId") Long routeId,
+                                        @Param("driverId") Long driverId,
+                                        @Param("vehicleId") Long vehicleId);
+}
@@ -1,17 +1,29 @@
 package utfpr.OD46S.backend.repositorys;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utfpr.OD46S.backend.entitys.GPSRecord;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface GPSRecordRepository extends JpaRepository<GPSRecord, Long> {
 
+    /**
+     * Execution totals derived from its point events. A point counts once however many events it has;
+     * events without point_id count one each. Weight sums every POINT_COLLECTED event.
+     */
+    interface ExecutionTotals {
+        Long getPointsVisited();
+        Long getPointsCollected();
+        BigDecimal getCollectedWeightKg();
+    }
+
     @Query("SELECT g FROM GPSRecord g WHERE g.execution.id = :executionId ORDER BY g.gpsTimestamp ASC")
     List<GPSRecord> findByExecutionIdOrderByTimestamp(@Param("executionId") Long executionId);
 
@@ -37,5 +49,54 @@ public interface GPSRecordRepository extends JpaRepository<GPSRecord, Long> {
     @Query("SELECT g FROM GPSRecord g WHERE g.execution.id = :executionId " +
            "ORDER BY g.gpsTimestamp DESC LIMIT 1")
     GPSRecord findLatestByExecutionId(@Param("executionId") Long executionId);
-}
 
+    // [executionId, longitude, latitude] of every point in the period for executions with a point in the bbox
+    // (whole tracks, so lines crossing the tile keep their shape), ordered for drawing; the page caps the rows
+    @Query("SELECT g.execution.id, g.longitude, g.latitude FROM GPSRecord g " +
+           "WHERE g.gpsTimestamp >= :startTime AND g.gpsTimestamp < :endTime " +
+           "AND g.execution.id IN (SELECT p.execution.id FROM GPSRecord p " +
+           "WHERE p.gpsTimestamp >= :startTime AND p.gpsTimestamp < :endTime " +
+           "AND p.longitude BETWEEN :minLon AND :maxLon AND p.latitude BETWEEN :minLat AND :maxLat) " +
+           "ORDER BY g.execution.id ASC, g.gpsTimestamp ASC")
+    List<Object[]> findTrackPointsInBoundingBox(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("minLon") BigDecimal minLon,
+            @Param("minLat") BigDecimal minLat,
+            @Param("maxLon") BigDecimal maxLon,
+            @Param("maxLat") BigDecimal maxLat,
+            Pageable pageable
+    );
+
+    // [executionId, speedKmh, gpsTimestamp] of the latest fix of each in-progress execution
+    @Query("SELECT g.execution.id, g.speedKmh, g.gpsTimestamp FROM GPSRecord g " +
+           "WHERE g.execution.status = 'IN_PROGRESS' " +
+           "AND g.gpsTimestamp = (SELECT MAX(p.gpsTimestamp) FROM GPSRecord p WHERE p.execution.id = g.execution.id)")
+    List<Object[]> findLatestFixOfInProgressExecutions();
+
+    // [executionId, count] of PROBLEM/POINT_PROBLEM events reported on in-progress executions
+    @Query("SELECT g.execution.id, COUNT(g) FROM GPSRecord g " +
+           "WHERE g.execution.status = 'IN_PROGRESS' AND g.eventType IN ('PROBLEM', 'POINT_PROBLEM') " +
+           "GROUP BY g.execution.id")
+    List<Object[]> countProblemsOfInProgressExecutions();
+
+    // [count, weight] of POINT_COLLECTED events in the period
+    @Query("SELECT COUNT(g), COALESCE(SUM(g.collectedWeightKg), 0) FROM GPSRecord g " +
+           "WHERE g.eventType = 'POINT_COLLECTED' AND g.gpsTimestamp >= :startTime AND g.gpsTimestamp < :endTime")
+    List<Object[]> sumCollectedPointsBetween(@Param("startTime") LocalDateTime startTime,
+                                             @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT COUNT(DISTINCT g.pointId) " +
+           "+ SUM(CASE WHEN g.pointId IS NULL THEN 1L ELSE 0L END) AS pointsVisited, " +
+           "COUNT(DISTINCT CASE WHEN g.eventType = 'POINT_COLLECTED' THEN g.pointId END) " +
+           "+ SUM(CASE WHEN g.eventType = 'POINT_COLLECTED' AND g.pointId IS NULL THEN 1L ELSE 0L END) AS pointsCollected, " +
+           "COALESCE(SUM(CASE WHEN g.eventType = 'POINT_COLLECTED' THEN g.collectedWeightKg END), 0) AS collectedWeightKg " +
+           "FROM GPSRecord g WHERE g.execution.id = :executionId " +
+           "AND g.eventType IN ('POINT_ARRIVAL', 'POINT_COLLECTED', 'POINT_SKIPPED', 'POINT_PROBLEM')")
+    ExecutionTotals sumPointTotalsByExecutionId(@Param("executionId") Long executionId);
+
+    // [longitude, latitude] of the whole track, in time order
+    @Query("SELECT g.longitude, g.latitude FROM GPSRecord g WHERE g.execution.id = :executionId " +
+           "ORDER BY g.gpsTimestamp ASC, g.id ASC")
+    List<Object[]> findTrackByExecutionId(@Param("executionId") Long executionId);
+}
@@ -0,0 +1,57 @@
+package utfpr.OD46S.backend.repositorys;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import utfpr.OD46S.backend.entitys.PhotoObject;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PhotoObjectRepository extends JpaRepository<PhotoObject, Long> {
+
+    /**
+     * Chave e contador lidos direto do banco (sem passar pelo contexto de persistência)
+     */
+    interface ObjectReference {
+        String getObjectKey();
+        Integer getRefCount();
+    }
+
+    Optional<PhotoObject> findBySha256(String sha256);
+
+    @Query("SELECT p.objectKey AS objectKey, p.refCount AS refCount FROM PhotoObject p WHERE p.sha256 = :sha256")
+    Optional<ObjectReference> findReference(@Param("sha256") String sha256);
+
+    // Trava a linha para decrementar o refCount (troca/remoção de foto) sem corrida com novos vínculos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PhotoObject p WHERE p.sha256 = :sha256")
+    Optional<PhotoObject> findBySha256ForUpdate(@Param("sha256") String sha256);
+
+    // Cria a linha com refCount 1 ou incrementa o existente numa única instrução: o lock acima não
+    // alcança uma linha que ainda não existe, e dois primeiros uploads da mesma foto colidiriam na chave única
+    @Modifying
+    @Query(value = "INSERT INTO photo_objects (sha256, object_key, content_type, size_bytes, ref_count, created_at) " +
+                   "VALUES (:sha256, :objectKey, :contentType, :sizeBytes, 1, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (sha256) DO UPDATE SET ref_count = photo_objects.ref_count + 1",
+           nativeQuery = true)
+    int addReference(@Param("sha256") String sha256,
+                     @Param("objectKey") String objectKey,
+                     @Param("contentType") String contentType,
+                     @Param("sizeBytes") long sizeBytes);
+
+    // Objetos sem referência, em ordem de id (páginas por cursor), para a limpeza do storage
+    @Query("SELECT p.id FROM PhotoObject p WHERE p.refCount = 0 AND p.id > :afterId ORDER BY p.id ASC")
+    List<Long> findUnreferencedIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Trava a linha antes de apagar o objeto: um vínculo novo espera e vê o objeto já removido
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PhotoObject p WHERE p.id = :id")
+    Optional<PhotoObject> findByIdForUpdate(@Param("id") Long id);
+}
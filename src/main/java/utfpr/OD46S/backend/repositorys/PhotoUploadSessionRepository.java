@@ -0,0 +1,25 @@
+package utfpr.OD46S.backend.repositorys;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import utfpr.OD46S.backend.entitys.PhotoUploadSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PhotoUploadSessionRepository extends JpaRepository<PhotoUploadSession, String> {
+
+    // Trava a sessão para atualizar a lista de partes recebidas sem perder atualizações concorrentes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PhotoUploadSession s WHERE s.id = :id")
+    Optional<PhotoUploadSession> findByIdForUpdate(@Param("id") String id);
+
+    // Lote de sessões expiradas para a limpeza periódica, mais antigas primeiro
+    List<PhotoUploadSession> findTop100ByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime now);
+}
@@ -1,11 +1,13 @@
 package utfpr.OD46S.backend.repositorys;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utfpr.OD46S.backend.entitys.RouteArea;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,11 +25,65 @@ public interface RouteAreaRepository extends JpaRepository<RouteArea, Long> {
     @Query("SELECT ra FROM RouteArea ra WHERE ra.route.id = :routeId AND ra.externalName = :externalName")
     Optional<RouteArea> findByRouteIdAndExternalName(@Param("routeId") Long routeId, @Param("externalName") String externalName);
     
-    @Query("SELECT ra FROM RouteArea ra WHERE ra.active = :active " +
+    // JOIN FETCH: the map endpoint reads route name/type/periodicity for every area
+    @Query("SELECT ra FROM RouteArea ra JOIN FETCH ra.route WHERE ra.active = :active " +
            "AND (:wasteType IS NULL OR ra.wasteType = :wasteType) " +
            "AND (:routeId IS NULL OR ra.route.id = :routeId)")
     List<RouteArea> findWithFilters(@Param("active") Boolean active, 
                                      @Param("wasteType") String wasteType, 
                                      @Param("routeId") Long routeId);
-}
 
+    // Areas whose bbox overlaps the viewport; areas without a bbox yet are always included
+    @Query("SELECT ra FROM RouteArea ra JOIN FETCH ra.route WHERE ra.active = :active " +
+           "AND (:wasteType IS NULL OR ra.wasteType = :wasteType) " +
+           "AND (:routeId IS NULL OR ra.route.id = :routeId) " +
+           "AND (ra.minLon IS NULL OR (ra.minLon <= :maxLon AND ra.maxLon >= :minLon " +
+           "AND ra.minLat <= :maxLat AND ra.maxLat >= :minLat))")
+    List<RouteArea> findWithFiltersInBoundingBox(@Param("active") Boolean active,
+                                                 @Param("wasteType") String wasteType,
+                                                 @Param("routeId") Long routeId,
+                                                 @Param("minLon") Double minLon,
+                                                 @Param("minLat") Double minLat,
+                                                 @Param("maxLon") Double maxLon,
+                                                 @Param("maxLat") Double maxLat);
+
+    // Areas stored before the derived geometry columns existed, after the given id, in id order (keyset pages)
+    @Query("SELECT ra FROM RouteArea ra WHERE ra.id > :afterId " +
+           "AND (ra.minLon IS NULL OR ra.contentHash IS NULL OR ra.geometryBinary IS NULL " +
+           "OR ra.geometryRounded IS NULL) ORDER BY ra.id ASC")
+    List<RouteArea> findMissingGeometryDerivatives(@Param("afterId") Long afterId, Pageable pageable);
+
+    // [id, contentHash, geometryBinary] for the geometry cache, without the JSON columns
+    @Query("SELECT ra.id, ra.contentHash, ra.geometryBinary FROM RouteArea ra WHERE ra.id IN :ids")
+    List<Object[]> findGeometryBinaryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // [id, contentHash, routeId, routeName, externalName, wasteType] of active areas whose bbox contains the point
+    @Query("SELECT ra.id, ra.contentHash, r.id, r.name, ra.externalName, ra.wasteType " +
+           "FROM RouteArea ra JOIN ra.route r WHERE ra.active = true " +
+           "AND (:wasteType IS NULL OR ra.wasteType = :wasteType) " +
+           "AND ra.minLon <= :lon AND ra.maxLon >= :lon AND ra.minLat <= :lat AND ra.maxLat >= :lat")
+    List<Object[]> findCandidatesContaining(@Param("lon") Double lon,
+                                            @Param("lat") Double lat,
+                                            @Param("wasteType") String wasteType);
+
+    // [id, contentHash, routeId, routeName, externalName, wasteType, strokeColor, fillColor, fillOpacity]
+    // of active areas whose bbox overlaps a map tile
+    @Query("SELECT ra.id, ra.contentHash, r.id, r.name, ra.externalName, ra.wasteType, " +
+           "ra.strokeColor, ra.fillColor, ra.fillOpacity " +
+           "FROM RouteArea ra JOIN ra.route r WHERE ra.active = true " +
+           "AND (:wasteType IS NULL OR ra.wasteType = :wasteType) " +
+           "AND ra.minLon <= :maxLon AND ra.maxLon >= :minLon AND ra.minLat <= :maxLat AND ra.maxLat >= :minLat")
+    List<Object[]> findTileCandidates(@Param("wasteType") String wasteType,
+                                      @Param("minLon") Double minLon,
+                                      @Param("minLat") Double minLat,
+                                      @Param("maxLon") Double maxLon,
+                                      @Param("maxLat") Double maxLat);
+
+    // [id, contentHash] of the active areas of a route, for the geometry cache (execution coverage)
+    @Query("SELECT ra.id, ra.contentHash FROM RouteArea ra WHERE ra.route.id = :routeId AND ra.active = true")
+    List<Object[]> findActiveVersionsByRouteId(@Param("routeId") Long routeId);
+
+    // [id, routeId, externalName, contentHash, active] of every area, without loading geometries (map import area index)
+    @Query("SELECT ra.id, ra.route.id, ra.externalName, ra.contentHash, ra.active FROM RouteArea ra")
+    List<Object[]> findAllImportKeys();
+}
@@ -2,33 +2,112 @@ package utfpr.OD46S.backend.repositorys;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utfpr.OD46S.backend.entitys.RouteAssignment;
 import utfpr.OD46S.backend.enums.AssignmentStatus;
+import utfpr.OD46S.backend.enums.CollectionType;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RouteAssignmentRepository extends JpaRepository<RouteAssignment, Long> {
 
-    @Query("SELECT ra FROM RouteAssignment ra " +
-           "LEFT JOIN FETCH ra.route r " +
-           "LEFT JOIN FETCH ra.driver d " +
-           "LEFT JOIN FETCH ra.vehicle v " +
-           "WHERE (:routeId IS NULL OR r.id = :routeId) " +
+    /**
+     * One assignment list row: the columns the list response shows, flattened across
+     * route, driver (name/email from users) and vehicle. Read as a tuple, so nothing
+     * is added to the persistence context.
+     */
+    interface AssignmentListRow {
+        Long getId();
+        AssignmentStatus getStatus();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+        String getNotes();
+        Long getCreatedBy();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getRouteId();
+        String getRouteName();
+        String getRoutePeriodicity();
+        CollectionType getRouteCollectionType();
+        Long getDriverId();
+        String getDriverName();
+        String getDriverEmail();
+        String getDriverLicenseNumber();
+        Long getVehicleId();
+        String getVehicleLicensePlate();
+        String getVehicleModel();
+        Integer getVehicleYear();
+    }
+
+    String LIST_ROWS = "SELECT ra.id AS id, ra.status AS status, ra.startDate AS startDate, ra.endDate AS endDate, " +
+           "ra.notes AS notes, ra.createdBy.id AS createdBy, ra.createdAt AS createdAt, ra.updatedAt AS updatedAt, " +
+           "r.id AS routeId, r.name AS routeName, r.periodicity AS routePeriodicity, r.collectionType AS routeCollectionType, " +
+           "d.id AS driverId, u.name AS driverName, u.email AS driverEmail, d.licenseNumber AS driverLicenseNumber, " +
+           "v.id AS vehicleId, v.licensePlate AS vehicleLicensePlate, v.model AS vehicleModel, v.year AS vehicleYear " +
+           "FROM RouteAssignment ra " +
+           "LEFT JOIN ra.route r " +
+           "LEFT JOIN ra.driver d " +
+           "LEFT JOIN ra.vehicle v " +
+           "LEFT JOIN Usuario u ON u.id = d.id ";
+
+    String LIST_FILTERS = "WHERE (:routeId IS NULL OR r.id = :routeId) " +
            "AND (:driverId IS NULL OR d.id = :driverId) " +
            "AND (:vehicleId IS NULL OR v.id = :vehicleId) " +
+           "AND (:status IS NULL OR ra.status = :status) ";
+
+    @Query(value = LIST_ROWS + LIST_FILTERS,
+           countQuery = "SELECT COUNT(ra) FROM RouteAssignment ra " +
+           "WHERE (:routeId IS NULL OR ra.route.id = :routeId) " +
+           "AND (:driverId IS NULL OR ra.driver.id = :driverId) " +
+           "AND (:vehicleId IS NULL OR ra.vehicle.id = :vehicleId) " +
            "AND (:status IS NULL OR ra.status = :status)")
-    Page<RouteAssignment> findAllWithFilters(
+    Page<AssignmentListRow> findListRows(
+            @Param("routeId") Long routeId,
+            @Param("driverId") Long driverId,
+            @Param("vehicleId") Long vehicleId,
+            @Param("status") AssignmentStatus status,
+            Pageable pageable);
+
+    // Same rows as findListRows as a slice, without the COUNT (first keyset page or includeTotal = false)
+    @Query(LIST_ROWS + LIST_FILTERS)
+    Slice<AssignmentListRow> findListRowsSlice(
+            @Param("routeId") Long routeId,
+            @Param("driverId") Long driverId,
+            @Param("vehicleId") Long vehicleId,
+            @Param("status") AssignmentStatus status,
+            Pageable pageable);
+
+    // Keyset pages, no COUNT: rows after (createdAt, id) = (afterCreatedAt, afterId) in ascending order.
+    // The row-value comparison is a single range on idx_assignments_created_at_id.
+    @Query(LIST_ROWS + LIST_FILTERS +
+           "AND (ra.createdAt, ra.id) > (:afterCreatedAt, :afterId)")
+    Slice<AssignmentListRow> findListRowsAfter(
+            @Param("routeId") Long routeId,
+            @Param("driverId") Long driverId,
+            @Param("vehicleId") Long vehicleId,
+            @Param("status") AssignmentStatus status,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    // Same as findListRowsAfter for descending order (newest first)
+    @Query(LIST_ROWS + LIST_FILTERS +
+           "AND (ra.createdAt, ra.id) < (:afterCreatedAt, :afterId)")
+    Slice<AssignmentListRow> findListRowsBefore(
             @Param("routeId") Long routeId,
             @Param("driverId") Long driverId,
             @Param("vehicleId") Long vehicleId,
             @Param("status") AssignmentStatus status,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
             Pageable pageable);
 
     @Query("SELECT ra FROM RouteAssignment ra " +
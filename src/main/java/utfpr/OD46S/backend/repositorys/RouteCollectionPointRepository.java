@@ -18,5 +18,11 @@ public interface RouteCollectionPointRepository extends JpaRepository<RouteColle
     Optional<Integer> findMaxSequenceOrderByRouteId(@Param("routeId") Long routeId);
     
     boolean existsByRouteIdAndSequenceOrder(Long routeId, Integer sequenceOrder);
+
+    // [id, longitude, latitude] of the route's active points with a position
+    @Query("SELECT rcp.id, rcp.longitude, rcp.latitude FROM RouteCollectionPoint rcp " +
+           "WHERE rcp.route.id = :routeId AND rcp.active = true " +
+           "AND rcp.latitude IS NOT NULL AND rcp.longitude IS NOT NULL")
+    List<Object[]> findActivePositionsByRouteId(@Param("routeId") Long routeId);
 }
 
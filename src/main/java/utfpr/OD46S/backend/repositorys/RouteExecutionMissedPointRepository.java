@@ -0,0 +1,24 @@
+package utfpr.OD46S.backend.repositorys;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import utfpr.OD46S.backend.entitys.RouteExecutionMissedPoint;
+
+import java.util.List;
+
+@Repository
+public interface RouteExecutionMissedPointRepository extends JpaRepository<RouteExecutionMissedPoint, Long> {
+
+    interface MissedPointRow {
+        Long getPointId();
+        Integer getSequenceOrder();
+        String getAddress();
+    }
+
+    @Query("SELECT m.pointId AS pointId, p.sequenceOrder AS sequenceOrder, p.address AS address " +
+           "FROM RouteExecutionMissedPoint m JOIN RouteCollectionPoint p ON p.id = m.pointId " +
+           "WHERE m.executionId = :executionId ORDER BY p.sequenceOrder ASC")
+    List<MissedPointRow> findRowsByExecutionId(@Param("executionId") Long executionId);
+}
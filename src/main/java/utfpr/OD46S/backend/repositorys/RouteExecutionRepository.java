@@ -2,31 +2,106 @@ package utfpr.OD46S.backend.repositorys;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import utfpr.OD46S.backend.entitys.RouteExecution;
+import utfpr.OD46S.backend.enums.CollectionType;
 import utfpr.OD46S.backend.enums.ExecutionStatus;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RouteExecutionRepository extends JpaRepository<RouteExecution, Long> {
 
-    @Query("SELECT re FROM RouteExecution re " +
-            "JOIN FETCH re.assignment a " +
-            "JOIN FETCH a.route r " +
-            "JOIN FETCH a.driver d " +
-            "JOIN FETCH a.vehicle v " +
-            "WHERE (:assignmentId IS NULL OR a.id = :assignmentId) " +
+    /**
+     * One execution list row: the columns the list response shows, flattened across
+     * assignment, route, driver (name/email from users) and vehicle. Read as a tuple,
+     * so nothing is added to the persistence context.
+     */
+    interface ExecutionListRow {
+        Long getId();
+        Long getAssignmentId();
+        LocalDate getExecutionDate();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+        ExecutionStatus getStatus();
+        Integer getInitialKm();
+        Integer getFinalKm();
+        BigDecimal getTotalCollectedWeightKg();
+        Integer getPointsVisited();
+        Integer getPointsCollected();
+        String getInitialNotes();
+        String getFinalNotes();
+        String getProblemsFound();
+        String getCancellationReason();
+        Integer getDriverRating();
+        LocalDateTime getCreatedAt();
+        BigDecimal getAreaCoveragePercent();
+        LocalDateTime getAreaCoverageComputedAt();
+        Long getRouteId();
+        String getRouteName();
+        CollectionType getRouteCollectionType();
+        Long getDriverId();
+        String getDriverName();
+        String getDriverEmail();
+        Long getVehicleId();
+        String getVehicleLicensePlate();
+        String getVehicleModel();
+        String getVehicleBrand();
+    }
+
+    String LIST_ROWS = "SELECT re.id AS id, a.id AS assignmentId, re.executionDate AS executionDate, " +
+            "re.startTime AS startTime, re.endTime AS endTime, re.status AS status, " +
+            "re.initialKm AS initialKm, re.finalKm AS finalKm, re.totalCollectedWeightKg AS totalCollectedWeightKg, " +
+            "re.pointsVisited AS pointsVisited, re.pointsCollected AS pointsCollected, " +
+            "re.initialNotes AS initialNotes, re.finalNotes AS finalNotes, re.problemsFound AS problemsFound, " +
+            "re.cancellationReason AS cancellationReason, re.driverRating AS driverRating, re.createdAt AS createdAt, " +
+            "re.areaCoveragePercent AS areaCoveragePercent, re.areaCoverageComputedAt AS areaCoverageComputedAt, " +
+            "r.id AS routeId, r.name AS routeName, r.collectionType AS routeCollectionType, " +
+            "d.id AS driverId, u.name AS driverName, u.email AS driverEmail, " +
+            "v.id AS vehicleId, v.licensePlate AS vehicleLicensePlate, v.model AS vehicleModel, v.brand AS vehicleBrand " +
+            "FROM RouteExecution re " +
+            "JOIN re.assignment a " +
+            "JOIN a.route r " +
+            "JOIN a.driver d " +
+            "JOIN a.vehicle v " +
+            "LEFT JOIN Usuario u ON u.id = d.id ";
+
+    String LIST_FILTERS = "WHERE (:assignmentId IS NULL OR a.id = :assignmentId) " +
             "AND (:driverId IS NULL OR d.id = :driverId) " +
             "AND (:status IS NULL OR re.status = :status) " +
             "AND (:startDate IS NULL OR re.executionDate >= :startDate) " +
+            "AND (:endDate IS NULL OR re.executionDate <= :endDate) ";
+
+    @Query(value = LIST_ROWS + LIST_FILTERS,
+            countQuery = "SELECT COUNT(re) FROM RouteExecution re " +
+            "JOIN re.assignment a " +
+            "WHERE (:assignmentId IS NULL OR a.id = :assignmentId) " +
+            "AND (:driverId IS NULL OR a.driver.id = :driverId) " +
+            "AND (:status IS NULL OR re.status = :status) " +
+            "AND (:startDate IS NULL OR re.executionDate >= :startDate) " +
             "AND (:endDate IS NULL OR re.executionDate <= :endDate)")
-    Page<RouteExecution> findByFilters(
+    Page<ExecutionListRow> findListRows(
+            @Param("assignmentId") Long assignmentId,
+            @Param("driverId") Long driverId,
+            @Param("status") ExecutionStatus status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable
+    );
+
+    // Same rows as findListRows as a slice, without the COUNT (first keyset page or includeTotal = false)
+    @Query(LIST_ROWS + LIST_FILTERS)
+    Slice<ExecutionListRow> findListRowsSlice(
             @Param("assignmentId") Long assignmentId,
             @Param("driverId") Long driverId,
             @Param("status") ExecutionStatus status,
@@ -35,6 +110,35 @@ public interface RouteExecutionRepository extends JpaRepository<RouteExecution,
             Pageable pageable
     );
 
+    // Keyset pages, no COUNT: rows after (executionDate, id) = (afterDate, afterId) in ascending order.
+    // The row-value comparison is a single range on idx_executions_date_id.
+    @Query(LIST_ROWS + LIST_FILTERS +
+            "AND (re.executionDate, re.id) > (:afterDate, :afterId)")
+    Slice<ExecutionListRow> findListRowsAfter(
+            @Param("assignmentId") Long assignmentId,
+            @Param("driverId") Long driverId,
+            @Param("status") ExecutionStatus status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // Same as findListRowsAfter for descending order (newest first)
+    @Query(LIST_ROWS + LIST_FILTERS +
+            "AND (re.executionDate, re.id) < (:afterDate, :afterId)")
+    Slice<ExecutionListRow> findListRowsBefore(
+            @Param("assignmentId") Long assignmentId,
+            @Param("driverId") Long driverId,
+            @Param("status") ExecutionStatus status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
     @Query("SELECT re FROM RouteExecution re " +
             "JOIN FETCH re.assignment a " +
             "JOIN FETCH a.route r " +
@@ -60,5 +164,25 @@ public interface RouteExecutionRepository extends JpaRepository<RouteExecution,
 
     @Query("SELECT COUNT(re) > 0 FROM RouteExecution re JOIN re.assignment a WHERE a.driver.id = :driverId")
     boolean existsByDriverId(@Param("driverId") Long driverId);
-}
 
+    @Query("SELECT re.id FROM RouteExecution re WHERE re.status = 'IN_PROGRESS'")
+    List<Long> findInProgressIds();
+
+    // [executionId, routeId] of completed executions whose route has active areas but no coverage yet
+    // (calculation lost on restart or failed); oldest first
+    @Query("SELECT re.id, r.id FROM RouteExecution re JOIN re.assignment a JOIN a.route r " +
+           "WHERE re.status = 'COMPLETED' AND re.areaCoverageComputedAt IS NULL " +
+           "AND (re.endTime IS NULL OR re.endTime < :endedBefore) " +
+           "AND EXISTS (SELECT ra.id FROM RouteArea ra WHERE ra.route.id = r.id AND ra.active = true) " +
+           "ORDER BY re.id")
+    List<Object[]> findCompletedWithoutAreaCoverage(@Param("endedBefore") LocalDateTime endedBefore, Pageable pageable);
+
+    // Writes only the coverage columns, so it cannot overwrite a concurrent edit of the execution
+    @Modifying
+    @Transactional
+    @Query("UPDATE RouteExecution re SET re.areaCoveragePercent = :percent, re.areaCoverageComputedAt = :computedAt " +
+           "WHERE re.id = :id")
+    int updateAreaCoverage(@Param("id") Long id,
+                           @Param("percent") BigDecimal percent,
+                           @Param("computedAt") LocalDateTime computedAt);
+}
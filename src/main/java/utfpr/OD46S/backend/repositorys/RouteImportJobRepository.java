@@ -0,0 +1,27 @@
+package utfpr.OD46S.backend.repositorys;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.OD46S.backend.entitys.RouteImportJob;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface RouteImportJobRepository extends JpaRepository<RouteImportJob, String> {
+
+    // One conditional UPDATE: a job that moved past the given statuses meanwhile is left untouched
+    @Modifying
+    @Transactional
+    @Query("UPDATE RouteImportJob j SET j.status = 'FAILED', j.failureMessage = :message, " +
+           "j.finishedAt = :now, j.updatedAt = :now " +
+           "WHERE j.status IN :statuses AND j.createdAt < :createdBefore")
+    int failJobsCreatedBefore(@Param("statuses") Collection<String> statuses,
+                              @Param("createdBefore") LocalDateTime createdBefore,
+                              @Param("message") String message,
+                              @Param("now") LocalDateTime now);
+}
@@ -5,27 +5,54 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import utfpr.OD46S.backend.dtos.RouteDTO;
 import utfpr.OD46S.backend.entitys.Route;
 import utfpr.OD46S.backend.enums.CollectionType;
 import utfpr.OD46S.backend.enums.Priority;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface RouteRepository extends JpaRepository<Route, Long> {
     
     Optional<Route> findByIdAndActiveTrue(Long id);
     
-    @Query("SELECT r FROM Route r WHERE " +
+    // List rows straight into RouteDTO: route columns plus a COUNT subquery over idx_points_route_id,
+    // so a page is one query and no Route or RouteCollectionPoint entity is loaded
+    @Query(value = "SELECT new utfpr.OD46S.backend.dtos.RouteDTO(" +
+           "r.id, r.name, r.description, r.collectionType, r.periodicity, r.priority, " +
+           "r.estimatedTimeMinutes, r.distanceKm, r.active, r.notes, r.createdBy, r.createdAt, r.updatedAt, " +
+           "(SELECT COUNT(p) FROM RouteCollectionPoint p WHERE p.route.id = r.id)) " +
+           "FROM Route r WHERE " +
+           "(:search IS NULL OR LOWER(r.name) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "(:collectionType IS NULL OR r.collectionType = :collectionType) AND " +
+           "(:priority IS NULL OR r.priority = :priority) AND " +
+           "(:active IS NULL OR r.active = :active)",
+           countQuery = "SELECT COUNT(r) FROM Route r WHERE " +
            "(:search IS NULL OR LOWER(r.name) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
            "(:collectionType IS NULL OR r.collectionType = :collectionType) AND " +
            "(:priority IS NULL OR r.priority = :priority) AND " +
            "(:active IS NULL OR r.active = :active)")
-    Page<Route> findByFilters(
+    Page<RouteDTO> findSummariesByFilters(
         @Param("search") String search,
         @Param("collectionType") CollectionType collectionType,
         @Param("priority") Priority priority,
         @Param("active") Boolean active,
         Pageable pageable
     );
-}
 
+    // [id, name] of every route, oldest first (map import name index)
+    @Query("SELECT r.id, r.name FROM Route r ORDER BY r.id")
+    List<Object[]> findAllIdAndName();
+
+    // [id, name, collection_type, active, score] ranked by trigram similarity on lower(name). PostgreSQL only (pg_trgm).
+    @Query(value = "SELECT r.id, r.name, r.collection_type, r.active, " +
+           "similarity(lower(r.name), :term) AS score " +
+           "FROM routes r " +
+           "WHERE lower(r.name) % :term OR lower(r.name) LIKE :pattern ESCAPE '!' " +
+           "ORDER BY score DESC, r.name",
+           nativeQuery = true)
+    List<Object[]> searchBySimilarity(@Param("term") String term,
+                                      @Param("pattern") String pattern,
+                                      Pageable pageable);
+}
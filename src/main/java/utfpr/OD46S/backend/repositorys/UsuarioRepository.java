@@ -3,10 +3,13 @@ package utfpr.OD46S.backend.repositorys;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import utfpr.OD46S.backend.entitys.Administrator;
 import utfpr.OD46S.backend.entitys.Usuario;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +22,48 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     boolean existsByCpf(String cpf);
     
     Page<Usuario> findByActive(Boolean active, Pageable pageable);
+
+    // [Usuario, Administrator or null, Motorista or null] per user. A user with both rows counts as ADMIN,
+    // so type = DRIVER excludes administrators. search is a lowercase LIKE pattern ('!' escapes).
+    @Query(value = "SELECT u, a, d FROM Usuario u " +
+           "LEFT JOIN Administrator a ON a.id = u.id " +
+           "LEFT JOIN Motorista d ON d.id = u.id " +
+           "WHERE (:active IS NULL OR u.active = :active) " +
+           "AND (:search IS NULL OR LOWER(u.name) LIKE :search ESCAPE '!' OR LOWER(u.email) LIKE :search ESCAPE '!') " +
+           "AND (:type IS NULL OR (:type = 'ADMIN' AND a.id IS NOT NULL) " +
+           "OR (:type = 'DRIVER' AND a.id IS NULL AND d.id IS NOT NULL))",
+           countQuery = "SELECT COUNT(u) FROM Usuario u " +
+           "LEFT JOIN Administrator a ON a.id = u.id " +
+           "LEFT JOIN Motorista d ON d.id = u.id " +
+           "WHERE (:active IS NULL OR u.active = :active) " +
+           "AND (:search IS NULL OR LOWER(u.name) LIKE :search ESCAPE '!' OR LOWER(u.email) LIKE :search ESCAPE '!') " +
+           "AND (:type IS NULL OR (:type = 'ADMIN' AND a.id IS NOT NULL) " +
+           "OR (:type = 'DRIVER' AND a.id IS NULL AND d.id IS NOT NULL))")
+    Page<Object[]> findWithRoles(@Param("search") String search,
+                                 @Param("type") String type,
+                                 @Param("active") Boolean active,
+                                 Pageable pageable);
+
+    // Same row shape as findWithRoles, for one user (empty when it does not exist)
+    @Query("SELECT u, a, d FROM Usuario u " +
+           "LEFT JOIN Administrator a ON a.id = u.id " +
+           "LEFT JOIN Motorista d ON d.id = u.id " +
+           "WHERE u.id = :id")
+    List<Object[]> findWithRolesById(@Param("id") Long id);
+
+    // [id, name, email, active, type, score] ranked by trigram similarity on lower(name)/lower(email),
+    // plus plain substring matches for terms too short to share trigrams. PostgreSQL only (pg_trgm).
+    @Query(value = "SELECT u.id, u.name, u.email, u.active, " +
+           "CASE WHEN a.id IS NOT NULL THEN 'ADMIN' WHEN d.id IS NOT NULL THEN 'DRIVER' END AS type, " +
+           "GREATEST(similarity(lower(u.name), :term), similarity(lower(u.email), :term)) AS score " +
+           "FROM users u " +
+           "LEFT JOIN administrators a ON a.id = u.id " +
+           "LEFT JOIN drivers d ON d.id = u.id " +
+           "WHERE lower(u.name) % :term OR lower(u.email) % :term " +
+           "OR lower(u.name) LIKE :pattern ESCAPE '!' OR lower(u.email) LIKE :pattern ESCAPE '!' " +
+           "ORDER BY score DESC, u.name",
+           nativeQuery = true)
+    List<Object[]> searchBySimilarity(@Param("term") String term,
+                                      @Param("pattern") String pattern,
+                                      Pageable pageable);
 }
@@ -1,13 +1,47 @@
 package utfpr.OD46S.backend.repositorys;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import utfpr.OD46S.backend.dtos.VeiculoDTO;
 import utfpr.OD46S.backend.entitys.Veiculo;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface VeiculoRepository extends JpaRepository<Veiculo, Long> {
     Optional<Veiculo> findByLicensePlate(String licensePlate);
     boolean existsByLicensePlate(String licensePlate);
-}
 
+    // Vehicle list straight into DTOs (no managed entities)
+    @Query("SELECT new utfpr.OD46S.backend.dtos.VeiculoDTO(v.id, v.licensePlate, v.model, v.brand, v.year, " +
+           "v.capacityKg, v.fuelType, v.averageConsumption, v.status, v.currentKm, v.acquisitionDate, v.notes, v.active) " +
+           "FROM Veiculo v ORDER BY v.id")
+    List<VeiculoDTO> findAllAsDTO();
+
+    // Vehicle list filtered by search, ranked by trigram similarity on lower(license_plate)/lower(model).
+    // PostgreSQL only (pg_trgm).
+    @Query(value = "SELECT v.* FROM vehicles v " +
+           "WHERE lower(v.license_plate) % :term OR lower(v.model) % :term " +
+           "OR lower(v.license_plate) LIKE :pattern ESCAPE '!' OR lower(v.model) LIKE :pattern ESCAPE '!' " +
+           "ORDER BY GREATEST(similarity(lower(v.license_plate), :term), similarity(lower(v.model), :term)) DESC, " +
+           "v.license_plate",
+           nativeQuery = true)
+    List<Veiculo> findBySimilarity(@Param("term") String term,
+                                   @Param("pattern") String pattern,
+                                   Pageable pageable);
 
+    // [id, license_plate, model, status, active, score] ranked by trigram similarity on
+    // lower(license_plate)/lower(model). PostgreSQL only (pg_trgm).
+    @Query(value = "SELECT v.id, v.license_plate, v.model, v.status, v.active, " +
+           "GREATEST(similarity(lower(v.license_plate), :term), similarity(lower(v.model), :term)) AS score " +
+           "FROM vehicles v " +
+           "WHERE lower(v.license_plate) % :term OR lower(v.model) % :term " +
+           "OR lower(v.license_plate) LIKE :pattern ESCAPE '!' OR lower(v.model) LIKE :pattern ESCAPE '!' " +
+           "ORDER BY score DESC, v.license_plate",
+           nativeQuery = true)
+    List<Object[]> searchBySimilarity(@Param("term") String term,
+                                      @Param("pattern") String pattern,
+                                      Pageable pageable);
+}
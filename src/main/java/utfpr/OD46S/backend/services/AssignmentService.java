@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,9 +13,13 @@ import utfpr.OD46S.backend.entitys.*;
 import utfpr.OD46S.backend.enums.AssignmentStatus;
 import utfpr.OD46S.backend.enums.StatusVeiculo;
 import utfpr.OD46S.backend.repositorys.*;
+import utfpr.OD46S.backend.repositorys.RouteAssignmentRepository.AssignmentListRow;
+import utfpr.OD46S.backend.utils.KeysetCursor;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Collectors;
@@ -44,22 +49,72 @@ public class AssignmentService {
     public Map<String, Object> listarAssignments(Long routeId, Long driverId, Long vehicleId,
                                                   AssignmentStatus status, Integer page, Integer limit,
                                                   String sort, String order) {
+        return listarAssignments(routeId, driverId, vehicleId, status, page, limit, sort, order, null, true);
+    }
+
+    /**
+     * With a cursor (or includeTotal = false) the page is a slice: no COUNT query, and when sorted by
+     * createdAt the response carries next_cursor to continue by keyset instead of OFFSET.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> listarAssignments(Long routeId, Long driverId, Long vehicleId,
+                                                  AssignmentStatus status, Integer page, Integer limit,
+                                                  String sort, String order, String cursor, boolean includeTotal) {
         Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(direction, sort != null ? sort : "createdAt"));
+        String sortProperty = sort != null ? sort : "createdAt";
+        boolean keyset = "createdAt".equals(sortProperty);
+        if (cursor != null && !keyset) {
+            throw new IllegalArgumentException("cursor requires sort=createdAt");
+        }
 
-        Page<RouteAssignment> assignmentsPage = assignmentRepository.findAllWithFilters(
-                routeId, driverId, vehicleId, status, pageable);
+        Map<String, Object> pagination = new HashMap<>();
+        pagination.put("items_per_page", limit);
+        Slice<AssignmentListRow> assignmentsPage;
+
+        if (cursor == null && includeTotal) {
+            Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(direction, sortProperty));
+
+            // Projection rows (driver name/email joined in), no managed entities
+            Page<AssignmentListRow> counted = assignmentRepository.findListRows(
+                    routeId, driverId, vehicleId, status, pageable);
+            pagination.put("current_page", page);
+            pagination.put("total_pages", counted.getTotalPages());
+            pagination.put("total_items", counted.getTotalElements());
+            assignmentsPage = counted;
+        } else {
+            // id breaks ties so the (createdAt, id) keyset is a total order
+            Sort keysetSort = Sort.by(direction, sortProperty).and(Sort.by(direction, "id"));
+            if (cursor != null) {
+                KeysetCursor after = KeysetCursor.decode(cursor);
+                LocalDateTime afterCreatedAt;
+                try {
+                    afterCreatedAt = LocalDateTime.parse(after.value());
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid cursor", e);
+                }
+                Pageable pageable = PageRequest.of(0, limit, keysetSort);
+                assignmentsPage = direction == Sort.Direction.DESC
+                        ? assignmentRepository.findListRowsBefore(routeId, driverId, vehicleId, status,
+                                afterCreatedAt, after.id(), pageable)
+                        : assignmentRepository.findListRowsAfter(routeId, driverId, vehicleId, status,
+                                afterCreatedAt, after.id(), pageable);
+            } else {
+                assignmentsPage = assignmentRepository.findListRowsSlice(routeId, driverId, vehicleId, status,
+                        PageRequest.of(page - 1, limit, keysetSort));
+                pagination.put("current_page", page);
+            }
+            pagination.put("has_next", assignmentsPage.hasNext());
+            if (keyset && assignmentsPage.hasNext()) {
+                AssignmentListRow last = assignmentsPage.getContent().get(assignmentsPage.getNumberOfElements() - 1);
+                pagination.put("next_cursor",
+                        new KeysetCursor(last.getCreatedAt().toString(), last.getId()).encode());
+            }
+        }
 
         List<RouteAssignmentDTO> dtos = assignmentsPage.getContent().stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
 
-        Map<String, Object> pagination = new HashMap<>();
-        pagination.put("current_page", page);
-        pagination.put("total_pages", assignmentsPage.getTotalPages());
-        pagination.put("total_items", assignmentsPage.getTotalElements());
-        pagination.put("items_per_page", limit);
-
         Map<String, Object> data = new HashMap<>();
         data.put("assignments", dtos);
         data.put("pagination", pagination);
@@ -363,6 +418,7 @@ public class AssignmentService {
 
         // Driver info
         Motorista driver = assignment.getDriver();
+        // Drivers share their id with the users table but have no mapped relation to it
         Usuario driverUser = usuarioRepository.findById(driver.getId())
                 .orElse(null);
         dto.setDriver(new RouteAssignmentDTO.DriverBasicDTO(
@@ -383,6 +439,41 @@ public class AssignmentService {
 
         return dto;
     }
+
+    private RouteAssignmentDTO toDTO(AssignmentListRow row) {
+        RouteAssignmentDTO dto = new RouteAssignmentDTO();
+        dto.setId(row.getId());
+        dto.setStatus(row.getStatus());
+        dto.setStartDate(row.getStartDate());
+        dto.setEndDate(row.getEndDate());
+        dto.setNotes(row.getNotes());
+        dto.setCreatedBy(row.getCreatedBy());
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setUpdatedAt(row.getUpdatedAt());
+
+        dto.setRoute(new RouteAssignmentDTO.RouteBasicDTO(
+                row.getRouteId(),
+                row.getRouteName(),
+                row.getRoutePeriodicity(),
+                row.getRouteCollectionType() != null ? row.getRouteCollectionType().toString() : null
+        ));
+
+        dto.setDriver(new RouteAssignmentDTO.DriverBasicDTO(
+                row.getDriverId(),
+                row.getDriverName() != null ? row.getDriverName() : "",
+                row.getDriverEmail() != null ? row.getDriverEmail() : "",
+                row.getDriverLicenseNumber()
+        ));
+
+        dto.setVehicle(new RouteAssignmentDTO.VehicleBasicDTO(
+                row.getVehicleId(),
+                row.getVehicleLicensePlate(),
+                row.getVehicleModel(),
+                row.getVehicleYear()
+        ));
+
+        return dto;
+    }
     
     /**
      * Extrai os dias da semana da periodicidade da rota.
@@ -0,0 +1,156 @@
+package utfpr.OD46S.backend.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionRepository;
+import utfpr.OD46S.backend.utils.geo.CoverageRaster;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cobertura da área da rota: percentual das áreas ativas da rota (polígonos importados em RouteArea)
+ * por onde o trajeto GPS passou, considerando execution.coverage.buffer-meters de cada lado do trajeto.
+ * Calculado em grade (ver CoverageRaster) numa thread própria depois da finalização, fora da requisição,
+ * e gravado na execução; fica nulo para rotas sem áreas.
+ * Cálculos perdidos (reinício, deploy) ou que falharam são refeitos pela recuperação periódica.
+ */
+@Service
+public class ExecutionCoverageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionCoverageService.class);
+
+    // Execuções recém-finalizadas ficam com o cálculo disparado pelo evento
+    static final long RECOVERY_GRACE_MINUTES = 5;
+    // Execuções enfileiradas por rodada de recuperação
+    static final int RECOVERY_BATCH_SIZE = 200;
+
+    @Autowired
+    private RouteExecutionRepository executionRepository;
+
+    @Autowired
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Autowired
+    private RouteAreaRepository routeAreaRepository;
+
+    @Autowired
+    private RouteAreaGeometryCache geometryCache;
+
+    @Value("${execution.coverage.buffer-meters:15}")
+    private double bufferMeters;
+
+    @Value("${execution.coverage.cell-meters:5}")
+    private double cellMeters;
+
+    @Value("${execution.coverage.max-cells:4000000}")
+    private long maxCells;
+
+    // Uma thread: os cálculos ficam em fila e a memória da grade é usada por um de cada vez
+    private ExecutorService coverageExecutor;
+
+    // Execuções na fila ou em cálculo, para a recuperação não enfileirar a mesma duas vezes
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void start() {
+        coverageExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "execution-coverage");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        coverageExecutor.shutdown();
+    }
+
+    /**
+     * Roda depois do commit da finalização; uma falha só deixa a cobertura nula até a próxima recuperação,
+     * a execução já está salva.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExecutionCompleted(ExecutionService.ExecutionCompletedEvent event) {
+        agendar(event.executionId(), event.routeId());
+    }
+
+    /**
+     * Enfileira as execuções concluídas, de rotas com áreas, que ainda estão sem cobertura.
+     */
+    @Scheduled(initialDelayString = "${execution.coverage.recovery-initial-delay-ms:60000}",
+               fixedDelayString = "${execution.coverage.recovery-interval-ms:600000}")
+    public void recuperarCoberturasPendentes() {
+        List<Object[]> rows = executionRepository.findCompletedWithoutAreaCoverage(
+                LocalDateTime.now().minusMinutes(RECOVERY_GRACE_MINUTES), PageRequest.of(0, RECOVERY_BATCH_SIZE));
+        for (Object[] row : rows) {
+            agendar((Long) row[0], (Long) row[1]);
+        }
+    }
+
+    private void agendar(Long executionId, Long routeId) {
+        if (!pending.add(executionId)) {
+            return;
+        }
+        coverageExecutor.submit(() -> {
+            try {
+                calcularCobertura(executionId, routeId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to compute area coverage for execution {}", executionId, e);
+            } finally {
+                pending.remove(executionId);
+            }
+        });
+    }
+
+    /**
+     * Calcula e grava a cobertura da execução. Retorna o percentual, ou null quando a rota
+     * não tem áreas com polígonos; nesse caso só a data do cálculo é gravada, para a recuperação
+     * não voltar à execução.
+     */
+    public BigDecimal calcularCobertura(Long executionId, Long routeId) {
+        Map<Long, String> versions = new HashMap<>();
+        for (Object[] row : routeAreaRepository.findActiveVersionsByRouteId(routeId)) {
+            versions.put((Long) row[0], (String) row[1]);
+        }
+        if (versions.isEmpty()) {
+            return null;
+        }
+        List<PackedGeometry> areas = new ArrayList<>(geometryCache.getAll(versions).values());
+
+        List<Object[]> track = gpsRecordRepository.findTrackByExecutionId(executionId);
+        double[] trackLon = new double[track.size()];
+        double[] trackLat = new double[track.size()];
+        for (int i = 0; i < track.size(); i++) {
+            trackLon[i] = ((Number) track.get(i)[0]).doubleValue();
+            trackLat[i] = ((Number) track.get(i)[1]).doubleValue();
+        }
+
+        CoverageRaster.Coverage coverage = CoverageRaster.compute(
+                areas, trackLon, trackLat, bufferMeters, cellMeters, maxCells);
+        BigDecimal percent = coverage == null ? null
+                : BigDecimal.valueOf(coverage.ratio() * 100).setScale(2, RoundingMode.HALF_UP);
+        executionRepository.updateAreaCoverage(executionId, percent, LocalDateTime.now());
+        return percent;
+    }
+}
@@ -0,0 +1,230 @@
+package utfpr.OD46S.backend.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.OD46S.backend.entitys.ExecutionDailyRollup;
+import utfpr.OD46S.backend.enums.CollectionType;
+import utfpr.OD46S.backend.repositorys.ExecutionDailyRollupRepository;
+import utfpr.OD46S.backend.repositorys.ExecutionDailyRollupRepository.RollupRow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Daily execution rollups: one row per date x route x driver x vehicle x collection type.
+ * A closed execution refreshes only its own key, recomputed from route_executions (not incremented),
+ * so replays and retries cannot double count. rebuild() rewrites a date range for backfills
+ * and for keys a failed refresh left behind; query() sums the rollup rows, never route_executions.
+ */
+@Service
+public class ExecutionRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionRollupService.class);
+
+    // group_by values -> rollup column
+    private static final Map<String, String> DIMENSIONS = new LinkedHashMap<>();
+
+    static {
+        DIMENSIONS.put("date", "rollupDate");
+        DIMENSIONS.put("route", "routeId");
+        DIMENSIONS.put("driver", "driverId");
+        DIMENSIONS.put("vehicle", "vehicleId");
+        DIMENSIONS.put("collection_type", "collectionType");
+    }
+
+    private static final Map<String, String> DIMENSION_KEYS = Map.of(
+            "date", "date",
+            "route", "route_id",
+            "driver", "driver_id",
+            "vehicle", "vehicle_id",
+            "collection_type", "collection_type");
+
+    @Autowired
+    private ExecutionDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Runs after the execution commit, in its own transaction. A concurrent first insert of the same
+     * key loses on the unique constraint and is retried once; other failures only leave the key stale
+     * until the next rebuild, the execution itself is already saved.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExecutionClosed(ExecutionService.ExecutionClosedEvent event) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                transaction.executeWithoutResult(status -> refresh(event.executionDate(), event.routeId(),
+                        event.driverId(), event.vehicleId(), event.collectionType()));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == 2) {
+                    log.warn("Failed to refresh execution rollup for execution {}", event.executionId(), e);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to refresh execution rollup for execution {}", event.executionId(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recomputes one rollup key; the row is removed when no closed execution is left for it.
+     */
+    public void refresh(LocalDate date, Long routeId, Long driverId, Long vehicleId, CollectionType collectionType) {
+        RollupRow row = rollupRepository.aggregateExecutions(date, date, routeId, driverId, vehicleId).stream()
+                .filter(candidate -> candidate.getCollectionType() == collectionType)
+                .findFirst()
+                .orElse(null);
+        Optional<ExecutionDailyRollup> existing = rollupRepository
+                .findByRollupDateAndRouteIdAndDriverIdAndVehicleIdAndCollectionType(
+                        date, routeId, driverId, vehicleId, collectionType);
+
+        if (row == null) {
+            existing.ifPresent(rollupRepository::delete);
+            return;
+        }
+        ExecutionDailyRollup rollup = existing.orElseGet(ExecutionDailyRollup::new);
+        apply(rollup, row);
+        rollupRepository.saveAndFlush(rollup);
+    }
+
+    @Transactional
+    public Map<String, Object> rebuild(LocalDate startDate, LocalDate endDate) {
+        validateRange(startDate, endDate);
+
+        int deleted = rollupRepository.deleteByRollupDateRange(startDate, endDate);
+        List<ExecutionDailyRollup> rollups = new ArrayList<>();
+        for (RollupRow row : rollupRepository.aggregateExecutions(startDate, endDate, null, null, null)) {
+            ExecutionDailyRollup rollup = new ExecutionDailyRollup();
+            apply(rollup, row);
+            rollups.add(rollup);
+        }
+        rollupRepository.saveAll(rollups);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("start_date", startDate.toString());
+        result.put("end_date", endDate.toString());
+        result.put("rows_deleted", deleted);
+        result.put("rows_written", rollups.size());
+        return result;
+    }
+
+    /**
+     * Sums rollup rows in [startDate, endDate], grouped by any of date, route, driver, vehicle
+     * and collection_type (no grouping returns a single totals row).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> query(LocalDate startDate, LocalDate endDate, List<String> groupBy,
+                                     Long routeId, Long driverId, Long vehicleId, CollectionType collectionType) {
+        validateRange(startDate, endDate);
+        List<String> dimensions = new ArrayList<>();
+        if (groupBy != null) {
+            for (String value : groupBy) {
+                String dimension = value.trim().toLowerCase(Locale.ROOT);
+                if (!DIMENSIONS.containsKey(dimension)) {
+                    throw new IllegalArgumentException("group_by must be one of " + DIMENSIONS.keySet());
+                }
+                if (!dimensions.contains(dimension)) {
+                    dimensions.add(dimension);
+                }
+            }
+        }
+
+        StringBuilder select = new StringBuilder("SELECT ");
+        StringBuilder group = new StringBuilder();
+        for (String dimension : dimensions) {
+            String column = "r." + DIMENSIONS.get(dimension);
+            select.append(column).append(", ");
+            group.append(group.length() == 0 ? "" : ", ").append(column);
+        }
+        select.append("SUM(r.executionsCompleted), SUM(r.executionsCancelled), SUM(r.collectedWeightKg), ")
+                .append("SUM(r.kmDriven), SUM(r.pointsVisited), SUM(r.pointsCollected) ")
+                .append("FROM ExecutionDailyRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate");
+        if (routeId != null) select.append(" AND r.routeId = :routeId");
+        if (driverId != null) select.append(" AND r.driverId = :driverId");
+        if (vehicleId != null) select.append(" AND r.vehicleId = :vehicleId");
+        if (collectionType != null) select.append(" AND r.collectionType = :collectionType");
+        if (!dimensions.isEmpty()) {
+            select.append(" GROUP BY ").append(group).append(" ORDER BY ").append(group);
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery(select.toString(), Object[].class)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate);
+        if (routeId != null) query.setParameter("routeId", routeId);
+        if (driverId != null) query.setParameter("driverId", driverId);
+        if (vehicleId != null) query.setParameter("vehicleId", vehicleId);
+        if (collectionType != null) query.setParameter("collectionType", collectionType);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object[] values : query.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            int i = 0;
+            for (String dimension : dimensions) {
+                Object value = values[i++];
+                row.put(DIMENSION_KEYS.get(dimension), value instanceof Enum<?> || value instanceof LocalDate
+                        ? value.toString() : value);
+            }
+            row.put("executions_completed", toLong(values[i++]));
+            row.put("executions_cancelled", toLong(values[i++]));
+            row.put("collected_weight_kg", values[i] != null ? values[i] : BigDecimal.ZERO);
+            i++;
+            row.put("km_driven", toLong(values[i++]));
+            row.put("points_visited", toLong(values[i++]));
+            row.put("points_collected", toLong(values[i]));
+            rows.add(row);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("start_date", startDate.toString());
+        result.put("end_date", endDate.toString());
+        result.put("group_by", dimensions);
+        result.put("rows", rows);
+        return result;
+    }
+
+    private void apply(ExecutionDailyRollup rollup, RollupRow row) {
+        rollup.setRollupDate(row.getRollupDate());
+        rollup.setRouteId(row.getRouteId());
+        rollup.setDriverId(row.getDriverId());
+        rollup.setVehicleId(row.getVehicleId());
+        rollup.setCollectionType(row.getCollectionType());
+        rollup.setExecutionsCompleted(toLong(row.getExecutionsCompleted()).intValue());
+        rollup.setExecutionsCancelled(toLong(row.getExecutionsCancelled()).intValue());
+        rollup.setCollectedWeightKg(row.getCollectedWeightKg() != null ? row.getCollectedWeightKg() : BigDecimal.ZERO);
+        rollup.setKmDriven(toLong(row.getKmDriven()));
+        rollup.setPointsVisited(toLong(row.getPointsVisited()));
+        rollup.setPointsCollected(toLong(row.getPointsCollected()));
+    }
+
+    private void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("start_date and end_date are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("end_date must not be before start_date");
+        }
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
@@ -1,20 +1,28 @@
 package utfpr.OD46S.backend.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import utfpr.OD46S.backend.dtos.RouteExecutionDTO;
 import utfpr.OD46S.backend.entitys.*;
+import utfpr.OD46S.backend.enums.CollectionType;
 import utfpr.OD46S.backend.enums.ExecutionStatus;
 import utfpr.OD46S.backend.repositorys.*;
+import utfpr.OD46S.backend.repositorys.RouteExecutionRepository.ExecutionListRow;
+import utfpr.OD46S.backend.utils.KeysetCursor;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,26 +43,87 @@ public class ExecutionService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Autowired
+    private MissedPointService missedPointService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional(readOnly = true)
     public Map<String, Object> listarExecutions(Long assignmentId, Long driverId, ExecutionStatus status,
                                                  LocalDate startDate, LocalDate endDate,
                                                  Integer page, Integer limit, String sort, String order) {
+        return listarExecutions(assignmentId, driverId, status, startDate, endDate,
+                page, limit, sort, order, null, true);
+    }
+
+    /**
+     * With a cursor (or includeTotal = false) the page is a slice: no COUNT query, and when sorted by
+     * executionDate the response carries next_cursor to continue by keyset instead of OFFSET.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> listarExecutions(Long assignmentId, Long driverId, ExecutionStatus status,
+                                                 LocalDate startDate, LocalDate endDate,
+                                                 Integer page, Integer limit, String sort, String order,
+                                                 String cursor, boolean includeTotal) {
         Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(direction, sort != null ? sort : "executionDate"));
+        String sortProperty = sort != null ? sort : "executionDate";
+        boolean keyset = "executionDate".equals(sortProperty);
+        if (cursor != null && !keyset) {
+            throw new IllegalArgumentException("cursor requires sort=executionDate");
+        }
 
-        Page<RouteExecution> executionsPage = executionRepository.findByFilters(
-                assignmentId, driverId, status, startDate, endDate, pageable);
+        Map<String, Object> pagination = new HashMap<>();
+        pagination.put("items_per_page", limit);
+        Slice<ExecutionListRow> executionsPage;
+
+        if (cursor == null && includeTotal) {
+            Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(direction, sortProperty));
+
+            // Projection rows (driver name/email joined in), no managed entities
+            Page<ExecutionListRow> counted = executionRepository.findListRows(
+                    assignmentId, driverId, status, startDate, endDate, pageable);
+            pagination.put("current_page", page);
+            pagination.put("total_pages", counted.getTotalPages());
+            pagination.put("total_items", counted.getTotalElements());
+            executionsPage = counted;
+        } else {
+            // id breaks ties so the (executionDate, id) keyset is a total order
+            Sort keysetSort = Sort.by(direction, sortProperty).and(Sort.by(direction, "id"));
+            if (cursor != null) {
+                KeysetCursor after = KeysetCursor.decode(cursor);
+                LocalDate afterDate;
+                try {
+                    afterDate = LocalDate.parse(after.value());
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid cursor", e);
+                }
+                Pageable pageable = PageRequest.of(0, limit, keysetSort);
+                executionsPage = direction == Sort.Direction.DESC
+                        ? executionRepository.findListRowsBefore(assignmentId, driverId, status, startDate, endDate,
+                                afterDate, after.id(), pageable)
+                        : executionRepository.findListRowsAfter(assignmentId, driverId, status, startDate, endDate,
+                                afterDate, after.id(), pageable);
+            } else {
+                executionsPage = executionRepository.findListRowsSlice(assignmentId, driverId, status,
+                        startDate, endDate, PageRequest.of(page - 1, limit, keysetSort));
+                pagination.put("current_page", page);
+            }
+            pagination.put("has_next", executionsPage.hasNext());
+            if (keyset && executionsPage.hasNext()) {
+                ExecutionListRow last = executionsPage.getContent().get(executionsPage.getNumberOfElements() - 1);
+                pagination.put("next_cursor",
+                        new KeysetCursor(last.getExecutionDate().toString(), last.getId()).encode());
+            }
+        }
 
         List<RouteExecutionDTO> dtos = executionsPage.getContent().stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
 
-        Map<String, Object> pagination = new HashMap<>();
-        pagination.put("current_page", page);
-        pagination.put("total_pages", executionsPage.getTotalPages());
-        pagination.put("total_items", executionsPage.getTotalElements());
-        pagination.put("items_per_page", limit);
-
         Map<String, Object> data = new HashMap<>();
         data.put("executions", dtos);
         data.put("pagination", pagination);
@@ -72,6 +141,7 @@ public class ExecutionService {
                 .orElseThrow(() -> new RuntimeException("Execution not found"));
 
         RouteExecutionDTO dto = toDTO(execution);
+        dto.setMissedPoints(missedPointService.listarPontosNaoVisitados(id));
 
         Map<String, Object> data = new HashMap<>();
         data.put("execution", dto);
@@ -129,6 +199,7 @@ public class ExecutionService {
         execution.setStatus(ExecutionStatus.IN_PROGRESS);
 
         executionRepository.save(execution);
+        eventPublisher.publishEvent(new ExecutionStartedEvent(execution.getId()));
 
         RouteExecutionDTO dto = toDTO(execution);
 
@@ -159,25 +230,33 @@ public class ExecutionService {
             execution.setFinalKm(getIntegerFromMap(request, "final_km"));
         }
 
+        // Client totals are only stored for cross-checking; the recorded ones come from gps_records
         if (request.containsKey("total_collected_weight_kg")) {
             Object weightObj = request.get("total_collected_weight_kg");
             if (weightObj != null) {
                 if (weightObj instanceof Number) {
-                    execution.setTotalCollectedWeightKg(new BigDecimal(weightObj.toString()));
+                    execution.setReportedCollectedWeightKg(new BigDecimal(weightObj.toString()));
                 } else if (weightObj instanceof String) {
-                    execution.setTotalCollectedWeightKg(new BigDecimal((String) weightObj));
+                    execution.setReportedCollectedWeightKg(new BigDecimal((String) weightObj));
                 }
             }
         }
 
         if (request.containsKey("points_visited")) {
-            execution.setPointsVisited(getIntegerFromMap(request, "points_visited"));
+            execution.setReportedPointsVisited(getIntegerFromMap(request, "points_visited"));
         }
 
         if (request.containsKey("points_collected")) {
-            execution.setPointsCollected(getIntegerFromMap(request, "points_collected"));
+            execution.setReportedPointsCollected(getIntegerFromMap(request, "points_collected"));
         }
 
+        GPSRecordRepository.ExecutionTotals totals = gpsRecordRepository.sumPointTotalsByExecutionId(id);
+        execution.setPointsVisited(toInt(totals != null ? totals.getPointsVisited() : null));
+        execution.setPointsCollected(toInt(totals != null ? totals.getPointsCollected() : null));
+        execution.setTotalCollectedWeightKg(totals != null && totals.getCollectedWeightKg() != null
+                ? totals.getCollectedWeightKg().setScale(2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO.setScale(2));
+
         if (request.containsKey("final_notes")) {
             execution.setFinalNotes((String) request.get("final_notes"));
         }
@@ -195,11 +274,17 @@ public class ExecutionService {
         }
 
         executionRepository.save(execution);
+        int missedPoints = missedPointService.detectarPontosNaoVisitados(execution);
+        eventPublisher.publishEvent(ExecutionClosedEvent.of(execution));
+        eventPublisher.publishEvent(new ExecutionCompletedEvent(
+                execution.getId(), execution.getAssignment().getRoute().getId()));
 
         RouteExecutionDTO dto = toDTO(execution);
 
         Map<String, Object> data = new HashMap<>();
         data.put("execution", dto);
+        data.put("totals_mismatch", totalsMismatch(execution));
+        data.put("missed_points_count", missedPoints);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -228,6 +313,7 @@ public class ExecutionService {
         execution.setCancellationReason(reason);
 
         executionRepository.save(execution);
+        eventPublisher.publishEvent(ExecutionClosedEvent.of(execution));
 
         RouteExecutionDTO dto = toDTO(execution);
 
@@ -295,6 +381,8 @@ public class ExecutionService {
         dto.setCancellationReason(execution.getCancellationReason());
         dto.setDriverRating(execution.getDriverRating());
         dto.setCreatedAt(execution.getCreatedAt());
+        dto.setAreaCoveragePercent(execution.getAreaCoveragePercent());
+        dto.setAreaCoverageComputedAt(execution.getAreaCoverageComputedAt());
 
         // Assignment details
         RouteAssignment assignment = execution.getAssignment();
@@ -311,7 +399,9 @@ public class ExecutionService {
 
         // Driver info
         Motorista driver = assignment.getDriver();
-        Usuario driverUser = usuarioRepository.findById(driver.getId()).orElse(null);
+        // Drivers share their id with the users table but have no mapped relation to it
+        Usuario driverUser = usuarioRepository.findById(driver.getId())
+                .orElse(null);
         RouteExecutionDTO.DriverBasicDTO driverDTO = new RouteExecutionDTO.DriverBasicDTO();
         driverDTO.setId(driver.getId());
         driverDTO.setName(driverUser != null ? driverUser.getName() : "");
@@ -332,6 +422,55 @@ public class ExecutionService {
         return dto;
     }
 
+    private RouteExecutionDTO toDTO(ExecutionListRow row) {
+        RouteExecutionDTO dto = new RouteExecutionDTO();
+        dto.setId(row.getId());
+        dto.setAssignmentId(row.getAssignmentId());
+        dto.setExecutionDate(row.getExecutionDate());
+        dto.setStartTime(row.getStartTime());
+        dto.setEndTime(row.getEndTime());
+        dto.setStatus(row.getStatus());
+        dto.setInitialKm(row.getInitialKm());
+        dto.setFinalKm(row.getFinalKm());
+        dto.setTotalCollectedWeightKg(row.getTotalCollectedWeightKg());
+        dto.setPointsVisited(row.getPointsVisited());
+        dto.setPointsCollected(row.getPointsCollected());
+        dto.setInitialNotes(row.getInitialNotes());
+        dto.setFinalNotes(row.getFinalNotes());
+        dto.setProblemsFound(row.getProblemsFound());
+        dto.setCancellationReason(row.getCancellationReason());
+        dto.setDriverRating(row.getDriverRating());
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setAreaCoveragePercent(row.getAreaCoveragePercent());
+        dto.setAreaCoverageComputedAt(row.getAreaCoverageComputedAt());
+
+        RouteExecutionDTO.AssignmentDetailsDTO assignmentDTO = new RouteExecutionDTO.AssignmentDetailsDTO();
+        assignmentDTO.setId(row.getAssignmentId());
+
+        RouteExecutionDTO.RouteBasicDTO routeDTO = new RouteExecutionDTO.RouteBasicDTO();
+        routeDTO.setId(row.getRouteId());
+        routeDTO.setName(row.getRouteName());
+        routeDTO.setCollectionType(row.getRouteCollectionType() != null ? row.getRouteCollectionType().toString() : null);
+        assignmentDTO.setRoute(routeDTO);
+
+        RouteExecutionDTO.DriverBasicDTO driverDTO = new RouteExecutionDTO.DriverBasicDTO();
+        driverDTO.setId(row.getDriverId());
+        driverDTO.setName(row.getDriverName() != null ? row.getDriverName() : "");
+        driverDTO.setEmail(row.getDriverEmail() != null ? row.getDriverEmail() : "");
+        assignmentDTO.setDriver(driverDTO);
+
+        RouteExecutionDTO.VehicleBasicDTO vehicleDTO = new RouteExecutionDTO.VehicleBasicDTO();
+        vehicleDTO.setId(row.getVehicleId());
+        vehicleDTO.setLicensePlate(row.getVehicleLicensePlate());
+        vehicleDTO.setModel(row.getVehicleModel());
+        vehicleDTO.setBrand(row.getVehicleBrand());
+        assignmentDTO.setVehicle(vehicleDTO);
+
+        dto.setAssignment(assignmentDTO);
+
+        return dto;
+    }
+
     private Long getLongFromMap(Map<String, Object> map, String key) {
         Object value = map.get(key);
         if (value == null) {
@@ -346,6 +485,28 @@ public class ExecutionService {
         return null;
     }
 
+    // Fields whose client-reported total differs from the computed one
+    private List<String> totalsMismatch(RouteExecution execution) {
+        List<String> fields = new ArrayList<>();
+        if (execution.getReportedCollectedWeightKg() != null
+                && execution.getReportedCollectedWeightKg().compareTo(execution.getTotalCollectedWeightKg()) != 0) {
+            fields.add("total_collected_weight_kg");
+        }
+        if (execution.getReportedPointsVisited() != null
+                && !execution.getReportedPointsVisited().equals(execution.getPointsVisited())) {
+            fields.add("points_visited");
+        }
+        if (execution.getReportedPointsCollected() != null
+                && !execution.getReportedPointsCollected().equals(execution.getPointsCollected())) {
+            fields.add("points_collected");
+        }
+        return fields;
+    }
+
+    private Integer toInt(Long value) {
+        return value != null ? Math.toIntExact(value) : 0;
+    }
+
     private Integer getIntegerFromMap(Map<String, Object> map, String key) {
         Object value = map.get(key);
         if (value == null) {
@@ -359,5 +520,30 @@ public class ExecutionService {
         }
         return null;
     }
-}
 
+    /**
+     * Published when a driver starts an execution.
+     */
+    public record ExecutionStartedEvent(Long executionId) {
+    }
+
+    /**
+     * Published when a driver completes an execution.
+     */
+    public record ExecutionCompletedEvent(Long executionId, Long routeId) {
+    }
+
+    /**
+     * Published when an execution is completed or cancelled; carries the daily rollup key it belongs to.
+     */
+    public record ExecutionClosedEvent(Long executionId, LocalDate executionDate, Long routeId,
+                                       Long driverId, Long vehicleId, CollectionType collectionType) {
+
+        static ExecutionClosedEvent of(RouteExecution execution) {
+            RouteAssignment assignment = execution.getAssignment();
+            return new ExecutionClosedEvent(execution.getId(), execution.getExecutionDate(),
+                    assignment.getRoute().getId(), assignment.getDriver().getId(),
+                    assignment.getVehicle().getId(), assignment.getRoute().getCollectionType());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package utfpr.OD46S.backend.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -10,6 +11,7 @@ import utfpr.OD46S.backend.entitys.RouteExecution;
 import utfpr.OD46S.backend.enums.ExecutionStatus;
 import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
 import utfpr.OD46S.backend.repositorys.RouteExecutionRepository;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -28,7 +30,10 @@ public class GPSTrackingService {
     private RouteExecutionRepository executionRepository;
 
     @Autowired
-    private MinioStorageService minioStorageService;
+    private PhotoStorageService photoStorageService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Map<String, Object> registrarPosicaoGPS(Long executionId, Map<String, Object> request, MultipartFile photo) {
@@ -150,11 +155,12 @@ public class GPSTrackingService {
 
         // Salvar registro primeiro para obter o ID
         gpsRecordRepository.save(gpsRecord);
+        eventPublisher.publishEvent(GPSRecordedEvent.of(gpsRecord));
 
         // Upload de foto após salvar o registro (para usar o ID do registro)
         if (photo != null && !photo.isEmpty()) {
             try {
-                String photoUrl = minioStorageService.storeGPSPhoto(executionId, gpsRecord.getId(), photo);
+                String photoUrl = photoStorageService.storeGPSPhoto(gpsRecord, photo);
                 gpsRecord.setPhotoUrl(photoUrl);
                 // Atualizar registro com a photo_url
                 gpsRecordRepository.save(gpsRecord);
@@ -242,6 +248,7 @@ public class GPSTrackingService {
         }).collect(Collectors.toList());
 
         gpsRecordRepository.saveAll(records);
+        records.forEach(record -> eventPublisher.publishEvent(GPSRecordedEvent.of(record)));
 
         Map<String, Object> data = new HashMap<>();
         data.put("records_saved", records.size());
@@ -255,7 +262,8 @@ public class GPSTrackingService {
     }
 
     @Transactional(readOnly = true)
-    public Map<String, Object> obterRastroGPS(Long executionId, LocalDateTime startTime, LocalDateTime endTime) {
+    public Map<String, Object> obterRastroGPS(Long executionId, LocalDateTime startTime, LocalDateTime endTime,
+                                              int precision) {
         // Verificar se execution existe
         RouteExecution execution = executionRepository.findById(executionId)
                 .orElseThrow(() -> new RuntimeException("Execution not found"));
@@ -267,8 +275,14 @@ public class GPSTrackingService {
             records = gpsRecordRepository.findByExecutionIdOrderByTimestamp(executionId);
         }
 
+        // Coordenadas arredondadas só na resposta; a distância usa os valores gravados
         List<GPSRecordDTO> dtos = records.stream()
-                .map(this::toDTO)
+                .map(record -> {
+                    GPSRecordDTO dto = toDTO(record);
+                    dto.setLatitude(CoordinateWriter.round(dto.getLatitude(), precision));
+                    dto.setLongitude(CoordinateWriter.round(dto.getLongitude(), precision));
+                    return dto;
+                })
                 .collect(Collectors.toList());
 
         // Calcular estatísticas
@@ -283,10 +297,10 @@ public class GPSTrackingService {
             double totalDistance = 0;
             for (int i = 1; i < dtos.size(); i++) {
                 totalDistance += calculateDistance(
-                    dtos.get(i-1).getLatitude().doubleValue(),
-                    dtos.get(i-1).getLongitude().doubleValue(),
-                    dtos.get(i).getLatitude().doubleValue(),
-                    dtos.get(i).getLongitude().doubleValue()
+                    records.get(i-1).getLatitude().doubleValue(),
+                    records.get(i-1).getLongitude().doubleValue(),
+                    records.get(i).getLatitude().doubleValue(),
+                    records.get(i).getLongitude().doubleValue()
                 );
             }
             statistics.put("total_distance_km", Math.round(totalDistance * 100.0) / 100.0);
@@ -304,7 +318,87 @@ public class GPSTrackingService {
         return response;
     }
 
+    /**
+     * Gera URL pré-assinada para o app enviar a foto de um registro GPS direto ao MinIO
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> gerarUrlUploadFoto(Long executionId, Long gpsRecordId, String contentType) {
+        buscarRegistroDaExecucao(executionId, gpsRecordId);
+
+        if (contentType == null || contentType.trim().isEmpty()) {
+            throw new RuntimeException("content_type is required");
+        }
+
+        String uploadUrl = photoStorageService.getPresignedGPSPhotoUploadUrl(executionId, gpsRecordId, contentType);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("gps_record_id", gpsRecordId);
+        data.put("upload_url", uploadUrl);
+        data.put("method", "PUT");
+        data.put("headers", Map.of("Content-Type", contentType));
+        data.put("expires_in_seconds", photoStorageService.getPresignedExpirySeconds());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+
+        return response;
+    }
+
+    /**
+     * Confirma o upload feito pela URL pré-assinada e grava a photo_url no registro GPS
+     */
+    @Transactional
+    public Map<String, Object> confirmarUploadFoto(Long executionId, Long gpsRecordId) {
+        GPSRecord gpsRecord = buscarRegistroDaExecucao(executionId, gpsRecordId);
+
+        String photoUrl = photoStorageService.confirmPresignedGPSPhoto(gpsRecord);
+        gpsRecord.setPhotoUrl(photoUrl);
+        gpsRecordRepository.save(gpsRecord);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("gps_record", toDTO(gpsRecord));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        response.put("message", "Photo upload confirmed successfully");
+
+        return response;
+    }
+
+    /**
+     * Gera URL pré-assinada para baixar a foto de um registro GPS direto do MinIO
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> gerarUrlDownloadFoto(Long executionId, Long gpsRecordId) {
+        buscarRegistroDaExecucao(executionId, gpsRecordId);
+
+        String downloadUrl = photoStorageService.getPresignedGPSPhotoDownloadUrl(executionId, gpsRecordId);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("gps_record_id", gpsRecordId);
+        data.put("download_url", downloadUrl);
+        data.put("expires_in_seconds", photoStorageService.getPresignedExpirySeconds());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+
+        return response;
+    }
+
     // Helper methods
+    private GPSRecord buscarRegistroDaExecucao(Long executionId, Long gpsRecordId) {
+        GPSRecord gpsRecord = gpsRecordRepository.findById(gpsRecordId)
+                .orElseThrow(() -> new RuntimeException("GPS record not found"));
+
+        if (!gpsRecord.getExecution().getId().equals(executionId)) {
+            throw new RuntimeException("GPS record not found for this execution");
+        }
+        return gpsRecord;
+    }
+
     private GPSRecordDTO toDTO(GPSRecord record) {
         GPSRecordDTO dto = new GPSRecordDTO();
         dto.setId(record.getId());
@@ -420,5 +514,16 @@ public class GPSTrackingService {
         
         return R * c;
     }
-}
 
+    /**
+     * Publicado para cada registro GPS salvo (painel ao vivo)
+     */
+    public record GPSRecordedEvent(Long executionId, String eventType, BigDecimal speedKmh,
+                                   LocalDateTime gpsTimestamp, BigDecimal collectedWeightKg) {
+
+        static GPSRecordedEvent of(GPSRecord record) {
+            return new GPSRecordedEvent(record.getExecution().getId(), record.getEventType(), record.getSpeedKmh(),
+                    record.getGpsTimestamp(), record.getCollectedWeightKg());
+        }
+    }
+}
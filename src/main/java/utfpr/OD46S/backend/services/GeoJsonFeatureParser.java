@@ -0,0 +1,204 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.springframework.stereotype.Component;
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+import utfpr.OD46S.backend.utils.geo.BoundingBox;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
+import utfpr.OD46S.backend.utils.geo.GeometryDetail;
+import utfpr.OD46S.backend.utils.geo.GeometryUtils;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Validates import features and computes everything that does not need the database
+ * (geometry JSON, bbox, simplified variants). Stateless, so features can be parsed in parallel.
+ */
+@Component
+public class GeoJsonFeatureParser {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public PreparedFeature parse(int index, GeoJsonFeature feature) {
+        try {
+            Map<String, Object> properties = feature.getProperties();
+            if (properties == null) {
+                return PreparedFeature.error(index, "Feature has no properties");
+            }
+
+            String externalName = (String) properties.get("name");
+            if (externalName == null || externalName.trim().isEmpty()) {
+                return PreparedFeature.error(index, "Feature missing 'name' in properties");
+            }
+
+            String wasteType = (String) properties.get("waste_type");
+            if (wasteType == null || wasteType.trim().isEmpty()) {
+                return PreparedFeature.error(index, "Feature missing 'waste_type' in properties");
+            }
+
+            if (feature.getGeometry() == null) {
+                return PreparedFeature.error(index, "Feature has no geometry");
+            }
+
+            Long routeId = null;
+            if (properties.get("route_id") != null) {
+                routeId = Long.valueOf(properties.get("route_id").toString());
+            }
+
+            Object fillOpacityObj = properties.get("fill_opacity");
+            BigDecimal fillOpacity = fillOpacityObj != null
+                    ? new BigDecimal(fillOpacityObj.toString())
+                    : new BigDecimal("0.40");
+
+            JsonNode geometry = objectMapper.valueToTree(feature.getGeometry());
+            GeometryDerivatives derivatives = derive(geometry);
+            String strokeColor = (String) properties.getOrDefault("stroke_color", "#000000");
+            String fillColor = (String) properties.getOrDefault("fill_color", "#000000");
+
+            return new PreparedFeature(
+                    index,
+                    externalName,
+                    wasteType.toUpperCase(),
+                    routeId,
+                    (String) properties.getOrDefault("periodicity", "0 8 * * *"),
+                    objectMapper.writeValueAsString(geometry),
+                    derivatives,
+                    strokeColor,
+                    fillColor,
+                    fillOpacity,
+                    contentHash(geometry, wasteType.toUpperCase(), strokeColor, fillColor, fillOpacity),
+                    null);
+        } catch (Exception e) {
+            return PreparedFeature.error(index, "Error processing feature: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bounding box, rounded and simplified geometries and binary encoding stored alongside the full geometry.
+     * Computed on primitive rings; the JSON tree is only walked when the geometry type is unsupported.
+     * The rounded and simplified JSON carry CoordinateWriter.DEFAULT_PRECISION decimals, so responses
+     * at that precision pass them through as stored.
+     */
+    public GeometryDerivatives derive(JsonNode geometry) throws JsonProcessingException {
+        String geometryRounded = CoordinateWriter.write(objectMapper.writeValueAsString(geometry),
+                CoordinateWriter.DEFAULT_PRECISION);
+        PackedGeometry packed = PackedGeometry.fromGeoJson(geometry);
+        if (packed == null) {
+            return new GeometryDerivatives(
+                    GeometryUtils.boundingBox(geometry),
+                    geometryRounded,
+                    simplifiedOrNull(geometry, GeometryDetail.LOW),
+                    simplifiedOrNull(geometry, GeometryDetail.MEDIUM),
+                    null);
+        }
+        return new GeometryDerivatives(
+                packed.boundingBox(),
+                geometryRounded,
+                simplifiedOrNull(packed, GeometryDetail.LOW),
+                simplifiedOrNull(packed, GeometryDetail.MEDIUM),
+                packed.encode());
+    }
+
+    public GeometryDerivatives derive(String geometryJson) throws JsonProcessingException {
+        return derive(objectMapper.readTree(geometryJson));
+    }
+
+    /**
+     * SHA-256 over the canonical geometry and the style fields written to the area.
+     * Key order and number formatting (1 vs 1.0) do not change the hash, so a re-export
+     * of the same map from GIS tooling hashes the same.
+     */
+    public String contentHash(JsonNode geometry, String wasteType, String strokeColor, String fillColor,
+                              BigDecimal fillOpacity) {
+        StringBuilder canonical = new StringBuilder();
+        appendCanonical(geometry, canonical);
+        canonical.append('\n').append(wasteType)
+                .append('\n').append(strokeColor)
+                .append('\n').append(fillColor)
+                .append('\n').append(fillOpacity == null ? "" : fillOpacity.stripTrailingZeros().toPlainString());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void appendCanonical(JsonNode node, StringBuilder out) {
+        if (node == null || node.isNull()) {
+            out.append("null");
+        } else if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            Collections.sort(names);
+            out.append('{');
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) out.append(',');
+                out.append(TextNode.valueOf(names.get(i))).append(':');
+                appendCanonical(node.get(names.get(i)), out);
+            }
+            out.append('}');
+        } else if (node.isArray()) {
+            out.append('[');
+            for (int i = 0; i < node.size(); i++) {
+                if (i > 0) out.append(',');
+                appendCanonical(node.get(i), out);
+            }
+            out.append(']');
+        } else if (node.isNumber()) {
+            out.append(node.asDouble());
+        } else {
+            out.append(node);
+        }
+    }
+
+    // Null when simplification removes nothing, so the full geometry is served instead of a duplicate
+    private String simplifiedOrNull(JsonNode geometry, GeometryDetail detail) throws JsonProcessingException {
+        JsonNode simplified = GeometryUtils.simplify(geometry, detail.getTolerance());
+        return simplified.equals(geometry) ? null
+                : CoordinateWriter.write(objectMapper.writeValueAsString(simplified), CoordinateWriter.DEFAULT_PRECISION);
+    }
+
+    private String simplifiedOrNull(PackedGeometry geometry, GeometryDetail detail) {
+        PackedGeometry simplified = geometry.simplify(detail.getTolerance());
+        return simplified.positionCount() == geometry.positionCount() ? null
+                : CoordinateWriter.write(simplified.toGeoJson(), CoordinateWriter.DEFAULT_PRECISION);
+    }
+
+    public record GeometryDerivatives(BoundingBox bbox, String geometryRounded, String geometryLow,
+                                      String geometryMedium, byte[] geometryBinary) {
+    }
+
+    /**
+     * A validated feature ready to be written, or the validation error for its index.
+     */
+    public record PreparedFeature(int index,
+                                  String externalName,
+                                  String wasteType,
+                                  Long routeId,
+                                  String periodicity,
+                                  String geometryJson,
+                                  GeometryDerivatives derivatives,
+                                  String strokeColor,
+                                  String fillColor,
+                                  BigDecimal fillOpacity,
+                                  String contentHash,
+                                  String error) {
+
+        static PreparedFeature error(int index, String message) {
+            return new PreparedFeature(index, null, null, null, null, null, null, null, null, null, null, message);
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+    }
+}
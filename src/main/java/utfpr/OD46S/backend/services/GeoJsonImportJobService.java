@@ -0,0 +1,288 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+import utfpr.OD46S.backend.dtos.GeoJsonFeatureCollection;
+import utfpr.OD46S.backend.entitys.RouteImportJob;
+import utfpr.OD46S.backend.repositorys.RouteImportJobRepository;
+import utfpr.OD46S.backend.services.GeoJsonFeatureParser.PreparedFeature;
+import utfpr.OD46S.backend.services.RouteAreaService.ImportBatchResult;
+import utfpr.OD46S.backend.services.RouteAreaService.ImportIndex;
+import utfpr.OD46S.backend.utils.geo.KmlFeatureReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Runs GeoJSON map imports in the background so large files do not hit proxy timeouts.
+ * Features are parsed in parallel on a ForkJoin pool; batches are written one at a time,
+ * each in its own transaction, on a single job thread. Jobs run independently of the HTTP
+ * request, so a client disconnect does not stop them.
+ * KMZ/KML uploads are spooled to a temp file and streamed placemark by placemark, so only
+ * one batch of features is held in memory at a time.
+ */
+@Service
+public class GeoJsonImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoJsonImportJobService.class);
+
+    @Autowired
+    private RouteImportJobRepository routeImportJobRepository;
+
+    @Autowired
+    private RouteAreaService routeAreaService;
+
+    @Autowired
+    private GeoJsonFeatureParser geoJsonFeatureParser;
+
+    @Value("${map.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${map.import.parallelism:0}")
+    private int parallelism;
+
+    private static final int MAX_STORED_ERRORS = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Single thread: imports run one after another, so two jobs never create the same route
+    private ExecutorService jobExecutor;
+    private ForkJoinPool parsePool;
+
+    // Jobs created before this instant belong to a previous run of the server
+    private final LocalDateTime processStartedAt = LocalDateTime.now();
+
+    @PostConstruct
+    void start() {
+        jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "map-import-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        parsePool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void stop() {
+        jobExecutor.shutdown();
+        parsePool.shutdown();
+    }
+
+    public Map<String, Object> startImport(GeoJsonFeatureCollection featureCollection, Long adminId) {
+        if (featureCollection == null || featureCollection.getFeatures() == null) {
+            throw new RuntimeException("FeatureCollection must contain a 'features' array");
+        }
+        List<GeoJsonFeature> features = featureCollection.getFeatures();
+
+        RouteImportJob job = new RouteImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setTotalFeatures(features.size());
+        job.setCreatedBy(adminId);
+        routeImportJobRepository.save(job);
+
+        String jobId = job.getId();
+        jobExecutor.execute(() -> runImport(jobId, features.iterator(), adminId));
+
+        return toResponseData(job);
+    }
+
+    /**
+     * Starts an import of a KMZ archive or KML document. The total feature count is not known
+     * up front, so total_features grows as placemarks are read.
+     */
+    public Map<String, Object> startKmzImport(MultipartFile file, String wasteType, Long adminId) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("KMZ file is required");
+        }
+        if (wasteType == null || wasteType.trim().isEmpty()) {
+            throw new RuntimeException("waste_type is required");
+        }
+
+        // The multipart temp file is deleted when the request ends, so keep our own copy for the job
+        Path upload;
+        try {
+            upload = Files.createTempFile("map-import-", ".kmz");
+            file.transferTo(upload);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store uploaded file: " + e.getMessage());
+        }
+
+        RouteImportJob job = new RouteImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setCreatedBy(adminId);
+        routeImportJobRepository.save(job);
+
+        String jobId = job.getId();
+        String defaultWasteType = wasteType.trim().toUpperCase();
+        jobExecutor.execute(() -> runKmzImport(jobId, upload, defaultWasteType, adminId));
+
+        return toResponseData(job);
+    }
+
+    public Map<String, Object> getJobStatus(String jobId) {
+        RouteImportJob job = routeImportJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Import job not found"));
+        return toResponseData(job);
+    }
+
+    /**
+     * Jobs still pending or running when the server stopped will never finish; report them as failed.
+     * Only jobs created before this process started are touched, so jobs queued here (or on another
+     * instance) since then keep running.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        int failed = routeImportJobRepository.failJobsCreatedBefore(List.of("PENDING", "RUNNING"),
+                processStartedAt, "Interrupted by server restart", LocalDateTime.now());
+        if (failed > 0) {
+            log.warn("Marked {} interrupted map import jobs as failed", failed);
+        }
+    }
+
+    void runKmzImport(String jobId, Path upload, String defaultWasteType, Long adminId) {
+        try (InputStream input = Files.newInputStream(upload);
+             KmlFeatureReader features = KmlFeatureReader.open(input, defaultWasteType)) {
+            runImport(jobId, features, adminId);
+        } catch (IOException e) {
+            failJob(jobId, "Import failed: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Could not delete map import file {}", upload, e);
+            }
+        }
+    }
+
+    void runImport(String jobId, Iterator<GeoJsonFeature> features, Long adminId) {
+        RouteImportJob job = routeImportJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus("RUNNING");
+        job.setStartedAt(LocalDateTime.now());
+        job = routeImportJobRepository.save(job);
+
+        List<Map<String, Object>> errors = new ArrayList<>();
+        try {
+            ImportIndex index = routeAreaService.loadImportIndex();
+
+            int processed = 0;
+            while (features.hasNext()) {
+                List<GeoJsonFeature> chunk = new ArrayList<>(batchSize);
+                while (chunk.size() < batchSize && features.hasNext()) {
+                    chunk.add(features.next());
+                }
+                List<PreparedFeature> prepared = parseBatch(chunk, processed);
+
+                ImportBatchResult result = routeAreaService.importBatch(prepared, index, adminId);
+
+                processed += chunk.size();
+                job.setProcessedFeatures(processed);
+                job.setTotalFeatures(Math.max(job.getTotalFeatures(), processed));
+                job.setRoutesCreated(job.getRoutesCreated() + result.getRoutesCreated());
+                job.setRoutesLinked(job.getRoutesLinked() + result.getRoutesLinked());
+                job.setAreasCreated(job.getAreasCreated() + result.getAreasCreated());
+                job.setAreasUpdated(job.getAreasUpdated() + result.getAreasUpdated());
+                job.setAreasUnchanged(job.getAreasUnchanged() + result.getAreasUnchanged());
+                job.setErrorCount(job.getErrorCount() + result.getErrors().size());
+                for (Map<String, Object> error : result.getErrors()) {
+                    if (errors.size() < MAX_STORED_ERRORS) {
+                        errors.add(error);
+                    }
+                }
+                job.setErrors(writeErrors(errors));
+                job = routeImportJobRepository.save(job);
+            }
+
+            job.setStatus("COMPLETED");
+        } catch (Exception e) {
+            // Batches already written stay committed; the counters show how far the job got
+            job.setStatus("FAILED");
+            job.setFailureMessage(truncate("Import failed: " + e.getMessage(), 500));
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        routeImportJobRepository.save(job);
+    }
+
+    private void failJob(String jobId, String message) {
+        routeImportJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus("FAILED");
+            job.setFailureMessage(truncate(message, 500));
+            job.setFinishedAt(LocalDateTime.now());
+            routeImportJobRepository.save(job);
+        });
+    }
+
+    // Feature indexes in errors are positions in the whole upload, hence the offset
+    private List<PreparedFeature> parseBatch(List<GeoJsonFeature> chunk, int offset)
+            throws InterruptedException, ExecutionException {
+        return parsePool.submit(() -> IntStream.range(0, chunk.size())
+                .parallel()
+                .mapToObj(i -> geoJsonFeatureParser.parse(offset + i, chunk.get(i)))
+                .toList()).get();
+    }
+
+    private Map<String, Object> toResponseData(RouteImportJob job) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("total_features", job.getTotalFeatures());
+        summary.put("processed_features", job.getProcessedFeatures());
+        summary.put("routes_created", job.getRoutesCreated());
+        summary.put("routes_linked", job.getRoutesLinked());
+        summary.put("areas_created", job.getAreasCreated());
+        summary.put("areas_updated", job.getAreasUpdated());
+        summary.put("areas_unchanged", job.getAreasUnchanged());
+        summary.put("error_count", job.getErrorCount());
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("job_id", job.getId());
+        data.put("status", job.getStatus());
+        data.put("summary", summary);
+        data.put("errors", readErrors(job.getErrors()));
+        data.put("failure_message", job.getFailureMessage());
+        data.put("created_at", job.getCreatedAt());
+        data.put("started_at", job.getStartedAt());
+        data.put("finished_at", job.getFinishedAt());
+        return data;
+    }
+
+    private String writeErrors(List<Map<String, Object>> errors) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(errors);
+    }
+
+    private List<Map<String, Object>> readErrors(String json) {
+        if (json == null || json.isBlank()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private String truncate(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max);
+    }
+}
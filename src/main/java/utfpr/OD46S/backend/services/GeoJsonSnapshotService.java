@@ -0,0 +1,188 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import utfpr.OD46S.backend.dtos.GeoJsonRawFeatureCollection;
+import utfpr.OD46S.backend.utils.geo.BoundingBox;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
+import utfpr.OD46S.backend.utils.geo.GeometryDetail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the serialized /routes/map/geo response per filter combination and geometry detail.
+ * Route areas only change on import, so each snapshot is built once, compressed once
+ * and served as bytes until the next import bumps the version.
+ */
+@Service
+public class GeoJsonSnapshotService {
+
+    @Autowired
+    private RouteAreaService routeAreaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${map.geojson.snapshot.max-entries:64}")
+    private int maxEntries;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<SnapshotKey, GeoJsonSnapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SnapshotKey, GeoJsonSnapshot> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public GeoJsonSnapshot getSnapshot(String wasteType, Long routeId, Boolean active) {
+        return getSnapshot(wasteType, routeId, active, null, GeometryDetail.FULL, CoordinateWriter.DEFAULT_PRECISION);
+    }
+
+    /**
+     * Viewport requests (bbox given) are built per request and not stored: each pan produces a new bbox,
+     * and the index-filtered query with simplified geometry is already small. They get no precompressed
+     * copy and no ETag (see GeoJsonSnapshot#gzipBody).
+     */
+    public GeoJsonSnapshot getSnapshot(String wasteType, Long routeId, Boolean active,
+                                       BoundingBox bbox, GeometryDetail detail, int precision) {
+        SnapshotKey key = new SnapshotKey(wasteType, routeId, active == null ? Boolean.TRUE : active, detail, precision);
+        long currentVersion = version.get();
+
+        if (bbox != null) {
+            return build(key, bbox, currentVersion);
+        }
+
+        synchronized (snapshots) {
+            GeoJsonSnapshot cached = snapshots.get(key);
+            if (cached != null && cached.version() == currentVersion) {
+                return cached;
+            }
+        }
+
+        // Built outside the lock; the version read before querying marks it stale if an import commits meanwhile
+        GeoJsonSnapshot snapshot = build(key, null, currentVersion);
+
+        synchronized (snapshots) {
+            GeoJsonSnapshot cached = snapshots.get(key);
+            if (cached == null || cached.version() < snapshot.version()) {
+                snapshots.put(key, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops all snapshots once an import commits, so readers never rebuild from data that is about to change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteAreasChanged(RouteAreaService.RouteAreasChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
+    private GeoJsonSnapshot build(SnapshotKey key, BoundingBox bbox, long snapshotVersion) {
+        GeoJsonRawFeatureCollection geojson = routeAreaService.getGeoJsonFeatureCollection(
+                key.wasteType(), key.routeId(), key.active(), bbox, key.detail(), key.precision());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", Map.of("geojson", geojson));
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            if (bbox != null) {
+                return new GeoJsonSnapshot(snapshotVersion, json, null, null, null);
+            }
+            String hash = sha256Hex(json);
+            // Each content coding is a different representation and gets its own strong ETag
+            // Compressed once per snapshot, so the slowest level is worth it
+            return new GeoJsonSnapshot(snapshotVersion, json, gzip(json, Deflater.BEST_COMPRESSION),
+                    "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize GeoJSON snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    private String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record SnapshotKey(String wasteType, Long routeId, Boolean active, GeometryDetail detail, int precision) {
+    }
+
+    /**
+     * Serialized response body, its gzip encoding and strong ETags derived from the uncompressed bytes.
+     * Viewport responses have neither: gzip and the ETags are null.
+     */
+    public record GeoJsonSnapshot(long version, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+
+        /**
+         * The precompressed copy, or for a viewport response the body compressed now at the fastest level;
+         * called only for clients that accept gzip.
+         */
+        public byte[] gzipBody() {
+            if (gzip != null) {
+                return gzip;
+            }
+            try {
+                return GeoJsonSnapshotService.gzip(json, Deflater.BEST_SPEED);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public boolean matches(String ifNoneMatch) {
+            if (etag == null || ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*")) {
+                    return true;
+                }
+                // If-None-Match uses weak comparison, so a W/ prefix added by a proxy still matches
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag) || tag.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package utfpr.OD46S.backend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Painel de operação ao vivo mantido em memória.
+ * Os contadores são atualizados pelos eventos de execução e GPS depois do commit e
+ * reconciliados com o banco periodicamente; a leitura (snapshot) não faz nenhuma consulta.
+ */
+@Service
+public class LiveDashboardService {
+
+    // Caminhão "em movimento": última posição com velocidade mínima e recente
+    static final double MOVING_SPEED_KMH = 5.0;
+    static final long FIX_MAX_AGE_SECONDS = 120;
+
+    private final LongAdder inProgressExecutions = new LongAdder();
+    private final LongAdder pointsCollectedToday = new LongAdder();
+    private final DoubleAdder collectedKgToday = new DoubleAdder();
+    private final LongAdder openProblems = new LongAdder();
+
+    // Execuções em andamento: última posição e problemas abertos de cada uma
+    private final Map<Long, LiveExecution> executions = new ConcurrentHashMap<>();
+
+    private final AtomicReference<LocalDate> today = new AtomicReference<>(LocalDate.now());
+    private volatile LocalDateTime reconciledAt;
+
+    @Autowired
+    private RouteExecutionRepository executionRepository;
+
+    @Autowired
+    private GPSRecordRepository gpsRecordRepository;
+
+    public Map<String, Object> snapshot() {
+        rollOverDay();
+        LocalDateTime now = LocalDateTime.now();
+        int moving = 0;
+        for (LiveExecution execution : executions.values()) {
+            if (execution.isMoving(now)) {
+                moving++;
+            }
+        }
+        long inProgress = Math.max(0, inProgressExecutions.sum());
+
+        Map<String, Object> trucks = new LinkedHashMap<>();
+        trucks.put("moving", moving);
+        trucks.put("stopped", Math.max(0, inProgress - moving));
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("in_progress_executions", inProgress);
+        data.put("points_collected_today", pointsCollectedToday.sum());
+        data.put("collected_weight_kg_today", BigDecimal.valueOf(collectedKgToday.sum()).setScale(2, RoundingMode.HALF_UP));
+        data.put("trucks", trucks);
+        data.put("open_problems", Math.max(0, openProblems.sum()));
+        data.put("generated_at", now.toString());
+        data.put("reconciled_at", reconciledAt != null ? reconciledAt.toString() : null);
+        return data;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExecutionStarted(ExecutionService.ExecutionStartedEvent event) {
+        if (executions.putIfAbsent(event.executionId(), new LiveExecution()) == null) {
+            inProgressExecutions.increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExecutionClosed(ExecutionService.ExecutionClosedEvent event) {
+        LiveExecution removed = executions.remove(event.executionId());
+        if (removed != null) {
+            inProgressExecutions.decrement();
+            // Problemas de execuções encerradas deixam de estar abertos
+            openProblems.add(-removed.problems.sum());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGPSRecorded(GPSTrackingService.GPSRecordedEvent event) {
+        rollOverDay();
+        LiveExecution execution = executions.get(event.executionId());
+        if (execution != null && event.gpsTimestamp() != null) {
+            execution.updateFix(event.speedKmh(), event.gpsTimestamp());
+        }
+
+        String eventType = event.eventType();
+        if ("POINT_COLLECTED".equals(eventType) && isToday(event.gpsTimestamp())) {
+            pointsCollectedToday.increment();
+            if (event.collectedWeightKg() != null) {
+                collectedKgToday.add(event.collectedWeightKg().doubleValue());
+            }
+        } else if (("PROBLEM".equals(eventType) || "POINT_PROBLEM".equals(eventType)) && execution != null) {
+            execution.problems.increment();
+            openProblems.increment();
+        }
+    }
+
+    /**
+     * Recalcula todos os contadores a partir do banco. Corrige eventos perdidos (reinício da aplicação,
+     * alterações fora dos serviços); eventos que chegam durante a reconciliação podem ser sobrescritos
+     * e voltam na próxima rodada.
+     */
+    @Scheduled(initialDelayString = "${dashboard.live.reconcile-initial-delay-ms:0}",
+               fixedDelayString = "${dashboard.live.reconcile-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        LocalDate day = LocalDate.now();
+
+        Map<Long, LiveExecution> current = new HashMap<>();
+        for (Long id : executionRepository.findInProgressIds()) {
+            current.put(id, new LiveExecution());
+        }
+        for (Object[] row : gpsRecordRepository.findLatestFixOfInProgressExecutions()) {
+            LiveExecution execution = current.get((Long) row[0]);
+            if (execution != null) {
+                execution.updateFix((BigDecimal) row[1], (LocalDateTime) row[2]);
+            }
+        }
+        long problems = 0;
+        for (Object[] row : gpsRecordRepository.countProblemsOfInProgressExecutions()) {
+            LiveExecution execution = current.get((Long) row[0]);
+            if (execution != null) {
+                long count = ((Number) row[1]).longValue();
+                execution.problems.add(count);
+                problems += count;
+            }
+        }
+        long points = 0;
+        double kg = 0;
+        List<Object[]> collected = gpsRecordRepository.sumCollectedPointsBetween(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        if (!collected.isEmpty()) {
+            points = ((Number) collected.get(0)[0]).longValue();
+            kg = ((Number) collected.get(0)[1]).doubleValue();
+        }
+
+        executions.keySet().retainAll(current.keySet());
+        executions.putAll(current);
+        today.set(day);
+        reset(inProgressExecutions, current.size());
+        reset(openProblems, problems);
+        reset(pointsCollectedToday, points);
+        collectedKgToday.reset();
+        collectedKgToday.add(kg);
+        reconciledAt = LocalDateTime.now();
+    }
+
+    // Zera os totais do dia na virada, sem esperar a próxima reconciliação
+    private void rollOverDay() {
+        LocalDate now = LocalDate.now();
+        LocalDate previous = today.get();
+        if (!now.equals(previous) && today.compareAndSet(previous, now)) {
+            pointsCollectedToday.reset();
+            collectedKgToday.reset();
+        }
+    }
+
+    private boolean isToday(LocalDateTime timestamp) {
+        return timestamp != null && timestamp.toLocalDate().equals(today.get());
+    }
+
+    private static void reset(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    static final class LiveExecution {
+
+        private final AtomicReference<Fix> lastFix = new AtomicReference<>();
+        private final LongAdder problems = new LongAdder();
+
+        // Registros offline podem chegar fora de ordem: vale o de gps_timestamp mais recente
+        void updateFix(BigDecimal speedKmh, LocalDateTime timestamp) {
+            Fix fix = new Fix(speedKmh != null ? speedKmh.doubleValue() : 0, timestamp);
+            lastFix.accumulateAndGet(fix, (current, candidate) ->
+                    current == null || candidate.timestamp().isAfter(current.timestamp()) ? candidate : current);
+        }
+
+        boolean isMoving(LocalDateTime now) {
+            Fix fix = lastFix.get();
+            return fix != null
+                    && fix.speedKmh() >= MOVING_SPEED_KMH
+                    && !fix.timestamp().isBefore(now.minusSeconds(FIX_MAX_AGE_SECONDS));
+        }
+    }
+
+    private record Fix(double speedKmh, LocalDateTime timestamp) {
+    }
+}
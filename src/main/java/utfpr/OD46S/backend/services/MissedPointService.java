@@ -0,0 +1,85 @@
+package utfpr.OD46S.backend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.OD46S.backend.dtos.RouteExecutionDTO;
+import utfpr.OD46S.backend.entitys.RouteExecution;
+import utfpr.OD46S.backend.entitys.RouteExecutionMissedPoint;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteCollectionPointRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionMissedPointRepository;
+import utfpr.OD46S.backend.utils.geo.TrackProximityIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pontos de coleta não visitados: ao finalizar a execução, cada ponto ativo da rota é comparado
+ * com o trajeto GPS completo (índice em grade sobre os segmentos, ver TrackProximityIndex).
+ * Pontos a mais de execution.missed-points.radius-meters de todo o trajeto ficam registrados.
+ */
+@Service
+public class MissedPointService {
+
+    @Autowired
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Autowired
+    private RouteCollectionPointRepository collectionPointRepository;
+
+    @Autowired
+    private RouteExecutionMissedPointRepository missedPointRepository;
+
+    @Value("${execution.missed-points.radius-meters:30}")
+    private double radiusMeters;
+
+    /**
+     * Registra os pontos não visitados da execução e retorna quantos foram.
+     * Sem nenhum registro GPS, todos os pontos ativos contam como não visitados.
+     */
+    @Transactional
+    public int detectarPontosNaoVisitados(RouteExecution execution) {
+        List<Object[]> points = collectionPointRepository.findActivePositionsByRouteId(
+                execution.getAssignment().getRoute().getId());
+        if (points.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> track = gpsRecordRepository.findTrackByExecutionId(execution.getId());
+        double[] trackLon = new double[track.size()];
+        double[] trackLat = new double[track.size()];
+        for (int i = 0; i < track.size(); i++) {
+            trackLon[i] = ((Number) track.get(i)[0]).doubleValue();
+            trackLat[i] = ((Number) track.get(i)[1]).doubleValue();
+        }
+
+        double[] pointLon = new double[points.size()];
+        double[] pointLat = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            pointLon[i] = ((Number) points.get(i)[1]).doubleValue();
+            pointLat[i] = ((Number) points.get(i)[2]).doubleValue();
+        }
+
+        boolean[] near = TrackProximityIndex.build(trackLon, trackLat, radiusMeters).nearAll(pointLon, pointLat);
+
+        List<RouteExecutionMissedPoint> missed = new ArrayList<>();
+        for (int i = 0; i < near.length; i++) {
+            if (!near[i]) {
+                missed.add(new RouteExecutionMissedPoint(execution.getId(), (Long) points.get(i)[0]));
+            }
+        }
+        missedPointRepository.saveAll(missed);
+        return missed.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RouteExecutionDTO.MissedPointDTO> listarPontosNaoVisitados(Long executionId) {
+        List<RouteExecutionDTO.MissedPointDTO> missed = new ArrayList<>();
+        for (RouteExecutionMissedPointRepository.MissedPointRow row : missedPointRepository.findRowsByExecutionId(executionId)) {
+            missed.add(new RouteExecutionDTO.MissedPointDTO(row.getPointId(), row.getSequenceOrder(), row.getAddress()));
+        }
+        return missed;
+    }
+}
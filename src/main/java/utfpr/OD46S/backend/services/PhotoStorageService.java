@@ -0,0 +1,509 @@
+package utfpr.OD46S.backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+import utfpr.OD46S.backend.entitys.GPSRecord;
+import utfpr.OD46S.backend.entitys.PhotoObject;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.PhotoObjectRepository;
+import utfpr.OD46S.backend.services.storage.ObjectStorage;
+import utfpr.OD46S.backend.services.storage.StoredObject;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fotos de registros GPS/eventos: validação, deduplicação por conteúdo, uploads pré-assinados e em partes.
+ * Os bytes ficam no ObjectStorage configurado (MinIO ou disco local).
+ */
+@Service
+public class PhotoStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoStorageService.class);
+
+    @Autowired
+    private ObjectStorage objectStorage;
+
+    @Autowired
+    private PhotoObjectRepository photoObjectRepository;
+
+    @Autowired
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${minio.presigned.expiry-seconds:600}")
+    private int presignedExpirySeconds;
+
+    private static final long MAX_PHOTO_SIZE_BYTES = 10 * 1024 * 1024;
+
+    // Objetos sem referência verificados por rodada da limpeza
+    static final int CLEANUP_BATCH_SIZE = 100;
+
+    /**
+     * Armazena a foto de um registro GPS/evento, endereçada pelo SHA-256 do conteúdo.
+     * O hash é calculado em streaming antes do envio: se a mesma foto já existe (reenvio offline,
+     * retry do app), o upload é pulado e o registro passa a referenciar o objeto existente.
+     */
+    @Transactional
+    public String storeGPSPhoto(GPSRecord gpsRecord, MultipartFile file) {
+        try {
+            // Validar arquivo
+            validateFile(file);
+
+            String sha256 = sha256Hex(file.getInputStream());
+
+            linkGPSPhoto(gpsRecord, sha256, file.getContentType(), file.getSize(), objectName ->
+                objectStorage.put(objectName, file.getInputStream(), file.getSize(), file.getContentType())
+            );
+
+            // Retornar URL de acesso usando o ID do registro
+            return buildGPSPhotoUrl(gpsRecord.getExecution().getId(), gpsRecord.getId());
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Localiza o objeto da foto de um registro GPS (metadados: chave, tamanho, tipo)
+     */
+    public Optional<StoredObject> findGPSPhotoObject(Long executionId, Long gpsRecordId) {
+        return resolveGPSPhotoObjectName(executionId, gpsRecordId).flatMap(objectStorage::stat);
+    }
+
+    /**
+     * Recupera um arquivo do storage
+     */
+    public InputStream getFile(String objectName) {
+        return objectStorage.get(objectName);
+    }
+
+    /**
+     * Caminho local do objeto, quando o storage é em disco (envio zero-copy pelo servidor)
+     */
+    public Optional<Path> getLocalPath(String objectName) {
+        return objectStorage.localPath(objectName);
+    }
+
+    /**
+     * Gera uma URL pré-assinada (PUT) para o app enviar a foto direto ao storage,
+     * sem que os bytes passem pela API. O envio vai para o path do registro e é
+     * movido para o endereço por conteúdo na confirmação.
+     */
+    public String getPresignedGPSPhotoUploadUrl(Long executionId, Long gpsRecordId, String contentType) {
+        requirePresignedUrls();
+        validateContentType(contentType);
+
+        String objectName = buildGPSPhotoObjectName(executionId, gpsRecordId, getExtensionFromContentType(contentType));
+        return objectStorage.presignedUploadUrl(objectName, presignedExpirySeconds);
+    }
+
+    /**
+     * Gera uma URL pré-assinada (GET) para baixar a foto direto do storage
+     */
+    public String getPresignedGPSPhotoDownloadUrl(Long executionId, Long gpsRecordId) {
+        requirePresignedUrls();
+        String objectName = resolveGPSPhotoObjectName(executionId, gpsRecordId)
+                .orElseThrow(() -> new RuntimeException("GPS photo not found for record ID: " + gpsRecordId));
+        return objectStorage.presignedDownloadUrl(objectName, presignedExpirySeconds);
+    }
+
+    /**
+     * Confirma uma foto enviada via URL pré-assinada e retorna a URL de acesso.
+     * O PUT pré-assinado não valida tamanho nem tipo, então objetos inválidos são removidos aqui.
+     * Fotos válidas são deduplicadas pelo SHA-256 como no upload multipart.
+     */
+    @Transactional
+    public String confirmPresignedGPSPhoto(GPSRecord gpsRecord) {
+        Long executionId = gpsRecord.getExecution().getId();
+        Long gpsRecordId = gpsRecord.getId();
+
+        Optional<StoredObject> uploaded = findGPSPhoto(executionId, gpsRecordId);
+        if (uploaded.isEmpty() && gpsRecord.getPhotoHash() != null) {
+            // Confirmação repetida: o objeto já foi movido para o endereço por conteúdo
+            return buildGPSPhotoUrl(executionId, gpsRecordId);
+        }
+        StoredObject stat = uploaded
+                .orElseThrow(() -> new RuntimeException("GPS photo not found for record ID: " + gpsRecordId));
+
+        String reason = null;
+        if (stat.size() <= 0) {
+            reason = "File is empty";
+        } else if (stat.size() > MAX_PHOTO_SIZE_BYTES) {
+            reason = "File size exceeds maximum limit of 10MB";
+        } else if (!isAllowedContentType(stat.contentType())) {
+            reason = "Only JPEG, PNG and WebP images are allowed";
+        }
+
+        if (reason != null) {
+            objectStorage.delete(stat.key());
+            throw new IllegalArgumentException(reason);
+        }
+
+        try {
+            String sha256 = sha256Hex(objectStorage.get(stat.key()));
+            attachStagedGPSPhoto(gpsRecord, stat.key(), sha256, stat.contentType(), stat.size());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
+        }
+
+        return buildGPSPhotoUrl(executionId, gpsRecordId);
+    }
+
+    /**
+     * Valida tipo e tamanho declarados de uma foto antes de iniciar um upload em partes
+     */
+    public void validatePhoto(String contentType, long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (size > MAX_PHOTO_SIZE_BYTES) {
+            throw new IllegalArgumentException("File size exceeds maximum limit of 10MB");
+        }
+        validateContentType(contentType);
+    }
+
+    /**
+     * Armazena uma parte de um upload resumível em uploads/{uploadId}/{index}.
+     * Reenviar a mesma parte sobrescreve a anterior, então retries são seguros.
+     */
+    public void storeUploadChunk(String uploadId, int chunkIndex, InputStream inputStream, long size) {
+        objectStorage.put(buildUploadChunkObjectName(uploadId, chunkIndex), inputStream, size, "application/octet-stream");
+    }
+
+    /**
+     * Concatena as partes, em ordem, num único objeto de staging e retorna o SHA-256 do conteúdo.
+     * As partes são lidas uma de cada vez e o hash é calculado durante o envio, sem buffer da foto inteira.
+     */
+    public String assembleUploadChunks(String uploadId, int totalChunks, String contentType, long totalSize) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Enumeration<InputStream> chunks = new Enumeration<>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasMoreElements() {
+                    return next < totalChunks;
+                }
+
+                @Override
+                public InputStream nextElement() {
+                    return objectStorage.get(buildUploadChunkObjectName(uploadId, next++));
+                }
+            };
+
+            try (InputStream in = new DigestInputStream(new SequenceInputStream(chunks), digest)) {
+                objectStorage.put(buildUploadAssembledObjectName(uploadId), in, totalSize, contentType);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to assemble upload: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Vincula a foto montada de um upload em partes ao registro GPS e agenda a limpeza das partes
+     */
+    @Transactional
+    public String attachUploadedGPSPhoto(GPSRecord gpsRecord, String uploadId, int totalChunks,
+                                         String sha256, String contentType, long size) {
+        try {
+            attachStagedGPSPhoto(gpsRecord, buildUploadAssembledObjectName(uploadId), sha256, contentType, size);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
+        }
+
+        for (int i = 0; i < totalChunks; i++) {
+            removeObjectAfterCommit(buildUploadChunkObjectName(uploadId, i));
+        }
+
+        return buildGPSPhotoUrl(gpsRecord.getExecution().getId(), gpsRecord.getId());
+    }
+
+    /**
+     * Remove as partes e o objeto montado de um upload em partes (limpeza de sessões expiradas)
+     */
+    public void deleteUploadObjects(String uploadId, int totalChunks) {
+        for (int i = 0; i < totalChunks; i++) {
+            objectStorage.delete(buildUploadChunkObjectName(uploadId, i));
+        }
+        objectStorage.delete(buildUploadAssembledObjectName(uploadId));
+    }
+
+    /**
+     * Tempo de validade das URLs pré-assinadas, em segundos
+     */
+    public int getPresignedExpirySeconds() {
+        return presignedExpirySeconds;
+    }
+
+    private void requirePresignedUrls() {
+        if (!objectStorage.supportsPresignedUrls()) {
+            throw new UnsupportedOperationException("Presigned URLs are not supported by the configured storage backend");
+        }
+    }
+
+    /**
+     * URL da API usada no campo photo_url dos registros GPS
+     */
+    private String buildGPSPhotoUrl(Long executionId, Long gpsRecordId) {
+        return String.format("/api/v1/files/gps-photos/%d/%d", executionId, gpsRecordId);
+    }
+
+    /**
+     * Associa o registro GPS ao objeto com o hash informado, criando o objeto se ainda não existir.
+     * Reenviar a mesma foto para o mesmo registro não altera nada (upload idempotente).
+     */
+    private void linkGPSPhoto(GPSRecord gpsRecord, String sha256, String contentType, long size,
+                              ObjectWriter writer) throws Exception {
+        String previousHash = gpsRecord.getPhotoHash();
+        if (sha256.equals(previousHash)) {
+            return;
+        }
+
+        // O upsert trava a linha antes de decidir sobre o objeto: a limpeza só apaga o objeto com a
+        // linha travada e refCount zero, então, vista a referência aqui, ele não some até o commit
+        photoObjectRepository.addReference(sha256, buildContentAddressedObjectName(sha256, contentType),
+                contentType, size);
+        PhotoObjectRepository.ObjectReference reference = photoObjectRepository.findReference(sha256)
+                .orElseThrow(() -> new IllegalStateException("Photo object not found after upsert: " + sha256));
+        // Única referência viva: o objeto pode nunca ter sido gravado ou já ter sido limpo.
+        // Se existir sem uso (ex.: rollback após o upload, refCount zerado), é reaproveitado
+        if (reference.getRefCount() == 1 && !objectStorage.exists(reference.getObjectKey())) {
+            writer.write(reference.getObjectKey());
+        }
+
+        gpsRecord.setPhotoHash(sha256);
+
+        if (previousHash != null) {
+            releasePhotoObject(previousHash);
+        }
+    }
+
+    /**
+     * Vincula um objeto de staging já validado ao registro: copia para o endereço por conteúdo
+     * (se ainda não existir) e remove o staging após o commit
+     */
+    private void attachStagedGPSPhoto(GPSRecord gpsRecord, String stagedObjectName, String sha256,
+                                      String contentType, long size) throws Exception {
+        linkGPSPhoto(gpsRecord, sha256, contentType, size, objectName ->
+            objectStorage.copy(stagedObjectName, objectName)
+        );
+        removeObjectAfterCommit(stagedObjectName);
+    }
+
+    /**
+     * Decrementa o refCount. Com zero referências a linha fica para purgeUnreferencedPhotos, que só
+     * remove o objeto se ninguém o tiver vinculado de novo até lá
+     */
+    private void releasePhotoObject(String sha256) {
+        photoObjectRepository.findBySha256ForUpdate(sha256).ifPresent(photoObject -> {
+            photoObject.setRefCount(Math.max(0, photoObject.getRefCount() - 1));
+            photoObjectRepository.save(photoObject);
+        });
+    }
+
+    /**
+     * Remove do storage e do banco as fotos que nenhum registro referencia mais.
+     * Cada objeto é apagado numa transação própria com a linha travada e o refCount conferido de novo,
+     * então um vínculo concorrente ou espera e regrava o objeto, ou já o protegeu com refCount > 0.
+     * Um objeto que não pôde ser removido fica para a próxima rodada.
+     */
+    @Scheduled(initialDelayString = "${photo.objects.cleanup-interval-ms:3600000}",
+               fixedDelayString = "${photo.objects.cleanup-interval-ms:3600000}")
+    public int purgeUnreferencedPhotos() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int removed = 0;
+        Long lastId = 0L;
+        List<Long> ids;
+        do {
+            ids = photoObjectRepository.findUnreferencedIds(lastId, PageRequest.of(0, CLEANUP_BATCH_SIZE));
+            for (Long id : ids) {
+                lastId = id;
+                try {
+                    Boolean deleted = transaction.execute(status -> photoObjectRepository.findByIdForUpdate(id)
+                            .filter(photoObject -> photoObject.getRefCount() <= 0)
+                            .map(photoObject -> {
+                                objectStorage.delete(photoObject.getObjectKey());
+                                photoObjectRepository.delete(photoObject);
+                                return true;
+                            })
+                            .orElse(false));
+                    if (Boolean.TRUE.equals(deleted)) {
+                        removed++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not remove unreferenced photo object {}", id, e);
+                }
+            }
+        } while (ids.size() == CLEANUP_BATCH_SIZE);
+        return removed;
+    }
+
+    /**
+     * Caminho do objeto da foto do registro: endereço por conteúdo ou, para fotos
+     * anteriores à deduplicação, o path legado por execução/registro.
+     * O registro precisa pertencer à execução do path; objetos de staging ainda não
+     * confirmados (sem photoUrl) nunca são servidos.
+     */
+    private Optional<String> resolveGPSPhotoObjectName(Long executionId, Long gpsRecordId) {
+        GPSRecord record = gpsRecordRepository.findById(gpsRecordId).orElse(null);
+        if (record == null || record.getExecution() == null
+                || !record.getExecution().getId().equals(executionId)) {
+            return Optional.empty();
+        }
+        if (record.getPhotoHash() != null) {
+            return photoObjectRepository.findBySha256(record.getPhotoHash()).map(PhotoObject::getObjectKey);
+        }
+        if (record.getPhotoUrl() != null) {
+            return findGPSPhoto(executionId, gpsRecordId).map(StoredObject::key);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Calcula o SHA-256 lendo o stream em blocos, sem carregar o arquivo inteiro em memória
+     */
+    private String sha256Hex(InputStream inputStream) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(inputStream, digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Path do objeto endereçado por conteúdo: gps-photos/sha256/{2 primeiros}/{hash}.{ext}
+     */
+    private String buildContentAddressedObjectName(String sha256, String contentType) {
+        return String.format("gps-photos/sha256/%s/%s%s",
+                sha256.substring(0, 2), sha256, getExtensionFromContentType(contentType));
+    }
+
+    /**
+     * Remove o objeto só após o commit, para não perder a foto se a transação for desfeita
+     */
+    private void removeObjectAfterCommit(String objectName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            objectStorage.delete(objectName);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    objectStorage.delete(objectName);
+                } catch (RuntimeException e) {
+                    // A transação já foi confirmada; um objeto órfão não deve falhar a requisição
+                    log.warn("Could not delete storage object {} after commit", objectName, e);
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ObjectWriter {
+        void write(String objectName) throws Exception;
+    }
+
+    /**
+     * Valida o arquivo enviado
+     */
+    private void validateFile(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        // Validar tamanho (máximo 10MB)
+        if (file.getSize() > MAX_PHOTO_SIZE_BYTES) {
+            throw new IllegalArgumentException("File size exceeds maximum limit of 10MB");
+        }
+
+        // Validar tipo de arquivo
+        validateContentType(file.getContentType());
+    }
+
+    /**
+     * Valida o tipo de conteúdo da imagem
+     */
+    private void validateContentType(String contentType) {
+        if (!isAllowedContentType(contentType)) {
+            throw new IllegalArgumentException("Only JPEG, PNG and WebP images are allowed");
+        }
+    }
+
+    private boolean isAllowedContentType(String contentType) {
+        return contentType != null &&
+            (contentType.startsWith("image/jpeg") ||
+             contentType.startsWith("image/png") ||
+             contentType.startsWith("image/webp"));
+    }
+
+    /**
+     * Obtém a extensão a partir do tipo de conteúdo (uploads pré-assinados não têm nome de arquivo)
+     */
+    private String getExtensionFromContentType(String contentType) {
+        if (contentType.startsWith("image/png")) {
+            return ".png";
+        }
+        if (contentType.startsWith("image/webp")) {
+            return ".webp";
+        }
+        return ".jpg";
+    }
+
+    /**
+     * Path do objeto: gps-photos/execution_{id}/{gpsRecordId}.{ext}
+     */
+    private String buildGPSPhotoObjectName(Long executionId, Long gpsRecordId, String extension) {
+        return String.format("gps-photos/execution_%d/%d%s", executionId, gpsRecordId, extension);
+    }
+
+    private String buildUploadChunkObjectName(String uploadId, int chunkIndex) {
+        return String.format("uploads/%s/%d", uploadId, chunkIndex);
+    }
+
+    private String buildUploadAssembledObjectName(String uploadId) {
+        return String.format("uploads/%s/assembled", uploadId);
+    }
+
+    /**
+     * Localiza a foto de um registro GPS no path por execução (testando as extensões aceitas)
+     */
+    private Optional<StoredObject> findGPSPhoto(Long executionId, Long gpsRecordId) {
+        String[] extensions = {".jpg", ".jpeg", ".png", ".webp"};
+
+        for (String ext : extensions) {
+            Optional<StoredObject> stat = objectStorage.stat(buildGPSPhotoObjectName(executionId, gpsRecordId, ext));
+            if (stat.isPresent()) {
+                return stat;
+            }
+        }
+        return Optional.empty();
+    }
+}
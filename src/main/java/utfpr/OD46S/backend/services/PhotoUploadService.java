@@ -0,0 +1,329 @@
+package utfpr.OD46S.backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.OD46S.backend.entitys.GPSRecord;
+import utfpr.OD46S.backend.entitys.PhotoUploadSession;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.PhotoUploadSessionRepository;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Upload resumível de fotos em partes: iniciar, enviar parte N, consultar, concluir.
+ * Em conexões móveis instáveis o app reenvia só as partes que faltam, em vez da foto inteira.
+ */
+@Service
+public class PhotoUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoUploadService.class);
+
+    @Autowired
+    private PhotoUploadSessionRepository photoUploadSessionRepository;
+
+    @Autowired
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Autowired
+    private PhotoStorageService photoStorageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${photo.upload.chunk-size-bytes:262144}")
+    private int defaultChunkSize;
+
+    @Value("${photo.upload.session-ttl-hours:24}")
+    private int sessionTtlHours;
+
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_SIZE = 5 * 1024 * 1024;
+    // Lote de findTop100ByExpiresAtBeforeOrderByExpiresAtAsc
+    private static final int CLEANUP_BATCH_SIZE = 100;
+    private static final long ASSEMBLY_TIMEOUT_MINUTES = 10;
+
+    @Transactional
+    public Map<String, Object> iniciarUpload(Long executionId, Long gpsRecordId, Map<String, Object> request) {
+        GPSRecord gpsRecord = gpsRecordRepository.findById(gpsRecordId)
+                .orElseThrow(() -> new RuntimeException("GPS record not found"));
+        if (!gpsRecord.getExecution().getId().equals(executionId)) {
+            throw new RuntimeException("GPS record not found for this execution");
+        }
+
+        String contentType = request.get("content_type") != null ? request.get("content_type").toString() : null;
+        Long totalSize = getLongFromMap(request, "total_size");
+        if (totalSize == null) {
+            throw new RuntimeException("total_size is required");
+        }
+        photoStorageService.validatePhoto(contentType, totalSize);
+
+        Long requestedChunkSize = getLongFromMap(request, "chunk_size");
+        int chunkSize = requestedChunkSize != null ? requestedChunkSize.intValue() : defaultChunkSize;
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new RuntimeException("chunk_size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE + " bytes");
+        }
+
+        PhotoUploadSession session = new PhotoUploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setExecutionId(executionId);
+        session.setGpsRecordId(gpsRecordId);
+        session.setContentType(contentType);
+        session.setTotalSize(totalSize);
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) ((totalSize + chunkSize - 1) / chunkSize));
+        session.setExpiresAt(LocalDateTime.now().plusHours(sessionTtlHours));
+        photoUploadSessionRepository.save(session);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", toResponseData(session));
+        response.put("message", "Upload session created successfully");
+
+        return response;
+    }
+
+    /**
+     * Recebe uma parte. O envio ao storage acontece fora de transação, então um cliente lento
+     * não segura uma conexão do banco nem a trava da sessão; a sessão só é travada, por um instante,
+     * para registrar a parte, de modo que partes concorrentes não percam a atualização da lista de recebidas.
+     */
+    public Map<String, Object> enviarParte(String uploadId, int chunkIndex, InputStream inputStream, long contentLength) {
+        PhotoUploadSession pending = photoUploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found"));
+        validarSessaoAtiva(pending);
+
+        if (chunkIndex < 0 || chunkIndex >= pending.getTotalChunks()) {
+            throw new RuntimeException("chunk_index must be between 0 and " + (pending.getTotalChunks() - 1));
+        }
+
+        long expectedSize = getExpectedChunkSize(pending, chunkIndex);
+        if (contentLength < 0) {
+            throw new RuntimeException("Content-Length is required");
+        }
+        if (contentLength != expectedSize) {
+            throw new RuntimeException("Chunk " + chunkIndex + " must have " + expectedSize + " bytes");
+        }
+
+        photoStorageService.storeUploadChunk(uploadId, chunkIndex, inputStream, contentLength);
+
+        PhotoUploadSession session = new TransactionTemplate(transactionManager).execute(status -> {
+            PhotoUploadSession locked = photoUploadSessionRepository.findByIdForUpdate(uploadId)
+                    .orElseThrow(() -> new RuntimeException("Upload session not found"));
+            validarSessaoAtiva(locked);
+            SortedSet<Integer> received = parseReceivedChunks(locked.getReceivedChunks());
+            received.add(chunkIndex);
+            locked.setReceivedChunks(formatReceivedChunks(received));
+            photoUploadSessionRepository.save(locked);
+            return locked;
+        });
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", toResponseData(session));
+
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> obterStatus(String uploadId) {
+        PhotoUploadSession session = photoUploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new RuntimeException("Upload session not found"));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", toResponseData(session));
+
+        return response;
+    }
+
+    /**
+     * Monta a foto a partir das partes e vincula ao registro GPS.
+     * A cópia das partes para o objeto montado roda fora de transação: a sessão é marcada ASSEMBLING
+     * numa transação curta, montada sem conexão nem trava, e vinculada numa segunda transação curta.
+     * Repetir a chamada após sucesso retorna o mesmo resultado (retry seguro).
+     */
+    public Map<String, Object> concluirUpload(String uploadId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        PhotoUploadSession session = transaction.execute(status -> {
+            PhotoUploadSession locked = photoUploadSessionRepository.findByIdForUpdate(uploadId)
+                    .orElseThrow(() -> new RuntimeException("Upload session not found"));
+            if ("COMPLETED".equals(locked.getStatus())) {
+                return locked;
+            }
+            if (locked.getExpiresAt().isBefore(LocalDateTime.now())) {
+                throw new RuntimeException("Upload session expired");
+            }
+            if (isAssembling(locked)) {
+                throw new RuntimeException("Upload session is being assembled");
+            }
+            List<Integer> missing = getMissingChunks(locked);
+            if (!missing.isEmpty()) {
+                throw new RuntimeException("Upload incomplete, missing chunks: " + missing);
+            }
+            locked.setStatus("ASSEMBLING");
+            photoUploadSessionRepository.save(locked);
+            return locked;
+        });
+
+        if (!"COMPLETED".equals(session.getStatus())) {
+            String sha256;
+            try {
+                sha256 = photoStorageService.assembleUploadChunks(
+                        uploadId, session.getTotalChunks(), session.getContentType(), session.getTotalSize());
+            } catch (RuntimeException e) {
+                // Devolve a sessão para IN_PROGRESS, para o app poder tentar concluir de novo
+                transaction.executeWithoutResult(status -> photoUploadSessionRepository.findByIdForUpdate(uploadId)
+                        .filter(locked -> "ASSEMBLING".equals(locked.getStatus()))
+                        .ifPresent(locked -> {
+                            locked.setStatus("IN_PROGRESS");
+                            photoUploadSessionRepository.save(locked);
+                        }));
+                throw e;
+            }
+
+            session = transaction.execute(status -> {
+                PhotoUploadSession locked = photoUploadSessionRepository.findByIdForUpdate(uploadId)
+                        .orElseThrow(() -> new RuntimeException("Upload session not found"));
+                if ("COMPLETED".equals(locked.getStatus())) {
+                    return locked;
+                }
+
+                GPSRecord gpsRecord = gpsRecordRepository.findById(locked.getGpsRecordId())
+                        .orElseThrow(() -> new RuntimeException("GPS record not found"));
+                String photoUrl = photoStorageService.attachUploadedGPSPhoto(gpsRecord, uploadId,
+                        locked.getTotalChunks(), sha256, locked.getContentType(), locked.getTotalSize());
+
+                gpsRecord.setPhotoUrl(photoUrl);
+                gpsRecordRepository.save(gpsRecord);
+
+                locked.setPhotoUrl(photoUrl);
+                locked.setStatus("COMPLETED");
+                photoUploadSessionRepository.save(locked);
+                return locked;
+            });
+        }
+
+        Map<String, Object> data = toResponseData(session);
+        data.put("gps_record_id", session.getGpsRecordId());
+        data.put("photo_url", session.getPhotoUrl());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        response.put("message", "Photo upload completed successfully");
+
+        return response;
+    }
+
+    /**
+     * Remove sessões expiradas junto com as partes e o objeto montado no storage (uploads abandonados).
+     * Uma sessão cujos objetos não puderam ser removidos fica para a próxima rodada.
+     */
+    @Scheduled(initialDelayString = "${photo.upload.cleanup-interval-ms:3600000}",
+               fixedDelayString = "${photo.upload.cleanup-interval-ms:3600000}")
+    public int limparSessoesExpiradas() {
+        int removed = 0;
+        boolean failed = false;
+        List<PhotoUploadSession> expired;
+        do {
+            expired = photoUploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime.now());
+            for (PhotoUploadSession session : expired) {
+                try {
+                    photoStorageService.deleteUploadObjects(session.getId(), session.getTotalChunks());
+                    photoUploadSessionRepository.delete(session);
+                    removed++;
+                } catch (RuntimeException e) {
+                    log.warn("Could not clean up expired upload session {}", session.getId(), e);
+                    failed = true;
+                }
+            }
+        } while (expired.size() == CLEANUP_BATCH_SIZE && !failed);
+        return removed;
+    }
+
+    // Helper methods
+    private void validarSessaoAtiva(PhotoUploadSession session) {
+        if ("COMPLETED".equals(session.getStatus())) {
+            throw new RuntimeException("Upload session already completed");
+        }
+        // As partes não mudam enquanto a foto é montada
+        if (isAssembling(session)) {
+            throw new RuntimeException("Upload session is being assembled");
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("Upload session expired");
+        }
+    }
+
+    // Uma montagem interrompida (reinício durante a cópia) libera a sessão depois de ASSEMBLY_TIMEOUT_MINUTES
+    private boolean isAssembling(PhotoUploadSession session) {
+        return "ASSEMBLING".equals(session.getStatus()) && session.getUpdatedAt() != null
+                && session.getUpdatedAt().isAfter(LocalDateTime.now().minusMinutes(ASSEMBLY_TIMEOUT_MINUTES));
+    }
+
+    private long getExpectedChunkSize(PhotoUploadSession session, int chunkIndex) {
+        long offset = (long) chunkIndex * session.getChunkSize();
+        return Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+    }
+
+    private List<Integer> getMissingChunks(PhotoUploadSession session) {
+        SortedSet<Integer> received = parseReceivedChunks(session.getReceivedChunks());
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < session.getTotalChunks(); i++) {
+            if (!received.contains(i)) {
+                missing.add(i);
+            }
+        }
+        return missing;
+    }
+
+    private SortedSet<Integer> parseReceivedChunks(String value) {
+        SortedSet<Integer> received = new TreeSet<>();
+        if (value != null && !value.isBlank()) {
+            for (String part : value.split(",")) {
+                received.add(Integer.parseInt(part.trim()));
+            }
+        }
+        return received;
+    }
+
+    private String formatReceivedChunks(SortedSet<Integer> received) {
+        return received.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private Map<String, Object> toResponseData(PhotoUploadSession session) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("upload_id", session.getId());
+        data.put("status", session.getStatus());
+        data.put("content_type", session.getContentType());
+        data.put("total_size", session.getTotalSize());
+        data.put("chunk_size", session.getChunkSize());
+        data.put("total_chunks", session.getTotalChunks());
+        data.put("received_chunks", new ArrayList<>(parseReceivedChunks(session.getReceivedChunks())));
+        data.put("missing_chunks", getMissingChunks(session));
+        data.put("expires_at", session.getExpiresAt());
+        return data;
+    }
+
+    private Long getLongFromMap(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value == null) return null;
+        if (value instanceof Number) return ((Number) value).longValue();
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(key + " must be a number");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package utfpr.OD46S.backend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+
+import java.util.*;
+
+/**
+ * Decoded route area geometries keyed by area id and content hash, so point-in-polygon checks
+ * and tile rendering work on primitive rings instead of re-parsing the stored JSON.
+ * An entry is reused only while the caller's content hash matches the one it was decoded from;
+ * a re-import that changes an area therefore misses and reloads it.
+ */
+@Service
+public class RouteAreaGeometryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteAreaGeometryCache.class);
+
+    @Autowired
+    private RouteAreaRepository routeAreaRepository;
+
+    @Value("${map.geometry.cache.max-entries:20000}")
+    private int maxEntries;
+
+    private final Map<Long, CachedGeometry> geometries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedGeometry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * Geometries for the given areas (id → content hash), loading the misses in one query.
+     * Areas without a stored binary geometry are left out of the result.
+     */
+    public Map<Long, PackedGeometry> getAll(Map<Long, String> versions) {
+        Map<Long, PackedGeometry> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        synchronized (geometries) {
+            for (Map.Entry<Long, String> entry : versions.entrySet()) {
+                CachedGeometry cached = geometries.get(entry.getKey());
+                if (cached != null && Objects.equals(cached.version(), entry.getValue())) {
+                    result.put(entry.getKey(), cached.geometry());
+                } else {
+                    missing.add(entry.getKey());
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // Decoded outside the lock; the hash read with the bytes is the one stored
+        Map<Long, CachedGeometry> loaded = new HashMap<>();
+        for (Object[] row : routeAreaRepository.findGeometryBinaryByIdIn(missing)) {
+            byte[] binary = (byte[]) row[2];
+            if (binary == null) {
+                continue;
+            }
+            try {
+                loaded.put((Long) row[0], new CachedGeometry((String) row[1], PackedGeometry.decode(binary)));
+            } catch (IllegalArgumentException e) {
+                log.warn("Could not decode geometry of route area {}", row[0], e);
+            }
+        }
+
+        synchronized (geometries) {
+            for (Map.Entry<Long, CachedGeometry> entry : loaded.entrySet()) {
+                // Areas without a hash yet (before backfill) are served but not cached
+                if (entry.getValue().version() != null) {
+                    geometries.put(entry.getKey(), entry.getValue());
+                }
+                result.put(entry.getKey(), entry.getValue().geometry());
+            }
+        }
+        return result;
+    }
+
+    private record CachedGeometry(String version, PackedGeometry geometry) {
+    }
+}
@@ -1,20 +1,34 @@
 package utfpr.OD46S.backend.services;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import utfpr.OD46S.backend.dtos.GeoJsonFeature;
-import utfpr.OD46S.backend.dtos.GeoJsonFeatureCollection;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.OD46S.backend.dtos.GeoJsonRawFeature;
+import utfpr.OD46S.backend.dtos.GeoJsonRawFeatureCollection;
 import utfpr.OD46S.backend.dtos.RouteDTO;
 import utfpr.OD46S.backend.entitys.Route;
 import utfpr.OD46S.backend.entitys.RouteArea;
 import utfpr.OD46S.backend.enums.CollectionType;
 import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
 import utfpr.OD46S.backend.repositorys.RouteRepository;
+import utfpr.OD46S.backend.services.GeoJsonFeatureParser.GeometryDerivatives;
+import utfpr.OD46S.backend.services.GeoJsonFeatureParser.PreparedFeature;
+import utfpr.OD46S.backend.utils.geo.BoundingBox;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
+import utfpr.OD46S.backend.utils.geo.GeometryDetail;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,138 +36,198 @@ import java.util.stream.Collectors;
 @Transactional
 public class RouteAreaService {
 
+    private static final Logger log = LoggerFactory.getLogger(RouteAreaService.class);
+
+    // Areas backfilled per transaction at startup
+    static final int BACKFILL_BATCH_SIZE = 200;
+
     @Autowired
     private RouteAreaRepository routeAreaRepository;
 
     @Autowired
     private RouteRepository routeRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private GeoJsonFeatureParser geoJsonFeatureParser;
+
+    @Autowired
+    private RouteAreaGeometryCache routeAreaGeometryCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
-     * Import GeoJSON FeatureCollection and create/update route areas
+     * Loads the id/name keys used to resolve routes and areas during an import.
+     * Only keys are read, so large maps do not pull every geometry into memory.
      */
-    public Map<String, Object> importGeoJson(GeoJsonFeatureCollection featureCollection, Long adminId) {
-        int totalFeatures = featureCollection.getFeatures().size();
-        int routesCreated = 0;
-        int routesLinked = 0;
-        int areasCreated = 0;
-        int areasUpdated = 0;
-        List<Map<String, Object>> errors = new ArrayList<>();
-
-        for (int i = 0; i < featureCollection.getFeatures().size(); i++) {
-            GeoJsonFeature feature = featureCollection.getFeatures().get(i);
-            try {
-                Map<String, Object> properties = feature.getProperties();
-                if (properties == null) {
-                    errors.add(createError(i, "Feature has no properties"));
-                    continue;
-                }
+    @Transactional(readOnly = true)
+    public ImportIndex loadImportIndex() {
+        ImportIndex index = new ImportIndex();
+        for (Object[] row : routeRepository.findAllIdAndName()) {
+            index.addRoute((Long) row[0], (String) row[1], false);
+        }
+        for (Object[] row : routeAreaRepository.findAllImportKeys()) {
+            index.addArea((Long) row[1], (String) row[2],
+                    new AreaEntry((Long) row[0], (String) row[3], Boolean.TRUE.equals(row[4])));
+        }
+        return index;
+    }
 
-                String externalName = (String) properties.get("name");
-                if (externalName == null || externalName.trim().isEmpty()) {
-                    errors.add(createError(i, "Feature missing 'name' in properties"));
-                    continue;
-                }
+    /**
+     * Writes one batch of parsed features in a single transaction and updates the index with
+     * the routes and areas it created, so later batches resolve to the same rows.
+     * Areas whose content hash matches the stored one are skipped, so a re-import of the
+     * same map writes nothing and does not invalidate the map snapshots.
+     */
+    public ImportBatchResult importBatch(List<PreparedFeature> batch, ImportIndex index, Long adminId) {
+        ImportBatchResult result = new ImportBatchResult();
+        List<PreparedFeature> resolved = new ArrayList<>();
+        List<Long> routeIds = new ArrayList<>();
+
+        // Pass 1: resolve (or create) the route of each feature
+        for (PreparedFeature feature : batch) {
+            if (!feature.isValid()) {
+                result.errors.add(createError(feature.index(), feature.error()));
+                continue;
+            }
 
-                String wasteType = (String) properties.get("waste_type");
-                if (wasteType == null || wasteType.trim().isEmpty()) {
-                    errors.add(createError(i, "Feature missing 'waste_type' in properties"));
+            Long routeId;
+            if (feature.routeId() != null) {
+                routeId = feature.routeId();
+                if (!index.hasRoute(routeId)) {
+                    result.errors.add(createError(feature.index(), "Route ID " + routeId + " does not exist"));
                     continue;
                 }
+                result.routesLinked++;
+            } else {
+                // Try to find route by name
+                routeId = index.findRouteIdByName(feature.externalName());
 
-                // Determine route_id
-                Long routeId = null;
-                if (properties.containsKey("route_id") && properties.get("route_id") != null) {
-                    routeId = Long.valueOf(properties.get("route_id").toString());
-                    if (!routeRepository.existsById(routeId)) {
-                        errors.add(createError(i, "Route ID " + routeId + " does not exist"));
-                        continue;
-                    }
-                    routesLinked++;
+                if (routeId != null) {
+                    result.routesLinked++;
                 } else {
-                    // Try to find route by name
-                    Optional<Route> existingRoute = routeRepository.findAll().stream()
-                            .filter(r -> r.getName().equalsIgnoreCase(externalName))
-                            .findFirst();
-
-                    if (existingRoute.isPresent()) {
-                        routeId = existingRoute.get().getId();
-                        routesLinked++;
-                    } else {
-                        // Create new route
-                        Route newRoute = new Route();
-                        newRoute.setName(externalName);
-                        newRoute.setDescription("Route created from map import");
-                        newRoute.setCollectionType(mapWasteTypeToCollectionType(wasteType));
-                        newRoute.setPeriodicity((String) properties.getOrDefault("periodicity", "0 8 * * *"));
-                        newRoute.setCreatedBy(adminId);
-                        newRoute.setActive(true);
-                        newRoute = routeRepository.save(newRoute);
-                        routeId = newRoute.getId();
-                        routesCreated++;
-                    }
+                    // Create new route
+                    Route newRoute = new Route();
+                    newRoute.setName(feature.externalName());
+                    newRoute.setDescription("Route created from map import");
+                    newRoute.setCollectionType(mapWasteTypeToCollectionType(feature.wasteType()));
+                    newRoute.setPeriodicity(feature.periodicity());
+                    newRoute.setCreatedBy(adminId);
+                    newRoute.setActive(true);
+                    routeId = routeRepository.save(newRoute).getId();
+                    index.addRoute(routeId, feature.externalName(), true);
+                    result.routesCreated++;
                 }
+            }
+            resolved.add(feature);
+            routeIds.add(routeId);
+        }
 
-                // Create or update route area
-                Optional<RouteArea> existingArea = routeAreaRepository
-                        .findByRouteIdAndExternalName(routeId, externalName);
+        // Existing areas whose content changed, in one query; unchanged areas are never loaded
+        List<Long> changedIds = new ArrayList<>();
+        for (int i = 0; i < resolved.size(); i++) {
+            AreaEntry entry = index.findArea(routeIds.get(i), resolved.get(i).externalName());
+            if (entry != null && !entry.isUnchanged(resolved.get(i).contentHash())) {
+                changedIds.add(entry.id());
+            }
+        }
+        Map<Long, RouteArea> existingAreas = new HashMap<>();
+        for (RouteArea area : routeAreaRepository.findAllById(changedIds)) {
+            existingAreas.put(area.getId(), area);
+        }
 
-                RouteArea area;
-                if (existingArea.isPresent()) {
-                    area = existingArea.get();
-                    areasUpdated++;
-                } else {
-                    area = new RouteArea();
-                    areasCreated++;
+        // Pass 2: create or update the areas; the same key twice in a batch reuses the first entity
+        Map<AreaKey, RouteArea> touched = new LinkedHashMap<>();
+        for (int i = 0; i < resolved.size(); i++) {
+            PreparedFeature feature = resolved.get(i);
+            Long routeId = routeIds.get(i);
+            AreaKey areaKey = new AreaKey(routeId, feature.externalName());
+
+            RouteArea area = touched.get(areaKey);
+            if (area != null) {
+                if (feature.contentHash().equals(area.getContentHash())) {
+                    result.areasUnchanged++;
+                    continue;
                 }
-
-                area.setRoute(routeRepository.findById(routeId).orElseThrow());
-                area.setExternalName(externalName);
-                area.setWasteType(wasteType.toUpperCase());
-                area.setGeometryGeojson(objectMapper.writeValueAsString(feature.getGeometry()));
-                area.setStrokeColor((String) properties.getOrDefault("stroke_color", "#000000"));
-                area.setFillColor((String) properties.getOrDefault("fill_color", "#000000"));
-                
-                Object fillOpacityObj = properties.get("fill_opacity");
-                if (fillOpacityObj != null) {
-                    area.setFillOpacity(new BigDecimal(fillOpacityObj.toString()));
+                result.areasUpdated++;
+            } else {
+                AreaEntry entry = index.findArea(routeId, feature.externalName());
+                if (entry != null && entry.isUnchanged(feature.contentHash())) {
+                    result.areasUnchanged++;
+                    continue;
+                }
+                area = entry != null ? existingAreas.get(entry.id()) : null;
+                if (area == null) {
+                    area = new RouteArea();
+                    result.areasCreated++;
                 } else {
-                    area.setFillOpacity(new BigDecimal("0.40"));
+                    result.areasUpdated++;
                 }
-                
-                area.setActive(true);
-                routeAreaRepository.save(area);
-
-            } catch (Exception e) {
-                errors.add(createError(i, "Error processing feature: " + e.getMessage()));
+                touched.put(areaKey, area);
             }
+
+            area.setRoute(routeRepository.getReferenceById(routeId));
+            area.setExternalName(feature.externalName());
+            area.setWasteType(feature.wasteType());
+            area.setGeometryGeojson(feature.geometryJson());
+            applyGeometryDerivatives(area, feature.derivatives());
+            area.setStrokeColor(feature.strokeColor());
+            area.setFillColor(feature.fillColor());
+            area.setFillOpacity(feature.fillOpacity());
+            area.setContentHash(feature.contentHash());
+            area.setActive(true);
         }
 
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("total_features", totalFeatures);
-        summary.put("routes_created", routesCreated);
-        summary.put("routes_linked", routesLinked);
-        summary.put("areas_created", areasCreated);
-        summary.put("areas_updated", areasUpdated);
+        routeAreaRepository.saveAll(new ArrayList<>(touched.values()));
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("summary", summary);
-        response.put("errors", errors);
+        // Sequence ids are assigned on persist, so new areas can be indexed right away
+        for (Map.Entry<AreaKey, RouteArea> entry : touched.entrySet()) {
+            RouteArea area = entry.getValue();
+            index.addArea(entry.getKey().routeId(), entry.getKey().externalName(),
+                    new AreaEntry(area.getId(), area.getContentHash(), true));
+        }
 
-        return response;
+        if (result.routesCreated > 0 || result.areasCreated > 0 || result.areasUpdated > 0) {
+            // Listeners (map snapshots) run after commit
+            eventPublisher.publishEvent(new RouteAreasChangedEvent());
+        }
+
+        return result;
     }
 
     /**
-     * Get all route areas as GeoJSON FeatureCollection
+     * Get all route areas as GeoJSON FeatureCollection.
+     * Geometry is passed through from the stored JSON text already rounded at import, never parsed.
      */
-    public GeoJsonFeatureCollection getGeoJsonFeatureCollection(String wasteType, Long routeId, Boolean active) {
+    @Transactional(readOnly = true)
+    public GeoJsonRawFeatureCollection getGeoJsonFeatureCollection(String wasteType, Long routeId, Boolean active) {
+        return getGeoJsonFeatureCollection(wasteType, routeId, active, null, GeometryDetail.FULL,
+                CoordinateWriter.DEFAULT_PRECISION);
+    }
+
+    /**
+     * Same as above, limited to areas overlapping the viewport bbox (when given),
+     * using the precomputed simplified geometry for the requested detail
+     * and with coordinates rounded to the given number of decimals.
+     */
+    @Transactional(readOnly = true)
+    public GeoJsonRawFeatureCollection getGeoJsonFeatureCollection(String wasteType, Long routeId, Boolean active,
+                                                                   BoundingBox bbox, GeometryDetail detail,
+                                                                   int precision) {
         if (active == null) active = true;
 
-        List<RouteArea> areas = routeAreaRepository.findWithFilters(active, wasteType, routeId);
+        List<RouteArea> areas = bbox == null
+                ? routeAreaRepository.findWithFilters(active, wasteType, routeId)
+                : routeAreaRepository.findWithFiltersInBoundingBox(active, wasteType, routeId,
+                        bbox.minLon(), bbox.minLat(), bbox.maxLon(), bbox.maxLat());
 
-        List<GeoJsonFeature> features = areas.stream().map(area -> {
-            GeoJsonFeature feature = new GeoJsonFeature();
+        List<GeoJsonRawFeature> features = areas.stream().map(area -> {
+            GeoJsonRawFeature feature = new GeoJsonRawFeature();
             Map<String, Object> properties = new HashMap<>();
             
             Route route = area.getRoute();
@@ -169,27 +243,21 @@ public class RouteAreaService {
             properties.put("active", area.getActive());
             
             feature.setProperties(properties);
-            
-            try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> geometry = objectMapper.readValue(area.getGeometryGeojson(), Map.class);
-                feature.setGeometry(geometry);
-            } catch (JsonProcessingException e) {
-                // Log error but continue
-            }
+            feature.setGeometry(responseGeometry(area, detail, precision));
             
             return feature;
         }).collect(Collectors.toList());
 
-        GeoJsonFeatureCollection collection = new GeoJsonFeatureCollection();
+        GeoJsonRawFeatureCollection collection = new GeoJsonRawFeatureCollection();
         collection.setFeatures(features);
         return collection;
     }
 
     /**
-     * Get route areas for a specific route
+     * Get route areas for a specific route, with coordinates rounded to the given number of decimals
      */
-    public Map<String, Object> getRouteMap(Long routeId) {
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRouteMap(Long routeId, int precision) {
         Route route = routeRepository.findById(routeId)
                 .orElseThrow(() -> new RuntimeException("Route not found"));
 
@@ -201,8 +269,8 @@ public class RouteAreaService {
         routeDTO.setCollectionType(route.getCollectionType());
         routeDTO.setPeriodicity(route.getPeriodicity());
 
-        List<GeoJsonFeature> features = areas.stream().map(area -> {
-            GeoJsonFeature feature = new GeoJsonFeature();
+        List<GeoJsonRawFeature> features = areas.stream().map(area -> {
+            GeoJsonRawFeature feature = new GeoJsonRawFeature();
             Map<String, Object> properties = new HashMap<>();
             properties.put("areaId", area.getId());
             properties.put("externalName", area.getExternalName());
@@ -213,19 +281,12 @@ public class RouteAreaService {
             properties.put("active", area.getActive());
             
             feature.setProperties(properties);
-            
-            try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> geometry = objectMapper.readValue(area.getGeometryGeojson(), Map.class);
-                feature.setGeometry(geometry);
-            } catch (JsonProcessingException e) {
-                // Log error but continue
-            }
+            feature.setGeometry(responseGeometry(area, GeometryDetail.FULL, precision));
             
             return feature;
         }).collect(Collectors.toList());
 
-        GeoJsonFeatureCollection geojson = new GeoJsonFeatureCollection();
+        GeoJsonRawFeatureCollection geojson = new GeoJsonRawFeatureCollection();
         geojson.setFeatures(features);
 
         Map<String, Object> response = new HashMap<>();
@@ -235,6 +296,116 @@ public class RouteAreaService {
         return response;
     }
 
+    /**
+     * Active areas containing the point, checked against the cached binary geometry.
+     * The bbox columns narrow the candidates first, so only a handful of polygons are tested.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAreasContaining(double lon, double lat, String wasteType) {
+        List<Object[]> candidates = routeAreaRepository.findCandidatesContaining(lon, lat, wasteType);
+        if (candidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, String> versions = new HashMap<>();
+        for (Object[] row : candidates) {
+            versions.put((Long) row[0], (String) row[1]);
+        }
+        Map<Long, PackedGeometry> geometries = routeAreaGeometryCache.getAll(versions);
+
+        List<Map<String, Object>> areas = new ArrayList<>();
+        for (Object[] row : candidates) {
+            PackedGeometry geometry = geometries.get((Long) row[0]);
+            if (geometry == null || !geometry.contains(lon, lat)) {
+                continue;
+            }
+            Map<String, Object> area = new HashMap<>();
+            area.put("area_id", row[0]);
+            area.put("route_id", row[2]);
+            area.put("route_name", row[3]);
+            area.put("external_name", row[4]);
+            area.put("waste_type", row[5]);
+            areas.add(area);
+        }
+        return areas;
+    }
+
+    /**
+     * Fills bbox, rounded and simplified geometries, binary geometry and content hash for areas stored
+     * before those columns existed. Runs in pages by id, each in its own transaction, so a large
+     * table is never held in one persistence context; areas that fail are logged and skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillGeometryDerivatives() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long lastId = 0L;
+        while (lastId != null) {
+            Long afterId = lastId;
+            lastId = transaction.execute(status -> backfillPage(afterId));
+        }
+    }
+
+    // Returns the last id of a full page, or null when there is nothing left
+    private Long backfillPage(Long afterId) {
+        List<RouteArea> areas = routeAreaRepository.findMissingGeometryDerivatives(
+                afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+        for (RouteArea area : areas) {
+            try {
+                JsonNode geometry = objectMapper.readTree(area.getGeometryGeojson());
+                applyGeometryDerivatives(area, geoJsonFeatureParser.derive(geometry));
+                area.setContentHash(geoJsonFeatureParser.contentHash(geometry, area.getWasteType(),
+                        area.getStrokeColor(), area.getFillColor(), area.getFillOpacity()));
+                routeAreaRepository.save(area);
+            } catch (Exception e) {
+                log.warn("Could not compute geometry derivatives for route area {}", area.getId(), e);
+            }
+        }
+        return areas.size() < BACKFILL_BATCH_SIZE ? null : areas.get(areas.size() - 1).getId();
+    }
+
+    private void applyGeometryDerivatives(RouteArea area, GeometryDerivatives derivatives) {
+        BoundingBox bbox = derivatives.bbox();
+        area.setMinLon(bbox != null ? bbox.minLon() : null);
+        area.setMinLat(bbox != null ? bbox.minLat() : null);
+        area.setMaxLon(bbox != null ? bbox.maxLon() : null);
+        area.setMaxLat(bbox != null ? bbox.maxLat() : null);
+        area.setGeometryRounded(derivatives.geometryRounded());
+        area.setGeometryLow(derivatives.geometryLow());
+        area.setGeometryMedium(derivatives.geometryMedium());
+        area.setGeometryBinary(derivatives.geometryBinary());
+    }
+
+    /**
+     * Geometry JSON for a response. The rounded and simplified columns already carry the default
+     * precision and are passed through as stored; only another precision re-tokenizes the geometry.
+     * Simplified variants drop more than the default precision keeps, so a finer precision serves them as stored.
+     * Areas not yet backfilled (no rounded column) are rounded on the fly.
+     */
+    private String responseGeometry(RouteArea area, GeometryDetail detail, int precision) {
+        if (area.getGeometryRounded() == null) {
+            return CoordinateWriter.write(selectGeometry(area, detail), precision);
+        }
+        String simplified = detail == GeometryDetail.LOW ? area.getGeometryLow()
+                : detail == GeometryDetail.MEDIUM ? area.getGeometryMedium() : null;
+        if (simplified != null) {
+            return precision >= CoordinateWriter.DEFAULT_PRECISION ? simplified
+                    : CoordinateWriter.write(simplified, precision);
+        }
+        return precision == CoordinateWriter.DEFAULT_PRECISION ? area.getGeometryRounded()
+                : CoordinateWriter.write(area.getGeometryGeojson(), precision);
+    }
+
+    private String selectGeometry(RouteArea area, GeometryDetail detail) {
+        if (detail == GeometryDetail.LOW && area.getGeometryLow() != null) {
+            return area.getGeometryLow();
+        }
+        if (detail == GeometryDetail.MEDIUM && area.getGeometryMedium() != null) {
+            return area.getGeometryMedium();
+        }
+        return area.getGeometryGeojson();
+    }
+
     private Map<String, Object> createError(int index, String message) {
         Map<String, Object> error = new HashMap<>();
         error.put("feature_index", index);
@@ -258,5 +429,79 @@ public class RouteAreaService {
         return CollectionType.RESIDENTIAL; // default
     }
 
-}
+    private record AreaKey(Long routeId, String externalName) {
+    }
+
+    /**
+     * Route and area keys known to an import job. Route names are matched case-insensitively;
+     * when several routes share a name the oldest one wins, as routes are added in id order.
+     * Used only by the job thread, so it is not synchronized.
+     */
+    public static class ImportIndex {
+        private final Set<Long> routeIds = new HashSet<>();
+        private final Map<String, Long> routeIdsByName = new HashMap<>();
+        private final Map<AreaKey, AreaEntry> areas = new HashMap<>();
+
+        void addRoute(Long id, String name, boolean replaceName) {
+            routeIds.add(id);
+            String key = name.toLowerCase(Locale.ROOT);
+            if (replaceName) {
+                routeIdsByName.put(key, id);
+            } else {
+                routeIdsByName.putIfAbsent(key, id);
+            }
+        }
+
+        void addArea(Long routeId, String externalName, AreaEntry entry) {
+            areas.put(new AreaKey(routeId, externalName), entry);
+        }
+
+        boolean hasRoute(Long id) {
+            return routeIds.contains(id);
+        }
+
+        Long findRouteIdByName(String name) {
+            return routeIdsByName.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        AreaEntry findArea(Long routeId, String externalName) {
+            return areas.get(new AreaKey(routeId, externalName));
+        }
+    }
 
+    /**
+     * Stored state of an area as seen by the importer.
+     */
+    record AreaEntry(Long id, String contentHash, boolean active) {
+
+        // An inactive area is rewritten even with the same content, since the import reactivates it
+        boolean isUnchanged(String newHash) {
+            return active && contentHash != null && contentHash.equals(newHash);
+        }
+    }
+
+    /**
+     * Counts and errors for one import batch.
+     */
+    public static class ImportBatchResult {
+        int routesCreated;
+        int routesLinked;
+        int areasCreated;
+        int areasUpdated;
+        int areasUnchanged;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+
+        public int getRoutesCreated() { return routesCreated; }
+        public int getRoutesLinked() { return routesLinked; }
+        public int getAreasCreated() { return areasCreated; }
+        public int getAreasUpdated() { return areasUpdated; }
+        public int getAreasUnchanged() { return areasUnchanged; }
+        public List<Map<String, Object>> getErrors() { return errors; }
+    }
+
+    /**
+     * Published when an import creates or updates route areas.
+     */
+    public record RouteAreasChangedEvent() {
+    }
+}
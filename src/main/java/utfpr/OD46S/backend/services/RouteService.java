@@ -78,19 +78,15 @@ public class RouteService {
             }
         }
 
-        // Find routes
-        Page<Route> routesPage = routeRepository.findByFilters(
+        // Find routes (DTO projection with the points count, no entity loading)
+        Page<RouteDTO> routesPage = routeRepository.findSummariesByFilters(
             search,
             collectionTypeEnum,
             priorityEnum,
             active,
             pageable
         );
-
-        // Convert to DTOs
-        List<RouteDTO> routeDTOs = routesPage.getContent().stream()
-            .map(this::toDTOWithoutPoints)
-            .collect(Collectors.toList());
+        List<RouteDTO> routeDTOs = routesPage.getContent();
 
         // Pagination info
         Map<String, Object> pagination = new HashMap<>();
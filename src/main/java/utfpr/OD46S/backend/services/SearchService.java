@@ -0,0 +1,99 @@
+package utfpr.OD46S.backend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.OD46S.backend.repositorys.RouteRepository;
+import utfpr.OD46S.backend.repositorys.UsuarioRepository;
+import utfpr.OD46S.backend.repositorys.VeiculoRepository;
+import utfpr.OD46S.backend.utils.SearchPatterns;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin search box: users, routes and vehicles ranked by trigram similarity.
+ * Each group is one index-backed query (pg_trgm GIN on lower(column)) capped at a small limit,
+ * so the cost stays flat as the tables grow.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SearchService {
+
+    public static final int MIN_QUERY_LENGTH = 2;
+    public static final int DEFAULT_LIMIT = 5;
+    public static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    public Map<String, Object> search(String query, Integer limit) {
+        String term = SearchPatterns.normalize(query);
+        if (term == null || term.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        String pattern = SearchPatterns.contains(query);
+        Pageable top = PageRequest.of(0, size);
+
+        List<Map<String, Object>> users = new ArrayList<>();
+        for (Object[] row : usuarioRepository.searchBySimilarity(term, pattern, top)) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            user.put("id", ((Number) row[0]).longValue());
+            user.put("name", row[1]);
+            user.put("email", row[2]);
+            user.put("active", row[3]);
+            user.put("type", row[4]);
+            user.put("score", score(row[5]));
+            users.add(user);
+        }
+
+        List<Map<String, Object>> routes = new ArrayList<>();
+        for (Object[] row : routeRepository.searchBySimilarity(term, pattern, top)) {
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("id", ((Number) row[0]).longValue());
+            route.put("name", row[1]);
+            route.put("collection_type", row[2]);
+            route.put("active", row[3]);
+            route.put("score", score(row[4]));
+            routes.add(route);
+        }
+
+        List<Map<String, Object>> vehicles = new ArrayList<>();
+        for (Object[] row : veiculoRepository.searchBySimilarity(term, pattern, top)) {
+            Map<String, Object> vehicle = new LinkedHashMap<>();
+            vehicle.put("id", ((Number) row[0]).longValue());
+            vehicle.put("license_plate", row[1]);
+            vehicle.put("model", row[2]);
+            vehicle.put("status", row[3]);
+            vehicle.put("active", row[4]);
+            vehicle.put("score", score(row[5]));
+            vehicles.add(vehicle);
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("query", term);
+        data.put("users", users);
+        data.put("routes", routes);
+        data.put("vehicles", vehicles);
+        return data;
+    }
+
+    // similarity() is a real in [0, 1]; 3 decimals are enough to read the ranking
+    private static double score(Object value) {
+        return value == null ? 0.0 : Math.round(((Number) value).doubleValue() * 1000) / 1000.0;
+    }
+}
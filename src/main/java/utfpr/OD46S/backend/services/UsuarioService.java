@@ -2,7 +2,6 @@ package utfpr.OD46S.backend.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,11 +15,10 @@ import utfpr.OD46S.backend.repositorys.MotoristaRepository;
 import utfpr.OD46S.backend.repositorys.RouteAssignmentRepository;
 import utfpr.OD46S.backend.repositorys.RouteExecutionRepository;
 import utfpr.OD46S.backend.repositorys.UsuarioRepository;
+import utfpr.OD46S.backend.utils.SearchPatterns;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -45,106 +43,48 @@ public class UsuarioService {
     private PasswordEncoder passwordEncoder;
 
     public Page<UsuarioDTO> listarUsuarios(String search, String type, Boolean active, Pageable pageable) {
-        Page<Usuario> usuarios;
-        
-        // Aplicar filtros básicos
-        if (active != null) {
-            usuarios = usuarioRepository.findByActive(active, pageable);
-        } else {
-            usuarios = usuarioRepository.findAll(pageable);
-        }
-        
-        // Converter para DTOs e aplicar filtros
-        Page<UsuarioDTO> result = usuarios.map(usuario -> {
-            UsuarioDTO dto = UsuarioDTO.fromEntity(usuario);
-            
-            // Determinar tipo do usuário
-            if (administratorRepository.existsById(usuario.getId())) {
-                dto.setType("ADMIN");
-                Optional<Administrator> admin = administratorRepository.findById(usuario.getId());
-                if (admin.isPresent()) {
-                    dto.setAccessLevel(admin.get().getAccessLevel());
-                    dto.setDepartment(admin.get().getDepartment());
-                    dto.setCorporatePhone(admin.get().getCorporatePhone());
-                }
-            } else if (motoristaRepository.existsById(usuario.getId())) {
-                dto.setType("DRIVER");
-                Optional<Motorista> motorista = motoristaRepository.findById(usuario.getId());
-                if (motorista.isPresent()) {
-                    dto.setLicenseNumber(motorista.get().getLicenseNumber());
-                    dto.setLicenseCategory(motorista.get().getLicenseCategory().toString());
-                    dto.setLicenseExpiry(motorista.get().getLicenseExpiry().toString());
-                    dto.setEnabled(motorista.get().getEnabled());
-                    dto.setPhone(motorista.get().getPhone());
-                }
-            }
-            
-            return dto;
-        });
-        
-        // Aplicar filtros adicionais se necessário
-        if ((search != null && !search.trim().isEmpty()) || (type != null && !type.trim().isEmpty())) {
-            List<UsuarioDTO> filteredList = result.getContent().stream()
-                .filter(dto -> {
-                    // Aplicar filtro de busca
-                    if (search != null && !search.trim().isEmpty()) {
-                        String searchLower = search.toLowerCase();
-                        boolean matchesSearch = (dto.getName() != null && dto.getName().toLowerCase().contains(searchLower)) ||
-                                              (dto.getEmail() != null && dto.getEmail().toLowerCase().contains(searchLower));
-                        if (!matchesSearch) {
-                            return false;
-                        }
-                    }
-                    
-                    // Aplicar filtro de tipo
-                    if (type != null && !type.trim().isEmpty()) {
-                        if (!type.equals(dto.getType())) {
-                            return false;
-                        }
-                    }
-                    
-                    return true;
-                })
-                .collect(Collectors.toList());
-            
-            // Criar nova Page com os dados filtrados
-            return new PageImpl<>(filteredList, pageable, filteredList.size());
-        }
-        
-        return result;
+        // Filtros de busca e tipo aplicados no banco, para que a paginação e o total fiquem corretos
+        String searchPattern = SearchPatterns.contains(search);
+        String typeFilter = type != null && !type.trim().isEmpty() ? type.trim() : null;
+
+        return usuarioRepository.findWithRoles(searchPattern, typeFilter, active, pageable)
+                .map(this::toDTO);
     }
 
     public UsuarioDTO obterUsuario(Long id) {
-        Usuario usuario = usuarioRepository.findById(id)
+        return usuarioRepository.findWithRolesById(id).stream()
+                .findFirst()
+                .map(this::toDTO)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+    }
+
+    /**
+     * Converte uma linha [Usuario, Administrator ou null, Motorista ou null] no DTO com o tipo do usuário.
+     * Quem tem as duas linhas é tratado como ADMIN.
+     */
+    private UsuarioDTO toDTO(Object[] row) {
+        Usuario usuario = (Usuario) row[0];
+        Administrator admin = (Administrator) row[1];
+        Motorista motorista = (Motorista) row[2];
 
         UsuarioDTO dto = UsuarioDTO.fromEntity(usuario);
-        
-        // Determinar tipo do usuário e adicionar campos específicos
-        if (administratorRepository.existsById(id)) {
+        if (admin != null) {
             dto.setType("ADMIN");
-            Optional<Administrator> admin = administratorRepository.findById(id);
-            if (admin.isPresent()) {
-                dto.setAccessLevel(admin.get().getAccessLevel());
-                dto.setDepartment(admin.get().getDepartment());
-                dto.setCorporatePhone(admin.get().getCorporatePhone());
-            }
-        } else if (motoristaRepository.existsById(id)) {
+            dto.setAccessLevel(admin.getAccessLevel());
+            dto.setDepartment(admin.getDepartment());
+            dto.setCorporatePhone(admin.getCorporatePhone());
+        } else if (motorista != null) {
             dto.setType("DRIVER");
-            Optional<Motorista> motorista = motoristaRepository.findById(id);
-            if (motorista.isPresent()) {
-                dto.setLicenseNumber(motorista.get().getLicenseNumber());
-                if (motorista.get().getLicenseCategory() != null) {
-                    dto.setLicenseCategory(motorista.get().getLicenseCategory().toString());
-                }
-                if (motorista.get().getLicenseExpiry() != null) {
-                    dto.setLicenseExpiry(motorista.get().getLicenseExpiry().toString());
-                }
-                dto.setEnabled(motorista.get().getEnabled());
-                dto.setPhone(motorista.get().getPhone());
+            dto.setLicenseNumber(motorista.getLicenseNumber());
+            if (motorista.getLicenseCategory() != null) {
+                dto.setLicenseCategory(motorista.getLicenseCategory().toString());
+            }
+            if (motorista.getLicenseExpiry() != null) {
+                dto.setLicenseExpiry(motorista.getLicenseExpiry().toString());
             }
+            dto.setEnabled(motorista.getEnabled());
+            dto.setPhone(motorista.getPhone());
         }
-        
         return dto;
     }
 
@@ -0,0 +1,230 @@
+package utfpr.OD46S.backend.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.utils.geo.BoundingBox;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+import utfpr.OD46S.backend.utils.geo.VectorTileEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds Mapbox Vector Tiles of the route areas ("route_areas" layer) and, for a given day,
+ * the GPS tracks crossing the tile ("tracks" layer).
+ * Area-only tiles are cached per tile and waste type until the next import; tiles with tracks
+ * change while drivers are out and are built per request.
+ * Tracks are only drawn from map.tiles.tracks-min-zoom up, where a tile covers a few neighbourhoods,
+ * and each tile reads at most map.tiles.tracks-max-points fixes.
+ */
+@Service
+public class VectorTileService {
+
+    public static final String AREAS_LAYER = "route_areas";
+    public static final String TRACKS_LAYER = "tracks";
+
+    @Autowired
+    private RouteAreaRepository routeAreaRepository;
+
+    @Autowired
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Autowired
+    private RouteAreaGeometryCache routeAreaGeometryCache;
+
+    @Value("${map.tiles.cache.max-entries:2048}")
+    private int maxEntries;
+
+    @Value("${map.tiles.tracks-min-zoom:12}")
+    private int tracksMinZoom;
+
+    @Value("${map.tiles.tracks-max-points:20000}")
+    private int tracksMaxPoints;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<TileKey, VectorTile> tiles = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, VectorTile> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public VectorTile getTile(int z, int x, int y, String wasteType, LocalDate tracksDate) {
+        TileKey key = new TileKey(z, x, y, wasteType);
+        long currentVersion = version.get();
+
+        // Below the minimum zoom a tile spans the whole city: the tracks layer is left out
+        if (tracksDate != null && z >= tracksMinZoom) {
+            return build(key, tracksDate, currentVersion);
+        }
+
+        synchronized (tiles) {
+            VectorTile cached = tiles.get(key);
+            if (cached != null && cached.version() == currentVersion) {
+                return cached;
+            }
+        }
+
+        // Built outside the lock; the version read before querying marks it stale if an import commits meanwhile
+        VectorTile tile = build(key, null, currentVersion);
+
+        synchronized (tiles) {
+            VectorTile cached = tiles.get(key);
+            if (cached == null || cached.version() < tile.version()) {
+                tiles.put(key, tile);
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Drops all cached tiles once an import commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteAreasChanged(RouteAreaService.RouteAreasChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        synchronized (tiles) {
+            tiles.clear();
+        }
+    }
+
+    private VectorTile build(TileKey key, LocalDate tracksDate, long tileVersion) {
+        BoundingBox bounds = VectorTileEncoder.tileBounds(key.z(), key.x(), key.y());
+        VectorTileEncoder encoder = new VectorTileEncoder(key.z(), key.x(), key.y());
+
+        addAreas(encoder, key.wasteType(), bounds);
+        if (tracksDate != null) {
+            addTracks(encoder, tracksDate, bounds);
+        }
+
+        if (encoder.isEmpty()) {
+            return new VectorTile(tileVersion, new byte[0], new byte[0], null, null);
+        }
+        byte[] data = encoder.encode();
+        try {
+            String hash = sha256Hex(data);
+            return new VectorTile(tileVersion, data, gzip(data), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress vector tile: " + e.getMessage(), e);
+        }
+    }
+
+    private void addAreas(VectorTileEncoder encoder, String wasteType, BoundingBox bounds) {
+        List<Object[]> candidates = routeAreaRepository.findTileCandidates(
+                wasteType, bounds.minLon(), bounds.minLat(), bounds.maxLon(), bounds.maxLat());
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> versions = new HashMap<>();
+        for (Object[] row : candidates) {
+            versions.put((Long) row[0], (String) row[1]);
+        }
+        Map<Long, PackedGeometry> geometries = routeAreaGeometryCache.getAll(versions);
+
+        for (Object[] row : candidates) {
+            PackedGeometry geometry = geometries.get((Long) row[0]);
+            if (geometry == null) {
+                continue;
+            }
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("route_id", row[2]);
+            attributes.put("route_name", row[3]);
+            attributes.put("external_name", row[4]);
+            attributes.put("waste_type", row[5]);
+            attributes.put("stroke_color", row[6]);
+            attributes.put("fill_color", row[7]);
+            attributes.put("fill_opacity", row[8]);
+            encoder.addGeometry(AREAS_LAYER, (Long) row[0], attributes, geometry);
+        }
+    }
+
+    private void addTracks(VectorTileEncoder encoder, LocalDate date, BoundingBox bounds) {
+        List<Object[]> points = gpsRecordRepository.findTrackPointsInBoundingBox(
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                BigDecimal.valueOf(bounds.minLon()), BigDecimal.valueOf(bounds.minLat()),
+                BigDecimal.valueOf(bounds.maxLon()), BigDecimal.valueOf(bounds.maxLat()),
+                PageRequest.of(0, tracksMaxPoints));
+
+        // Rows come ordered by execution and time: one line per execution; past the cap the last one is cut short
+        int start = 0;
+        for (int i = 1; i <= points.size(); i++) {
+            if (i < points.size() && Objects.equals(points.get(i)[0], points.get(start)[0])) {
+                continue;
+            }
+            List<Object[]> track = points.subList(start, i);
+            if (track.size() >= 2) {
+                double[] lonLat = new double[track.size() * 2];
+                for (int p = 0; p < track.size(); p++) {
+                    lonLat[p * 2] = ((BigDecimal) track.get(p)[1]).doubleValue();
+                    lonLat[p * 2 + 1] = ((BigDecimal) track.get(p)[2]).doubleValue();
+                }
+                Long executionId = (Long) track.get(0)[0];
+                encoder.addLineString(TRACKS_LAYER, executionId, Map.of("execution_id", executionId), lonLat);
+            }
+            start = i;
+        }
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    private String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record TileKey(int z, int x, int y, String wasteType) {
+    }
+
+    /**
+     * Encoded tile, its gzip encoding and strong ETags; an empty tile has no data and no ETag.
+     */
+    public record VectorTile(long version, byte[] data, byte[] gzip, String etag, String gzipEtag) {
+
+        public boolean isEmpty() {
+            return data.length == 0;
+        }
+
+        public boolean matches(String ifNoneMatch) {
+            if (etag == null || ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
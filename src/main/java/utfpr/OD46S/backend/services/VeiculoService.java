@@ -1,12 +1,14 @@
 package utfpr.OD46S.backend.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import utfpr.OD46S.backend.dtos.VeiculoDTO;
 import utfpr.OD46S.backend.entitys.Veiculo;
 import utfpr.OD46S.backend.enums.StatusVeiculo;
 import utfpr.OD46S.backend.repositorys.VeiculoRepository;
+import utfpr.OD46S.backend.utils.SearchPatterns;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,8 +20,20 @@ public class VeiculoService {
     @Autowired
     private VeiculoRepository veiculoRepository;
 
+    @Transactional(readOnly = true)
     public List<VeiculoDTO> listarTodos() {
-        return veiculoRepository.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+        return listarTodos(null);
+    }
+
+    // Com busca, a lista vem ordenada pela similaridade com a placa ou o modelo (índices pg_trgm)
+    @Transactional(readOnly = true)
+    public List<VeiculoDTO> listarTodos(String search) {
+        String term = SearchPatterns.normalize(search);
+        if (term == null) {
+            return veiculoRepository.findAllAsDTO();
+        }
+        return veiculoRepository.findBySimilarity(term, SearchPatterns.contains(search), Pageable.unpaged())
+                .stream().map(this::toDTO).collect(Collectors.toList());
     }
 
     public VeiculoDTO cadastrar(VeiculoDTO dto) {
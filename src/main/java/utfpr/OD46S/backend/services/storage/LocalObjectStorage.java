@@ -0,0 +1,187 @@
+package utfpr.OD46S.backend.services.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Storage em disco local (instalações em uma única VM, sem MinIO).
+ * As chaves viram caminhos sob o diretório raiz, então os layouts existentes
+ * (gps-photos/execution_{id}/..., gps-photos/sha256/{hh}/...) já servem de sharding de diretórios.
+ * Escritas vão para um arquivo temporário no mesmo diretório e são publicadas com rename atômico:
+ * leitores nunca veem um arquivo pela metade.
+ */
+public class LocalObjectStorage implements ObjectStorage {
+
+    private final Path root;
+
+    public LocalObjectStorage(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create storage directory: " + this.root, e);
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream inputStream, long size, String contentType) {
+        Path target = resolve(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ReadableByteChannel in = Channels.newChannel(inputStream)) {
+                long written = 0;
+                while (written < size) {
+                    long transferred = out.transferFrom(in, written, size - written);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    written += transferred;
+                }
+                if (written != size) {
+                    throw new IOException("Expected " + size + " bytes but received " + written);
+                }
+                out.force(true);
+            }
+
+            moveAtomically(temp, target);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file on disk: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) {
+        Path path = resolve(key);
+        try {
+            return Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Object not found: " + key, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to retrieve file from disk: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new StoredObject(key, Files.size(path), contentTypeOf(key)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to stat file on disk: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cópia com FileChannel.transferTo: o kernel copia os bytes (sendfile/copy_file_range)
+     * sem passar pela heap da aplicação
+     */
+    @Override
+    public void copy(String sourceKey, String targetKey) {
+        Path source = resolve(sourceKey);
+        Path target = resolve(targetKey);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".copy-", ".tmp");
+
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+                out.force(true);
+            }
+
+            moveAtomically(temp, target);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Object not found: " + sourceKey, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to copy file on disk: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to remove file from disk: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Converte a chave em caminho sob a raiz, recusando chaves que escapem do diretório (ex: "../")
+     */
+    private Path resolve(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Invalid object key");
+        }
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        return path;
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Temporário e destino ficam no mesmo diretório, então isso só ocorre em filesystems exóticos
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Temporário órfão não compromete o objeto publicado
+        }
+    }
+
+    private String contentTypeOf(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        if (lower.endsWith(".png")) {
+            return "image/png";
+        }
+        if (lower.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+}
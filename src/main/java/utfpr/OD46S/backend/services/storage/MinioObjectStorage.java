@@ -0,0 +1,178 @@
+package utfpr.OD46S.backend.services.storage;
+
+import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage em MinIO (S3-compatible). O bucket é criado no primeiro envio, se necessário.
+ */
+public class MinioObjectStorage implements ObjectStorage {
+
+    private final MinioClient minioClient;
+    private final MinioClient minioPresignClient;
+    private final String bucketName;
+
+    private volatile boolean bucketChecked = false;
+
+    public MinioObjectStorage(MinioClient minioClient, MinioClient minioPresignClient, String bucketName) {
+        this.minioClient = minioClient;
+        this.minioPresignClient = minioPresignClient;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public void put(String key, InputStream inputStream, long size, String contentType) {
+        try {
+            ensureBucketExists();
+            minioClient.putObject(
+                PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(key)
+                    .stream(inputStream, size, -1)
+                    .contentType(contentType)
+                    .build()
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to store file in MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) {
+        try {
+            return minioClient.getObject(
+                GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(key)
+                    .build()
+            );
+        } catch (ErrorResponseException e) {
+            if (isNotFound(e)) {
+                throw new RuntimeException("Object not found: " + key, e);
+            }
+            throw new RuntimeException("Failed to retrieve file from MinIO: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to retrieve file from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        try {
+            StatObjectResponse stat = minioClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(key)
+                    .build()
+            );
+            return Optional.of(new StoredObject(stat.object(), stat.size(), stat.contentType()));
+        } catch (ErrorResponseException e) {
+            if (isNotFound(e)) {
+                return Optional.empty();
+            }
+            throw new RuntimeException("Failed to stat file in MinIO: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to stat file in MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cópia server-side: os bytes não passam pela aplicação
+     */
+    @Override
+    public void copy(String sourceKey, String targetKey) {
+        try {
+            minioClient.copyObject(
+                CopyObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(targetKey)
+                    .source(CopySource.builder().bucket(bucketName).object(sourceKey).build())
+                    .build()
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to copy file in MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            minioClient.removeObject(
+                RemoveObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(key)
+                    .build()
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to remove file from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean supportsPresignedUrls() {
+        return true;
+    }
+
+    @Override
+    public String presignedUploadUrl(String key, int expirySeconds) {
+        ensureBucketExists();
+        return presign(Method.PUT, key, expirySeconds);
+    }
+
+    @Override
+    public String presignedDownloadUrl(String key, int expirySeconds) {
+        return presign(Method.GET, key, expirySeconds);
+    }
+
+    private String presign(Method method, String key, int expirySeconds) {
+        try {
+            return minioPresignClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                    .method(method)
+                    .bucket(bucketName)
+                    .object(key)
+                    .expiry(expirySeconds, TimeUnit.SECONDS)
+                    .build()
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate presigned URL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Garante que o bucket existe, cria se necessário (verificado uma vez por instância)
+     */
+    private void ensureBucketExists() {
+        if (bucketChecked) {
+            return;
+        }
+        try {
+            boolean exists = minioClient.bucketExists(
+                BucketExistsArgs.builder()
+                    .bucket(bucketName)
+                    .build()
+            );
+
+            if (!exists) {
+                minioClient.makeBucket(
+                    MakeBucketArgs.builder()
+                        .bucket(bucketName)
+                        .build()
+                );
+            }
+            bucketChecked = true;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to check/create bucket: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isNotFound(ErrorResponseException e) {
+        String code = e.errorResponse() != null ? e.errorResponse().code() : null;
+        return "NoSuchKey".equals(code) || "NoSuchObject".equals(code) || "NoSuchBucket".equals(code);
+    }
+}
@@ -0,0 +1,59 @@
+package utfpr.OD46S.backend.services.storage;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Backend de armazenamento de objetos (fotos, partes de upload).
+ * Implementações: MinIO (padrão) e disco local, selecionadas por storage.backend.
+ * As chaves usam "/" como separador (ex: gps-photos/sha256/ab/abcd....jpg).
+ */
+public interface ObjectStorage {
+
+    /**
+     * Grava o objeto; substitui o existente. Se o stream terminar antes de size bytes,
+     * lança exceção e nenhum objeto (nem parcial) fica visível na chave.
+     */
+    void put(String key, InputStream inputStream, long size, String contentType);
+
+    /**
+     * Abre o objeto para leitura; lança RuntimeException se não existir
+     */
+    InputStream get(String key);
+
+    Optional<StoredObject> stat(String key);
+
+    default boolean exists(String key) {
+        return stat(key).isPresent();
+    }
+
+    /**
+     * Copia o objeto dentro do próprio storage, sem passar os bytes pela aplicação quando possível
+     */
+    void copy(String sourceKey, String targetKey);
+
+    /**
+     * Remove o objeto; não falha se ele não existir
+     */
+    void delete(String key);
+
+    /**
+     * Caminho no disco local, quando o backend é um filesystem (permite envio zero-copy pelo servidor)
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    default boolean supportsPresignedUrls() {
+        return false;
+    }
+
+    default String presignedUploadUrl(String key, int expirySeconds) {
+        throw new UnsupportedOperationException("Presigned URLs are not supported by the configured storage backend");
+    }
+
+    default String presignedDownloadUrl(String key, int expirySeconds) {
+        throw new UnsupportedOperationException("Presigned URLs are not supported by the configured storage backend");
+    }
+}
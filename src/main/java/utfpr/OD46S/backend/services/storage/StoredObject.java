@@ -0,0 +1,7 @@
+package utfpr.OD46S.backend.services.storage;
+
+/**
+ * Metadados de um objeto armazenado
+ */
+public record StoredObject(String key, long size, String contentType) {
+}
@@ -0,0 +1,37 @@
+package utfpr.OD46S.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: the sort column value (ISO text) plus the row id
+ * that breaks ties. Sent to clients as an opaque URL-safe token (next_cursor) and read back
+ * from the cursor parameter.
+ */
+public record KeysetCursor(String value, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a token produced by {@link #encode()}.
+     * @throws IllegalArgumentException when the token is not a cursor
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // Covers bad Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package utfpr.OD46S.backend.utils;
+
+import java.util.Locale;
+
+/**
+ * Normalizes typed search text for the LIKE and trigram queries, which all compare against
+ * lower(column) so the trigram indexes apply.
+ */
+public final class SearchPatterns {
+
+    private SearchPatterns() {
+    }
+
+    /**
+     * Trimmed, lowercase search term, or null when nothing was typed.
+     */
+    public static String normalize(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+        return search.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * "%term%" pattern for LIKE ... ESCAPE '!', or null when nothing was typed.
+     * % and _ typed by the user are matched literally.
+     */
+    public static String contains(String search) {
+        String term = normalize(search);
+        if (term == null) {
+            return null;
+        }
+        return "%" + term.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+}
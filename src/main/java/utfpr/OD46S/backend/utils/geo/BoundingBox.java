@@ -0,0 +1,43 @@
+package utfpr.OD46S.backend.utils.geo;
+
+/**
+ * Axis-aligned bounding box in WGS84 degrees (GeoJSON order: lon before lat).
+ */
+public record BoundingBox(double minLon, double minLat, double maxLon, double maxLat) {
+
+    public BoundingBox {
+        if (minLon > maxLon || minLat > maxLat) {
+            throw new IllegalArgumentException("bbox min values must not exceed max values");
+        }
+        if (minLon < -180 || maxLon > 180 || minLat < -90 || maxLat > 90) {
+            throw new IllegalArgumentException("bbox must be within -180,-90,180,90");
+        }
+    }
+
+    /**
+     * Parses the {@code bbox=minLon,minLat,maxLon,maxLat} query parameter format.
+     */
+    public static BoundingBox parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        try {
+            return new BoundingBox(
+                    Double.parseDouble(parts[0].trim()),
+                    Double.parseDouble(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim()),
+                    Double.parseDouble(parts[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+    }
+
+    public boolean intersects(BoundingBox other) {
+        return minLon <= other.maxLon && maxLon >= other.minLon
+                && minLat <= other.maxLat && maxLat >= other.minLat;
+    }
+}
@@ -0,0 +1,90 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Writes coordinates with a fixed number of decimals. 6 decimals are about 10 cm on the ground,
+ * well below the GPS and drawing accuracy, while stored geometries carry 14+ digits.
+ * Geometry JSON is streamed token by token (no tree is built); numbers are rounded half away
+ * from zero and written without trailing zeros, and insignificant whitespace is dropped.
+ */
+public final class CoordinateWriter {
+
+    public static final int DEFAULT_PRECISION = 6;
+    public static final int MAX_PRECISION = 10;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private CoordinateWriter() {
+    }
+
+    /**
+     * The requested precision, or the default when none was given.
+     */
+    public static int resolvePrecision(Integer precision) {
+        if (precision == null) {
+            return DEFAULT_PRECISION;
+        }
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between 0 and " + MAX_PRECISION);
+        }
+        return precision;
+    }
+
+    /**
+     * Copies a geometry JSON text with every decimal number rounded to the given precision.
+     * Returns null for null input.
+     */
+    public static String write(String geometryJson, int precision) {
+        if (geometryJson == null) {
+            return null;
+        }
+        StringWriter out = new StringWriter(geometryJson.length());
+        try (JsonParser parser = JSON_FACTORY.createParser(geometryJson);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    // Decimal text as written, rounded by the same rule as round()
+                    generator.writeNumber(round(parser.getDecimalValue(), precision).toPlainString());
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid geometry JSON: " + e.getMessage(), e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Rounds half away from zero to at most the given number of decimals, without trailing zeros
+     * (-26.50000000 → -26.5). Track coordinates and geometry JSON go through the same rule,
+     * so a point prints the same digits in both.
+     */
+    public static BigDecimal round(BigDecimal value, int precision) {
+        if (value == null) {
+            return null;
+        }
+        BigDecimal rounded = value.setScale(precision, RoundingMode.HALF_UP).stripTrailingZeros();
+        // stripTrailingZeros turns 100 into 1E+2
+        return rounded.scale() < 0 ? rounded.setScale(0) : rounded;
+    }
+
+    public static void writeNumber(JsonGenerator generator, double value, int precision) throws IOException {
+        if (!Double.isFinite(value)) {
+            generator.writeNumber(value);
+            return;
+        }
+        // valueOf uses the shortest decimal of the double, so no error is added before rounding
+        generator.writeNumber(round(BigDecimal.valueOf(value), precision).toPlainString());
+    }
+}
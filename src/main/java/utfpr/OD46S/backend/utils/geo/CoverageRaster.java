@@ -0,0 +1,244 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Fraction of a set of polygons swept by a GPS track buffered by a street width, measured on a raster.
+ * The polygons' bounding box is cut into square cells projected to local meters (equirectangular around
+ * the box's center latitude); a cell belongs to the area when its center is inside some polygon, and is
+ * covered when its center lies within the buffer of some track segment.
+ *
+ * Polygons are filled row by row from the edge crossings (even-odd, so holes stay out), which costs
+ * O(edges x rows spanned + cells) instead of a point-in-polygon test per cell; the track only visits the
+ * cells around each segment. Both masks are bitsets, and the cell size grows when the box would need
+ * more than maxCells cells, so memory stays bounded for whole city districts.
+ */
+public final class CoverageRaster {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    /**
+     * Result of {@link #compute}: covered and total area cells, and the cell size actually used.
+     */
+    public record Coverage(long areaCells, long coveredCells, double cellMeters) {
+
+        public double ratio() {
+            return areaCells == 0 ? 0 : (double) coveredCells / areaCells;
+        }
+    }
+
+    private CoverageRaster() {
+    }
+
+    /**
+     * Coverage of the Polygon/MultiPolygon parts of the given geometries (other types are ignored)
+     * by the track given as parallel longitude/latitude arrays in time order.
+     * Returns null when there is no polygon, or when it is too small to hold a single cell center.
+     */
+    public static Coverage compute(List<PackedGeometry> areas, double[] longitudes, double[] latitudes,
+                                   double bufferMeters, double cellMeters, long maxCells) {
+        if (longitudes.length != latitudes.length) {
+            throw new IllegalArgumentException("longitudes and latitudes must have the same length");
+        }
+        if (bufferMeters <= 0 || cellMeters <= 0 || maxCells <= 0) {
+            throw new IllegalArgumentException("bufferMeters, cellMeters and maxCells must be positive");
+        }
+        List<double[][]> polygons = new ArrayList<>();
+        for (PackedGeometry area : areas) {
+            collectPolygons(area, polygons);
+        }
+        double minLon = Double.POSITIVE_INFINITY;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        for (double[][] polygon : polygons) {
+            for (double[] ring : polygon) {
+                for (int i = 0; i + 1 < ring.length; i += 2) {
+                    minLon = Math.min(minLon, ring[i]);
+                    maxLon = Math.max(maxLon, ring[i]);
+                    minLat = Math.min(minLat, ring[i + 1]);
+                    maxLat = Math.max(maxLat, ring[i + 1]);
+                }
+            }
+        }
+        if (minLon > maxLon) {
+            return null;
+        }
+
+        Grid grid = new Grid(minLon, minLat, maxLon, maxLat, cellMeters, maxCells);
+        BitSet inside = new BitSet(grid.rows * grid.cols);
+        for (double[][] polygon : polygons) {
+            fillPolygon(grid, polygon, inside);
+        }
+        long areaCells = inside.cardinality();
+        if (areaCells == 0) {
+            return null;
+        }
+
+        BitSet covered = new BitSet(grid.rows * grid.cols);
+        int n = longitudes.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = grid.x(longitudes[i]);
+            y[i] = grid.y(latitudes[i]);
+        }
+        int segments = n == 1 ? 1 : Math.max(0, n - 1);
+        for (int segment = 0; segment < segments; segment++) {
+            int end = Math.min(segment + 1, n - 1);
+            sweepSegment(grid, x[segment], y[segment], x[end], y[end], bufferMeters, inside, covered);
+        }
+        return new Coverage(areaCells, covered.cardinality(), grid.cell);
+    }
+
+    private static void collectPolygons(PackedGeometry geometry, List<double[][]> polygons) {
+        if ("Polygon".equals(geometry.getType()) || "MultiPolygon".equals(geometry.getType())) {
+            polygons.addAll(Arrays.asList(geometry.getParts()));
+        }
+        for (PackedGeometry member : geometry.getMembers()) {
+            collectPolygons(member, polygons);
+        }
+    }
+
+    /**
+     * Sets the cells whose center is inside the polygon (outer ring plus holes, even-odd).
+     * Crossings are gathered per row in two passes (count, then fill) into one flat array.
+     */
+    private static void fillPolygon(Grid grid, double[][] polygon, BitSet inside) {
+        int[] counts = new int[grid.rows + 1];
+        forEachCrossing(grid, polygon, (row, crossing) -> counts[row + 1]++);
+        for (int row = 0; row < grid.rows; row++) {
+            counts[row + 1] += counts[row];
+        }
+        if (counts[grid.rows] == 0) {
+            return;
+        }
+        double[] crossings = new double[counts[grid.rows]];
+        int[] next = Arrays.copyOf(counts, grid.rows);
+        forEachCrossing(grid, polygon, (row, crossing) -> crossings[next[row]++] = crossing);
+
+        for (int row = 0; row < grid.rows; row++) {
+            int from = counts[row];
+            int to = counts[row + 1];
+            if (to - from < 2) {
+                continue;
+            }
+            Arrays.sort(crossings, from, to);
+            int rowStart = row * grid.cols;
+            for (int i = from; i + 1 < to; i += 2) {
+                // Columns whose center lies in [left, right)
+                int first = Math.max(0, (int) Math.ceil(crossings[i] / grid.cell - 0.5));
+                int last = Math.min(grid.cols - 1, (int) Math.ceil(crossings[i + 1] / grid.cell - 0.5) - 1);
+                if (first <= last) {
+                    inside.set(rowStart + first, rowStart + last + 1);
+                }
+            }
+        }
+    }
+
+    private static void forEachCrossing(Grid grid, double[][] polygon, CrossingConsumer consumer) {
+        for (double[] ring : polygon) {
+            int points = ring.length / 2;
+            for (int i = 0; i < points; i++) {
+                int j = (i + 1) % points;
+                double x1 = grid.x(ring[2 * i]);
+                double y1 = grid.y(ring[2 * i + 1]);
+                double x2 = grid.x(ring[2 * j]);
+                double y2 = grid.y(ring[2 * j + 1]);
+                if (y1 == y2) {
+                    continue;
+                }
+                // Rows whose center lies in [min y, max y), so shared vertices are counted once
+                double low = Math.min(y1, y2);
+                double high = Math.max(y1, y2);
+                int first = Math.max(0, (int) Math.ceil(low / grid.cell - 0.5));
+                int last = Math.min(grid.rows - 1, (int) Math.ceil(high / grid.cell - 0.5) - 1);
+                double slope = (x2 - x1) / (y2 - y1);
+                for (int row = first; row <= last; row++) {
+                    double center = (row + 0.5) * grid.cell;
+                    consumer.accept(row, x1 + (center - y1) * slope);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the area cells whose center is within the buffer of the segment. Cells already covered
+     * (the truck passing the same street again) or outside the area skip the distance test.
+     */
+    private static void sweepSegment(Grid grid, double ax, double ay, double bx, double by,
+                                     double buffer, BitSet inside, BitSet covered) {
+        int firstCol = Math.max(0, (int) Math.floor((Math.min(ax, bx) - buffer) / grid.cell));
+        int lastCol = Math.min(grid.cols - 1, (int) Math.floor((Math.max(ax, bx) + buffer) / grid.cell));
+        int firstRow = Math.max(0, (int) Math.floor((Math.min(ay, by) - buffer) / grid.cell));
+        int lastRow = Math.min(grid.rows - 1, (int) Math.floor((Math.max(ay, by) + buffer) / grid.cell));
+        if (firstCol > lastCol || firstRow > lastRow) {
+            return;
+        }
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double bufferSquared = buffer * buffer;
+        for (int row = firstRow; row <= lastRow; row++) {
+            double py = (row + 0.5) * grid.cell;
+            int rowStart = row * grid.cols;
+            for (int col = firstCol; col <= lastCol; col++) {
+                int index = rowStart + col;
+                if (!inside.get(index) || covered.get(index)) {
+                    continue;
+                }
+                double px = (col + 0.5) * grid.cell;
+                double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+                t = Math.max(0, Math.min(1, t));
+                double ex = px - (ax + t * dx);
+                double ey = py - (ay + t * dy);
+                if (ex * ex + ey * ey <= bufferSquared) {
+                    covered.set(index);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface CrossingConsumer {
+        void accept(int row, double x);
+    }
+
+    // Cell layout over the polygons' bounding box; x/y are meters from its south-west corner
+    private static final class Grid {
+
+        final double originLon;
+        final double originLat;
+        final double metersPerLon;
+        final double cell;
+        final int cols;
+        final int rows;
+
+        Grid(double minLon, double minLat, double maxLon, double maxLat, double cellMeters, long maxCells) {
+            this.originLon = minLon;
+            this.originLat = minLat;
+            this.metersPerLon = METERS_PER_DEGREE * Math.cos(Math.toRadians((minLat + maxLat) / 2));
+            double width = (maxLon - minLon) * metersPerLon;
+            double height = (maxLat - minLat) * METERS_PER_DEGREE;
+            double size = Math.max(cellMeters, Math.sqrt(width * height / maxCells));
+            // Rounding up each side can add a row and a column over the budget
+            while ((Math.ceil(width / size) + 1) * (Math.ceil(height / size) + 1) > Math.max(maxCells, 4)) {
+                size *= 1.05;
+            }
+            this.cell = size;
+            this.cols = Math.max(1, (int) Math.ceil(width / size));
+            this.rows = Math.max(1, (int) Math.ceil(height / size));
+        }
+
+        double x(double lon) {
+            return (lon - originLon) * metersPerLon;
+        }
+
+        double y(double lat) {
+            return (lat - originLat) * METERS_PER_DEGREE;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package utfpr.OD46S.backend.utils.geo;
+
+/**
+ * Geometry resolution served for a map zoom level.
+ * Each level's tolerance is one pixel at the deepest zoom it covers, so simplification is not visible.
+ */
+public enum GeometryDetail {
+    LOW(11),
+    MEDIUM(14),
+    FULL(-1);
+
+    private final int maxZoom;
+
+    GeometryDetail(int maxZoom) {
+        this.maxZoom = maxZoom;
+    }
+
+    public double getTolerance() {
+        return maxZoom < 0 ? 0 : GeometryUtils.degreesPerPixel(maxZoom);
+    }
+
+    public static GeometryDetail forZoom(Integer zoom) {
+        if (zoom == null) {
+            return FULL;
+        }
+        if (zoom < 0 || zoom > 22) {
+            throw new IllegalArgumentException("zoom must be between 0 and 22");
+        }
+        if (zoom <= LOW.maxZoom) {
+            return LOW;
+        }
+        if (zoom <= MEDIUM.maxZoom) {
+            return MEDIUM;
+        }
+        return FULL;
+    }
+}
@@ -0,0 +1,218 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Helpers over GeoJSON geometries held as Jackson trees.
+ * Works on any geometry type by walking the coordinates arrays, so Polygon, MultiPolygon,
+ * LineString and GeometryCollection are all handled the same way.
+ */
+public final class GeometryUtils {
+
+    private GeometryUtils() {
+    }
+
+    /**
+     * Bounding box of every position in the geometry, or null if it has none.
+     */
+    public static BoundingBox boundingBox(JsonNode geometry) {
+        double[] box = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        boolean found = expand(geometry, box);
+        return found ? new BoundingBox(box[0], box[1], box[2], box[3]) : null;
+    }
+
+    /**
+     * Douglas-Peucker simplification of every line and ring in the geometry.
+     * Tolerance is in degrees. Closed rings keep at least 4 positions so polygons stay valid.
+     */
+    public static JsonNode simplify(JsonNode geometry, double tolerance) {
+        if (geometry == null || !geometry.isObject()) {
+            return geometry;
+        }
+        ObjectNode copy = geometry.deepCopy();
+        if (copy.has("coordinates")) {
+            copy.set("coordinates", simplifyCoordinates(copy.get("coordinates"), tolerance));
+        }
+        if (copy.has("geometries")) {
+            ArrayNode geometries = JsonNodeFactory.instance.arrayNode();
+            for (JsonNode child : copy.get("geometries")) {
+                geometries.add(simplify(child, tolerance));
+            }
+            copy.set("geometries", geometries);
+        }
+        return copy;
+    }
+
+    /**
+     * Size of one screen pixel in degrees of longitude at a web-mercator zoom level (256px tiles).
+     */
+    public static double degreesPerPixel(int zoom) {
+        return 360.0 / (256.0 * (1L << zoom));
+    }
+
+    private static boolean expand(JsonNode node, double[] box) {
+        if (node == null) {
+            return false;
+        }
+        if (isPosition(node)) {
+            double lon = node.get(0).asDouble();
+            double lat = node.get(1).asDouble();
+            box[0] = Math.min(box[0], lon);
+            box[1] = Math.min(box[1], lat);
+            box[2] = Math.max(box[2], lon);
+            box[3] = Math.max(box[3], lat);
+            return true;
+        }
+        boolean found = false;
+        if (node.isArray()) {
+            for (JsonNode child : node) {
+                found |= expand(child, box);
+            }
+        } else if (node.isObject()) {
+            found |= expand(node.get("coordinates"), box);
+            JsonNode geometries = node.get("geometries");
+            if (geometries != null) {
+                for (JsonNode child : geometries) {
+                    found |= expand(child, box);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static JsonNode simplifyCoordinates(JsonNode node, double tolerance) {
+        if (node == null || !node.isArray() || node.isEmpty() || isPosition(node)) {
+            return node;
+        }
+        if (isPosition(node.get(0))) {
+            return simplifyLine((ArrayNode) node, tolerance);
+        }
+        ArrayNode result = JsonNodeFactory.instance.arrayNode();
+        for (JsonNode child : node) {
+            result.add(simplifyCoordinates(child, tolerance));
+        }
+        return result;
+    }
+
+    private static ArrayNode simplifyLine(ArrayNode line, double tolerance) {
+        double[] xy = new double[line.size() * 2];
+        for (int i = 0; i < line.size(); i++) {
+            xy[i * 2] = line.get(i).get(0).asDouble();
+            xy[i * 2 + 1] = line.get(i).get(1).asDouble();
+        }
+        boolean[] keep = simplifyMask(xy, tolerance);
+        if (keep == null) {
+            return line;
+        }
+        ArrayNode result = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                result.add(line.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Douglas-Peucker over one line or ring of interleaved lon/lat values.
+     * Returns which positions to keep, or null when the line should be kept as it is
+     * (too short, or too few vertices would survive to form a valid ring).
+     */
+    public static boolean[] simplifyMask(double[] xy, double tolerance) {
+        int size = xy.length / 2;
+        boolean closed = size > 3 && xy[0] == xy[xy.length - 2] && xy[1] == xy[xy.length - 1];
+        int minimum = closed ? 4 : 2;
+        if (size <= minimum) {
+            return null;
+        }
+
+        boolean[] keep = new boolean[size];
+        keep[0] = true;
+        keep[size - 1] = true;
+
+        // A closed ring has identical endpoints, so split it at the farthest vertex first
+        Deque<int[]> ranges = new ArrayDeque<>();
+        if (closed) {
+            int far = farthestFrom(xy, 0, size - 1);
+            keep[far] = true;
+            ranges.push(new int[]{0, far});
+            ranges.push(new int[]{far, size - 1});
+        } else {
+            ranges.push(new int[]{0, size - 1});
+        }
+
+        double toleranceSquared = tolerance * tolerance;
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int start = range[0];
+            int end = range[1];
+            if (end - start < 2) {
+                continue;
+            }
+            double maxDistance = -1;
+            int index = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = segmentDistanceSquared(xy, i, start, end);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    index = i;
+                }
+            }
+            if (maxDistance > toleranceSquared) {
+                keep[index] = true;
+                ranges.push(new int[]{start, index});
+                ranges.push(new int[]{index, end});
+            }
+        }
+
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) kept++;
+        }
+        return kept < minimum ? null : keep;
+    }
+
+    private static int farthestFrom(double[] xy, int from, int to) {
+        double lon = xy[from * 2];
+        double lat = xy[from * 2 + 1];
+        int index = from + 1;
+        double max = -1;
+        for (int i = from + 1; i < to; i++) {
+            double dx = xy[i * 2] - lon;
+            double dy = xy[i * 2 + 1] - lat;
+            double distance = dx * dx + dy * dy;
+            if (distance > max) {
+                max = distance;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private static double segmentDistanceSquared(double[] xy, int point, int start, int end) {
+        double px = xy[point * 2];
+        double py = xy[point * 2 + 1];
+        double ax = xy[start * 2];
+        double ay = xy[start * 2 + 1];
+        double dx = xy[end * 2] - ax;
+        double dy = xy[end * 2 + 1] - ay;
+
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+
+        double cx = ax + t * dx - px;
+        double cy = ay + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+
+    private static boolean isPosition(JsonNode node) {
+        return node.isArray() && node.size() >= 2 && node.get(0).isNumber() && node.get(1).isNumber();
+    }
+}
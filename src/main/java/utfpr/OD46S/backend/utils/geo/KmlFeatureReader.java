@@ -0,0 +1,489 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streams the Placemarks of a KMZ (or plain KML) file as GeoJSON features, one at a time,
+ * with a StAX reader. No DOM is built, so memory stays bounded by the largest single
+ * Placemark rather than the file size.
+ *
+ * Produces the same properties the GeoJSON import expects: name, waste_type, periodicity
+ * (from weekday names in the description), stroke/fill colour and opacity (from the
+ * Placemark's style), plus any ExtendedData values, which take precedence.
+ * Styles must be declared before the Placemarks that use them, as Google Earth and
+ * My Maps exports do.
+ */
+public class KmlFeatureReader implements Iterator<GeoJsonFeature>, Closeable {
+
+    private static final String[][] WEEKDAYS = {
+            {"segunda", "1"}, {"terça", "2"}, {"terca", "2"}, {"quarta", "3"}, {"quinta", "4"},
+            {"sexta", "5"}, {"sábado", "6"}, {"sabado", "6"}, {"domingo", "0"}, {"todos", "*"}
+    };
+
+    private final InputStream input;
+    private final XMLStreamReader reader;
+    private final String defaultWasteType;
+
+    private final Map<String, KmlStyle> styles = new HashMap<>();
+    private final Map<String, String> styleMaps = new HashMap<>();
+
+    private GeoJsonFeature next;
+    private boolean finished;
+
+    private KmlFeatureReader(InputStream input, String defaultWasteType) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // KML never needs a DTD; disabling them also blocks external entity (XXE) attacks
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        this.input = input;
+        this.reader = factory.createXMLStreamReader(input);
+        this.defaultWasteType = defaultWasteType;
+    }
+
+    /**
+     * Opens a KMZ archive (reading its first .kml entry) or a plain KML document.
+     * Features without a waste_type in ExtendedData get the given default.
+     */
+    public static KmlFeatureReader open(InputStream input, String defaultWasteType) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input);
+        buffered.mark(2);
+        boolean zip = buffered.read() == 'P' && buffered.read() == 'K';
+        buffered.reset();
+
+        InputStream kml = buffered;
+        if (zip) {
+            ZipInputStream archive = new ZipInputStream(buffered);
+            ZipEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".kml")) {
+                    break;
+                }
+            }
+            if (entry == null) {
+                archive.close();
+                throw new IOException("KMZ file does not contain a KML document");
+            }
+            kml = archive;
+        }
+
+        try {
+            return new KmlFeatureReader(kml, defaultWasteType);
+        } catch (XMLStreamException e) {
+            kml.close();
+            throw new IOException("Invalid KML: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readNextPlacemark();
+            } catch (XMLStreamException e) {
+                throw new RuntimeException("Invalid KML: " + e.getMessage(), e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public GeoJsonFeature next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        GeoJsonFeature feature = next;
+        next = null;
+        return feature;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // The underlying stream is closed below either way
+        }
+        input.close();
+    }
+
+    private GeoJsonFeature readNextPlacemark() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "Style" -> {
+                    String id = reader.getAttributeValue(null, "id");
+                    KmlStyle style = readStyle();
+                    if (id != null) {
+                        styles.put(id, style);
+                    }
+                }
+                case "StyleMap" -> {
+                    String id = reader.getAttributeValue(null, "id");
+                    String normal = readStyleMap();
+                    if (id != null && normal != null) {
+                        styleMaps.put(id, normal);
+                    }
+                }
+                case "Placemark" -> {
+                    return readPlacemark();
+                }
+                default -> {
+                }
+            }
+        }
+        return null;
+    }
+
+    private GeoJsonFeature readPlacemark() throws XMLStreamException {
+        String name = null;
+        String description = null;
+        String styleUrl = null;
+        KmlStyle inlineStyle = null;
+        Map<String, String> extendedData = new LinkedHashMap<>();
+        List<Map<String, Object>> geometries = new ArrayList<>();
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            // Each case either consumes the whole element or descends into it (depth++)
+            switch (reader.getLocalName()) {
+                case "name" -> {
+                    String text = reader.getElementText().trim();
+                    if (depth == 0) name = text;
+                }
+                case "description" -> {
+                    String text = reader.getElementText();
+                    if (depth == 0) description = text;
+                }
+                case "styleUrl" -> {
+                    String text = reader.getElementText().trim();
+                    if (depth == 0) styleUrl = text;
+                }
+                case "Style" -> inlineStyle = readStyle();
+                case "StyleMap" -> readStyleMap();
+                case "ExtendedData" -> readExtendedData(extendedData);
+                case "Point", "LineString", "LinearRing", "Polygon" -> geometries.add(readGeometry(reader.getLocalName()));
+                default -> depth++;
+            }
+        }
+
+        Map<String, Object> properties = new HashMap<>();
+        KmlStyle style = inlineStyle != null ? inlineStyle : resolveStyle(styleUrl);
+        if (style != null) {
+            if (style.strokeColor() != null) properties.put("stroke_color", style.strokeColor());
+            if (style.fillColor() != null) properties.put("fill_color", style.fillColor());
+            if (style.fillOpacity() != null) properties.put("fill_opacity", style.fillOpacity());
+        }
+        String periodicity = periodicityFromDescription(description);
+        if (periodicity != null) {
+            properties.put("periodicity", periodicity);
+        }
+        properties.putAll(extendedData);
+        if (name != null && !name.isEmpty()) {
+            properties.put("name", name);
+        }
+        properties.putIfAbsent("waste_type", defaultWasteType);
+
+        GeoJsonFeature feature = new GeoJsonFeature();
+        feature.setProperties(properties);
+        feature.setGeometry(combine(geometries));
+        return feature;
+    }
+
+    private Map<String, Object> readGeometry(String type) throws XMLStreamException {
+        List<List<List<Double>>> rings = new ArrayList<>();
+        List<List<Double>> positions = List.of();
+        boolean outer = false;
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "outerBoundaryIs" -> {
+                    outer = true;
+                    depth++;
+                }
+                case "innerBoundaryIs" -> {
+                    outer = false;
+                    depth++;
+                }
+                case "coordinates" -> {
+                    positions = parseCoordinates(reader.getElementText());
+                    if (type.equals("Polygon") && !positions.isEmpty()) {
+                        List<List<Double>> ring = closeRing(positions);
+                        if (outer) {
+                            rings.add(0, ring);
+                        } else {
+                            rings.add(ring);
+                        }
+                    }
+                }
+                default -> depth++;
+            }
+        }
+
+        Map<String, Object> geometry = new LinkedHashMap<>();
+        switch (type) {
+            case "Point" -> {
+                geometry.put("type", "Point");
+                geometry.put("coordinates", positions.isEmpty() ? List.of() : positions.get(0));
+            }
+            case "Polygon" -> {
+                geometry.put("type", "Polygon");
+                geometry.put("coordinates", rings);
+            }
+            // A bare LinearRing is an outline; GeoJSON has no ring type, so it becomes a line
+            default -> {
+                geometry.put("type", "LineString");
+                geometry.put("coordinates", positions);
+            }
+        }
+        return geometry;
+    }
+
+    private KmlStyle readStyle() throws XMLStreamException {
+        String strokeColor = null;
+        String fillColor = null;
+        BigDecimal fillOpacity = null;
+        String subStyle = null;
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String local = reader.getLocalName();
+            if (local.equals("color")) {
+                String color = reader.getElementText().trim();
+                if ("LineStyle".equals(subStyle)) {
+                    strokeColor = toHexColor(color);
+                } else if ("PolyStyle".equals(subStyle)) {
+                    fillColor = toHexColor(color);
+                    fillOpacity = toOpacity(color);
+                }
+            } else {
+                if (depth == 0) {
+                    subStyle = local;
+                }
+                depth++;
+            }
+        }
+        return new KmlStyle(strokeColor, fillColor, fillOpacity);
+    }
+
+    // Returns the style id used for the "normal" (not highlighted) state
+    private String readStyleMap() throws XMLStreamException {
+        String normal = null;
+        String key = null;
+        String styleUrl = null;
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                if (reader.getLocalName().equals("Pair")) {
+                    if ("normal".equals(key) && styleUrl != null) {
+                        normal = stripHash(styleUrl);
+                    }
+                    key = null;
+                    styleUrl = null;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "key" -> key = reader.getElementText().trim();
+                case "styleUrl" -> styleUrl = reader.getElementText().trim();
+                default -> depth++;
+            }
+        }
+        return normal;
+    }
+
+    private void readExtendedData(Map<String, String> values) throws XMLStreamException {
+        String dataName = null;
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "Data" -> {
+                    dataName = reader.getAttributeValue(null, "name");
+                    depth++;
+                }
+                case "value" -> {
+                    String text = reader.getElementText().trim();
+                    if (dataName != null && !text.isEmpty()) values.put(dataName, text);
+                }
+                case "SimpleData" -> {
+                    String simpleName = reader.getAttributeValue(null, "name");
+                    String text = reader.getElementText().trim();
+                    if (simpleName != null && !text.isEmpty()) values.put(simpleName, text);
+                }
+                default -> depth++;
+            }
+        }
+    }
+
+    private KmlStyle resolveStyle(String styleUrl) {
+        if (styleUrl == null) {
+            return null;
+        }
+        String id = stripHash(styleUrl);
+        return styles.get(styleMaps.getOrDefault(id, id));
+    }
+
+    private static String stripHash(String styleUrl) {
+        int hash = styleUrl.lastIndexOf('#');
+        return hash >= 0 ? styleUrl.substring(hash + 1) : styleUrl;
+    }
+
+    private static Map<String, Object> combine(List<Map<String, Object>> geometries) {
+        if (geometries.isEmpty()) {
+            return null;
+        }
+        if (geometries.size() == 1) {
+            return geometries.get(0);
+        }
+
+        // MultiGeometry: a Multi* type when all parts share a type, otherwise a GeometryCollection
+        String type = (String) geometries.get(0).get("type");
+        boolean sameType = geometries.stream().allMatch(g -> type.equals(g.get("type")));
+        Map<String, Object> geometry = new LinkedHashMap<>();
+        if (sameType) {
+            geometry.put("type", "Multi" + type);
+            geometry.put("coordinates", geometries.stream().map(g -> g.get("coordinates")).toList());
+        } else {
+            geometry.put("type", "GeometryCollection");
+            geometry.put("geometries", geometries);
+        }
+        return geometry;
+    }
+
+    static List<List<Double>> parseCoordinates(String text) {
+        List<List<Double>> positions = new ArrayList<>();
+        for (String tuple : text.trim().split("\\s+")) {
+            String[] parts = tuple.split(",");
+            if (parts.length < 2) {
+                continue;
+            }
+            try {
+                positions.add(List.of(Double.parseDouble(parts[0]), Double.parseDouble(parts[1])));
+            } catch (NumberFormatException e) {
+                // Skip malformed tuples instead of failing the whole file
+            }
+        }
+        return positions;
+    }
+
+    // GeoJSON rings must end on their first position; KML files do not always repeat it
+    private static List<List<Double>> closeRing(List<List<Double>> ring) {
+        if (ring.get(0).equals(ring.get(ring.size() - 1))) {
+            return ring;
+        }
+        List<List<Double>> closed = new ArrayList<>(ring);
+        closed.add(ring.get(0));
+        return closed;
+    }
+
+    // KML colours are aabbggrr
+    private static String toHexColor(String kmlColor) {
+        if (kmlColor.length() != 8) {
+            return null;
+        }
+        return ("#" + kmlColor.substring(6, 8) + kmlColor.substring(4, 6) + kmlColor.substring(2, 4))
+                .toUpperCase(Locale.ROOT);
+    }
+
+    private static BigDecimal toOpacity(String kmlColor) {
+        if (kmlColor.length() != 8) {
+            return null;
+        }
+        try {
+            int alpha = Integer.parseInt(kmlColor.substring(0, 2), 16);
+            return BigDecimal.valueOf(alpha).divide(BigDecimal.valueOf(255), 2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Same weekday matching the offline KMZ scripts used, checked in weekday order
+    private static String periodicityFromDescription(String description) {
+        if (description == null) {
+            return null;
+        }
+        String lower = description.toLowerCase(Locale.ROOT);
+        for (String[] weekday : WEEKDAYS) {
+            if (lower.contains(weekday[0])) {
+                return "0 8 * * " + weekday[1];
+            }
+        }
+        return null;
+    }
+
+    private record KmlStyle(String strokeColor, String fillColor, BigDecimal fillOpacity) {
+    }
+}
@@ -0,0 +1,404 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * A GeoJSON geometry held as primitive arrays, so hot paths (point-in-polygon, simplification,
+ * tiles) never touch JSON. Coordinates are nested as parts → rings → interleaved lon/lat:
+ * a Polygon is one part with its rings, a MultiPolygon one part per polygon, and lines and
+ * points use a single ring per line.
+ *
+ * The binary form stored in route_areas.geometry_binary quantizes coordinates to 1e-7 degrees
+ * (about 1 cm) and writes them as zig-zag varint deltas, typically 3-4 bytes per position
+ * instead of ~40 characters of JSON.
+ */
+public final class PackedGeometry {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final double SCALE = 1e7;
+
+    private static final String[] TYPES = {
+            null, "Point", "LineString", "Polygon", "MultiPoint", "MultiLineString", "MultiPolygon", "GeometryCollection"
+    };
+
+    private final String type;
+    private final double[][][] parts;
+    private final List<PackedGeometry> members;
+
+    private PackedGeometry(String type, double[][][] parts, List<PackedGeometry> members) {
+        this.type = type;
+        this.parts = parts;
+        this.members = members;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Parts → rings → interleaved lon/lat. Shared with the cache, so callers must not modify it.
+     */
+    public double[][][] getParts() {
+        return parts;
+    }
+
+    /**
+     * Member geometries of a GeometryCollection; empty for every other type.
+     */
+    public List<PackedGeometry> getMembers() {
+        return members;
+    }
+
+    /**
+     * Reads a GeoJSON geometry tree, or returns null for unsupported or malformed input.
+     */
+    public static PackedGeometry fromGeoJson(JsonNode geometry) {
+        if (geometry == null || !geometry.isObject()) {
+            return null;
+        }
+        String type = geometry.path("type").asText();
+        if (type.equals("GeometryCollection")) {
+            List<PackedGeometry> members = new ArrayList<>();
+            for (JsonNode child : geometry.path("geometries")) {
+                PackedGeometry member = fromGeoJson(child);
+                if (member == null) {
+                    return null;
+                }
+                members.add(member);
+            }
+            return new PackedGeometry(type, new double[0][][], members);
+        }
+
+        JsonNode coordinates = geometry.get("coordinates");
+        int depth = depthOf(type);
+        if (depth < 0 || coordinates == null || !coordinates.isArray()) {
+            return null;
+        }
+        // Normalise every type to parts → rings → positions
+        JsonNode partsNode = coordinates;
+        for (int level = depth; level < 4; level++) {
+            partsNode = JsonNodeFactory.instance.arrayNode().add(partsNode);
+        }
+
+        double[][][] parts = new double[partsNode.size()][][];
+        for (int p = 0; p < partsNode.size(); p++) {
+            JsonNode ringsNode = partsNode.get(p);
+            parts[p] = new double[ringsNode.size()][];
+            for (int r = 0; r < ringsNode.size(); r++) {
+                JsonNode positions = ringsNode.get(r);
+                double[] xy = new double[positions.size() * 2];
+                for (int i = 0; i < positions.size(); i++) {
+                    JsonNode position = positions.get(i);
+                    if (position == null || position.size() < 2) {
+                        return null;
+                    }
+                    xy[i * 2] = position.get(0).asDouble();
+                    xy[i * 2 + 1] = position.get(1).asDouble();
+                }
+                parts[p][r] = xy;
+            }
+        }
+        return new PackedGeometry(type, parts, List.of());
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT_VERSION);
+        encodeInto(out, new long[2]);
+        return out.toByteArray();
+    }
+
+    public static PackedGeometry decode(byte[] data) {
+        if (data == null || data.length == 0 || data[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported geometry encoding");
+        }
+        int[] position = {1};
+        return decodeFrom(data, position, new long[2]);
+    }
+
+    /**
+     * Even-odd test against every ring, so holes are excluded. Only polygonal
+     * geometries contain points; positions exactly on an edge may go either way.
+     */
+    public boolean contains(double lon, double lat) {
+        if (!members.isEmpty()) {
+            for (PackedGeometry member : members) {
+                if (member.contains(lon, lat)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (!type.equals("Polygon") && !type.equals("MultiPolygon")) {
+            return false;
+        }
+        for (double[][] polygon : parts) {
+            boolean inside = false;
+            for (double[] ring : polygon) {
+                int n = ring.length / 2;
+                for (int i = 0, j = n - 1; i < n; j = i++) {
+                    double xi = ring[i * 2], yi = ring[i * 2 + 1];
+                    double xj = ring[j * 2], yj = ring[j * 2 + 1];
+                    if ((yi > lat) != (yj > lat) && lon < (xj - xi) * (lat - yi) / (yj - yi) + xi) {
+                        inside = !inside;
+                    }
+                }
+            }
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bounding box of every position, or null if there are none.
+     */
+    public BoundingBox boundingBox() {
+        double[] box = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        boolean found = expand(box);
+        return found ? new BoundingBox(box[0], box[1], box[2], box[3]) : null;
+    }
+
+    /**
+     * Douglas-Peucker on every line and ring (see {@link GeometryUtils#simplifyMask}).
+     */
+    public PackedGeometry simplify(double tolerance) {
+        if (!members.isEmpty()) {
+            List<PackedGeometry> simplified = new ArrayList<>(members.size());
+            for (PackedGeometry member : members) {
+                simplified.add(member.simplify(tolerance));
+            }
+            return new PackedGeometry(type, parts, simplified);
+        }
+        if (type.equals("Point") || type.equals("MultiPoint")) {
+            return this;
+        }
+        double[][][] simplified = new double[parts.length][][];
+        for (int p = 0; p < parts.length; p++) {
+            simplified[p] = new double[parts[p].length][];
+            for (int r = 0; r < parts[p].length; r++) {
+                simplified[p][r] = simplifyRing(parts[p][r], tolerance);
+            }
+        }
+        return new PackedGeometry(type, simplified, members);
+    }
+
+    public int positionCount() {
+        int count = 0;
+        for (PackedGeometry member : members) {
+            count += member.positionCount();
+        }
+        for (double[][] part : parts) {
+            for (double[] ring : part) {
+                count += ring.length / 2;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * GeoJSON text of the geometry.
+     */
+    public String toGeoJson() {
+        StringBuilder json = new StringBuilder();
+        appendGeoJson(json);
+        return json.toString();
+    }
+
+    private void appendGeoJson(StringBuilder json) {
+        json.append("{\"type\":\"").append(type).append('"');
+        if (!members.isEmpty() || type.equals("GeometryCollection")) {
+            json.append(",\"geometries\":[");
+            for (int i = 0; i < members.size(); i++) {
+                if (i > 0) json.append(',');
+                members.get(i).appendGeoJson(json);
+            }
+            json.append("]}");
+            return;
+        }
+        json.append(",\"coordinates\":");
+        int depth = depthOf(type);
+        if (depth == 4) {
+            appendArray(json, parts.length, p -> appendRings(json, parts[p]));
+        } else if (depth == 3) {
+            appendRings(json, parts.length > 0 ? parts[0] : new double[0][]);
+        } else if (depth == 2) {
+            appendPositions(json, parts.length > 0 && parts[0].length > 0 ? parts[0][0] : new double[0]);
+        } else if (parts.length > 0 && parts[0].length > 0 && parts[0][0].length >= 2) {
+            appendPosition(json, parts[0][0], 0);
+        } else {
+            json.append("[]");
+        }
+        json.append('}');
+    }
+
+    private void appendRings(StringBuilder json, double[][] rings) {
+        appendArray(json, rings.length, r -> appendPositions(json, rings[r]));
+    }
+
+    private void appendPositions(StringBuilder json, double[] xy) {
+        appendArray(json, xy.length / 2, i -> appendPosition(json, xy, i));
+    }
+
+    private static void appendPosition(StringBuilder json, double[] xy, int i) {
+        json.append('[').append(xy[i * 2]).append(',').append(xy[i * 2 + 1]).append(']');
+    }
+
+    private static void appendArray(StringBuilder json, int size, IntConsumer element) {
+        json.append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) json.append(',');
+            element.accept(i);
+        }
+        json.append(']');
+    }
+
+    private boolean expand(double[] box) {
+        boolean found = false;
+        for (PackedGeometry member : members) {
+            found |= member.expand(box);
+        }
+        for (double[][] part : parts) {
+            for (double[] ring : part) {
+                for (int i = 0; i + 1 < ring.length; i += 2) {
+                    box[0] = Math.min(box[0], ring[i]);
+                    box[1] = Math.min(box[1], ring[i + 1]);
+                    box[2] = Math.max(box[2], ring[i]);
+                    box[3] = Math.max(box[3], ring[i + 1]);
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static double[] simplifyRing(double[] xy, double tolerance) {
+        boolean[] keep = GeometryUtils.simplifyMask(xy, tolerance);
+        if (keep == null) {
+            return xy;
+        }
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) kept++;
+        }
+        double[] result = new double[kept * 2];
+        int next = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                result[next++] = xy[i * 2];
+                result[next++] = xy[i * 2 + 1];
+            }
+        }
+        return result;
+    }
+
+    // Deltas run across the whole geometry (previous holds the last quantized lon/lat)
+    private void encodeInto(ByteArrayOutputStream out, long[] previous) {
+        int code = Arrays.asList(TYPES).indexOf(type);
+        out.write(code);
+        if (!members.isEmpty() || type.equals("GeometryCollection")) {
+            writeVarint(out, members.size());
+            for (PackedGeometry member : members) {
+                member.encodeInto(out, previous);
+            }
+            return;
+        }
+        writeVarint(out, parts.length);
+        for (double[][] part : parts) {
+            writeVarint(out, part.length);
+            for (double[] ring : part) {
+                writeVarint(out, ring.length / 2);
+                for (int i = 0; i < ring.length; i += 2) {
+                    long lon = Math.round(ring[i] * SCALE);
+                    long lat = Math.round(ring[i + 1] * SCALE);
+                    writeVarint(out, zigZag(lon - previous[0]));
+                    writeVarint(out, zigZag(lat - previous[1]));
+                    previous[0] = lon;
+                    previous[1] = lat;
+                }
+            }
+        }
+    }
+
+    private static PackedGeometry decodeFrom(byte[] data, int[] position, long[] previous) {
+        int code = data[position[0]++];
+        if (code < 1 || code >= TYPES.length) {
+            throw new IllegalArgumentException("Unsupported geometry encoding");
+        }
+        String type = TYPES[code];
+        if (type.equals("GeometryCollection")) {
+            int count = (int) readVarint(data, position);
+            List<PackedGeometry> members = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                members.add(decodeFrom(data, position, previous));
+            }
+            return new PackedGeometry(type, new double[0][][], members);
+        }
+
+        double[][][] parts = new double[(int) readVarint(data, position)][][];
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new double[(int) readVarint(data, position)][];
+            for (int r = 0; r < parts[p].length; r++) {
+                double[] xy = new double[(int) readVarint(data, position) * 2];
+                for (int i = 0; i < xy.length; i += 2) {
+                    previous[0] += unZigZag(readVarint(data, position));
+                    previous[1] += unZigZag(readVarint(data, position));
+                    xy[i] = previous[0] / SCALE;
+                    xy[i + 1] = previous[1] / SCALE;
+                }
+                parts[p][r] = xy;
+            }
+        }
+        return new PackedGeometry(type, parts, List.of());
+    }
+
+    // Nesting depth of the GeoJSON coordinates array for each type; -1 when unsupported
+    private static int depthOf(String type) {
+        return switch (type) {
+            case "Point" -> 1;
+            case "LineString", "MultiPoint" -> 2;
+            case "Polygon", "MultiLineString" -> 3;
+            case "MultiPolygon" -> 4;
+            default -> -1;
+        };
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position[0] >= data.length || shift > 63) {
+                throw new IllegalArgumentException("Truncated geometry encoding");
+            }
+            b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
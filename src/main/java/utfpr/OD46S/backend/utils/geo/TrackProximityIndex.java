@@ -0,0 +1,171 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Uniform grid over the segments of a GPS track, answering "did the track pass within R meters of
+ * this position?" by looking at the 3x3 cells around it instead of every segment.
+ * Positions are projected to local meters (equirectangular around the track's mean latitude), which is
+ * accurate to well under a meter at city scale. Segments are sampled every R/2 and registered in the
+ * cell of each sample; with cells of 2R, any segment within R of a position has a sample in its 3x3 block.
+ * Immutable once built, so queries can run from several threads.
+ */
+public final class TrackProximityIndex {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+    // Below this many positions a parallel split costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final double radius;
+    private final double cellSize;
+    private final double cosLatitude;
+    private final double[] x;
+    private final double[] y;
+    private final Map<Long, int[]> cells;
+
+    private TrackProximityIndex(double radius, double cosLatitude, double[] x, double[] y, Map<Long, int[]> cells) {
+        this.radius = radius;
+        this.cellSize = radius * 2;
+        this.cosLatitude = cosLatitude;
+        this.x = x;
+        this.y = y;
+        this.cells = cells;
+    }
+
+    /**
+     * Indexes the track given as parallel longitude/latitude arrays in time order.
+     * A single position is treated as a zero-length segment.
+     */
+    public static TrackProximityIndex build(double[] longitudes, double[] latitudes, double radiusMeters) {
+        if (longitudes.length != latitudes.length) {
+            throw new IllegalArgumentException("longitudes and latitudes must have the same length");
+        }
+        if (radiusMeters <= 0) {
+            throw new IllegalArgumentException("radiusMeters must be positive");
+        }
+        int n = longitudes.length;
+        double meanLatitude = 0;
+        for (double latitude : latitudes) {
+            meanLatitude += latitude / n;
+        }
+        double cosLatitude = n == 0 ? 1 : Math.cos(Math.toRadians(meanLatitude));
+
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = longitudes[i] * METERS_PER_DEGREE * cosLatitude;
+            y[i] = latitudes[i] * METERS_PER_DEGREE;
+        }
+
+        double cellSize = radiusMeters * 2;
+        double step = radiusMeters / 2;
+        Map<Long, int[]> cells = new HashMap<>(Math.max(16, n * 2));
+        int segments = n == 1 ? 1 : Math.max(0, n - 1);
+        for (int segment = 0; segment < segments; segment++) {
+            int end = Math.min(segment + 1, n - 1);
+            double dx = x[end] - x[segment];
+            double dy = y[end] - y[segment];
+            int samples = (int) Math.ceil(Math.hypot(dx, dy) / step);
+            long previous = Long.MIN_VALUE;
+            for (int s = 0; s <= samples; s++) {
+                double t = samples == 0 ? 0 : (double) s / samples;
+                long key = key(cell(x[segment] + dx * t, cellSize), cell(y[segment] + dy * t, cellSize));
+                if (key != previous) {
+                    add(cells, key, segment);
+                    previous = key;
+                }
+            }
+        }
+        // Trim the per-cell arrays (slot 0 holds the used length while building)
+        cells.replaceAll((key, entries) -> Arrays.copyOfRange(entries, 1, entries[0] + 1));
+        return new TrackProximityIndex(radiusMeters, cosLatitude, x, y, cells);
+    }
+
+    /**
+     * True when some track segment passes within the radius of the position.
+     * Stops at the first such segment, so positions on the track cost a few segment checks
+     * even where the truck went back and forth over the same streets.
+     */
+    public boolean isNear(double longitude, double latitude) {
+        double px = longitude * METERS_PER_DEGREE * cosLatitude;
+        double py = latitude * METERS_PER_DEGREE;
+        long cx = cell(px, cellSize);
+        long cy = cell(py, cellSize);
+        double radiusSquared = radius * radius;
+        // Own cell first: it holds the nearest segments more often than not
+        if (anyWithin(cells.get(key(cx, cy)), px, py, radiusSquared)) {
+            return true;
+        }
+        for (long i = cx - 1; i <= cx + 1; i++) {
+            for (long j = cy - 1; j <= cy + 1; j++) {
+                if ((i != cx || j != cy) && anyWithin(cells.get(key(i, j)), px, py, radiusSquared)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@link #isNear} for every position of the parallel arrays; large batches are split across
+     * the common fork-join pool.
+     */
+    public boolean[] nearAll(double[] longitudes, double[] latitudes) {
+        boolean[] near = new boolean[longitudes.length];
+        IntStream positions = IntStream.range(0, longitudes.length);
+        if (longitudes.length >= PARALLEL_THRESHOLD) {
+            positions = positions.parallel();
+        }
+        positions.forEach(i -> near[i] = isNear(longitudes[i], latitudes[i]));
+        return near;
+    }
+
+    private boolean anyWithin(int[] segments, double px, double py, double radiusSquared) {
+        if (segments == null) {
+            return false;
+        }
+        for (int segment : segments) {
+            if (segmentDistanceSquared(px, py, segment) <= radiusSquared) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double segmentDistanceSquared(double px, double py, int segment) {
+        int end = Math.min(segment + 1, x.length - 1);
+        double ax = x[segment];
+        double ay = y[segment];
+        double dx = x[end] - ax;
+        double dy = y[end] - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+
+    private static void add(Map<Long, int[]> cells, long key, int segment) {
+        int[] entries = cells.get(key);
+        if (entries == null) {
+            entries = new int[5];
+            cells.put(key, entries);
+        } else if (entries[0] + 1 == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+            cells.put(key, entries);
+        }
+        entries[++entries[0]] = segment;
+    }
+
+    private static long cell(double meters, double cellSize) {
+        return (long) Math.floor(meters / cellSize);
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xffffffffL);
+    }
+}
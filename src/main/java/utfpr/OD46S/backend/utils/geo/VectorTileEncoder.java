@@ -0,0 +1,528 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Builds one Mapbox Vector Tile (spec v2.1) from WGS84 geometries.
+ * Geometries are projected to web mercator tile units, simplified (Douglas-Peucker, see
+ * {@link GeometryUtils#simplifyMask}), clipped to the tile plus a small buffer and quantized
+ * to integers before being written as MVT commands. The protobuf encoding is written by hand,
+ * as the format only needs a handful of message types.
+ */
+public class VectorTileEncoder {
+
+    public static final int EXTENT = 4096;
+
+    // Geometry is kept this far outside the tile so strokes do not end visibly at tile edges
+    private static final int BUFFER = 64;
+    private static final double MIN = -BUFFER;
+    private static final double MAX = EXTENT + BUFFER;
+
+    // In tile units: 1/16 of a pixel on a 256px tile
+    private static final double SIMPLIFY_TOLERANCE = 1.0;
+
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private static final int POINT = 1;
+    private static final int LINESTRING = 2;
+    private static final int POLYGON = 3;
+
+    private static final int MOVE_TO = 1;
+    private static final int LINE_TO = 2;
+    private static final int CLOSE_PATH = 7;
+
+    private final int x;
+    private final int y;
+    private final double tiles;
+    private final Map<String, Layer> layers = new LinkedHashMap<>();
+
+    public VectorTileEncoder(int z, int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.tiles = (double) (1L << z);
+    }
+
+    /**
+     * WGS84 bounds of tile z/x/y including the clipping buffer, for querying candidate geometries.
+     */
+    public static BoundingBox tileBounds(int z, int x, int y) {
+        double tiles = (double) (1L << z);
+        double buffer = (double) BUFFER / EXTENT;
+        double minLon = Math.max(-180, (x - buffer) / tiles * 360 - 180);
+        double maxLon = Math.min(180, (x + 1 + buffer) / tiles * 360 - 180);
+        double maxLat = Math.min(90, tileYToLatitude(y - buffer, tiles));
+        double minLat = Math.max(-90, tileYToLatitude(y + 1 + buffer, tiles));
+        return new BoundingBox(minLon, minLat, maxLon, maxLat);
+    }
+
+    /**
+     * Adds a geometry as one feature (one per member for a GeometryCollection).
+     * Parts that fall completely outside the tile are dropped; nothing is added if none remain.
+     */
+    public void addGeometry(String layerName, Long id, Map<String, Object> attributes, PackedGeometry geometry) {
+        if (!geometry.getMembers().isEmpty()) {
+            for (PackedGeometry member : geometry.getMembers()) {
+                addGeometry(layerName, id, attributes, member);
+            }
+            return;
+        }
+        switch (geometry.getType()) {
+            case "Point", "MultiPoint" -> addPoints(layerName, id, attributes, geometry.getParts());
+            case "LineString", "MultiLineString" -> {
+                List<double[]> lines = new ArrayList<>();
+                for (double[][] part : geometry.getParts()) {
+                    lines.addAll(Arrays.asList(part));
+                }
+                addLines(layerName, id, attributes, lines);
+            }
+            case "Polygon", "MultiPolygon" -> addPolygons(layerName, id, attributes, geometry.getParts());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Adds a line given as interleaved lon/lat values.
+     */
+    public void addLineString(String layerName, Long id, Map<String, Object> attributes, double[] lonLat) {
+        addLines(layerName, id, attributes, List.of(lonLat));
+    }
+
+    public boolean isEmpty() {
+        return layers.values().stream().allMatch(layer -> layer.features.isEmpty());
+    }
+
+    public byte[] encode() {
+        ProtoWriter tile = new ProtoWriter();
+        for (Layer layer : layers.values()) {
+            if (!layer.features.isEmpty()) {
+                tile.bytesField(3, layer.encode());
+            }
+        }
+        return tile.toByteArray();
+    }
+
+    private void addPoints(String layerName, Long id, Map<String, Object> attributes, double[][][] parts) {
+        List<Integer> points = new ArrayList<>();
+        for (double[][] part : parts) {
+            for (double[] ring : part) {
+                for (int i = 0; i + 1 < ring.length; i += 2) {
+                    double px = projectX(ring[i]);
+                    double py = projectY(ring[i + 1]);
+                    if (px >= MIN && px <= MAX && py >= MIN && py <= MAX) {
+                        points.add((int) Math.round(px));
+                        points.add((int) Math.round(py));
+                    }
+                }
+            }
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+        CommandWriter commands = new CommandWriter();
+        int[] xy = points.stream().mapToInt(Integer::intValue).toArray();
+        commands.points(xy);
+        layer(layerName).addFeature(id, attributes, POINT, commands.geometry);
+    }
+
+    private void addLines(String layerName, Long id, Map<String, Object> attributes, List<double[]> lines) {
+        CommandWriter commands = new CommandWriter();
+        for (double[] line : lines) {
+            for (double[] clipped : clipLine(simplify(project(line)))) {
+                int[] quantized = quantize(clipped, false);
+                if (quantized != null && quantized.length >= 4) {
+                    commands.path(quantized, false);
+                }
+            }
+        }
+        if (!commands.geometry.isEmpty()) {
+            layer(layerName).addFeature(id, attributes, LINESTRING, commands.geometry);
+        }
+    }
+
+    private void addPolygons(String layerName, Long id, Map<String, Object> attributes, double[][][] polygons) {
+        CommandWriter commands = new CommandWriter();
+        for (double[][] polygon : polygons) {
+            for (int r = 0; r < polygon.length; r++) {
+                int[] ring = quantize(clipRing(simplify(project(polygon[r]))), true);
+                long area = ring == null ? 0 : signedArea(ring);
+                if (area == 0) {
+                    // Without its exterior ring the holes mean nothing, so the whole polygon is skipped
+                    if (r == 0) break;
+                    continue;
+                }
+                // MVT: exterior rings have positive area in tile coordinates (y down), holes negative
+                boolean exterior = r == 0;
+                if ((area > 0) != exterior) {
+                    ring = reverse(ring);
+                }
+                commands.path(ring, true);
+            }
+        }
+        if (!commands.geometry.isEmpty()) {
+            layer(layerName).addFeature(id, attributes, POLYGON, commands.geometry);
+        }
+    }
+
+    private Layer layer(String name) {
+        return layers.computeIfAbsent(name, Layer::new);
+    }
+
+    private double[] project(double[] lonLat) {
+        double[] projected = new double[lonLat.length];
+        for (int i = 0; i + 1 < lonLat.length; i += 2) {
+            projected[i] = projectX(lonLat[i]);
+            projected[i + 1] = projectY(lonLat[i + 1]);
+        }
+        return projected;
+    }
+
+    private double projectX(double lon) {
+        return ((lon + 180) / 360 * tiles - x) * EXTENT;
+    }
+
+    private double projectY(double lat) {
+        double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat)));
+        double mercator = Math.log(Math.tan(radians) + 1 / Math.cos(radians));
+        return ((1 - mercator / Math.PI) / 2 * tiles - y) * EXTENT;
+    }
+
+    private static double tileYToLatitude(double tileY, double tiles) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * tileY / tiles))));
+    }
+
+    private static double[] simplify(double[] xy) {
+        boolean[] keep = GeometryUtils.simplifyMask(xy, SIMPLIFY_TOLERANCE);
+        if (keep == null) {
+            return xy;
+        }
+        double[] result = new double[xy.length];
+        int length = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                result[length++] = xy[i * 2];
+                result[length++] = xy[i * 2 + 1];
+            }
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    // Sutherland-Hodgman against the buffered tile square; returns an open ring
+    private static double[] clipRing(double[] xy) {
+        int length = xy.length;
+        if (length >= 4 && xy[0] == xy[length - 2] && xy[1] == xy[length - 1]) {
+            length -= 2;
+        }
+        double[] ring = Arrays.copyOf(xy, length);
+        if (insideTile(ring)) {
+            return ring;
+        }
+        ring = clipEdge(ring, 0, MIN, true);
+        ring = clipEdge(ring, 0, MAX, false);
+        ring = clipEdge(ring, 1, MIN, true);
+        return clipEdge(ring, 1, MAX, false);
+    }
+
+    private static double[] clipEdge(double[] ring, int axis, double bound, boolean keepAbove) {
+        int n = ring.length / 2;
+        if (n == 0) {
+            return ring;
+        }
+        double[] out = new double[ring.length * 2];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int previous = (i + n - 1) % n;
+            boolean currentInside = keepAbove ? ring[i * 2 + axis] >= bound : ring[i * 2 + axis] <= bound;
+            boolean previousInside = keepAbove ? ring[previous * 2 + axis] >= bound : ring[previous * 2 + axis] <= bound;
+            if (currentInside != previousInside) {
+                double t = (bound - ring[previous * 2 + axis]) / (ring[i * 2 + axis] - ring[previous * 2 + axis]);
+                out[length++] = ring[previous * 2] + t * (ring[i * 2] - ring[previous * 2]);
+                out[length++] = ring[previous * 2 + 1] + t * (ring[i * 2 + 1] - ring[previous * 2 + 1]);
+            }
+            if (currentInside) {
+                out[length++] = ring[i * 2];
+                out[length++] = ring[i * 2 + 1];
+            }
+        }
+        return Arrays.copyOf(out, length);
+    }
+
+    // Liang-Barsky per segment; a line leaving and re-entering the tile becomes several lines
+    private static List<double[]> clipLine(double[] xy) {
+        List<double[]> lines = new ArrayList<>();
+        if (insideTile(xy)) {
+            lines.add(xy);
+            return lines;
+        }
+        double[] current = new double[xy.length + 4];
+        int length = 0;
+        for (int i = 0; i + 3 < xy.length; i += 2) {
+            double[] segment = clipSegment(xy[i], xy[i + 1], xy[i + 2], xy[i + 3]);
+            if (segment == null) {
+                if (length > 0) lines.add(Arrays.copyOf(current, length));
+                length = 0;
+                continue;
+            }
+            if (length == 0 || current[length - 2] != segment[0] || current[length - 1] != segment[1]) {
+                if (length > 0) lines.add(Arrays.copyOf(current, length));
+                current = new double[xy.length + 4];
+                length = 0;
+                current[length++] = segment[0];
+                current[length++] = segment[1];
+            }
+            current[length++] = segment[2];
+            current[length++] = segment[3];
+        }
+        if (length > 0) {
+            lines.add(Arrays.copyOf(current, length));
+        }
+        return lines;
+    }
+
+    private static double[] clipSegment(double x0, double y0, double x1, double y1) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x0 - MIN, MAX - x0, y0 - MIN, MAX - y0};
+        double t0 = 0;
+        double t1 = 1;
+        for (int k = 0; k < 4; k++) {
+            if (p[k] == 0) {
+                if (q[k] < 0) return null;
+                continue;
+            }
+            double r = q[k] / p[k];
+            if (p[k] < 0) {
+                if (r > t1) return null;
+                t0 = Math.max(t0, r);
+            } else {
+                if (r < t0) return null;
+                t1 = Math.min(t1, r);
+            }
+        }
+        return new double[]{x0 + t0 * dx, y0 + t0 * dy, x0 + t1 * dx, y0 + t1 * dy};
+    }
+
+    private static boolean insideTile(double[] xy) {
+        for (double value : xy) {
+            if (value < MIN || value > MAX) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Rounds to integers and drops repeated positions; null if too few remain (3 for rings, 2 for lines)
+    private static int[] quantize(double[] xy, boolean ring) {
+        int[] out = new int[xy.length];
+        int length = 0;
+        for (int i = 0; i + 1 < xy.length; i += 2) {
+            int px = (int) Math.round(xy[i]);
+            int py = (int) Math.round(xy[i + 1]);
+            if (length > 0 && out[length - 2] == px && out[length - 1] == py) {
+                continue;
+            }
+            out[length++] = px;
+            out[length++] = py;
+        }
+        if (ring && length >= 4 && out[0] == out[length - 2] && out[1] == out[length - 1]) {
+            length -= 2;
+        }
+        int minimum = ring ? 3 : 2;
+        return length / 2 < minimum ? null : Arrays.copyOf(out, length);
+    }
+
+    // Twice the signed area of an open ring (surveyor's formula)
+    private static long signedArea(int[] ring) {
+        long area = 0;
+        int n = ring.length / 2;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            area += (long) ring[i * 2] * ring[j * 2 + 1] - (long) ring[j * 2] * ring[i * 2 + 1];
+        }
+        return area;
+    }
+
+    private static int[] reverse(int[] ring) {
+        int n = ring.length / 2;
+        int[] reversed = new int[ring.length];
+        for (int i = 0; i < n; i++) {
+            reversed[i * 2] = ring[(n - 1 - i) * 2];
+            reversed[i * 2 + 1] = ring[(n - 1 - i) * 2 + 1];
+        }
+        return reversed;
+    }
+
+    private static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    // Geometry commands of one feature; the cursor carries over between parts, as the spec requires
+    private static class CommandWriter {
+        private final List<Integer> geometry = new ArrayList<>();
+        private int cursorX;
+        private int cursorY;
+
+        void points(int[] xy) {
+            geometry.add(command(MOVE_TO, xy.length / 2));
+            for (int i = 0; i < xy.length; i += 2) {
+                moveCursor(xy[i], xy[i + 1]);
+            }
+        }
+
+        void path(int[] xy, boolean close) {
+            geometry.add(command(MOVE_TO, 1));
+            moveCursor(xy[0], xy[1]);
+            int count = xy.length / 2 - 1;
+            if (count > 0) {
+                geometry.add(command(LINE_TO, count));
+                for (int i = 2; i < xy.length; i += 2) {
+                    moveCursor(xy[i], xy[i + 1]);
+                }
+            }
+            if (close) {
+                geometry.add(command(CLOSE_PATH, 1));
+            }
+        }
+
+        private void moveCursor(int px, int py) {
+            geometry.add(zigZag(px - cursorX));
+            geometry.add(zigZag(py - cursorY));
+            cursorX = px;
+            cursorY = py;
+        }
+    }
+
+    private static class Layer {
+        private final String name;
+        private final List<byte[]> features = new ArrayList<>();
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private final Map<Object, Integer> values = new LinkedHashMap<>();
+
+        Layer(String name) {
+            this.name = name;
+        }
+
+        void addFeature(Long id, Map<String, Object> attributes, int type, List<Integer> geometry) {
+            List<Integer> tags = new ArrayList<>();
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                Object value = normalize(attribute.getValue());
+                if (value == null) {
+                    continue;
+                }
+                tags.add(keys.computeIfAbsent(attribute.getKey(), key -> keys.size()));
+                tags.add(values.computeIfAbsent(value, v -> values.size()));
+            }
+
+            ProtoWriter feature = new ProtoWriter();
+            if (id != null && id >= 0) {
+                feature.varintField(1, id);
+            }
+            feature.packedField(2, tags);
+            feature.varintField(3, type);
+            feature.packedField(4, geometry);
+            features.add(feature.toByteArray());
+        }
+
+        byte[] encode() {
+            ProtoWriter layer = new ProtoWriter();
+            layer.varintField(15, 2);
+            layer.stringField(1, name);
+            for (byte[] feature : features) {
+                layer.bytesField(2, feature);
+            }
+            for (String key : keys.keySet()) {
+                layer.stringField(3, key);
+            }
+            for (Object value : values.keySet()) {
+                layer.bytesField(4, encodeValue(value));
+            }
+            layer.varintField(5, EXTENT);
+            return layer.toByteArray();
+        }
+
+        private static Object normalize(Object value) {
+            if (value == null || value instanceof String || value instanceof Boolean) {
+                return value;
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                return ((Number) value).longValue();
+            }
+            if (value instanceof Number number) {
+                return number instanceof BigDecimal decimal ? decimal.doubleValue() : number.doubleValue();
+            }
+            return value.toString();
+        }
+
+        private static byte[] encodeValue(Object value) {
+            ProtoWriter out = new ProtoWriter();
+            if (value instanceof String text) {
+                out.stringField(1, text);
+            } else if (value instanceof Double number) {
+                out.doubleField(3, number);
+            } else if (value instanceof Long number) {
+                out.varintField(6, (number << 1) ^ (number >> 63));
+            } else if (value instanceof Boolean flag) {
+                out.varintField(7, flag ? 1 : 0);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static class ProtoWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void varintField(int field, long value) {
+            writeVarint(((long) field << 3));
+            writeVarint(value);
+        }
+
+        void doubleField(int field, double value) {
+            writeVarint(((long) field << 3) | 1);
+            long bits = Double.doubleToLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (8 * i)) & 0xFF);
+            }
+        }
+
+        void stringField(int field, String value) {
+            bytesField(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void bytesField(int field, byte[] value) {
+            writeVarint(((long) field << 3) | 2);
+            writeVarint(value.length);
+            out.writeBytes(value);
+        }
+
+        void packedField(int field, List<Integer> values) {
+            if (values.isEmpty()) {
+                return;
+            }
+            ProtoWriter packed = new ProtoWriter();
+            for (int value : values) {
+                packed.writeVarint(Integer.toUnsignedLong(value));
+            }
+            bytesField(field, packed.toByteArray());
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
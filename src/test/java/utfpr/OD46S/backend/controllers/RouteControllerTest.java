@@ -124,6 +124,37 @@ class RouteControllerTest {
                 .andExpect(jsonPath("$.data.route").exists());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testListarRotasContaPontos() throws Exception {
+        RouteDTO routeDTO = new RouteDTO();
+        routeDTO.setName("Counted Points Route");
+        routeDTO.setCollectionType(CollectionType.RECYCLABLE);
+        routeDTO.setPeriodicity("0 7 * * 1");
+        routeDTO.setCollectionPoints(new ArrayList<>());
+        for (int i = 1; i <= 2; i++) {
+            RouteCollectionPointDTO pointDTO = new RouteCollectionPointDTO();
+            pointDTO.setSequenceOrder(i);
+            pointDTO.setAddress("Point " + i);
+            pointDTO.setLatitude(new BigDecimal("-25.4284"));
+            pointDTO.setLongitude(new BigDecimal("-49.2733"));
+            pointDTO.setWasteType(WasteType.RECYCLABLE);
+            routeDTO.getCollectionPoints().add(pointDTO);
+        }
+        mockMvc.perform(post("/api/v1/routes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(routeDTO)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/routes")
+                .param("search", "counted points")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.routes[0].name").value("Counted Points Route"))
+                .andExpect(jsonPath("$.data.routes[0].collection_points_count").value(2))
+                .andExpect(jsonPath("$.data.routes[0].collection_points").doesNotExist());
+    }
+
     @Test
     @WithMockUser(roles = "DRIVER")
     void testListarRotasComoMotorista() throws Exception {
@@ -53,10 +53,10 @@ class VeiculoControllerTest {
     void testListar_Success() {
         // Given
         List<VeiculoDTO> veiculos = Arrays.asList(veiculoDTO);
-        when(veiculoService.listarTodos()).thenReturn(veiculos);
+        when(veiculoService.listarTodos(null)).thenReturn(veiculos);
 
         // When
-        ResponseEntity<List<VeiculoDTO>> response = veiculoController.listar();
+        ResponseEntity<List<VeiculoDTO>> response = veiculoController.listar(null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -64,23 +64,23 @@ class VeiculoControllerTest {
         assertEquals(1, response.getBody().size());
         assertEquals("ABC1234", response.getBody().get(0).getLicensePlate());
         
-        verify(veiculoService, times(1)).listarTodos();
+        verify(veiculoService, times(1)).listarTodos(null);
     }
 
     @Test
     void testListar_Empty() {
         // Given
-        when(veiculoService.listarTodos()).thenReturn(Arrays.asList());
+        when(veiculoService.listarTodos(null)).thenReturn(Arrays.asList());
 
         // When
-        ResponseEntity<List<VeiculoDTO>> response = veiculoController.listar();
+        ResponseEntity<List<VeiculoDTO>> response = veiculoController.listar(null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().isEmpty());
         
-        verify(veiculoService, times(1)).listarTodos();
+        verify(veiculoService, times(1)).listarTodos(null);
     }
 
     @Test
@@ -0,0 +1,41 @@
+package utfpr.OD46S.backend.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoJsonRawFeatureTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testGeometryIsWrittenAsRawJsonObject() throws Exception {
+        String geometry = "{\"type\": \"Polygon\", \"coordinates\": [[[-52.67, -26.22], [-52.66, -26.22], [-52.66, -26.23], [-52.67, -26.22]]]}";
+        GeoJsonRawFeature feature = new GeoJsonRawFeature("Feature", Map.of("externalName", "Centro"), geometry);
+
+        String json = objectMapper.writeValueAsString(new GeoJsonRawFeatureCollection("FeatureCollection", List.of(feature)));
+        JsonNode root = objectMapper.readTree(json);
+
+        JsonNode geometryNode = root.get("features").get(0).get("geometry");
+        assertTrue(geometryNode.isObject());
+        assertEquals("Polygon", geometryNode.get("type").asText());
+        assertEquals(-52.67, geometryNode.get("coordinates").get(0).get(0).get(0).asDouble());
+        assertEquals(objectMapper.readTree(geometry), geometryNode);
+    }
+
+    @Test
+    void testNullGeometryIsOmitted() throws Exception {
+        GeoJsonRawFeature feature = new GeoJsonRawFeature();
+        feature.setProperties(Map.of("externalName", "Centro"));
+
+        JsonNode node = objectMapper.readTree(objectMapper.writeValueAsString(feature));
+
+        assertEquals("Feature", node.get("type").asText());
+        assertFalse(node.has("geometry"));
+    }
+}
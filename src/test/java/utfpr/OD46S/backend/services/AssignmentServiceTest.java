@@ -0,0 +1,144 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import utfpr.OD46S.backend.dtos.RouteAssignmentDTO;
+import utfpr.OD46S.backend.entitys.*;
+import utfpr.OD46S.backend.enums.AssignmentStatus;
+import utfpr.OD46S.backend.enums.CollectionType;
+import utfpr.OD46S.backend.repositorys.RouteAssignmentRepository;
+import utfpr.OD46S.backend.repositorys.RouteAssignmentRepository.AssignmentListRow;
+import utfpr.OD46S.backend.repositorys.UsuarioRepository;
+import utfpr.OD46S.backend.utils.KeysetCursor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssignmentServiceTest {
+
+    @Mock
+    private RouteAssignmentRepository assignmentRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @InjectMocks
+    private AssignmentService assignmentService;
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listarAssignments_MapsProjectionRowsWithoutLoadingEntities() {
+        List<AssignmentListRow> rows = new ArrayList<>();
+        for (long i = 1; i <= 30; i++) {
+            rows.add(row(i, 10L + i % 3, i % 3 == 1 ? "Bruno" : null));
+        }
+        when(assignmentRepository.findListRows(any(), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(rows));
+
+        Map<String, Object> response = assignmentService.listarAssignments(
+                null, null, null, null, 1, 30, null, null);
+
+        List<RouteAssignmentDTO> dtos = (List<RouteAssignmentDTO>) ((Map<String, Object>) response.get("data")).get("assignments");
+        assertEquals(30, dtos.size());
+        RouteAssignmentDTO first = dtos.get(0);
+        assertEquals("Bruno", first.getDriver().getName());
+        assertEquals("CNH11", first.getDriver().getLicenseNumber());
+        assertEquals(1L, first.getCreatedBy().longValue());
+        assertEquals("RESIDENTIAL", first.getRoute().getCollectionType());
+        // Driver without a user row keeps the previous fallback
+        assertEquals("", dtos.get(1).getDriver().getName());
+        verifyNoInteractions(usuarioRepository);
+        verify(assignmentRepository, never()).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listarAssignments_CursorPage_UsesRowValueQueryAndFirstPageUsesSlice() {
+        when(assignmentRepository.findListRowsSlice(any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(row(1L, 10L, "Bruno"), row(2L, 10L, "Bruno")),
+                        PageRequest.of(0, 2), true));
+        Map<String, Object> first = assignmentService.listarAssignments(
+                null, null, null, null, 1, 2, null, "asc", null, false);
+        String cursor = (String) ((Map<String, Object>) ((Map<String, Object>) first.get("data")).get("pagination")).get("next_cursor");
+        assertEquals(new KeysetCursor(CREATED_AT.toString(), 2L).encode(), cursor);
+
+        when(assignmentRepository.findListRowsAfter(any(), any(), any(), any(), eq(CREATED_AT), eq(2L), any()))
+                .thenReturn(new SliceImpl<>(List.of(row(3L, 10L, "Bruno")), PageRequest.of(0, 2), false));
+        Map<String, Object> second = assignmentService.listarAssignments(
+                null, null, null, null, 1, 2, null, "asc", cursor, false);
+
+        Map<String, Object> pagination = (Map<String, Object>) ((Map<String, Object>) second.get("data")).get("pagination");
+        assertEquals(false, pagination.get("has_next"));
+        assertFalse(pagination.containsKey("next_cursor"));
+        verify(assignmentRepository, never()).findListRows(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void obterAssignmentPorId_ResolvesDriverUserWithOneLookup() {
+        Route route = new Route();
+        route.setId(1L);
+        route.setName("Centro");
+        route.setCollectionType(CollectionType.RESIDENTIAL);
+        Motorista driver = new Motorista();
+        driver.setId(10L);
+        Veiculo vehicle = new Veiculo();
+        vehicle.setId(1L);
+        Administrator admin = new Administrator();
+        admin.setId(1L);
+        RouteAssignment assignment = new RouteAssignment(route, driver, vehicle, LocalDate.of(2025, 1, 1), admin);
+        assignment.setId(3L);
+        when(assignmentRepository.findByIdWithDetails(3L)).thenReturn(Optional.of(assignment));
+        when(usuarioRepository.findById(10L)).thenReturn(Optional.empty());
+
+        Map<String, Object> response = assignmentService.obterAssignmentPorId(3L);
+
+        RouteAssignmentDTO dto = (RouteAssignmentDTO) ((Map<String, Object>) response.get("data")).get("assignment");
+        // Driver without a user row keeps the previous fallback
+        assertEquals("", dto.getDriver().getName());
+        verify(usuarioRepository, times(1)).findById(10L);
+        verify(usuarioRepository, never()).findAllById(any());
+    }
+
+    private AssignmentListRow row(Long id, Long driverId, String driverName) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("status", AssignmentStatus.ACTIVE);
+        values.put("startDate", LocalDate.of(2025, 1, 1));
+        values.put("createdAt", CREATED_AT);
+        values.put("createdBy", 1L);
+        values.put("routeId", 1L);
+        values.put("routeName", "Centro");
+        values.put("routePeriodicity", "0 8 * * 1");
+        values.put("routeCollectionType", CollectionType.RESIDENTIAL);
+        values.put("driverId", driverId);
+        values.put("driverName", driverName);
+        values.put("driverEmail", driverName != null ? driverName.toLowerCase() + "@od46s.com" : null);
+        values.put("driverLicenseNumber", "CNH" + driverId);
+        values.put("vehicleId", 1L);
+        values.put("vehicleLicensePlate", "ABC1234");
+        return projectionFactory.createProjection(AssignmentListRow.class, values);
+    }
+}
@@ -0,0 +1,129 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionRepository;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionCoverageServiceTest {
+
+    @Mock
+    private RouteExecutionRepository executionRepository;
+
+    @Mock
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Mock
+    private RouteAreaRepository routeAreaRepository;
+
+    @Mock
+    private RouteAreaGeometryCache geometryCache;
+
+    @InjectMocks
+    private ExecutionCoverageService coverageService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(coverageService, "bufferMeters", 15.0);
+        ReflectionTestUtils.setField(coverageService, "cellMeters", 5.0);
+        ReflectionTestUtils.setField(coverageService, "maxCells", 4_000_000L);
+    }
+
+    @Test
+    void calcularCobertura_StoresShareOfAreaAlongTrack() throws Exception {
+        // Block ~100 m wide and ~220 m tall; the truck drove north through the middle of it
+        PackedGeometry area = PackedGeometry.fromGeoJson(new ObjectMapper().readTree(
+                "{\"type\":\"Polygon\",\"coordinates\":[[[-52.671,-26.232],[-52.670,-26.232]," +
+                "[-52.670,-26.230],[-52.671,-26.230],[-52.671,-26.232]]]}"));
+        when(routeAreaRepository.findActiveVersionsByRouteId(1L)).thenReturn(List.<Object[]>of(
+                new Object[]{50L, "hash-50"}));
+        when(geometryCache.getAll(Map.of(50L, "hash-50"))).thenReturn(Map.of(50L, area));
+        when(gpsRecordRepository.findTrackByExecutionId(9L)).thenReturn(List.<Object[]>of(
+                new Object[]{new BigDecimal("-52.67050000"), new BigDecimal("-26.23300000")},
+                new Object[]{new BigDecimal("-52.67050000"), new BigDecimal("-26.22900000")}));
+
+        BigDecimal percent = coverageService.calcularCobertura(9L, 1L);
+
+        // 30 m wide strip of a 100 m wide block
+        assertNotNull(percent);
+        assertTrue(percent.compareTo(new BigDecimal("25")) > 0 && percent.compareTo(new BigDecimal("35")) < 0,
+                "coverage was " + percent);
+        ArgumentCaptor<BigDecimal> stored = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(executionRepository).updateAreaCoverage(eq(9L), stored.capture(), any());
+        assertEquals(percent, stored.getValue());
+    }
+
+    @Test
+    void calcularCobertura_AreasWithoutPolygonsStoreOnlyTimestamp() throws Exception {
+        PackedGeometry line = PackedGeometry.fromGeoJson(new ObjectMapper().readTree(
+                "{\"type\":\"LineString\",\"coordinates\":[[-52.671,-26.232],[-52.670,-26.230]]}"));
+        when(routeAreaRepository.findActiveVersionsByRouteId(1L)).thenReturn(List.<Object[]>of(
+                new Object[]{50L, "hash-50"}));
+        when(geometryCache.getAll(Map.of(50L, "hash-50"))).thenReturn(Map.of(50L, line));
+        when(gpsRecordRepository.findTrackByExecutionId(9L)).thenReturn(List.of());
+
+        assertNull(coverageService.calcularCobertura(9L, 1L));
+
+        // A data gravada tira a execução da recuperação
+        verify(executionRepository).updateAreaCoverage(eq(9L), isNull(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void recuperarCoberturasPendentes_QueuesExecutionsWithoutCoverage() throws Exception {
+        when(executionRepository.findCompletedWithoutAreaCoverage(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{9L, 1L}, new Object[]{10L, 2L}));
+        when(routeAreaRepository.findActiveVersionsByRouteId(1L)).thenThrow(new RuntimeException("database offline"));
+        when(routeAreaRepository.findActiveVersionsByRouteId(2L)).thenReturn(List.of());
+
+        coverageService.start();
+        try {
+            coverageService.recuperarCoberturasPendentes();
+        } finally {
+            coverageService.stop();
+        }
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(coverageService, "coverageExecutor");
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // A falha da primeira é registrada e não impede a segunda
+        verify(routeAreaRepository).findActiveVersionsByRouteId(1L);
+        verify(routeAreaRepository).findActiveVersionsByRouteId(2L);
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(executionRepository).findCompletedWithoutAreaCoverage(any(LocalDateTime.class), page.capture());
+        assertEquals(ExecutionCoverageService.RECOVERY_BATCH_SIZE, page.getValue().getPageSize());
+    }
+
+    @Test
+    void calcularCobertura_RouteWithoutAreasIsLeftEmpty() {
+        when(routeAreaRepository.findActiveVersionsByRouteId(1L)).thenReturn(List.of());
+
+        assertNull(coverageService.calcularCobertura(9L, 1L));
+
+        verifyNoInteractions(gpsRecordRepository, geometryCache);
+        verify(executionRepository, never()).updateAreaCoverage(anyLong(), any(), any());
+    }
+}
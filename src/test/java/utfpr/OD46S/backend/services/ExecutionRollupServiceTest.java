@@ -0,0 +1,115 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import utfpr.OD46S.backend.entitys.ExecutionDailyRollup;
+import utfpr.OD46S.backend.enums.CollectionType;
+import utfpr.OD46S.backend.repositorys.ExecutionDailyRollupRepository;
+import utfpr.OD46S.backend.repositorys.ExecutionDailyRollupRepository.RollupRow;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 15);
+
+    @Mock
+    private ExecutionDailyRollupRepository rollupRepository;
+
+    @InjectMocks
+    private ExecutionRollupService rollupService;
+
+    private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Test
+    void refresh_OverwritesExistingKeyWithRecomputedSums() {
+        ExecutionDailyRollup existing = new ExecutionDailyRollup();
+        existing.setId(7L);
+        existing.setExecutionsCompleted(1);
+        when(rollupRepository.aggregateExecutions(DAY, DAY, 1L, 2L, 3L)).thenReturn(List.of(row(2L, 1L)));
+        when(rollupRepository.findByRollupDateAndRouteIdAndDriverIdAndVehicleIdAndCollectionType(
+                DAY, 1L, 2L, 3L, CollectionType.RESIDENTIAL)).thenReturn(Optional.of(existing));
+
+        rollupService.refresh(DAY, 1L, 2L, 3L, CollectionType.RESIDENTIAL);
+
+        verify(rollupRepository).saveAndFlush(existing);
+        assertEquals(7L, existing.getId());
+        assertEquals(2, existing.getExecutionsCompleted());
+        assertEquals(1, existing.getExecutionsCancelled());
+        assertEquals(new BigDecimal("2450.50"), existing.getCollectedWeightKg());
+        assertEquals(84L, existing.getKmDriven());
+    }
+
+    @Test
+    void refresh_RemovesKeyWithoutClosedExecutions() {
+        ExecutionDailyRollup existing = new ExecutionDailyRollup();
+        when(rollupRepository.aggregateExecutions(DAY, DAY, 1L, 2L, 3L)).thenReturn(List.of());
+        when(rollupRepository.findByRollupDateAndRouteIdAndDriverIdAndVehicleIdAndCollectionType(
+                DAY, 1L, 2L, 3L, CollectionType.RESIDENTIAL)).thenReturn(Optional.of(existing));
+
+        rollupService.refresh(DAY, 1L, 2L, 3L, CollectionType.RESIDENTIAL);
+
+        verify(rollupRepository).delete(existing);
+        verify(rollupRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ReplacesRangeWithAggregatedRows() {
+        LocalDate end = DAY.plusDays(30);
+        when(rollupRepository.deleteByRollupDateRange(DAY, end)).thenReturn(5);
+        when(rollupRepository.aggregateExecutions(DAY, end, null, null, null))
+                .thenReturn(List.of(row(2L, 0L), row(1L, 1L)));
+
+        Map<String, Object> result = rollupService.rebuild(DAY, end);
+
+        ArgumentCaptor<List<ExecutionDailyRollup>> saved = ArgumentCaptor.forClass(List.class);
+        verify(rollupRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertEquals(CollectionType.RESIDENTIAL, saved.getValue().get(0).getCollectionType());
+        assertEquals(5, result.get("rows_deleted"));
+        assertEquals(2, result.get("rows_written"));
+    }
+
+    @Test
+    void rebuildAndQuery_RejectInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> rollupService.rebuild(DAY, DAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> rollupService.rebuild(null, DAY));
+        assertThrows(IllegalArgumentException.class, () -> rollupService.query(
+                DAY, DAY, List.of("route", "weight"), null, null, null, null));
+        verify(rollupRepository, never()).deleteByRollupDateRange(any(), any());
+        verify(rollupRepository, never()).saveAll(anyList());
+    }
+
+    private RollupRow row(Long completed, Long cancelled) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("rollupDate", DAY);
+        values.put("routeId", 1L);
+        values.put("driverId", 2L);
+        values.put("vehicleId", 3L);
+        values.put("collectionType", CollectionType.RESIDENTIAL);
+        values.put("executionsCompleted", completed);
+        values.put("executionsCancelled", cancelled);
+        values.put("collectedWeightKg", new BigDecimal("2450.50"));
+        values.put("kmDriven", 84L);
+        values.put("pointsVisited", 30L);
+        values.put("pointsCollected", 28L);
+        return projectionFactory.createProjection(RollupRow.class, values);
+    }
+}
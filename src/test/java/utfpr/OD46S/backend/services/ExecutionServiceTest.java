@@ -0,0 +1,220 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import utfpr.OD46S.backend.dtos.RouteExecutionDTO;
+import utfpr.OD46S.backend.entitys.*;
+import utfpr.OD46S.backend.enums.CollectionType;
+import utfpr.OD46S.backend.enums.ExecutionStatus;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionRepository.ExecutionListRow;
+import utfpr.OD46S.backend.repositorys.UsuarioRepository;
+import utfpr.OD46S.backend.utils.KeysetCursor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExecutionServiceTest {
+
+    @Mock
+    private RouteExecutionRepository executionRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Mock
+    private MissedPointService missedPointService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ExecutionService executionService;
+
+    private final SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listarExecutions_MapsProjectionRowsWithoutLoadingEntities() {
+        List<ExecutionListRow> rows = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            rows.add(row(i, i % 2 == 0 ? 10L : 11L, i % 2 == 0 ? "Ana" : null));
+        }
+        when(executionRepository.findListRows(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(rows));
+
+        Map<String, Object> response = executionService.listarExecutions(
+                null, null, null, null, null, 1, 50, null, null);
+
+        List<RouteExecutionDTO> dtos = (List<RouteExecutionDTO>) ((Map<String, Object>) response.get("data")).get("executions");
+        assertEquals(50, dtos.size());
+        RouteExecutionDTO first = dtos.get(0);
+        assertEquals(1L, first.getId().longValue());
+        assertEquals("RESIDENTIAL", first.getAssignment().getRoute().getCollectionType());
+        assertEquals("ABC1234", first.getAssignment().getVehicle().getLicensePlate());
+        assertEquals(new BigDecimal("87.50"), first.getAreaCoveragePercent());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 18, 0), first.getAreaCoverageComputedAt());
+        // Driver without a user row keeps the previous fallback
+        assertEquals("", first.getAssignment().getDriver().getName());
+        assertEquals("Ana", dtos.get(1).getAssignment().getDriver().getName());
+        verifyNoInteractions(usuarioRepository);
+        verify(executionRepository, never()).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listarExecutions_WithCursor_ContinuesByKeysetWithoutCount() {
+        String cursor = new KeysetCursor("2025-01-15", 40L).encode();
+        when(executionRepository.findListRowsBefore(any(), any(), any(), any(), any(),
+                eq(LocalDate.of(2025, 1, 15)), eq(40L), any()))
+                .thenReturn(new SliceImpl<>(List.of(row(39L, 10L, "Ana"), row(38L, 10L, "Ana")),
+                        PageRequest.of(0, 2), true));
+
+        Map<String, Object> response = executionService.listarExecutions(
+                null, null, null, null, null, 1, 2, null, "desc", cursor, true);
+
+        Map<String, Object> pagination = (Map<String, Object>) ((Map<String, Object>) response.get("data")).get("pagination");
+        assertEquals(true, pagination.get("has_next"));
+        assertEquals(new KeysetCursor("2025-01-15", 38L).encode(), pagination.get("next_cursor"));
+        assertFalse(pagination.containsKey("total_items"));
+        verify(executionRepository, never()).findListRows(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listarExecutions_FirstKeysetPage_UsesSliceWithoutCursorPredicate() {
+        when(executionRepository.findListRowsSlice(any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(row(1L, 10L, "Ana"), row(2L, 10L, "Ana")),
+                        PageRequest.of(0, 2), true));
+
+        Map<String, Object> response = executionService.listarExecutions(
+                null, null, null, null, null, 1, 2, null, "asc", null, false);
+
+        Map<String, Object> pagination = (Map<String, Object>) ((Map<String, Object>) response.get("data")).get("pagination");
+        assertEquals(new KeysetCursor("2025-01-15", 2L).encode(), pagination.get("next_cursor"));
+        assertFalse(pagination.containsKey("total_items"));
+        verify(executionRepository, never()).findListRowsAfter(any(), any(), any(), any(), any(), any(), any(), any());
+        verify(executionRepository, never()).findListRows(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void listarExecutions_CursorWithOtherSortOrInvalid_IsRejected() {
+        String cursor = new KeysetCursor("2025-01-15", 40L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> executionService.listarExecutions(
+                null, null, null, null, null, 1, 20, "status", "desc", cursor, true));
+        assertThrows(IllegalArgumentException.class, () -> executionService.listarExecutions(
+                null, null, null, null, null, 1, 20, null, "desc", new KeysetCursor("ontem", 1L).encode(), true));
+        verifyNoInteractions(executionRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void obterExecutionPorId_ResolvesDriverUserWithOneLookup() {
+        when(executionRepository.findByIdWithDetails(9L)).thenReturn(Optional.of(inProgressExecution()));
+        Usuario user = new Usuario();
+        user.setId(10L);
+        user.setName("Ana");
+        user.setEmail("ana@od46s.com");
+        when(usuarioRepository.findById(10L)).thenReturn(Optional.of(user));
+
+        Map<String, Object> response = executionService.obterExecutionPorId(9L);
+
+        RouteExecutionDTO dto = (RouteExecutionDTO) ((Map<String, Object>) response.get("data")).get("execution");
+        assertEquals("Ana", dto.getAssignment().getDriver().getName());
+        verify(usuarioRepository, times(1)).findById(10L);
+        verify(usuarioRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void finalizarExecution_StoresTotalsComputedFromGpsEvents() {
+        RouteExecution execution = inProgressExecution();
+        when(executionRepository.findById(9L)).thenReturn(Optional.of(execution));
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("pointsVisited", 25L);
+        totals.put("pointsCollected", 23L);
+        totals.put("collectedWeightKg", new BigDecimal("1187.5"));
+        when(gpsRecordRepository.sumPointTotalsByExecutionId(9L))
+                .thenReturn(projectionFactory.createProjection(GPSRecordRepository.ExecutionTotals.class, totals));
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("total_collected_weight_kg", 1200);
+        request.put("points_visited", 25);
+        request.put("points_collected", 30);
+        Map<String, Object> response = executionService.finalizarExecution(9L, request);
+
+        assertEquals(ExecutionStatus.COMPLETED, execution.getStatus());
+        assertEquals(25, execution.getPointsVisited());
+        assertEquals(23, execution.getPointsCollected());
+        assertEquals(new BigDecimal("1187.50"), execution.getTotalCollectedWeightKg());
+        assertEquals(new BigDecimal("1200"), execution.getReportedCollectedWeightKg());
+        assertEquals(30, execution.getReportedPointsCollected());
+        List<String> mismatch = (List<String>) ((Map<String, Object>) response.get("data")).get("totals_mismatch");
+        assertEquals(List.of("total_collected_weight_kg", "points_collected"), mismatch);
+        verify(executionRepository).save(execution);
+        verify(missedPointService).detectarPontosNaoVisitados(execution);
+        verify(eventPublisher).publishEvent(any(ExecutionService.ExecutionClosedEvent.class));
+        verify(eventPublisher).publishEvent(any(ExecutionService.ExecutionCompletedEvent.class));
+    }
+
+    private RouteExecution inProgressExecution() {
+        Route route = new Route();
+        route.setId(1L);
+        route.setName("Centro");
+        route.setCollectionType(CollectionType.RESIDENTIAL);
+        Motorista driver = new Motorista();
+        driver.setId(10L);
+        Veiculo vehicle = new Veiculo();
+        vehicle.setId(1L);
+        vehicle.setLicensePlate("ABC1234");
+        RouteAssignment assignment = new RouteAssignment(route, driver, vehicle, LocalDate.of(2025, 1, 1), new Administrator());
+        assignment.setId(3L);
+        RouteExecution execution = new RouteExecution(assignment, LocalDate.of(2025, 1, 15));
+        execution.setId(9L);
+        return execution;
+    }
+
+    private ExecutionListRow row(Long id, Long driverId, String driverName) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("assignmentId", id);
+        values.put("executionDate", LocalDate.of(2025, 1, 15));
+        values.put("status", ExecutionStatus.COMPLETED);
+        values.put("routeId", 1L);
+        values.put("routeName", "Centro");
+        values.put("routeCollectionType", CollectionType.RESIDENTIAL);
+        values.put("driverId", driverId);
+        values.put("driverName", driverName);
+        values.put("driverEmail", driverName != null ? driverName.toLowerCase() + "@od46s.com" : null);
+        values.put("vehicleId", 1L);
+        values.put("vehicleLicensePlate", "ABC1234");
+        values.put("areaCoveragePercent", new BigDecimal("87.50"));
+        values.put("areaCoverageComputedAt", LocalDateTime.of(2025, 1, 15, 18, 0));
+        return projectionFactory.createProjection(ExecutionListRow.class, values);
+    }
+}
@@ -0,0 +1,81 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+import utfpr.OD46S.backend.services.GeoJsonFeatureParser.PreparedFeature;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoJsonFeatureParserTest {
+
+    private final GeoJsonFeatureParser parser = new GeoJsonFeatureParser();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParseValidFeature() throws Exception {
+        PreparedFeature prepared = parser.parse(3, feature("{\"type\":\"Point\",\"coordinates\":[-52.69,-26.24]}", "wet"));
+
+        assertTrue(prepared.isValid());
+        assertEquals(3, prepared.index());
+        assertEquals("WET", prepared.wasteType());
+        assertEquals(new BigDecimal("0.40"), prepared.fillOpacity());
+        assertNotNull(prepared.contentHash());
+        assertNotNull(prepared.derivatives().bbox());
+    }
+
+    @Test
+    void testDeriveStoresGeometryRoundedToDefaultPrecision() throws Exception {
+        PreparedFeature prepared = parser.parse(0, feature(
+                "{\"type\":\"Point\",\"coordinates\":[-52.69882681234567,-26.2438868]}", "wet"));
+
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[-52.698827,-26.243887]}",
+                prepared.derivatives().geometryRounded());
+    }
+
+    @Test
+    void testParseMissingName() {
+        GeoJsonFeature feature = new GeoJsonFeature();
+        feature.setProperties(Map.of("waste_type", "WET"));
+
+        PreparedFeature prepared = parser.parse(0, feature);
+
+        assertFalse(prepared.isValid());
+        assertEquals("Feature missing 'name' in properties", prepared.error());
+    }
+
+    @Test
+    void testContentHashIgnoresKeyOrderAndNumberFormat() throws Exception {
+        String hashA = parser.contentHash(objectMapper.readTree("{\"type\":\"Point\",\"coordinates\":[1,2.50]}"),
+                "WET", "#000000", "#000000", new BigDecimal("0.40"));
+        String hashB = parser.contentHash(objectMapper.readTree("{\"coordinates\":[1.0,2.5],\"type\":\"Point\"}"),
+                "WET", "#000000", "#000000", new BigDecimal("0.4"));
+
+        assertEquals(hashA, hashB);
+    }
+
+    @Test
+    void testContentHashChangesWithStyle() throws Exception {
+        String geometry = "{\"type\":\"Point\",\"coordinates\":[1,2]}";
+        String hashA = parser.contentHash(objectMapper.readTree(geometry), "WET", "#000000", "#000000", null);
+        String hashB = parser.contentHash(objectMapper.readTree(geometry), "WET", "#FF0000", "#000000", null);
+
+        assertNotEquals(hashA, hashB);
+    }
+
+    @SuppressWarnings("unchecked")
+    private GeoJsonFeature feature(String geometryJson, String wasteType) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("name", "Planalto 1");
+        properties.put("waste_type", wasteType);
+
+        GeoJsonFeature feature = new GeoJsonFeature();
+        feature.setProperties(properties);
+        feature.setGeometry(objectMapper.readValue(geometryJson, Map.class));
+        return feature;
+    }
+}
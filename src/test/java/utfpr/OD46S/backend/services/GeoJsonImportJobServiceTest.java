@@ -0,0 +1,197 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+import utfpr.OD46S.backend.dtos.GeoJsonFeatureCollection;
+import utfpr.OD46S.backend.entitys.RouteImportJob;
+import utfpr.OD46S.backend.repositorys.RouteImportJobRepository;
+import utfpr.OD46S.backend.services.RouteAreaService.ImportBatchResult;
+import utfpr.OD46S.backend.services.RouteAreaService.ImportIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeoJsonImportJobServiceTest {
+
+    @Mock
+    private RouteImportJobRepository routeImportJobRepository;
+
+    @Mock
+    private RouteAreaService routeAreaService;
+
+    @Spy
+    private GeoJsonFeatureParser geoJsonFeatureParser = new GeoJsonFeatureParser();
+
+    @InjectMocks
+    private GeoJsonImportJobService geoJsonImportJobService;
+
+    private RouteImportJob job;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(geoJsonImportJobService, "batchSize", 2);
+        geoJsonImportJobService.start();
+
+        job = new RouteImportJob();
+        job.setId("job-1");
+        job.setTotalFeatures(5);
+        lenient().when(routeImportJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        lenient().when(routeImportJobRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        geoJsonImportJobService.stop();
+    }
+
+    @Test
+    void startImport_CreatesPendingJob() {
+        GeoJsonFeatureCollection collection = new GeoJsonFeatureCollection();
+        collection.setFeatures(features(3));
+
+        Map<String, Object> data = geoJsonImportJobService.startImport(collection, 1L);
+
+        assertNotNull(data.get("job_id"));
+        assertEquals("PENDING", data.get("status"));
+        verify(routeImportJobRepository, atLeastOnce()).save(argThat(saved -> saved.getTotalFeatures() == 3));
+    }
+
+    @Test
+    void startImport_WithoutFeatures_ThrowsException() {
+        assertThrows(RuntimeException.class,
+                () -> geoJsonImportJobService.startImport(new GeoJsonFeatureCollection(), 1L));
+    }
+
+    @Test
+    void runImport_ProcessesInBatchesAndAggregatesCounts() {
+        ImportIndex index = new ImportIndex();
+        when(routeAreaService.loadImportIndex()).thenReturn(index);
+        when(routeAreaService.importBatch(anyList(), eq(index), eq(1L))).thenAnswer(invocation -> {
+            ImportBatchResult result = new ImportBatchResult();
+            result.areasCreated = ((List<?>) invocation.getArgument(0)).size();
+            result.errors.add(Map.of("feature_index", 0, "message", "Feature has no properties"));
+            return result;
+        });
+
+        geoJsonImportJobService.runImport("job-1", features(5).iterator(), 1L);
+
+        verify(routeAreaService, times(3)).importBatch(anyList(), eq(index), eq(1L));
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(5, job.getProcessedFeatures());
+        assertEquals(5, job.getAreasCreated());
+        assertEquals(3, job.getErrorCount());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void runImport_BatchFailure_MarksJobFailed() {
+        when(routeAreaService.loadImportIndex()).thenReturn(new ImportIndex());
+        when(routeAreaService.importBatch(anyList(), any(), any())).thenThrow(new RuntimeException("connection lost"));
+
+        geoJsonImportJobService.runImport("job-1", features(5).iterator(), 1L);
+
+        assertEquals("FAILED", job.getStatus());
+        assertTrue(job.getFailureMessage().contains("connection lost"));
+        assertEquals(0, job.getProcessedFeatures());
+    }
+
+    @Test
+    void startKmzImport_WithoutWasteType_ThrowsException() {
+        MockMultipartFile file = new MockMultipartFile("file", "map.kml", "application/vnd.google-earth.kml+xml",
+                "<kml/>".getBytes(StandardCharsets.UTF_8));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> geoJsonImportJobService.startKmzImport(file, " ", 1L));
+
+        assertEquals("waste_type is required", exception.getMessage());
+        verify(routeImportJobRepository, never()).save(any());
+    }
+
+    @Test
+    void runKmzImport_StreamsPlacemarksAndDeletesUpload() throws Exception {
+        job.setTotalFeatures(0);
+        Path upload = Files.createTempFile("map-import-test-", ".kml");
+        Files.writeString(upload, "<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document>" +
+                "<Placemark><name>A</name><Point><coordinates>-52.69,-26.24</coordinates></Point></Placemark>" +
+                "<Placemark><name>B</name><Point><coordinates>-52.68,-26.24</coordinates></Point></Placemark>" +
+                "<Placemark><name>C</name><Point><coordinates>-52.67,-26.24</coordinates></Point></Placemark>" +
+                "</Document></kml>");
+
+        ImportIndex index = new ImportIndex();
+        when(routeAreaService.loadImportIndex()).thenReturn(index);
+        when(routeAreaService.importBatch(anyList(), eq(index), eq(1L))).thenAnswer(invocation -> {
+            ImportBatchResult result = new ImportBatchResult();
+            result.areasCreated = ((List<?>) invocation.getArgument(0)).size();
+            return result;
+        });
+
+        geoJsonImportJobService.runKmzImport("job-1", upload, "WET", 1L);
+
+        verify(routeAreaService, times(2)).importBatch(anyList(), eq(index), eq(1L));
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(3, job.getProcessedFeatures());
+        assertEquals(3, job.getTotalFeatures());
+        assertEquals(3, job.getAreasCreated());
+        assertFalse(Files.exists(upload));
+    }
+
+    @Test
+    void getJobStatus_NotFound_ThrowsException() {
+        when(routeImportJobRepository.findById("missing")).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> geoJsonImportJobService.getJobStatus("missing"));
+
+        assertEquals("Import job not found", exception.getMessage());
+    }
+
+    @Test
+    void failInterruptedJobs_FailsOnlyJobsCreatedBeforeStartup() {
+        LocalDateTime before = LocalDateTime.now();
+
+        geoJsonImportJobService.failInterruptedJobs();
+
+        ArgumentCaptor<LocalDateTime> createdBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(routeImportJobRepository).failJobsCreatedBefore(eq(List.of("PENDING", "RUNNING")),
+                createdBefore.capture(), eq("Interrupted by server restart"), any());
+        assertFalse(createdBefore.getValue().isAfter(before));
+        verify(routeImportJobRepository, never()).save(any());
+    }
+
+    private List<GeoJsonFeature> features(int count) {
+        List<GeoJsonFeature> features = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("name", "Area " + i);
+            properties.put("waste_type", "WET");
+
+            Map<String, Object> geometry = new HashMap<>();
+            geometry.put("type", "Point");
+            geometry.put("coordinates", List.of(-52.69, -26.24));
+
+            GeoJsonFeature feature = new GeoJsonFeature();
+            feature.setProperties(properties);
+            feature.setGeometry(geometry);
+            features.add(feature);
+        }
+        return features;
+    }
+}
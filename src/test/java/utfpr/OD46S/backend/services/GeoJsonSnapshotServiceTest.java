@@ -0,0 +1,157 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import utfpr.OD46S.backend.dtos.GeoJsonRawFeature;
+import utfpr.OD46S.backend.dtos.GeoJsonRawFeatureCollection;
+import utfpr.OD46S.backend.services.GeoJsonSnapshotService.GeoJsonSnapshot;
+import utfpr.OD46S.backend.utils.geo.BoundingBox;
+import utfpr.OD46S.backend.utils.geo.GeometryDetail;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeoJsonSnapshotServiceTest {
+
+    @Mock
+    private RouteAreaService routeAreaService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private GeoJsonSnapshotService geoJsonSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(geoJsonSnapshotService, "maxEntries", 64);
+
+        GeoJsonRawFeature feature = new GeoJsonRawFeature();
+        feature.setProperties(Map.of("externalName", "Planalto 1"));
+        feature.setGeometry("{\"type\":\"Point\",\"coordinates\":[-52.69,-26.24]}");
+        GeoJsonRawFeatureCollection collection = new GeoJsonRawFeatureCollection();
+        collection.setFeatures(List.of(feature));
+
+        lenient().when(routeAreaService.getGeoJsonFeatureCollection(any(), any(), any(), any(), any(), anyInt())).thenReturn(collection);
+    }
+
+    @Test
+    void getSnapshot_SameFilters_BuildsOnce() {
+        GeoJsonSnapshot first = geoJsonSnapshotService.getSnapshot("RECYCLABLE", null, null);
+        GeoJsonSnapshot second = geoJsonSnapshotService.getSnapshot("RECYCLABLE", null, true);
+
+        assertSame(first, second);
+        verify(routeAreaService, times(1)).getGeoJsonFeatureCollection("RECYCLABLE", null, true, null, GeometryDetail.FULL, 6);
+    }
+
+    @Test
+    void getSnapshot_DifferentFilters_BuildsSeparately() {
+        geoJsonSnapshotService.getSnapshot("RECYCLABLE", null, true);
+        geoJsonSnapshotService.getSnapshot("WET", null, true);
+
+        verify(routeAreaService, times(2)).getGeoJsonFeatureCollection(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getSnapshot_DifferentZoomDetail_BuildsSeparately() {
+        geoJsonSnapshotService.getSnapshot(null, null, true, null, GeometryDetail.LOW, 6);
+        geoJsonSnapshotService.getSnapshot(null, null, true, null, GeometryDetail.LOW, 6);
+        geoJsonSnapshotService.getSnapshot(null, null, true, null, GeometryDetail.FULL, 6);
+
+        verify(routeAreaService, times(1)).getGeoJsonFeatureCollection(null, null, true, null, GeometryDetail.LOW, 6);
+        verify(routeAreaService, times(1)).getGeoJsonFeatureCollection(null, null, true, null, GeometryDetail.FULL, 6);
+    }
+
+    @Test
+    void getSnapshot_DifferentPrecision_BuildsSeparately() {
+        geoJsonSnapshotService.getSnapshot(null, null, true, null, GeometryDetail.FULL, 6);
+        geoJsonSnapshotService.getSnapshot(null, null, true, null, GeometryDetail.FULL, 4);
+
+        verify(routeAreaService, times(1)).getGeoJsonFeatureCollection(null, null, true, null, GeometryDetail.FULL, 6);
+        verify(routeAreaService, times(1)).getGeoJsonFeatureCollection(null, null, true, null, GeometryDetail.FULL, 4);
+    }
+
+    @Test
+    void getSnapshot_WithBoundingBox_IsNotCached() {
+        BoundingBox viewport = new BoundingBox(-52.8, -26.3, -52.6, -26.2);
+
+        geoJsonSnapshotService.getSnapshot(null, null, true, viewport, GeometryDetail.MEDIUM, 6);
+        geoJsonSnapshotService.getSnapshot(null, null, true, viewport, GeometryDetail.MEDIUM, 6);
+
+        verify(routeAreaService, times(2)).getGeoJsonFeatureCollection(null, null, true, viewport, GeometryDetail.MEDIUM, 6);
+    }
+
+    @Test
+    void getSnapshot_WithBoundingBox_IsNotPrecompressedOrHashed() throws Exception {
+        GeoJsonSnapshot snapshot = geoJsonSnapshotService.getSnapshot(null, null, true,
+                new BoundingBox(-52.8, -26.3, -52.6, -26.2), GeometryDetail.MEDIUM, 6);
+
+        assertNull(snapshot.gzip());
+        assertNull(snapshot.etag());
+        assertFalse(snapshot.matches("*"));
+
+        // Compressed only when a gzip client asks for it
+        byte[] unzipped;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzipBody()))) {
+            unzipped = in.readAllBytes();
+        }
+        assertArrayEquals(snapshot.json(), unzipped);
+    }
+
+    @Test
+    void onRouteAreasChanged_RebuildsOnNextRequest() {
+        GeoJsonSnapshot before = geoJsonSnapshotService.getSnapshot(null, null, true);
+
+        geoJsonSnapshotService.onRouteAreasChanged(new RouteAreaService.RouteAreasChangedEvent());
+        GeoJsonSnapshot after = geoJsonSnapshotService.getSnapshot(null, null, true);
+
+        assertNotSame(before, after);
+        assertTrue(after.version() > before.version());
+        verify(routeAreaService, times(2)).getGeoJsonFeatureCollection(null, null, true, null, GeometryDetail.FULL, 6);
+    }
+
+    @Test
+    void getSnapshot_GzipMatchesJsonAndEtagsAreStrong() throws Exception {
+        GeoJsonSnapshot snapshot = geoJsonSnapshotService.getSnapshot(null, null, true);
+
+        byte[] unzipped;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            unzipped = in.readAllBytes();
+        }
+        assertArrayEquals(snapshot.json(), unzipped);
+
+        String json = new String(snapshot.json());
+        assertTrue(json.contains("\"geometry\":{\"type\":\"Point\""));
+        assertTrue(json.contains("\"success\":true"));
+
+        assertTrue(snapshot.etag().startsWith("\"") && snapshot.etag().endsWith("\""));
+        assertFalse(snapshot.etag().startsWith("W/"));
+        assertNotEquals(snapshot.etag(), snapshot.gzipEtag());
+    }
+
+    @Test
+    void matches_HandlesListsWeakPrefixAndWildcard() {
+        GeoJsonSnapshot snapshot = geoJsonSnapshotService.getSnapshot(null, null, true);
+
+        assertTrue(snapshot.matches(snapshot.etag()));
+        assertTrue(snapshot.matches("\"other\", " + snapshot.gzipEtag()));
+        assertTrue(snapshot.matches("W/" + snapshot.etag()));
+        assertTrue(snapshot.matches("*"));
+        assertFalse(snapshot.matches("\"other\""));
+        assertFalse(snapshot.matches(null));
+    }
+}
@@ -0,0 +1,225 @@
+package utfpr.OD46S.backend.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.OD46S.backend.entitys.*;
+import utfpr.OD46S.backend.enums.CollectionType;
+import utfpr.OD46S.backend.enums.ExecutionStatus;
+import utfpr.OD46S.backend.enums.WasteType;
+import utfpr.OD46S.backend.repositorys.*;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Heap allocated and latency per list page, entity loading (before) vs column projections (after).
+ * "Before" replays the previous list queries (JOIN FETCH entities, driver users by IN query,
+ * points counted through the lazy collection); "after" calls the projection queries the services use now.
+ * Every page runs in its own read-only transaction, as in the services.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListProjectionBenchmarkTest {
+
+    private static final int DRIVERS = 20;
+    private static final int ROUTES = 100;
+    private static final int POINTS_PER_ROUTE = 50;
+    private static final int DAYS = 20;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 50;
+    private static final int RUNS = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RouteRepository routeRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private RouteAssignmentRepository assignmentRepository;
+
+    @Autowired
+    private RouteExecutionRepository executionRepository;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    void seed() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status -> {
+            Usuario adminUser = user("bench-admin");
+            Administrator admin = new Administrator();
+            admin.setId(adminUser.getId());
+            entityManager.persist(admin);
+
+            for (int i = 0; i < DRIVERS; i++) {
+                Usuario driverUser = user("bench-driver-" + i);
+                Motorista driver = new Motorista();
+                driver.setId(driverUser.getId());
+                driver.setLicenseNumber("BENCH" + i);
+                entityManager.persist(driver);
+
+                Veiculo vehicle = new Veiculo();
+                vehicle.setLicensePlate(String.format("BCH%04d", i));
+                vehicle.setModel("Compactor 15m³");
+                vehicle.setBrand("Volvo");
+                vehicle.setYear(2022);
+                vehicle.setCapacityKg(new BigDecimal("15000"));
+                vehicle.setFuelType("DIESEL");
+                entityManager.persist(vehicle);
+
+                for (int r = i; r < ROUTES; r += DRIVERS) {
+                    Route route = new Route();
+                    route.setName("Bench route " + r);
+                    route.setCollectionType(CollectionType.RESIDENTIAL);
+                    route.setPeriodicity("0 8 * * 1");
+                    route.setCreatedBy(adminUser.getId());
+                    for (int p = 1; p <= POINTS_PER_ROUTE; p++) {
+                        RouteCollectionPoint point = new RouteCollectionPoint();
+                        point.setSequenceOrder(p);
+                        point.setAddress("Rua " + p);
+                        point.setLatitude(new BigDecimal("-26.2"));
+                        point.setLongitude(new BigDecimal("-52.6"));
+                        point.setWasteType(WasteType.RESIDENTIAL);
+                        route.addCollectionPoint(point);
+                    }
+                    entityManager.persist(route);
+
+                    RouteAssignment assignment = new RouteAssignment(route, driver, vehicle, LocalDate.of(2025, 1, 1), admin);
+                    entityManager.persist(assignment);
+                    for (int d = 0; d < DAYS; d++) {
+                        RouteExecution execution = new RouteExecution(assignment, LocalDate.of(2025, 1, 1).plusDays(d));
+                        execution.setStatus(ExecutionStatus.COMPLETED);
+                        entityManager.persist(execution);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    void projectionsAllocateLessPerPage() {
+        PageRequest executionsPage = PageRequest.of(0, PAGE_SIZE, Sort.by("executionDate"));
+        compare("executions",
+                () -> {
+                    List<RouteExecution> executions = entityManager.createQuery(
+                                    "SELECT re FROM RouteExecution re JOIN FETCH re.assignment a JOIN FETCH a.route r " +
+                                            "JOIN FETCH a.driver d JOIN FETCH a.vehicle v ORDER BY re.executionDate",
+                                    RouteExecution.class)
+                            .setMaxResults(PAGE_SIZE)
+                            .getResultList();
+                    Set<Long> driverIds = executions.stream()
+                            .map(execution -> execution.getAssignment().getDriver().getId())
+                            .collect(Collectors.toSet());
+                    return executions.size() + usuarioRepository.findAllById(driverIds).size();
+                },
+                () -> executionRepository.findListRows(null, null, null, null, null, executionsPage).getNumberOfElements());
+
+        PageRequest assignmentsPage = PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt"));
+        compare("assignments",
+                () -> {
+                    List<RouteAssignment> assignments = entityManager.createQuery(
+                                    "SELECT ra FROM RouteAssignment ra LEFT JOIN FETCH ra.route r " +
+                                            "LEFT JOIN FETCH ra.driver d LEFT JOIN FETCH ra.vehicle v ORDER BY ra.createdAt",
+                                    RouteAssignment.class)
+                            .setMaxResults(PAGE_SIZE)
+                            .getResultList();
+                    Set<Long> driverIds = assignments.stream()
+                            .map(assignment -> assignment.getDriver().getId())
+                            .collect(Collectors.toSet());
+                    return assignments.size() + usuarioRepository.findAllById(driverIds).size();
+                },
+                () -> assignmentRepository.findListRows(null, null, null, null, assignmentsPage).getNumberOfElements());
+
+        PageRequest routesPage = PageRequest.of(0, PAGE_SIZE, Sort.by("name"));
+        compare("routes",
+                () -> entityManager.createQuery("SELECT r FROM Route r ORDER BY r.name", Route.class)
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultList().stream()
+                        .mapToInt(route -> route.getCollectionPoints().size())
+                        .sum(),
+                () -> routeRepository.findSummariesByFilters(null, null, null, null, routesPage).getNumberOfElements());
+
+        compare("vehicles",
+                () -> veiculoRepository.findAll().size(),
+                () -> veiculoRepository.findAllAsDTO().size());
+    }
+
+    private void compare(String list, ListPage before, ListPage after) {
+        Measurement entities = measure(before);
+        Measurement projection = measure(after);
+
+        System.out.printf("%-12s entities: %7.1f KB %6.2f ms | projection: %7.1f KB %6.2f ms per page%n",
+                list, entities.bytes / 1024.0, entities.nanos / 1e6,
+                projection.bytes / 1024.0, projection.nanos / 1e6);
+
+        assertTrue(projection.bytes < entities.bytes,
+                list + ": projection allocated " + projection.bytes + " bytes per page, entities " + entities.bytes);
+    }
+
+    // Average heap allocated by this thread and wall time per page, after JIT warm-up
+    private Measurement measure(ListPage page) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            readOnly.execute(status -> page.load());
+        }
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            assertTrue(readOnly.execute(status -> page.load()) > 0);
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Measurement((threads.getCurrentThreadAllocatedBytes() - bytes) / RUNS, elapsed / RUNS);
+    }
+
+    private Usuario user(String name) {
+        Usuario user = new Usuario();
+        user.setName(name);
+        user.setEmail(name + "@od46s.com");
+        user.setCpf(String.format("%011d", Math.abs(name.hashCode())));
+        user.setPassword("x");
+        user.setActive(true);
+        entityManager.persist(user);
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface ListPage {
+        int load();
+    }
+
+    private record Measurement(long bytes, long nanos) {
+    }
+}
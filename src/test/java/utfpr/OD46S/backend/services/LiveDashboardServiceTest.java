@@ -0,0 +1,85 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveDashboardServiceTest {
+
+    @Mock
+    private RouteExecutionRepository executionRepository;
+
+    @Mock
+    private GPSRecordRepository gpsRecordRepository;
+
+    @InjectMocks
+    private LiveDashboardService liveDashboardService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcileThenEvents_SnapshotReadsOnlyMemory() {
+        LocalDateTime now = LocalDateTime.now();
+        when(executionRepository.findInProgressIds()).thenReturn(List.of(1L, 2L));
+        when(gpsRecordRepository.findLatestFixOfInProgressExecutions()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, new BigDecimal("30.0"), now},
+                new Object[]{2L, new BigDecimal("40.0"), now.minusMinutes(10)}));
+        when(gpsRecordRepository.countProblemsOfInProgressExecutions()).thenReturn(List.<Object[]>of(
+                new Object[]{2L, 2L}));
+        when(gpsRecordRepository.sumCollectedPointsBetween(any(), any())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, new BigDecimal("500.00")}));
+
+        liveDashboardService.reconcile();
+        liveDashboardService.onExecutionStarted(new ExecutionService.ExecutionStartedEvent(3L));
+        liveDashboardService.onGPSRecorded(new GPSTrackingService.GPSRecordedEvent(
+                3L, "POINT_COLLECTED", new BigDecimal("12.0"), now, new BigDecimal("45.50")));
+        // Offline record from yesterday does not count for today
+        liveDashboardService.onGPSRecorded(new GPSTrackingService.GPSRecordedEvent(
+                3L, "POINT_COLLECTED", null, now.minusDays(1), new BigDecimal("99.00")));
+        liveDashboardService.onExecutionClosed(new ExecutionService.ExecutionClosedEvent(
+                2L, now.toLocalDate(), 1L, 1L, 1L, null));
+        clearInvocations(executionRepository, gpsRecordRepository);
+
+        Map<String, Object> data = liveDashboardService.snapshot();
+
+        assertEquals(2L, data.get("in_progress_executions"));
+        assertEquals(11L, data.get("points_collected_today"));
+        assertEquals(new BigDecimal("545.50"), data.get("collected_weight_kg_today"));
+        assertEquals(0L, data.get("open_problems"));
+        Map<String, Object> trucks = (Map<String, Object>) data.get("trucks");
+        assertEquals(2, trucks.get("moving"));
+        assertEquals(0L, trucks.get("stopped"));
+        verifyNoInteractions(executionRepository, gpsRecordRepository);
+    }
+
+    @Test
+    void problemEvents_CountUntilExecutionCloses() {
+        liveDashboardService.onExecutionStarted(new ExecutionService.ExecutionStartedEvent(5L));
+        liveDashboardService.onGPSRecorded(new GPSTrackingService.GPSRecordedEvent(
+                5L, "PROBLEM", BigDecimal.ZERO, LocalDateTime.now(), null));
+        liveDashboardService.onGPSRecorded(new GPSTrackingService.GPSRecordedEvent(
+                5L, "POINT_PROBLEM", BigDecimal.ZERO, LocalDateTime.now(), null));
+
+        assertEquals(2L, liveDashboardService.snapshot().get("open_problems"));
+
+        liveDashboardService.onExecutionClosed(new ExecutionService.ExecutionClosedEvent(
+                5L, LocalDateTime.now().toLocalDate(), 1L, 1L, 1L, null));
+
+        Map<String, Object> data = liveDashboardService.snapshot();
+        assertEquals(0L, data.get("open_problems"));
+        assertEquals(0L, data.get("in_progress_executions"));
+    }
+}
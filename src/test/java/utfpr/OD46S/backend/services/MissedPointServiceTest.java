@@ -0,0 +1,84 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import utfpr.OD46S.backend.entitys.Route;
+import utfpr.OD46S.backend.entitys.RouteAssignment;
+import utfpr.OD46S.backend.entitys.RouteExecution;
+import utfpr.OD46S.backend.entitys.RouteExecutionMissedPoint;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteCollectionPointRepository;
+import utfpr.OD46S.backend.repositorys.RouteExecutionMissedPointRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MissedPointServiceTest {
+
+    @Mock
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Mock
+    private RouteCollectionPointRepository collectionPointRepository;
+
+    @Mock
+    private RouteExecutionMissedPointRepository missedPointRepository;
+
+    @InjectMocks
+    private MissedPointService missedPointService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void detectarPontosNaoVisitados_FlagsPointsFarFromTrack() {
+        ReflectionTestUtils.setField(missedPointService, "radiusMeters", 30.0);
+        RouteExecution execution = execution();
+        // Track heading north along one street (~550 m)
+        when(gpsRecordRepository.findTrackByExecutionId(9L)).thenReturn(List.<Object[]>of(
+                new Object[]{new BigDecimal("-52.67000000"), new BigDecimal("-26.23000000")},
+                new Object[]{new BigDecimal("-52.67000000"), new BigDecimal("-26.22500000")}));
+        when(collectionPointRepository.findActivePositionsByRouteId(1L)).thenReturn(List.<Object[]>of(
+                // Between two fixes, 10 m off the street
+                new Object[]{100L, new BigDecimal("-52.67010000"), new BigDecimal("-26.22750000")},
+                // One block away (~100 m)
+                new Object[]{101L, new BigDecimal("-52.67100000"), new BigDecimal("-26.22750000")}));
+
+        int missed = missedPointService.detectarPontosNaoVisitados(execution);
+
+        assertEquals(1, missed);
+        ArgumentCaptor<List<RouteExecutionMissedPoint>> saved = ArgumentCaptor.forClass(List.class);
+        verify(missedPointRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(101L, saved.getValue().get(0).getPointId());
+        assertEquals(9L, saved.getValue().get(0).getExecutionId());
+    }
+
+    @Test
+    void detectarPontosNaoVisitados_RouteWithoutPointsSkipsTrack() {
+        when(collectionPointRepository.findActivePositionsByRouteId(1L)).thenReturn(List.of());
+
+        assertEquals(0, missedPointService.detectarPontosNaoVisitados(execution()));
+        verifyNoInteractions(gpsRecordRepository);
+        verify(missedPointRepository, never()).saveAll(any());
+    }
+
+    private RouteExecution execution() {
+        Route route = new Route();
+        route.setId(1L);
+        RouteAssignment assignment = new RouteAssignment();
+        assignment.setRoute(route);
+        RouteExecution execution = new RouteExecution(assignment, LocalDate.of(2025, 1, 15));
+        execution.setId(9L);
+        return execution;
+    }
+}
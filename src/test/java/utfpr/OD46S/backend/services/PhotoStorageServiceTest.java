@@ -0,0 +1,291 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import utfpr.OD46S.backend.entitys.GPSRecord;
+import utfpr.OD46S.backend.entitys.PhotoObject;
+import utfpr.OD46S.backend.entitys.RouteExecution;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.PhotoObjectRepository;
+import utfpr.OD46S.backend.services.storage.ObjectStorage;
+import utfpr.OD46S.backend.services.storage.StoredObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoStorageServiceTest {
+
+    @Mock
+    private ObjectStorage objectStorage;
+
+    @Mock
+    private PhotoObjectRepository photoObjectRepository;
+
+    @Mock
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PhotoStorageService photoStorageService;
+
+    private static final byte[] PHOTO_BYTES = "fake-jpeg-content".getBytes();
+
+    private GPSRecord gpsRecord;
+    private MockMultipartFile photo;
+    private String photoHash;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RouteExecution execution = new RouteExecution();
+        execution.setId(10L);
+
+        gpsRecord = new GPSRecord();
+        gpsRecord.setId(1L);
+        gpsRecord.setExecution(execution);
+
+        photo = new MockMultipartFile("photo", "photo.jpg", "image/jpeg", PHOTO_BYTES);
+        photoHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PHOTO_BYTES));
+    }
+
+    @Test
+    void testStoreGPSPhoto_NewContent_UploadsToContentAddressedKey() {
+        when(photoObjectRepository.findReference(photoHash)).thenReturn(Optional.of(reference(contentKey(), 1)));
+        when(objectStorage.exists(contentKey())).thenReturn(false);
+
+        String url = photoStorageService.storeGPSPhoto(gpsRecord, photo);
+
+        assertEquals("/api/v1/files/gps-photos/10/1", url);
+        assertEquals(photoHash, gpsRecord.getPhotoHash());
+
+        String expectedKey = "gps-photos/sha256/" + photoHash.substring(0, 2) + "/" + photoHash + ".jpg";
+        verify(objectStorage).put(eq(expectedKey), any(InputStream.class), eq((long) PHOTO_BYTES.length), eq("image/jpeg"));
+        verify(photoObjectRepository).addReference(photoHash, expectedKey, "image/jpeg", PHOTO_BYTES.length);
+    }
+
+    @Test
+    void testStoreGPSPhoto_DuplicateContent_SkipsUploadAndIncrementsRefCount() {
+        when(photoObjectRepository.findReference(photoHash)).thenReturn(Optional.of(reference(contentKey(), 2)));
+
+        photoStorageService.storeGPSPhoto(gpsRecord, photo);
+
+        verify(objectStorage, never()).exists(anyString());
+        verify(objectStorage, never()).put(anyString(), any(), anyLong(), anyString());
+        verify(photoObjectRepository).addReference(eq(photoHash), anyString(), eq("image/jpeg"), eq((long) PHOTO_BYTES.length));
+        assertEquals(photoHash, gpsRecord.getPhotoHash());
+    }
+
+    @Test
+    void testStoreGPSPhoto_UnreferencedObjectStillStored_IsReused() {
+        // Linha com refCount zerado que a limpeza ainda não removeu: o upsert a reativa
+        when(photoObjectRepository.findReference(photoHash)).thenReturn(Optional.of(reference(contentKey(), 1)));
+        when(objectStorage.exists(contentKey())).thenReturn(true);
+
+        photoStorageService.storeGPSPhoto(gpsRecord, photo);
+
+        verify(objectStorage, never()).put(anyString(), any(), anyLong(), anyString());
+        assertEquals(photoHash, gpsRecord.getPhotoHash());
+    }
+
+    @Test
+    void testStoreGPSPhoto_SamePhotoForSameRecord_IsIdempotent() {
+        gpsRecord.setPhotoHash(photoHash);
+
+        photoStorageService.storeGPSPhoto(gpsRecord, photo);
+
+        verify(objectStorage, never()).put(anyString(), any(), anyLong(), anyString());
+        verify(photoObjectRepository, never()).addReference(anyString(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void testStoreGPSPhoto_ReplacingLastReference_LeavesOldObjectForCleanup() {
+        String oldHash = "ab" + "0".repeat(62);
+        PhotoObject oldPhoto = new PhotoObject(oldHash, "gps-photos/sha256/ab/" + oldHash + ".jpg",
+                "image/jpeg", 100L);
+        oldPhoto.setRefCount(1);
+        gpsRecord.setPhotoHash(oldHash);
+
+        when(photoObjectRepository.findReference(photoHash)).thenReturn(Optional.of(reference(contentKey(), 1)));
+        when(photoObjectRepository.findBySha256ForUpdate(oldHash)).thenReturn(Optional.of(oldPhoto));
+        when(objectStorage.exists(contentKey())).thenReturn(false);
+
+        photoStorageService.storeGPSPhoto(gpsRecord, photo);
+
+        assertEquals(photoHash, gpsRecord.getPhotoHash());
+        assertEquals(0, oldPhoto.getRefCount());
+        verify(photoObjectRepository).save(oldPhoto);
+        verify(photoObjectRepository, never()).delete(any(PhotoObject.class));
+        verify(objectStorage, never()).delete(anyString());
+    }
+
+    @Test
+    void testPurgeUnreferencedPhotos_DeletesOnlyObjectsStillUnreferenced() {
+        PhotoObject unused = new PhotoObject("aa" + "0".repeat(62), "gps-photos/sha256/aa/unused.jpg", "image/jpeg", 100L);
+        unused.setRefCount(0);
+        PhotoObject relinked = new PhotoObject("bb" + "0".repeat(62), "gps-photos/sha256/bb/relinked.jpg", "image/jpeg", 100L);
+        // Vinculado de novo entre a listagem e o lock
+        relinked.setRefCount(1);
+        when(photoObjectRepository.findUnreferencedIds(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(photoObjectRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(unused));
+        when(photoObjectRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(relinked));
+
+        assertEquals(1, photoStorageService.purgeUnreferencedPhotos());
+
+        verify(objectStorage).delete("gps-photos/sha256/aa/unused.jpg");
+        verify(photoObjectRepository).delete(unused);
+        verify(objectStorage, never()).delete("gps-photos/sha256/bb/relinked.jpg");
+        verify(photoObjectRepository, never()).delete(relinked);
+    }
+
+    @Test
+    void testStoreGPSPhoto_InvalidContentType_ThrowsException() {
+        MockMultipartFile pdf = new MockMultipartFile("photo", "doc.pdf", "application/pdf", PHOTO_BYTES);
+
+        assertThrows(RuntimeException.class, () -> photoStorageService.storeGPSPhoto(gpsRecord, pdf));
+        verifyNoInteractions(photoObjectRepository);
+        verifyNoInteractions(objectStorage);
+    }
+
+    @Test
+    void testFindGPSPhotoObject_RecordOfAnotherExecution_IsNotServed() {
+        gpsRecord.setPhotoHash(photoHash);
+        when(gpsRecordRepository.findById(1L)).thenReturn(Optional.of(gpsRecord));
+
+        assertTrue(photoStorageService.findGPSPhotoObject(99L, 1L).isEmpty());
+        verifyNoInteractions(photoObjectRepository, objectStorage);
+    }
+
+    @Test
+    void testFindGPSPhotoObject_UnconfirmedStagingUpload_IsNotServed() {
+        // PUT pré-assinado feito, confirmação ainda não: nem hash nem photoUrl
+        when(gpsRecordRepository.findById(1L)).thenReturn(Optional.of(gpsRecord));
+
+        assertTrue(photoStorageService.findGPSPhotoObject(10L, 1L).isEmpty());
+        verifyNoInteractions(objectStorage);
+    }
+
+    @Test
+    void testFindGPSPhotoObject_LegacyPhotoWithoutHash_UsesRecordPath() {
+        gpsRecord.setPhotoUrl("/api/v1/files/gps-photos/10/1");
+        StoredObject legacy = new StoredObject("gps-photos/execution_10/1.jpg", 100L, "image/jpeg");
+        when(gpsRecordRepository.findById(1L)).thenReturn(Optional.of(gpsRecord));
+        when(objectStorage.stat("gps-photos/execution_10/1.jpg")).thenReturn(Optional.of(legacy));
+
+        assertEquals(Optional.of(legacy), photoStorageService.findGPSPhotoObject(10L, 1L));
+    }
+
+    @Test
+    void testConfirmPresignedGPSPhoto_ValidUpload_MovesToContentAddressedKey() {
+        String stagingKey = "gps-photos/execution_10/1.jpg";
+        when(objectStorage.stat(stagingKey))
+                .thenReturn(Optional.of(new StoredObject(stagingKey, PHOTO_BYTES.length, "image/jpeg")));
+        when(objectStorage.get(stagingKey)).thenReturn(new ByteArrayInputStream(PHOTO_BYTES));
+        when(photoObjectRepository.findReference(photoHash)).thenReturn(Optional.of(reference(contentKey(), 1)));
+        when(objectStorage.exists(contentKey())).thenReturn(false);
+
+        String url = photoStorageService.confirmPresignedGPSPhoto(gpsRecord);
+
+        assertEquals("/api/v1/files/gps-photos/10/1", url);
+        assertEquals(photoHash, gpsRecord.getPhotoHash());
+        String expectedKey = "gps-photos/sha256/" + photoHash.substring(0, 2) + "/" + photoHash + ".jpg";
+        verify(objectStorage).copy(stagingKey, expectedKey);
+        verify(photoObjectRepository).addReference(photoHash, expectedKey, "image/jpeg", PHOTO_BYTES.length);
+        verify(objectStorage).delete(stagingKey);
+    }
+
+    @Test
+    void testConfirmPresignedGPSPhoto_OversizedUpload_IsDeletedAndRejected() {
+        String stagingKey = "gps-photos/execution_10/1.jpg";
+        when(objectStorage.stat(stagingKey))
+                .thenReturn(Optional.of(new StoredObject(stagingKey, 11L * 1024 * 1024, "image/jpeg")));
+
+        assertThrows(IllegalArgumentException.class, () -> photoStorageService.confirmPresignedGPSPhoto(gpsRecord));
+
+        verify(objectStorage).delete(stagingKey);
+        verify(objectStorage, never()).get(anyString());
+        verifyNoInteractions(photoObjectRepository);
+        assertNull(gpsRecord.getPhotoHash());
+    }
+
+    @Test
+    void testConfirmPresignedGPSPhoto_WrongContentType_IsDeletedAndRejected() {
+        // A extensão do path não garante o tipo: vale o Content-Type gravado no PUT
+        String stagingKey = "gps-photos/execution_10/1.png";
+        when(objectStorage.stat(anyString())).thenReturn(Optional.empty());
+        when(objectStorage.stat(stagingKey))
+                .thenReturn(Optional.of(new StoredObject(stagingKey, 100L, "application/pdf")));
+
+        assertThrows(IllegalArgumentException.class, () -> photoStorageService.confirmPresignedGPSPhoto(gpsRecord));
+
+        verify(objectStorage).delete(stagingKey);
+        verify(objectStorage, never()).copy(anyString(), anyString());
+        verifyNoInteractions(photoObjectRepository);
+    }
+
+    @Test
+    void testConfirmPresignedGPSPhoto_RepeatedConfirmation_ReturnsUrlWithoutWork() {
+        // A primeira confirmação já moveu o staging para o endereço por conteúdo
+        gpsRecord.setPhotoHash(photoHash);
+
+        String url = photoStorageService.confirmPresignedGPSPhoto(gpsRecord);
+
+        assertEquals("/api/v1/files/gps-photos/10/1", url);
+        assertEquals(photoHash, gpsRecord.getPhotoHash());
+        verify(objectStorage, never()).copy(anyString(), anyString());
+        verify(objectStorage, never()).delete(anyString());
+        verifyNoInteractions(photoObjectRepository);
+    }
+
+    @Test
+    void testConfirmPresignedGPSPhoto_MissingStagingObject_ThrowsNotFound() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> photoStorageService.confirmPresignedGPSPhoto(gpsRecord));
+
+        assertEquals("GPS photo not found for record ID: 1", error.getMessage());
+        verify(objectStorage, times(4)).stat(startsWith("gps-photos/execution_10/1."));
+        verify(objectStorage, never()).delete(anyString());
+        verifyNoInteractions(photoObjectRepository);
+    }
+
+    @Test
+    void testGetPresignedUploadUrl_BackendWithoutPresign_ThrowsUnsupported() {
+        when(objectStorage.supportsPresignedUrls()).thenReturn(false);
+
+        assertThrows(UnsupportedOperationException.class, () ->
+                photoStorageService.getPresignedGPSPhotoUploadUrl(10L, 1L, "image/jpeg"));
+    }
+
+    private String contentKey() {
+        return "gps-photos/sha256/" + photoHash.substring(0, 2) + "/" + photoHash + ".jpg";
+    }
+
+    private PhotoObjectRepository.ObjectReference reference(String objectKey, int refCount) {
+        return new PhotoObjectRepository.ObjectReference() {
+            @Override
+            public String getObjectKey() {
+                return objectKey;
+            }
+
+            @Override
+            public Integer getRefCount() {
+                return refCount;
+            }
+        };
+    }
+}
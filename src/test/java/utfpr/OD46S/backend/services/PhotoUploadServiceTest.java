@@ -0,0 +1,223 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import utfpr.OD46S.backend.entitys.GPSRecord;
+import utfpr.OD46S.backend.entitys.PhotoUploadSession;
+import utfpr.OD46S.backend.entitys.RouteExecution;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.PhotoUploadSessionRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoUploadServiceTest {
+
+    @Mock
+    private PhotoUploadSessionRepository photoUploadSessionRepository;
+
+    @Mock
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Mock
+    private PhotoStorageService photoStorageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PhotoUploadService photoUploadService;
+
+    private GPSRecord gpsRecord;
+    private PhotoUploadSession session;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(photoUploadService, "defaultChunkSize", 256 * 1024);
+        ReflectionTestUtils.setField(photoUploadService, "sessionTtlHours", 24);
+
+        RouteExecution execution = new RouteExecution();
+        execution.setId(10L);
+
+        gpsRecord = new GPSRecord();
+        gpsRecord.setId(1L);
+        gpsRecord.setExecution(execution);
+
+        session = new PhotoUploadSession();
+        session.setId("upload-1");
+        session.setExecutionId(10L);
+        session.setGpsRecordId(1L);
+        session.setContentType("image/jpeg");
+        session.setTotalSize(600L * 1024);
+        session.setChunkSize(256 * 1024);
+        session.setTotalChunks(3);
+        session.setExpiresAt(LocalDateTime.now().plusHours(1));
+    }
+
+    @Test
+    void testIniciarUpload_ComputesTotalChunks() {
+        when(gpsRecordRepository.findById(1L)).thenReturn(Optional.of(gpsRecord));
+
+        Map<String, Object> response = photoUploadService.iniciarUpload(10L, 1L,
+                Map.of("content_type", "image/jpeg", "total_size", 600 * 1024));
+
+        ArgumentCaptor<PhotoUploadSession> captor = ArgumentCaptor.forClass(PhotoUploadSession.class);
+        verify(photoUploadSessionRepository).save(captor.capture());
+        assertEquals(3, captor.getValue().getTotalChunks());
+        assertTrue((Boolean) response.get("success"));
+    }
+
+    @Test
+    void testIniciarUpload_RecordFromOtherExecution_ThrowsException() {
+        when(gpsRecordRepository.findById(1L)).thenReturn(Optional.of(gpsRecord));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                photoUploadService.iniciarUpload(99L, 1L, Map.of("content_type", "image/jpeg", "total_size", 1024)));
+
+        assertEquals("GPS record not found for this execution", exception.getMessage());
+        verify(photoUploadSessionRepository, never()).save(any());
+    }
+
+    @Test
+    void testEnviarParte_TracksReceivedChunks() {
+        session.setReceivedChunks("0");
+        when(photoUploadSessionRepository.findById("upload-1")).thenReturn(Optional.of(session));
+        when(photoUploadSessionRepository.findByIdForUpdate("upload-1")).thenReturn(Optional.of(session));
+
+        // Última parte: 600KB - 2 * 256KB = 88KB
+        long lastChunkSize = 88L * 1024;
+        InputStream body = new ByteArrayInputStream(new byte[(int) lastChunkSize]);
+        Map<String, Object> response = photoUploadService.enviarParte("upload-1", 2, body, lastChunkSize);
+
+        // A sessão só é travada depois que a parte já está no storage
+        InOrder order = inOrder(photoStorageService, photoUploadSessionRepository);
+        order.verify(photoStorageService).storeUploadChunk("upload-1", 2, body, lastChunkSize);
+        order.verify(photoUploadSessionRepository).findByIdForUpdate("upload-1");
+        assertEquals("0,2", session.getReceivedChunks());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) response.get("data");
+        assertEquals(List.of(1), data.get("missing_chunks"));
+    }
+
+    @Test
+    void testEnviarParte_WrongSize_ThrowsException() {
+        when(photoUploadSessionRepository.findById("upload-1")).thenReturn(Optional.of(session));
+
+        assertThrows(RuntimeException.class, () ->
+                photoUploadService.enviarParte("upload-1", 0, new ByteArrayInputStream(new byte[10]), 10));
+
+        verify(photoStorageService, never()).storeUploadChunk(anyString(), anyInt(), any(), anyLong());
+        verify(photoUploadSessionRepository, never()).findByIdForUpdate(anyString());
+    }
+
+    @Test
+    void testEnviarParte_ExpiredSession_ThrowsException() {
+        session.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(photoUploadSessionRepository.findById("upload-1")).thenReturn(Optional.of(session));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                photoUploadService.enviarParte("upload-1", 0, new ByteArrayInputStream(new byte[0]), 256 * 1024));
+
+        assertEquals("Upload session expired", exception.getMessage());
+        verifyNoInteractions(photoStorageService);
+    }
+
+    @Test
+    void testLimparSessoesExpiradas_RemovesChunksThenSession() {
+        PhotoUploadSession failing = new PhotoUploadSession();
+        failing.setId("upload-2");
+        failing.setTotalChunks(2);
+        when(photoUploadSessionRepository.findTop100ByExpiresAtBeforeOrderByExpiresAtAsc(any()))
+                .thenReturn(List.of(session, failing));
+        lenient().doThrow(new RuntimeException("storage offline"))
+                .when(photoStorageService).deleteUploadObjects("upload-2", 2);
+
+        int removed = photoUploadService.limparSessoesExpiradas();
+
+        assertEquals(1, removed);
+        InOrder order = inOrder(photoStorageService, photoUploadSessionRepository);
+        order.verify(photoStorageService).deleteUploadObjects("upload-1", 3);
+        order.verify(photoUploadSessionRepository).delete(session);
+        // Sessão com falha no storage fica para a próxima rodada
+        verify(photoUploadSessionRepository, never()).delete(failing);
+    }
+
+    @Test
+    void testConcluirUpload_MissingChunks_ThrowsException() {
+        session.setReceivedChunks("0,2");
+        when(photoUploadSessionRepository.findByIdForUpdate("upload-1")).thenReturn(Optional.of(session));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                photoUploadService.concluirUpload("upload-1"));
+
+        assertEquals("Upload incomplete, missing chunks: [1]", exception.getMessage());
+        verify(photoStorageService, never()).assembleUploadChunks(anyString(), anyInt(), anyString(), anyLong());
+    }
+
+    @Test
+    void testConcluirUpload_AllChunks_AttachesPhotoToRecord() {
+        session.setReceivedChunks("0,1,2");
+        when(photoUploadSessionRepository.findByIdForUpdate("upload-1")).thenReturn(Optional.of(session));
+        when(gpsRecordRepository.findById(1L)).thenReturn(Optional.of(gpsRecord));
+        when(photoStorageService.assembleUploadChunks("upload-1", 3, "image/jpeg", 600L * 1024)).thenAnswer(invocation -> {
+            // Montagem entre as duas transações curtas, com a sessão já marcada
+            assertEquals("ASSEMBLING", session.getStatus());
+            verify(transactionManager, times(1)).commit(any());
+            return "abc";
+        });
+        when(photoStorageService.attachUploadedGPSPhoto(gpsRecord, "upload-1", 3, "abc", "image/jpeg", 600L * 1024))
+                .thenReturn("/api/v1/files/gps-photos/10/1");
+
+        photoUploadService.concluirUpload("upload-1");
+
+        assertEquals("COMPLETED", session.getStatus());
+        assertEquals("/api/v1/files/gps-photos/10/1", gpsRecord.getPhotoUrl());
+
+        // Repetir a conclusão não monta a foto de novo
+        photoUploadService.concluirUpload("upload-1");
+        verify(photoStorageService, times(1)).assembleUploadChunks(anyString(), anyInt(), anyString(), anyLong());
+    }
+
+    @Test
+    void testConcluirUpload_AssemblyFails_ReturnsSessionToInProgress() {
+        session.setReceivedChunks("0,1,2");
+        when(photoUploadSessionRepository.findByIdForUpdate("upload-1")).thenReturn(Optional.of(session));
+        when(photoStorageService.assembleUploadChunks("upload-1", 3, "image/jpeg", 600L * 1024))
+                .thenThrow(new RuntimeException("Failed to assemble upload: storage offline"));
+
+        assertThrows(RuntimeException.class, () -> photoUploadService.concluirUpload("upload-1"));
+
+        assertEquals("IN_PROGRESS", session.getStatus());
+        verify(photoStorageService, never()).attachUploadedGPSPhoto(any(), anyString(), anyInt(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void testEnviarParte_WhileAssembling_ThrowsException() {
+        session.setStatus("ASSEMBLING");
+        session.setUpdatedAt(LocalDateTime.now());
+        when(photoUploadSessionRepository.findById("upload-1")).thenReturn(Optional.of(session));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                photoUploadService.enviarParte("upload-1", 0, new ByteArrayInputStream(new byte[0]), 256 * 1024));
+
+        assertEquals("Upload session is being assembled", exception.getMessage());
+        verifyNoInteractions(photoStorageService);
+    }
+}
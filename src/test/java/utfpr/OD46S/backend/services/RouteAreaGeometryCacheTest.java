@@ -0,0 +1,71 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteAreaGeometryCacheTest {
+
+    @Mock
+    private RouteAreaRepository routeAreaRepository;
+
+    @InjectMocks
+    private RouteAreaGeometryCache routeAreaGeometryCache;
+
+    private byte[] square;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(routeAreaGeometryCache, "maxEntries", 100);
+        square = PackedGeometry.fromGeoJson(new ObjectMapper().readTree(
+                "{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[10,0],[10,10],[0,10],[0,0]]]}")).encode();
+    }
+
+    @Test
+    void getAll_SameVersion_IsServedFromCache() {
+        when(routeAreaRepository.findGeometryBinaryByIdIn(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "v1", square}));
+
+        PackedGeometry first = routeAreaGeometryCache.getAll(Map.of(1L, "v1")).get(1L);
+        PackedGeometry second = routeAreaGeometryCache.getAll(Map.of(1L, "v1")).get(1L);
+
+        assertSame(first, second);
+        assertTrue(first.contains(5, 5));
+        verify(routeAreaRepository, times(1)).findGeometryBinaryByIdIn(any());
+    }
+
+    @Test
+    void getAll_NewVersion_ReloadsGeometry() {
+        when(routeAreaRepository.findGeometryBinaryByIdIn(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "v1", square}))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "v2", square}));
+
+        routeAreaGeometryCache.getAll(Map.of(1L, "v1"));
+        routeAreaGeometryCache.getAll(Map.of(1L, "v2"));
+
+        verify(routeAreaRepository, times(2)).findGeometryBinaryByIdIn(any());
+    }
+
+    @Test
+    void getAll_WithoutBinary_IsLeftOut() {
+        when(routeAreaRepository.findGeometryBinaryByIdIn(List.of(1L)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "v1", null}));
+
+        assertTrue(routeAreaGeometryCache.getAll(Map.of(1L, "v1")).isEmpty());
+    }
+}
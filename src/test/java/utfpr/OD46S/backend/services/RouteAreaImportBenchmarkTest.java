@@ -0,0 +1,189 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+import utfpr.OD46S.backend.entitys.Route;
+import utfpr.OD46S.backend.entitys.RouteArea;
+import utfpr.OD46S.backend.entitys.RouteImportJob;
+import utfpr.OD46S.backend.enums.CollectionType;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.repositorys.RouteImportJobRepository;
+import utfpr.OD46S.backend.repositorys.RouteRepository;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Import cost per feature must stay flat as the collection grows (linear total time).
+ * Repositories are mocked so only the importer's own work is measured: parallel parsing,
+ * index lookups and batch assembly.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@ExtendWith(MockitoExtension.class)
+class RouteAreaImportBenchmarkTest {
+
+    private static final int ROUTES = 1_000;
+
+    @Mock
+    private RouteAreaRepository routeAreaRepository;
+
+    @Mock
+    private RouteRepository routeRepository;
+
+    @Mock
+    private RouteImportJobRepository routeImportJobRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private GeoJsonImportJobService geoJsonImportJobService;
+
+    private List<Route> routes;
+    private RouteImportJob job;
+    private final AtomicLong nextAreaId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        GeoJsonFeatureParser parser = new GeoJsonFeatureParser();
+
+        RouteAreaService routeAreaService = new RouteAreaService();
+        ReflectionTestUtils.setField(routeAreaService, "routeAreaRepository", routeAreaRepository);
+        ReflectionTestUtils.setField(routeAreaService, "routeRepository", routeRepository);
+        ReflectionTestUtils.setField(routeAreaService, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(routeAreaService, "geoJsonFeatureParser", parser);
+
+        geoJsonImportJobService = new GeoJsonImportJobService();
+        ReflectionTestUtils.setField(geoJsonImportJobService, "routeImportJobRepository", routeImportJobRepository);
+        ReflectionTestUtils.setField(geoJsonImportJobService, "routeAreaService", routeAreaService);
+        ReflectionTestUtils.setField(geoJsonImportJobService, "geoJsonFeatureParser", parser);
+        ReflectionTestUtils.setField(geoJsonImportJobService, "batchSize", 500);
+        geoJsonImportJobService.start();
+
+        routes = new ArrayList<>();
+        List<Object[]> routeRows = new ArrayList<>();
+        for (int i = 1; i <= ROUTES; i++) {
+            Route route = new Route();
+            route.setId((long) i);
+            route.setName("Rota " + i);
+            route.setCollectionType(CollectionType.RESIDENTIAL);
+            route.setPeriodicity("0 8 * * *");
+            routes.add(route);
+            routeRows.add(new Object[]{route.getId(), route.getName()});
+        }
+        when(routeRepository.findAllIdAndName()).thenReturn(routeRows);
+        when(routeRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> routes.get(((Long) invocation.getArgument(0)).intValue() - 1));
+
+        when(routeAreaRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<RouteArea> found = new ArrayList<>();
+            for (Long id : (Iterable<Long>) invocation.getArgument(0)) {
+                RouteArea area = new RouteArea();
+                area.setId(id);
+                found.add(area);
+            }
+            return found;
+        });
+        when(routeAreaRepository.saveAll(any())).thenAnswer(invocation -> {
+            for (RouteArea area : (Iterable<RouteArea>) invocation.getArgument(0)) {
+                if (area.getId() == null) {
+                    area.setId(nextAreaId.getAndIncrement());
+                }
+            }
+            return invocation.getArgument(0);
+        });
+
+        when(routeImportJobRepository.findById(any())).thenAnswer(invocation -> Optional.of(job));
+        when(routeImportJobRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        geoJsonImportJobService.stop();
+    }
+
+    @Test
+    void importScalesLinearly() {
+        // Warm-up so JIT compilation does not count against the first size
+        runImport(10_000);
+
+        long time10k = runImport(10_000);
+        long time50k = runImport(50_000);
+        long time100k = runImport(100_000);
+
+        double perFeature10k = time10k / 10_000.0;
+        double perFeature50k = time50k / 50_000.0;
+        double perFeature100k = time100k / 100_000.0;
+
+        System.out.printf("GeoJSON import: 10k=%dms (%.1fus/feature), 50k=%dms (%.1fus/feature), 100k=%dms (%.1fus/feature)%n",
+                time10k / 1_000_000, perFeature10k / 1_000,
+                time50k / 1_000_000, perFeature50k / 1_000,
+                time100k / 1_000_000, perFeature100k / 1_000);
+
+        // Quadratic behaviour would make 100k cost ~10x more per feature than 10k; allow generous noise
+        assertTrue(perFeature100k < perFeature10k * 3,
+                "Per-feature cost grew from " + perFeature10k + "ns to " + perFeature100k + "ns");
+    }
+
+    private long runImport(int featureCount) {
+        // Half of the features update existing areas, half create new ones
+        List<Object[]> areaRows = new ArrayList<>();
+        for (int i = 0; i < featureCount / 2; i++) {
+            areaRows.add(new Object[]{nextAreaId.getAndIncrement(), (long) (i % ROUTES) + 1, "Area " + i, null, true});
+        }
+        when(routeAreaRepository.findAllImportKeys()).thenReturn(areaRows);
+
+        List<GeoJsonFeature> features = new ArrayList<>(featureCount);
+        for (int i = 0; i < featureCount; i++) {
+            features.add(feature(i));
+        }
+
+        job = new RouteImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setTotalFeatures(featureCount);
+
+        long start = System.nanoTime();
+        geoJsonImportJobService.runImport(job.getId(), features.iterator(), 1L);
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(featureCount, job.getProcessedFeatures());
+        assertEquals(featureCount / 2, job.getAreasUpdated());
+        assertEquals(featureCount - featureCount / 2, job.getAreasCreated());
+        return elapsed;
+    }
+
+    private GeoJsonFeature feature(int index) {
+        double lon = -52.7 + (index % 1000) * 0.001;
+        double lat = -26.3 + (index / 1000) * 0.001;
+        List<List<Double>> ring = List.of(
+                List.of(lon, lat), List.of(lon + 0.0005, lat), List.of(lon + 0.0005, lat + 0.0005),
+                List.of(lon, lat + 0.0005), List.of(lon, lat));
+
+        Map<String, Object> geometry = new HashMap<>();
+        geometry.put("type", "Polygon");
+        geometry.put("coordinates", List.of(ring));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("name", "Area " + index);
+        properties.put("waste_type", "RECYCLABLE");
+        properties.put("route_id", (index % ROUTES) + 1);
+
+        GeoJsonFeature feature = new GeoJsonFeature();
+        feature.setProperties(properties);
+        feature.setGeometry(geometry);
+        return feature;
+    }
+}
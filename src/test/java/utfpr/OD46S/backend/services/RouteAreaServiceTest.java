@@ -0,0 +1,240 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+import utfpr.OD46S.backend.dtos.GeoJsonRawFeatureCollection;
+import utfpr.OD46S.backend.entitys.Route;
+import utfpr.OD46S.backend.entitys.RouteArea;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.repositorys.RouteRepository;
+import utfpr.OD46S.backend.services.GeoJsonFeatureParser.PreparedFeature;
+import utfpr.OD46S.backend.services.RouteAreaService.ImportBatchResult;
+import utfpr.OD46S.backend.services.RouteAreaService.ImportIndex;
+import utfpr.OD46S.backend.utils.geo.CoordinateWriter;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteAreaServiceTest {
+
+    @Mock
+    private RouteAreaRepository routeAreaRepository;
+
+    @Mock
+    private RouteRepository routeRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RouteAreaGeometryCache routeAreaGeometryCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private GeoJsonFeatureParser geoJsonFeatureParser = new GeoJsonFeatureParser();
+
+    @InjectMocks
+    private RouteAreaService routeAreaService;
+
+    private Route route;
+
+    @BeforeEach
+    void setUp() {
+        route = new Route();
+        route.setId(1L);
+        route.setName("Planalto");
+        lenient().when(routeRepository.getReferenceById(1L)).thenReturn(route);
+        lenient().when(routeAreaRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void importBatch_UnchangedArea_IsSkipped() {
+        PreparedFeature feature = prepare(0, "Planalto 1", "#0066CC");
+        ImportIndex index = indexWithArea(10L, feature.contentHash(), true);
+
+        ImportBatchResult result = routeAreaService.importBatch(List.of(feature), index, 1L);
+
+        assertEquals(1, result.getAreasUnchanged());
+        assertEquals(0, result.getAreasUpdated());
+        assertEquals(0, result.getAreasCreated());
+        verify(routeAreaRepository).findAllById(List.of());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void importBatch_ChangedArea_IsUpdated() {
+        PreparedFeature feature = prepare(0, "Planalto 1", "#FF0000");
+        ImportIndex index = indexWithArea(10L, "old-hash", true);
+
+        RouteArea existing = new RouteArea();
+        existing.setId(10L);
+        existing.setContentHash("old-hash");
+        when(routeAreaRepository.findAllById(List.of(10L))).thenReturn(List.of(existing));
+
+        ImportBatchResult result = routeAreaService.importBatch(List.of(feature), index, 1L);
+
+        assertEquals(1, result.getAreasUpdated());
+        assertEquals("#FF0000", existing.getStrokeColor());
+        assertEquals(feature.contentHash(), existing.getContentHash());
+        verify(eventPublisher).publishEvent(any(RouteAreaService.RouteAreasChangedEvent.class));
+    }
+
+    @Test
+    void importBatch_InactiveAreaWithSameContent_IsReactivated() {
+        PreparedFeature feature = prepare(0, "Planalto 1", "#0066CC");
+        ImportIndex index = indexWithArea(10L, feature.contentHash(), false);
+
+        RouteArea existing = new RouteArea();
+        existing.setId(10L);
+        existing.setActive(false);
+        when(routeAreaRepository.findAllById(List.of(10L))).thenReturn(List.of(existing));
+
+        ImportBatchResult result = routeAreaService.importBatch(List.of(feature), index, 1L);
+
+        assertEquals(1, result.getAreasUpdated());
+        assertTrue(existing.getActive());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void importBatch_NewArea_IsCreatedAndIndexed() {
+        PreparedFeature feature = prepare(0, "Planalto 2", "#0066CC");
+        PreparedFeature repeated = prepare(1, "Planalto 2", "#0066CC");
+        ImportIndex index = new ImportIndex();
+        index.addRoute(1L, "Planalto", false);
+
+        ImportBatchResult result = routeAreaService.importBatch(List.of(feature, repeated), index, 1L);
+
+        assertEquals(1, result.getAreasCreated());
+        assertEquals(1, result.getAreasUnchanged());
+
+        ArgumentCaptor<Collection<RouteArea>> captor = ArgumentCaptor.forClass((Class) Collection.class);
+        verify(routeAreaRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertNotNull(index.findArea(1L, "Planalto 2"));
+    }
+
+    @Test
+    void importBatch_UnknownRouteId_ReportsError() {
+        PreparedFeature feature = prepare(4, "Planalto 1", "#0066CC");
+
+        ImportBatchResult result = routeAreaService.importBatch(List.of(feature), new ImportIndex(), 1L);
+
+        assertEquals(1, result.getErrors().size());
+        assertEquals(4, result.getErrors().get(0).get("feature_index"));
+        assertEquals("Route ID 1 does not exist", result.getErrors().get(0).get("message"));
+    }
+
+    @Test
+    void findAreasContaining_FiltersBboxCandidatesByPolygon() throws Exception {
+        when(routeAreaRepository.findCandidatesContaining(5.0, 5.0, null)).thenReturn(List.of(
+                new Object[]{10L, "hash-a", 1L, "Planalto", "Planalto 1", "RECYCLABLE"},
+                new Object[]{11L, "hash-b", 1L, "Planalto", "Planalto 2", "RECYCLABLE"}));
+        when(routeAreaGeometryCache.getAll(Map.of(10L, "hash-a", 11L, "hash-b"))).thenReturn(Map.of(
+                10L, packed("[[[0,0],[10,0],[10,10],[0,10],[0,0]]]"),
+                11L, packed("[[[0,0],[10,0],[10,10],[0,10],[0,0]],[[4,4],[6,4],[6,6],[4,6],[4,4]]]")));
+
+        List<Map<String, Object>> areas = routeAreaService.findAreasContaining(5.0, 5.0, null);
+
+        assertEquals(1, areas.size());
+        assertEquals(10L, areas.get(0).get("area_id"));
+        assertEquals("Planalto 1", areas.get(0).get("external_name"));
+    }
+
+    @Test
+    void getRouteMap_DefaultPrecision_PassesStoredRoundedGeometryThrough() {
+        RouteArea area = storedArea(10L, "{\"type\":\"Point\",\"coordinates\":[-52.6988268123,-26.2438868123]}");
+        // Marker text: proves the stored column is served without re-tokenizing
+        area.setGeometryRounded("{\"stored\":true}");
+        when(routeRepository.findById(1L)).thenReturn(Optional.of(route));
+        when(routeAreaRepository.findByRouteIdAndActive(1L, true)).thenReturn(List.of(area));
+
+        assertEquals("{\"stored\":true}", routeMapGeometry(CoordinateWriter.DEFAULT_PRECISION));
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[-52.699,-26.244]}", routeMapGeometry(3));
+    }
+
+    @Test
+    void backfillGeometryDerivatives_PagesByIdAndSkipsBrokenAreas() {
+        List<RouteArea> firstPage = new ArrayList<>();
+        for (long id = 1; id <= RouteAreaService.BACKFILL_BATCH_SIZE; id++) {
+            firstPage.add(storedArea(id, "{\"type\":\"Point\",\"coordinates\":[-52.69,-26.24]}"));
+        }
+        firstPage.set(0, storedArea(1L, "not json"));
+        RouteArea last = storedArea(500L, "{\"type\":\"Point\",\"coordinates\":[-52.69,-26.24]}");
+        PageRequest page = PageRequest.of(0, RouteAreaService.BACKFILL_BATCH_SIZE);
+        when(routeAreaRepository.findMissingGeometryDerivatives(0L, page)).thenReturn(firstPage);
+        when(routeAreaRepository.findMissingGeometryDerivatives((long) RouteAreaService.BACKFILL_BATCH_SIZE, page))
+                .thenReturn(List.of(last));
+
+        routeAreaService.backfillGeometryDerivatives();
+
+        // The area with invalid JSON is left as is and does not stop the rest
+        verify(routeAreaRepository, times(RouteAreaService.BACKFILL_BATCH_SIZE)).save(any(RouteArea.class));
+        assertNull(firstPage.get(0).getContentHash());
+        assertNotNull(last.getContentHash());
+        assertNotNull(last.getGeometryBinary());
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[-52.69,-26.24]}", last.getGeometryRounded());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    private String routeMapGeometry(int precision) {
+        GeoJsonRawFeatureCollection geojson = (GeoJsonRawFeatureCollection)
+                routeAreaService.getRouteMap(1L, precision).get("geojson");
+        return geojson.getFeatures().get(0).getGeometry();
+    }
+
+    private RouteArea storedArea(Long id, String geometryGeojson) {
+        RouteArea area = new RouteArea();
+        area.setId(id);
+        area.setGeometryGeojson(geometryGeojson);
+        area.setWasteType("RECYCLABLE");
+        return area;
+    }
+
+    private PackedGeometry packed(String polygonCoordinates) throws Exception {
+        return PackedGeometry.fromGeoJson(new ObjectMapper().readTree(
+                "{\"type\":\"Polygon\",\"coordinates\":" + polygonCoordinates + "}"));
+    }
+
+    private ImportIndex indexWithArea(Long areaId, String contentHash, boolean active) {
+        ImportIndex index = new ImportIndex();
+        index.addRoute(1L, "Planalto", false);
+        index.addArea(1L, "Planalto 1", new RouteAreaService.AreaEntry(areaId, contentHash, active));
+        return index;
+    }
+
+    private PreparedFeature prepare(int index, String name, String strokeColor) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("name", name);
+        properties.put("waste_type", "RECYCLABLE");
+        properties.put("route_id", 1);
+        properties.put("stroke_color", strokeColor);
+
+        Map<String, Object> geometry = new HashMap<>();
+        geometry.put("type", "Point");
+        geometry.put("coordinates", List.of(-52.69, -26.24));
+
+        GeoJsonFeature feature = new GeoJsonFeature();
+        feature.setProperties(properties);
+        feature.setGeometry(geometry);
+        return geoJsonFeatureParser.parse(index, feature);
+    }
+}
@@ -0,0 +1,68 @@
+package utfpr.OD46S.backend.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import utfpr.OD46S.backend.repositorys.RouteRepository;
+import utfpr.OD46S.backend.repositorys.UsuarioRepository;
+import utfpr.OD46S.backend.repositorys.VeiculoRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private RouteRepository routeRepository;
+
+    @Mock
+    private VeiculoRepository veiculoRepository;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_RanksEachGroupWithOneQuery() {
+        PageRequest top = PageRequest.of(0, 3);
+        when(usuarioRepository.searchBySimilarity("cen", "%cen%", top))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, "Vicente", "vicente@od46s.com", true, "DRIVER", 0.4285714f}));
+        when(routeRepository.searchBySimilarity("cen", "%cen%", top))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, "Centro", "RESIDENTIAL", true, 0.5f}));
+        when(veiculoRepository.searchBySimilarity("cen", "%cen%", top))
+                .thenReturn(List.<Object[]>of(new Object[]{3L, "CEN1A23", "Atego", "AVAILABLE", true, 0.6f}));
+
+        Map<String, Object> data = searchService.search(" CEN ", 3);
+
+        assertEquals("cen", data.get("query"));
+        Map<String, Object> user = ((List<Map<String, Object>>) data.get("users")).get(0);
+        assertEquals(7L, user.get("id"));
+        assertEquals("DRIVER", user.get("type"));
+        assertEquals(0.429, user.get("score"));
+        assertEquals("Centro", ((List<Map<String, Object>>) data.get("routes")).get(0).get("name"));
+        Map<String, Object> vehicle = ((List<Map<String, Object>>) data.get("vehicles")).get(0);
+        assertEquals(3L, vehicle.get("id"));
+        assertEquals("CEN1A23", vehicle.get("license_plate"));
+        assertEquals(0.6, vehicle.get("score"));
+    }
+
+    @Test
+    void search_InvalidInput_IsRejectedBeforeQuerying() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(null, null));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(" a ", null));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("centro", 21));
+        verify(usuarioRepository, never()).searchBySimilarity(any(), any(), any());
+        verifyNoInteractions(routeRepository, veiculoRepository);
+    }
+}
@@ -22,7 +22,6 @@ import utfpr.OD46S.backend.repositorys.UsuarioRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -94,73 +93,65 @@ class UsuarioServiceTest {
 
     @Test
     void testListarUsuarios_Success() {
-        List<Usuario> usuarios = Arrays.asList(usuario);
-        Page<Usuario> page = new PageImpl<>(usuarios, PageRequest.of(0, 20), 1);
+        Page<Object[]> page = new PageImpl<>(List.<Object[]>of(new Object[]{usuario, administrator, null}), PageRequest.of(0, 20), 1);
 
-        when(usuarioRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(administratorRepository.existsById(1L)).thenReturn(true);
-        when(administratorRepository.findById(1L)).thenReturn(Optional.of(administrator));
+        when(usuarioRepository.findWithRoles(null, null, null, PageRequest.of(0, 20))).thenReturn(page);
 
         Page<UsuarioDTO> result = usuarioService.listarUsuarios("", "", null, PageRequest.of(0, 20));
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(usuarioRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals("ADMIN", result.getContent().get(0).getType());
+        assertEquals("IT", result.getContent().get(0).getDepartment());
+        verify(usuarioRepository, times(1)).findWithRoles(null, null, null, PageRequest.of(0, 20));
+        verifyNoInteractions(administratorRepository, motoristaRepository);
     }
 
     @Test
     void testListarUsuarios_WithActiveFilter() {
-        List<Usuario> usuarios = Arrays.asList(usuario);
-        Page<Usuario> page = new PageImpl<>(usuarios, PageRequest.of(0, 20), 1);
+        Page<Object[]> page = new PageImpl<>(List.<Object[]>of(new Object[]{usuario, administrator, null}), PageRequest.of(0, 20), 1);
 
-        when(usuarioRepository.findByActive(true, PageRequest.of(0, 20))).thenReturn(page);
-        when(administratorRepository.existsById(1L)).thenReturn(true);
-        when(administratorRepository.findById(1L)).thenReturn(Optional.of(administrator));
+        when(usuarioRepository.findWithRoles(null, null, true, PageRequest.of(0, 20))).thenReturn(page);
 
         Page<UsuarioDTO> result = usuarioService.listarUsuarios("", "", true, PageRequest.of(0, 20));
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(usuarioRepository, times(1)).findByActive(true, PageRequest.of(0, 20));
+        verify(usuarioRepository, times(1)).findWithRoles(null, null, true, PageRequest.of(0, 20));
     }
 
     @Test
     void testListarUsuarios_WithSearchFilter() {
-        List<Usuario> usuarios = Arrays.asList(usuario);
-        Page<Usuario> page = new PageImpl<>(usuarios, PageRequest.of(0, 20), 1);
+        Page<Object[]> page = new PageImpl<>(List.<Object[]>of(new Object[]{usuario, administrator, null}), PageRequest.of(0, 20), 1);
 
-        when(usuarioRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(administratorRepository.existsById(1L)).thenReturn(true);
-        when(administratorRepository.findById(1L)).thenReturn(Optional.of(administrator));
+        when(usuarioRepository.findWithRoles(eq("%test!_us%"), isNull(), isNull(), any(Pageable.class))).thenReturn(page);
 
-        Page<UsuarioDTO> result = usuarioService.listarUsuarios("Test", "", null, PageRequest.of(0, 20));
+        Page<UsuarioDTO> result = usuarioService.listarUsuarios(" Test_Us ", "", null, PageRequest.of(0, 20));
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(usuarioRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals(1, result.getTotalElements());
     }
 
     @Test
     void testListarUsuarios_WithTypeFilter() {
-        List<Usuario> usuarios = Arrays.asList(usuario);
-        Page<Usuario> page = new PageImpl<>(usuarios, PageRequest.of(0, 20), 1);
+        Page<Object[]> page = new PageImpl<>(List.<Object[]>of(new Object[]{usuario, null, motorista}), PageRequest.of(1, 20), 21);
 
-        when(usuarioRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(administratorRepository.existsById(1L)).thenReturn(true);
-        when(administratorRepository.findById(1L)).thenReturn(Optional.of(administrator));
+        when(usuarioRepository.findWithRoles(null, "DRIVER", null, PageRequest.of(1, 20))).thenReturn(page);
 
-        Page<UsuarioDTO> result = usuarioService.listarUsuarios("", "ADMIN", null, PageRequest.of(0, 20));
+        Page<UsuarioDTO> result = usuarioService.listarUsuarios("", "DRIVER", null, PageRequest.of(1, 20));
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(usuarioRepository, times(1)).findAll(any(Pageable.class));
+        assertEquals("DRIVER", result.getContent().get(0).getType());
+        assertEquals("12345678901", result.getContent().get(0).getLicenseNumber());
+        // Total comes from the database count, not from the filtered page
+        assertEquals(21, result.getTotalElements());
     }
 
     @Test
     void testObterUsuario_AdminSuccess() {
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(administratorRepository.existsById(1L)).thenReturn(true);
-        when(administratorRepository.findById(1L)).thenReturn(Optional.of(administrator));
+        when(usuarioRepository.findWithRolesById(1L)).thenReturn(List.<Object[]>of(new Object[]{usuario, administrator, null}));
 
         UsuarioDTO result = usuarioService.obterUsuario(1L);
 
@@ -168,17 +159,13 @@ class UsuarioServiceTest {
         assertEquals("Test User", result.getName());
         assertEquals("ADMIN", result.getType());
         assertEquals("IT", result.getDepartment());
-        verify(usuarioRepository, times(1)).findById(1L);
-        verify(administratorRepository, times(1)).existsById(1L);
-        verify(administratorRepository, times(1)).findById(1L);
+        verify(usuarioRepository, times(1)).findWithRolesById(1L);
+        verifyNoInteractions(administratorRepository, motoristaRepository);
     }
 
     @Test
     void testObterUsuario_DriverSuccess() {
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(administratorRepository.existsById(1L)).thenReturn(false);
-        when(motoristaRepository.existsById(1L)).thenReturn(true);
-        when(motoristaRepository.findById(1L)).thenReturn(Optional.of(motorista));
+        when(usuarioRepository.findWithRolesById(1L)).thenReturn(List.<Object[]>of(new Object[]{usuario, null, motorista}));
 
         UsuarioDTO result = usuarioService.obterUsuario(1L);
 
@@ -186,18 +173,15 @@ class UsuarioServiceTest {
         assertEquals("Test User", result.getName());
         assertEquals("DRIVER", result.getType());
         assertEquals("12345678901", result.getLicenseNumber());
-        verify(usuarioRepository, times(1)).findById(1L);
-        verify(administratorRepository, times(1)).existsById(1L);
-        verify(motoristaRepository, times(1)).existsById(1L);
-        verify(motoristaRepository, times(1)).findById(1L);
+        verify(usuarioRepository, times(1)).findWithRolesById(1L);
     }
 
     @Test
     void testObterUsuario_NotFound() {
-        when(usuarioRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(usuarioRepository.findWithRolesById(anyLong())).thenReturn(List.of());
 
         assertThrows(RuntimeException.class, () -> usuarioService.obterUsuario(1L));
-        verify(usuarioRepository, times(1)).findById(1L);
+        verify(usuarioRepository, times(1)).findWithRolesById(1L);
     }
 
     @Test
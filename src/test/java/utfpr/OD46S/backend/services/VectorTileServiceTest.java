@@ -0,0 +1,113 @@
+package utfpr.OD46S.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import utfpr.OD46S.backend.repositorys.GPSRecordRepository;
+import utfpr.OD46S.backend.repositorys.RouteAreaRepository;
+import utfpr.OD46S.backend.services.VectorTileService.VectorTile;
+import utfpr.OD46S.backend.utils.geo.PackedGeometry;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VectorTileServiceTest {
+
+    @Mock
+    private RouteAreaRepository routeAreaRepository;
+
+    @Mock
+    private GPSRecordRepository gpsRecordRepository;
+
+    @Mock
+    private RouteAreaGeometryCache routeAreaGeometryCache;
+
+    @InjectMocks
+    private VectorTileService vectorTileService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(vectorTileService, "maxEntries", 16);
+        ReflectionTestUtils.setField(vectorTileService, "tracksMinZoom", 1);
+        ReflectionTestUtils.setField(vectorTileService, "tracksMaxPoints", 500);
+
+        PackedGeometry square = PackedGeometry.fromGeoJson(new ObjectMapper().readTree(
+                "{\"type\":\"Polygon\",\"coordinates\":[[[45,-10],[135,-10],[135,-60],[45,-60],[45,-10]]]}"));
+        lenient().when(routeAreaRepository.findTileCandidates(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "v1", 2L, "Centro", "Centro 1", "RECYCLABLE",
+                        "#000000", "#00FF00", new BigDecimal("0.40")}));
+        lenient().when(routeAreaGeometryCache.getAll(Map.of(1L, "v1"))).thenReturn(Map.of(1L, square));
+    }
+
+    @Test
+    void getTile_SameTile_BuildsOnce() {
+        VectorTile first = vectorTileService.getTile(1, 1, 1, null, null);
+        VectorTile second = vectorTileService.getTile(1, 1, 1, null, null);
+
+        assertSame(first, second);
+        assertFalse(first.isEmpty());
+        assertTrue(first.matches(first.etag()));
+        verify(routeAreaRepository, times(1)).findTileCandidates(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void getTile_AfterImport_IsRebuilt() {
+        vectorTileService.getTile(1, 1, 1, null, null);
+        vectorTileService.onRouteAreasChanged(new RouteAreaService.RouteAreasChangedEvent());
+        vectorTileService.getTile(1, 1, 1, null, null);
+
+        verify(routeAreaRepository, times(2)).findTileCandidates(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void getTile_WithTracks_IsNotCached() {
+        when(gpsRecordRepository.findTrackPointsInBoundingBox(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(
+                        new Object[]{5L, new BigDecimal("90"), new BigDecimal("-45")},
+                        new Object[]{5L, new BigDecimal("100"), new BigDecimal("-50")}));
+
+        VectorTile first = vectorTileService.getTile(1, 1, 1, null, LocalDate.of(2025, 1, 10));
+        VectorTile second = vectorTileService.getTile(1, 1, 1, null, LocalDate.of(2025, 1, 10));
+
+        assertNotSame(first, second);
+        assertEquals(first.etag(), second.etag());
+        assertNotEquals(vectorTileService.getTile(1, 1, 1, null, null).etag(), first.etag());
+        verify(gpsRecordRepository, times(2)).findTrackPointsInBoundingBox(
+                eq(LocalDate.of(2025, 1, 10).atStartOfDay()), eq(LocalDate.of(2025, 1, 11).atStartOfDay()),
+                any(), any(), any(), any(), eq(PageRequest.of(0, 500)));
+    }
+
+    @Test
+    void getTile_WithTracksBelowMinZoom_ServesCachedAreas() {
+        ReflectionTestUtils.setField(vectorTileService, "tracksMinZoom", 12);
+
+        VectorTile withDate = vectorTileService.getTile(1, 1, 1, null, LocalDate.of(2025, 1, 10));
+
+        assertSame(withDate, vectorTileService.getTile(1, 1, 1, null, null));
+        verifyNoInteractions(gpsRecordRepository);
+    }
+
+    @Test
+    void getTile_NothingInTile_IsEmpty() {
+        when(routeAreaRepository.findTileCandidates(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of());
+
+        VectorTile tile = vectorTileService.getTile(3, 0, 0, null, null);
+
+        assertTrue(tile.isEmpty());
+        assertFalse(tile.matches("*"));
+    }
+}
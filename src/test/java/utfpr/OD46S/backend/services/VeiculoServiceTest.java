@@ -26,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -77,15 +78,26 @@ class VeiculoServiceTest {
 
     @Test
     void testListarTodos_Success() {
-        List<Veiculo> veiculos = Arrays.asList(veiculo);
-
-        when(veiculoRepository.findAll()).thenReturn(veiculos);
+        when(veiculoRepository.findAllAsDTO()).thenReturn(Arrays.asList(veiculoDTO));
 
         List<VeiculoDTO> result = veiculoService.listarTodos();
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(veiculoRepository, times(1)).findAll();
+        verify(veiculoRepository, times(1)).findAllAsDTO();
+        verify(veiculoRepository, never()).findAll();
+    }
+
+    @Test
+    void testListarTodos_WithSearch_UsesSimilarityQuery() {
+        when(veiculoRepository.findBySimilarity(eq("abc_1"), eq("%abc!_1%"), any()))
+                .thenReturn(Arrays.asList(veiculo));
+
+        List<VeiculoDTO> result = veiculoService.listarTodos("  ABC_1 ");
+
+        assertEquals(1, result.size());
+        assertEquals("ABC1234", result.get(0).getLicensePlate());
+        verify(veiculoRepository, never()).findAllAsDTO();
     }
 
     @Test
@@ -0,0 +1,55 @@
+package utfpr.OD46S.backend.services.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalObjectStorageTest extends ObjectStorageContractTest {
+
+    @TempDir
+    Path root;
+
+    @Override
+    protected ObjectStorage createStorage() {
+        return new LocalObjectStorage(root);
+    }
+
+    @Test
+    void testPut_LeavesNoTemporaryFiles() throws Exception {
+        byte[] content = new byte[4096];
+        storage.put(prefix + "f.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void testKeysMapToShardedDirectories() {
+        byte[] content = new byte[10];
+        storage.put("gps-photos/execution_7/3.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+        assertTrue(Files.isRegularFile(root.resolve("gps-photos/execution_7/3.jpg")));
+        assertEquals(root.resolve("gps-photos/execution_7/3.jpg").toAbsolutePath().normalize(),
+                storage.localPath("gps-photos/execution_7/3.jpg").orElseThrow());
+    }
+
+    @Test
+    void testKeyEscapingRoot_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> storage.stat("../outside.jpg"));
+        assertThrows(IllegalArgumentException.class, () ->
+                storage.put("gps-photos/../../outside.jpg", new ByteArrayInputStream(new byte[1]), 1, "image/jpeg"));
+    }
+
+    @Test
+    void testPresignedUrls_AreNotSupported() {
+        assertFalse(storage.supportsPresignedUrls());
+        assertThrows(UnsupportedOperationException.class, () -> storage.presignedUploadUrl("a.jpg", 60));
+    }
+}
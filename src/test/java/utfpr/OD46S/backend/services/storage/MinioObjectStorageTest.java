@@ -0,0 +1,23 @@
+package utfpr.OD46S.backend.services.storage;
+
+import io.minio.MinioClient;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Roda o contrato contra um MinIO real. Habilitado apenas com MINIO_TEST_URL definido, ex:
+ * MINIO_TEST_URL=http://localhost:9000 MINIO_TEST_ACCESS_KEY=minioadmin MINIO_TEST_SECRET_KEY=minioadmin
+ */
+@EnabledIfEnvironmentVariable(named = "MINIO_TEST_URL", matches = ".+")
+class MinioObjectStorageTest extends ObjectStorageContractTest {
+
+    @Override
+    protected ObjectStorage createStorage() {
+        MinioClient client = MinioClient.builder()
+                .endpoint(System.getenv("MINIO_TEST_URL"))
+                .credentials(
+                        System.getenv().getOrDefault("MINIO_TEST_ACCESS_KEY", "minioadmin"),
+                        System.getenv().getOrDefault("MINIO_TEST_SECRET_KEY", "minioadmin"))
+                .build();
+        return new MinioObjectStorage(client, client, "od46s-contract-test");
+    }
+}
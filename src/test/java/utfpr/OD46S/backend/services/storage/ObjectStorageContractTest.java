@@ -0,0 +1,115 @@
+package utfpr.OD46S.backend.services.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contrato comum a todos os backends de ObjectStorage.
+ * Cada implementação estende esta classe e fornece a instância a ser testada.
+ */
+abstract class ObjectStorageContractTest {
+
+    protected ObjectStorage storage;
+
+    // Prefixo único por teste para não haver interferência entre execuções (MinIO compartilhado)
+    protected String prefix;
+
+    protected abstract ObjectStorage createStorage() throws Exception;
+
+    @BeforeEach
+    void setUpStorage() throws Exception {
+        storage = createStorage();
+        prefix = "contract-test/" + UUID.randomUUID() + "/";
+    }
+
+    @Test
+    void testPutThenGet_ReturnsSameBytes() throws Exception {
+        byte[] content = "photo-bytes".getBytes(StandardCharsets.UTF_8);
+
+        storage.put(prefix + "a.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+        try (InputStream in = storage.get(prefix + "a.jpg")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testStat_ReturnsSizeAndContentType() {
+        byte[] content = new byte[1234];
+
+        storage.put(prefix + "b.png", new ByteArrayInputStream(content), content.length, "image/png");
+
+        Optional<StoredObject> stat = storage.stat(prefix + "b.png");
+        assertTrue(stat.isPresent());
+        assertEquals(prefix + "b.png", stat.get().key());
+        assertEquals(1234, stat.get().size());
+        assertEquals("image/png", stat.get().contentType());
+        assertTrue(storage.exists(prefix + "b.png"));
+    }
+
+    @Test
+    void testStat_MissingObject_ReturnsEmpty() {
+        assertTrue(storage.stat(prefix + "missing.jpg").isEmpty());
+        assertFalse(storage.exists(prefix + "missing.jpg"));
+    }
+
+    @Test
+    void testGet_MissingObject_ThrowsException() {
+        assertThrows(RuntimeException.class, () -> storage.get(prefix + "missing.jpg"));
+    }
+
+    @Test
+    void testPut_ExistingKey_ReplacesContent() throws Exception {
+        byte[] first = "first".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "second-version".getBytes(StandardCharsets.UTF_8);
+
+        storage.put(prefix + "c.jpg", new ByteArrayInputStream(first), first.length, "image/jpeg");
+        storage.put(prefix + "c.jpg", new ByteArrayInputStream(second), second.length, "image/jpeg");
+
+        try (InputStream in = storage.get(prefix + "c.jpg")) {
+            assertArrayEquals(second, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testPut_StreamShorterThanSize_LeavesNoObject() {
+        byte[] content = "short".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(RuntimeException.class, () ->
+                storage.put(prefix + "d.jpg", new ByteArrayInputStream(content), content.length + 100, "image/jpeg"));
+
+        assertTrue(storage.stat(prefix + "d.jpg").isEmpty());
+    }
+
+    @Test
+    void testCopy_CreatesIndependentObject() throws Exception {
+        byte[] content = "copy-me".getBytes(StandardCharsets.UTF_8);
+        storage.put(prefix + "src.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+        storage.copy(prefix + "src.jpg", prefix + "nested/dst.jpg");
+        storage.delete(prefix + "src.jpg");
+
+        try (InputStream in = storage.get(prefix + "nested/dst.jpg")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testDelete_RemovesObject_AndIgnoresMissing() {
+        byte[] content = "x".getBytes(StandardCharsets.UTF_8);
+        storage.put(prefix + "e.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+        storage.delete(prefix + "e.jpg");
+        storage.delete(prefix + "e.jpg");
+
+        assertTrue(storage.stat(prefix + "e.jpg").isEmpty());
+    }
+}
@@ -0,0 +1,34 @@
+package utfpr.OD46S.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void testRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor("2025-01-15T08:30:00.123456", 42L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("|"));
+        assertFalse(token.contains("="));
+        assertEquals(cursor, KeysetCursor.decode(token));
+    }
+
+    @Test
+    void testValueMayContainSeparator() {
+        KeysetCursor cursor = new KeysetCursor("a|b", 7L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void testInvalidTokens() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not base64 !"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(
+                new KeysetCursor("2025-01-15", 1L).encode().substring(2)));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("MjAyNS0wMS0xNQ"));
+    }
+}
@@ -0,0 +1,76 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordinateWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testRoundsCoordinatesAndDropsWhitespace() {
+        String geometry = "{\"type\": \"Polygon\", \"coordinates\": [[[-52.69882681234567, -26.243886812345], " +
+                "[-52.699062900000004, -26.2426551], [-52.5, -26.0], [-52.69882681234567, -26.243886812345]]]}";
+
+        String rounded = CoordinateWriter.write(geometry, 6);
+
+        assertEquals("{\"type\":\"Polygon\",\"coordinates\":[[[-52.698827,-26.243887]," +
+                "[-52.699063,-26.242655],[-52.5,-26],[-52.698827,-26.243887]]]}", rounded);
+    }
+
+    @Test
+    void testKeepsStructureAndIntegers() throws Exception {
+        String geometry = "{\"type\":\"GeometryCollection\",\"geometries\":[" +
+                "{\"type\":\"Point\",\"coordinates\":[1,2]}," +
+                "{\"type\":\"LineString\",\"coordinates\":[[0.000001,-0.0000004],[10.1234567,0.5]]}]}";
+
+        JsonNode rounded = objectMapper.readTree(CoordinateWriter.write(geometry, 6));
+
+        assertEquals(objectMapper.readTree("{\"type\":\"GeometryCollection\",\"geometries\":[" +
+                "{\"type\":\"Point\",\"coordinates\":[1,2]}," +
+                "{\"type\":\"LineString\",\"coordinates\":[[0.000001,0],[10.123457,0.5]]}]}"), rounded);
+    }
+
+    @Test
+    void testPrecisionZeroWritesIntegers() {
+        assertEquals("[-53,-26,0]", CoordinateWriter.write("[-52.6,-26.4,0.4]", 0));
+    }
+
+    @Test
+    void testRoundBigDecimal() {
+        assertEquals(new BigDecimal("-26.243887"), CoordinateWriter.round(new BigDecimal("-26.24388681"), 6));
+        assertEquals(new BigDecimal("-26.5"), CoordinateWriter.round(new BigDecimal("-26.50000000"), 6));
+        assertEquals(new BigDecimal("1.25"), CoordinateWriter.round(new BigDecimal("1.25"), 6));
+        assertEquals(new BigDecimal("1.5"), CoordinateWriter.round(new BigDecimal("1.50"), 6));
+        assertEquals(new BigDecimal("100"), CoordinateWriter.round(new BigDecimal("100.0000000"), 6));
+        assertNull(CoordinateWriter.round(null, 6));
+    }
+
+    @Test
+    void testTiesRoundAwayFromZeroInBothPaths() {
+        // Every coordinate here is negative: ties must not round toward +infinity
+        assertEquals("[-52.000001,-26.000001,52.000001]",
+                CoordinateWriter.write("[-52.0000005,-26.0000005,52.0000005]", 6));
+        assertEquals(new BigDecimal("-52.000001"), CoordinateWriter.round(new BigDecimal("-52.0000005"), 6));
+        assertEquals(new BigDecimal("-26.000001"), CoordinateWriter.round(new BigDecimal("-26.00000050"), 6));
+    }
+
+    @Test
+    void testResolvePrecision() {
+        assertEquals(CoordinateWriter.DEFAULT_PRECISION, CoordinateWriter.resolvePrecision(null));
+        assertEquals(3, CoordinateWriter.resolvePrecision(3));
+        assertThrows(IllegalArgumentException.class, () -> CoordinateWriter.resolvePrecision(-1));
+        assertThrows(IllegalArgumentException.class, () -> CoordinateWriter.resolvePrecision(11));
+    }
+
+    @Test
+    void testInvalidJsonIsRejected() {
+        assertNull(CoordinateWriter.write(null, 6));
+        assertThrows(IllegalArgumentException.class, () -> CoordinateWriter.write("{\"type\":", 6));
+    }
+}
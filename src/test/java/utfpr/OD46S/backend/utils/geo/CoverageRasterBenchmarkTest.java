@@ -0,0 +1,71 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Area coverage of a dense district: a 6 km wide polygon with 5k vertices against a 36k-fix track.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class CoverageRasterBenchmarkTest {
+
+    private static final double METER = 1 / 111_320.0;
+    private static final int VERTICES = 5_000;
+    private static final int FIXES = 36_000;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+
+    @Test
+    void computeUnder500ms() throws Exception {
+        Random random = new Random(11);
+        double centerLon = -52.67;
+        double centerLat = -26.23;
+        double cos = Math.cos(Math.toRadians(centerLat));
+
+        // Jagged ring around the center, 2.5-3 km radius
+        StringBuilder ring = new StringBuilder("[");
+        for (int i = 0; i <= VERTICES; i++) {
+            double angle = 2 * Math.PI * (i % VERTICES) / VERTICES;
+            double radius = (2_500 + (i % VERTICES == 0 ? 0 : random.nextDouble() * 500)) * METER;
+            ring.append(i == 0 ? "" : ",").append('[')
+                    .append(centerLon + Math.cos(angle) * radius / cos).append(',')
+                    .append(centerLat + Math.sin(angle) * radius).append(']');
+        }
+        ring.append(']');
+        PackedGeometry area = PackedGeometry.fromGeoJson(new ObjectMapper().readTree(
+                "{\"type\":\"Polygon\",\"coordinates\":[" + ring + "]}"));
+
+        double[] lon = new double[FIXES];
+        double[] lat = new double[FIXES];
+        lon[0] = centerLon;
+        lat[0] = centerLat;
+        for (int i = 1; i < FIXES; i++) {
+            // One fix per second at ~20 km/h, turning at random
+            double heading = random.nextDouble() * 2 * Math.PI;
+            lon[i] = lon[i - 1] + Math.cos(heading) * 6 * METER / cos;
+            lat[i] = lat[i - 1] + Math.sin(heading) * 6 * METER;
+        }
+
+        CoverageRaster.Coverage coverage = null;
+        for (int i = 0; i < WARMUP; i++) {
+            coverage = CoverageRaster.compute(List.of(area), lon, lat, 15, 5, 4_000_000);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            coverage = CoverageRaster.compute(List.of(area), lon, lat, 15, 5, 4_000_000);
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / RUNS;
+
+        assertNotNull(coverage);
+        System.out.printf("%d vertices, %d fixes, %d cells of %.1f m: %.2f ms per computation (%.2f%% covered)%n",
+                VERTICES, FIXES, coverage.areaCells(), coverage.cellMeters(), millis, coverage.ratio() * 100);
+        assertTrue(millis < 500, "coverage computation took " + millis + " ms");
+    }
+}
@@ -0,0 +1,94 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverageRasterTest {
+
+    // ~1 m in degrees; the areas sit on the equator so longitude and latitude meters match
+    private static final double METER = 1 / 111_320.0;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testStraightPassAcrossSquareCoversBufferedStrip() throws Exception {
+        PackedGeometry area = polygon(ring(0, 0, 1000));
+        // West to east through the middle: a 50 m wide strip of a 1 km square
+        CoverageRaster.Coverage coverage = CoverageRaster.compute(List.of(area),
+                new double[]{-100 * METER, 1100 * METER}, new double[]{500 * METER, 500 * METER}, 25, 5, 4_000_000);
+
+        assertNotNull(coverage);
+        assertEquals(40_000, coverage.areaCells());
+        assertEquals(0.05, coverage.ratio(), 0.003);
+    }
+
+    @Test
+    void testHoleIsNotPartOfTheArea() throws Exception {
+        PackedGeometry area = polygon(ring(0, 0, 1000) + "," + ring(250, 250, 500));
+        CoverageRaster.Coverage coverage = CoverageRaster.compute(List.of(area),
+                new double[]{0, 1000 * METER}, new double[]{500 * METER, 500 * METER}, 25, 5, 4_000_000);
+
+        assertNotNull(coverage);
+        assertEquals(30_000, coverage.areaCells());
+        // Only the 500 m of the pass outside the hole count
+        assertEquals(25_000.0 / 750_000, coverage.ratio(), 0.003);
+    }
+
+    @Test
+    void testSeparateAreasAndRepeatedPassesCountOnce() throws Exception {
+        PackedGeometry west = polygon(ring(0, 0, 100));
+        PackedGeometry east = polygon(ring(1000, 0, 100));
+        // Back and forth over the west square only
+        double[] lon = {0, 100 * METER, 0, 100 * METER};
+        double[] lat = {50 * METER, 50 * METER, 50 * METER, 50 * METER};
+
+        CoverageRaster.Coverage coverage = CoverageRaster.compute(List.of(west, east), lon, lat, 60, 5, 4_000_000);
+
+        assertNotNull(coverage);
+        assertEquals(800, coverage.areaCells());
+        assertEquals(0.5, coverage.ratio(), 0.001);
+    }
+
+    @Test
+    void testCellGrowsToStayWithinBudget() throws Exception {
+        PackedGeometry area = polygon(ring(0, 0, 5000));
+        CoverageRaster.Coverage coverage = CoverageRaster.compute(List.of(area),
+                new double[0], new double[0], 15, 5, 10_000);
+
+        assertNotNull(coverage);
+        assertTrue(coverage.cellMeters() >= 50);
+        assertTrue(coverage.areaCells() <= 10_000);
+        assertEquals(0, coverage.coveredCells());
+        assertEquals(0.0, coverage.ratio());
+    }
+
+    @Test
+    void testWithoutPolygonsReturnsNull() throws Exception {
+        PackedGeometry line = PackedGeometry.fromGeoJson(objectMapper.readTree(
+                "{\"type\":\"LineString\",\"coordinates\":[[0.0,0.0],[0.01,0.01]]}"));
+
+        assertNull(CoverageRaster.compute(List.of(line), new double[]{0}, new double[]{0}, 15, 5, 4_000_000));
+        assertNull(CoverageRaster.compute(List.of(), new double[]{0}, new double[]{0}, 15, 5, 4_000_000));
+        assertThrows(IllegalArgumentException.class, () ->
+                CoverageRaster.compute(List.of(), new double[]{0}, new double[0], 15, 5, 4_000_000));
+    }
+
+    private PackedGeometry polygon(String rings) throws Exception {
+        return PackedGeometry.fromGeoJson(objectMapper.readTree(
+                "{\"type\":\"Polygon\",\"coordinates\":[" + rings + "]}"));
+    }
+
+    // Closed square ring with its south-west corner at (x, y) meters from the origin
+    private static String ring(double x, double y, double size) {
+        double west = x * METER;
+        double south = y * METER;
+        double east = (x + size) * METER;
+        double north = (y + size) * METER;
+        return "[[" + west + "," + south + "],[" + east + "," + south + "],[" + east + "," + north + "],["
+                + west + "," + north + "],[" + west + "," + south + "]]";
+    }
+}
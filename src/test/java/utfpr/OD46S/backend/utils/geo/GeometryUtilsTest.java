@@ -0,0 +1,79 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeometryUtilsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testBoundingBoxOfMultiPolygon() throws Exception {
+        JsonNode geometry = objectMapper.readTree("{\"type\":\"MultiPolygon\",\"coordinates\":[" +
+                "[[[-52.70,-26.25],[-52.68,-26.25],[-52.68,-26.23],[-52.70,-26.25]]]," +
+                "[[[-52.60,-26.20],[-52.59,-26.20],[-52.59,-26.19],[-52.60,-26.20]]]]}");
+
+        BoundingBox bbox = GeometryUtils.boundingBox(geometry);
+
+        assertEquals(new BoundingBox(-52.70, -26.25, -52.59, -26.19), bbox);
+    }
+
+    @Test
+    void testBoundingBoxWithoutPositions() throws Exception {
+        assertNull(GeometryUtils.boundingBox(objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[]}")));
+    }
+
+    @Test
+    void testSimplifyDropsCollinearVerticesAndKeepsRingClosed() throws Exception {
+        // Square with extra points along every edge
+        JsonNode geometry = objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[[" +
+                "[0,0],[0.5,0],[1,0],[1,0.5],[1,1],[0.5,1],[0,1],[0,0.5],[0,0]]]}");
+
+        JsonNode simplified = GeometryUtils.simplify(geometry, 0.01);
+        JsonNode ring = simplified.get("coordinates").get(0);
+
+        assertEquals(5, ring.size());
+        assertEquals(ring.get(0), ring.get(ring.size() - 1));
+        assertEquals("Polygon", simplified.get("type").asText());
+        assertEquals(9, geometry.get("coordinates").get(0).size());
+    }
+
+    @Test
+    void testSimplifyKeepsVerticesAboveTolerance() throws Exception {
+        JsonNode line = objectMapper.readTree("{\"type\":\"LineString\",\"coordinates\":[[0,0],[0.5,0.2],[1,0]]}");
+
+        assertEquals(3, GeometryUtils.simplify(line, 0.1).get("coordinates").size());
+        assertEquals(2, GeometryUtils.simplify(line, 0.3).get("coordinates").size());
+    }
+
+    @Test
+    void testSimplifyNeverCollapsesRing() throws Exception {
+        JsonNode geometry = objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[[" +
+                "[0,0],[0.0001,0],[0.0001,0.0001],[0,0.0001],[0,0]]]}");
+
+        JsonNode ring = GeometryUtils.simplify(geometry, 1).get("coordinates").get(0);
+
+        assertTrue(ring.size() >= 4);
+    }
+
+    @Test
+    void testBoundingBoxParse() {
+        assertEquals(new BoundingBox(-52.8, -26.3, -52.6, -26.2), BoundingBox.parse("-52.8,-26.3,-52.6,-26.2"));
+        assertNull(BoundingBox.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("1,2,3"));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("a,b,c,d"));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("10,0,5,1"));
+    }
+
+    @Test
+    void testGeometryDetailForZoom() {
+        assertEquals(GeometryDetail.FULL, GeometryDetail.forZoom(null));
+        assertEquals(GeometryDetail.LOW, GeometryDetail.forZoom(8));
+        assertEquals(GeometryDetail.MEDIUM, GeometryDetail.forZoom(13));
+        assertEquals(GeometryDetail.FULL, GeometryDetail.forZoom(17));
+        assertThrows(IllegalArgumentException.class, () -> GeometryDetail.forZoom(30));
+    }
+}
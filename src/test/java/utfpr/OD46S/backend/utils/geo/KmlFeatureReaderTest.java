@@ -0,0 +1,157 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import org.junit.jupiter.api.Test;
+import utfpr.OD46S.backend.dtos.GeoJsonFeature;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KmlFeatureReaderTest {
+
+    private static final String KML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <kml xmlns="http://www.opengis.net/kml/2.2">
+              <Document>
+                <name>Coleta</name>
+                <Style id="poly-normal">
+                  <LineStyle><color>ffcc6600</color></LineStyle>
+                  <PolyStyle><color>66cc6600</color></PolyStyle>
+                </Style>
+                <StyleMap id="poly">
+                  <Pair><key>normal</key><styleUrl>#poly-normal</styleUrl></Pair>
+                  <Pair><key>highlight</key><styleUrl>#poly-highlight</styleUrl></Pair>
+                </StyleMap>
+                <Folder>
+                  <name>Rotas</name>
+                  <Placemark>
+                    <name>Planalto 1</name>
+                    <description>Coleta na Segunda-feira</description>
+                    <styleUrl>#poly</styleUrl>
+                    <Polygon>
+                      <outerBoundaryIs><LinearRing><coordinates>
+                        -52.70,-26.25,0 -52.68,-26.25,0 -52.68,-26.23,0
+                      </coordinates></LinearRing></outerBoundaryIs>
+                    </Polygon>
+                  </Placemark>
+                  <Placemark>
+                    <name>Ecoponto</name>
+                    <ExtendedData>
+                      <Data name="waste_type"><value>SELECTIVE</value></Data>
+                      <Data name="route_id"><value>3</value></Data>
+                    </ExtendedData>
+                    <Point><coordinates>-52.69,-26.24,0</coordinates></Point>
+                  </Placemark>
+                  <Placemark>
+                    <name>Centro</name>
+                    <MultiGeometry>
+                      <Polygon><outerBoundaryIs><LinearRing><coordinates>0,0 1,0 1,1 0,0</coordinates></LinearRing></outerBoundaryIs></Polygon>
+                      <Polygon><outerBoundaryIs><LinearRing><coordinates>2,2 3,2 3,3 2,2</coordinates></LinearRing></outerBoundaryIs></Polygon>
+                    </MultiGeometry>
+                  </Placemark>
+                </Folder>
+              </Document>
+            </kml>
+            """;
+
+    @Test
+    void testReadsPlacemarksFromKmz() throws Exception {
+        List<GeoJsonFeature> features = readAll(kmz(KML));
+
+        assertEquals(3, features.size());
+
+        GeoJsonFeature polygon = features.get(0);
+        Map<String, Object> properties = polygon.getProperties();
+        assertEquals("Planalto 1", properties.get("name"));
+        assertEquals("RECYCLABLE", properties.get("waste_type"));
+        assertEquals("0 8 * * 1", properties.get("periodicity"));
+        assertEquals("#0066CC", properties.get("stroke_color"));
+        assertEquals("#0066CC", properties.get("fill_color"));
+        assertEquals(new BigDecimal("0.40"), properties.get("fill_opacity"));
+        assertEquals("Polygon", polygon.getGeometry().get("type"));
+
+        // The ring is closed even though the KML did not repeat the first position
+        List<?> ring = (List<?>) ((List<?>) polygon.getGeometry().get("coordinates")).get(0);
+        assertEquals(4, ring.size());
+        assertEquals(List.of(-52.70, -26.25), ring.get(0));
+        assertEquals(ring.get(0), ring.get(3));
+    }
+
+    @Test
+    void testExtendedDataOverridesDefaults() throws Exception {
+        GeoJsonFeature point = readAll(kmz(KML)).get(1);
+
+        assertEquals("SELECTIVE", point.getProperties().get("waste_type"));
+        assertEquals("3", point.getProperties().get("route_id"));
+        assertEquals("Point", point.getGeometry().get("type"));
+        assertEquals(List.of(-52.69, -26.24), point.getGeometry().get("coordinates"));
+    }
+
+    @Test
+    void testMultiGeometryOfPolygonsBecomesMultiPolygon() throws Exception {
+        GeoJsonFeature multi = readAll(kmz(KML)).get(2);
+
+        assertEquals("MultiPolygon", multi.getGeometry().get("type"));
+        assertEquals(2, ((List<?>) multi.getGeometry().get("coordinates")).size());
+    }
+
+    @Test
+    void testReadsPlainKml() throws Exception {
+        List<GeoJsonFeature> features = readAll(KML.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3, features.size());
+    }
+
+    @Test
+    void testKmzWithoutKmlIsRejected() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("images/icon.png"));
+            zip.write(new byte[]{1, 2, 3});
+            zip.closeEntry();
+        }
+
+        IOException exception = assertThrows(IOException.class,
+                () -> KmlFeatureReader.open(new ByteArrayInputStream(bytes.toByteArray()), "WET"));
+
+        assertEquals("KMZ file does not contain a KML document", exception.getMessage());
+    }
+
+    @Test
+    void testExternalEntitiesAreNotResolved() throws Exception {
+        String kml = """
+                <?xml version="1.0"?>
+                <!DOCTYPE kml [<!ENTITY secret SYSTEM "file:///etc/passwd">]>
+                <kml><Placemark><name>&secret;</name><Point><coordinates>0,0</coordinates></Point></Placemark></kml>
+                """;
+
+        assertThrows(Exception.class, () -> readAll(kml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<GeoJsonFeature> readAll(byte[] content) throws IOException {
+        List<GeoJsonFeature> features = new ArrayList<>();
+        try (KmlFeatureReader reader = KmlFeatureReader.open(new ByteArrayInputStream(content), "RECYCLABLE")) {
+            reader.forEachRemaining(features::add);
+        }
+        return features;
+    }
+
+    private byte[] kmz(String kml) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("doc.kml"));
+            zip.write(kml.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedGeometryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testEncodeDecodeRoundTrip() throws Exception {
+        String json = "{\"type\":\"MultiPolygon\",\"coordinates\":[" +
+                "[[[-52.6988268,-26.2438868],[-52.6990629,-26.2426551],[-52.6994706,-26.2363807],[-52.6988268,-26.2438868]]]," +
+                "[[[20.0,20.0],[21.0,20.0],[21.0,21.0],[20.0,20.0]]]]}";
+        PackedGeometry packed = PackedGeometry.fromGeoJson(objectMapper.readTree(json));
+
+        byte[] binary = packed.encode();
+        PackedGeometry decoded = PackedGeometry.decode(binary);
+
+        assertTrue(binary.length < json.length() / 2);
+        assertEquals(objectMapper.readTree(json), objectMapper.readTree(decoded.toGeoJson()));
+        assertEquals(new BoundingBox(-52.6994706, -26.2438868, 21.0, 21.0), decoded.boundingBox());
+    }
+
+    @Test
+    void testGeometryCollectionRoundTrip() throws Exception {
+        JsonNode geometry = objectMapper.readTree("{\"type\":\"GeometryCollection\",\"geometries\":[" +
+                "{\"type\":\"Point\",\"coordinates\":[1.0,2.0]}," +
+                "{\"type\":\"Polygon\",\"coordinates\":[[[0.0,0.0],[1.0,0.0],[1.0,1.0],[0.0,0.0]]]}]}");
+
+        PackedGeometry decoded = PackedGeometry.decode(PackedGeometry.fromGeoJson(geometry).encode());
+
+        assertEquals(geometry, objectMapper.readTree(decoded.toGeoJson()));
+        assertTrue(decoded.contains(0.9, 0.1));
+    }
+
+    @Test
+    void testContainsExcludesHoles() throws Exception {
+        PackedGeometry square = PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[" +
+                "[[0,0],[10,0],[10,10],[0,10],[0,0]]," +
+                "[[4,4],[6,4],[6,6],[4,6],[4,4]]]}"));
+
+        assertTrue(square.contains(2, 2));
+        assertFalse(square.contains(5, 5));
+        assertFalse(square.contains(11, 5));
+    }
+
+    @Test
+    void testLinesAndPointsContainNothing() throws Exception {
+        PackedGeometry point = PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Point\",\"coordinates\":[1,1]}"));
+
+        assertFalse(point.contains(1, 1));
+    }
+
+    @Test
+    void testSimplifyMatchesJsonSimplification() throws Exception {
+        JsonNode geometry = objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[[" +
+                "[0,0],[0.5,0],[1,0],[1,0.5],[1,1],[0.5,1],[0,1],[0,0.5],[0,0]]]}");
+
+        PackedGeometry simplified = PackedGeometry.fromGeoJson(geometry).simplify(0.01);
+
+        JsonNode expected = GeometryUtils.simplify(geometry, 0.01).get("coordinates").get(0);
+        JsonNode ring = objectMapper.readTree(simplified.toGeoJson()).get("coordinates").get(0);
+        assertEquals(expected.size(), ring.size());
+        for (int i = 0; i < ring.size(); i++) {
+            assertEquals(expected.get(i).get(0).asDouble(), ring.get(i).get(0).asDouble());
+            assertEquals(expected.get(i).get(1).asDouble(), ring.get(i).get(1).asDouble());
+        }
+    }
+
+    @Test
+    void testUnsupportedInput() throws Exception {
+        assertNull(PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Circle\",\"coordinates\":[0,0]}")));
+        assertNull(PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Polygon\"}")));
+        assertThrows(IllegalArgumentException.class, () -> PackedGeometry.decode(new byte[]{9, 3}));
+    }
+}
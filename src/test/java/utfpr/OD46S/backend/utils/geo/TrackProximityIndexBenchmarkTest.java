@@ -0,0 +1,67 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Missed-point check at completion: grid index over a 36k-fix track plus 2k collection points.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class TrackProximityIndexBenchmarkTest {
+
+    private static final double METER = 1 / 111_320.0;
+    private static final int FIXES = 36_000;
+    private static final int POINTS = 2_000;
+    private static final int WARMUP = 20;
+    private static final int RUNS = 50;
+
+    @Test
+    void buildAndCheckUnder100ms() {
+        Random random = new Random(7);
+        double[] lon = new double[FIXES];
+        double[] lat = new double[FIXES];
+        lon[0] = -52.67;
+        lat[0] = -26.23;
+        for (int i = 1; i < FIXES; i++) {
+            // One fix per second at ~20 km/h, turning at random
+            double heading = random.nextDouble() * 2 * Math.PI;
+            lon[i] = lon[i - 1] + Math.cos(heading) * 6 * METER;
+            lat[i] = lat[i - 1] + Math.sin(heading) * 6 * METER;
+        }
+        double[] pointLon = new double[POINTS];
+        double[] pointLat = new double[POINTS];
+        for (int p = 0; p < POINTS; p++) {
+            int fix = random.nextInt(FIXES);
+            pointLon[p] = lon[fix] + (random.nextDouble() - 0.5) * 100 * METER;
+            pointLat[p] = lat[fix] + (random.nextDouble() - 0.5) * 100 * METER;
+        }
+
+        int missed = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            missed = count(TrackProximityIndex.build(lon, lat, 30).nearAll(pointLon, pointLat));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            missed = count(TrackProximityIndex.build(lon, lat, 30).nearAll(pointLon, pointLat));
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / RUNS;
+
+        System.out.printf("track %d fixes, %d points: %.2f ms per check (%d missed)%n", FIXES, POINTS, millis, missed);
+        assertTrue(millis < 100, "missed-point check took " + millis + " ms");
+    }
+
+    private static int count(boolean[] near) {
+        int missed = 0;
+        for (boolean value : near) {
+            if (!value) {
+                missed++;
+            }
+        }
+        return missed;
+    }
+}
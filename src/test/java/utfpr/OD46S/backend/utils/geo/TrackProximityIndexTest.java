@@ -0,0 +1,92 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackProximityIndexTest {
+
+    // ~1 m in degrees of latitude
+    private static final double METER = 1 / 111_320.0;
+
+    @Test
+    void testPositionNearSegmentBetweenSparseFixes() {
+        // Two fixes 500 m apart along a meridian; the truck passed the midpoint between them
+        TrackProximityIndex index = TrackProximityIndex.build(
+                new double[]{-52.67, -52.67}, new double[]{-26.23, -26.23 + 500 * METER}, 30);
+
+        assertTrue(index.isNear(-52.67, -26.23 + 250 * METER));
+        assertTrue(index.isNear(-52.67 + 20 * METER / Math.cos(Math.toRadians(26.23)), -26.23 + 250 * METER));
+        assertFalse(index.isNear(-52.67 + 45 * METER / Math.cos(Math.toRadians(26.23)), -26.23 + 250 * METER));
+        assertFalse(index.isNear(-52.67, -26.23 + 540 * METER));
+    }
+
+    @Test
+    void testSingleFixAndEmptyTrack() {
+        TrackProximityIndex single = TrackProximityIndex.build(new double[]{-52.67}, new double[]{-26.23}, 30);
+        assertTrue(single.isNear(-52.67, -26.23 + 10 * METER));
+        assertFalse(single.isNear(-52.67, -26.23 + 40 * METER));
+
+        TrackProximityIndex empty = TrackProximityIndex.build(new double[0], new double[0], 30);
+        assertFalse(empty.isNear(-52.67, -26.23));
+    }
+
+    @Test
+    void testMatchesBruteForceOnRandomWalk() {
+        Random random = new Random(42);
+        int fixes = 2_000;
+        double[] lon = new double[fixes];
+        double[] lat = new double[fixes];
+        lon[0] = -52.67;
+        lat[0] = -26.23;
+        for (int i = 1; i < fixes; i++) {
+            // Mostly short steps, sometimes a long GPS gap
+            double step = (random.nextInt(50) == 0 ? 400 : 15) * METER;
+            lon[i] = lon[i - 1] + (random.nextDouble() - 0.5) * step;
+            lat[i] = lat[i - 1] + (random.nextDouble() - 0.5) * step;
+        }
+        TrackProximityIndex index = TrackProximityIndex.build(lon, lat, 30);
+
+        int positions = 1_000;
+        double[] qLon = new double[positions];
+        double[] qLat = new double[positions];
+        for (int q = 0; q < positions; q++) {
+            int base = random.nextInt(fixes);
+            qLon[q] = lon[base] + (random.nextDouble() - 0.5) * 160 * METER;
+            qLat[q] = lat[base] + (random.nextDouble() - 0.5) * 160 * METER;
+        }
+        boolean[] near = index.nearAll(qLon, qLat);
+
+        double cos = Math.cos(Math.toRadians(-26.23));
+        for (int q = 0; q < positions; q++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i + 1 < fixes; i++) {
+                best = Math.min(best, distance(qLon[q], qLat[q], lon[i], lat[i], lon[i + 1], lat[i + 1], cos));
+            }
+            // Skip positions on the boundary, where projection rounding could go either way
+            if (Math.abs(best - 30) > 0.5) {
+                assertEquals(best <= 30, near[q], "position " + q + " at " + best + " m");
+            }
+        }
+    }
+
+    @Test
+    void testRejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TrackProximityIndex.build(new double[]{1}, new double[0], 30));
+        assertThrows(IllegalArgumentException.class,
+                () -> TrackProximityIndex.build(new double[]{1}, new double[]{1}, 0));
+    }
+
+    private static double distance(double px, double py, double ax, double ay, double bx, double by, double cos) {
+        double m = 111_320.0;
+        px *= m * cos; ax *= m * cos; bx *= m * cos;
+        py *= m; ay *= m; by *= m;
+        double dx = bx - ax, dy = by - ay;
+        double len = dx * dx + dy * dy;
+        double t = len == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / len));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+}
@@ -0,0 +1,253 @@
+package utfpr.OD46S.backend.utils.geo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorTileEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testTileBoundsIncludeBuffer() {
+        BoundingBox world = VectorTileEncoder.tileBounds(0, 0, 0);
+        assertEquals(-180.0, world.minLon());
+        assertEquals(180.0, world.maxLon());
+
+        BoundingBox tile = VectorTileEncoder.tileBounds(1, 1, 1);
+        assertTrue(tile.minLon() < 0);
+        assertTrue(tile.maxLat() > 0);
+        assertTrue(tile.minLat() < -85);
+    }
+
+    @Test
+    void testPolygonIsWrittenAsClosedExteriorRing() throws Exception {
+        // Polygon covering the middle of tile 1/1/1 (south-east quadrant)
+        PackedGeometry square = PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[" +
+                "[[45,-10],[135,-10],[135,-60],[45,-60],[45,-10]]]}"));
+        VectorTileEncoder encoder = new VectorTileEncoder(1, 1, 1);
+
+        encoder.addGeometry("route_areas", 7L, attributes("name", "Centro"), square);
+
+        Map<String, Object> layer = decodeLayer(encoder.encode());
+        assertEquals("route_areas", layer.get("name"));
+        assertEquals(4096L, layer.get("extent"));
+        assertEquals(List.of("name"), layer.get("keys"));
+        assertEquals(List.of("Centro"), layer.get("values"));
+
+        Map<String, Object> feature = features(layer).get(0);
+        assertEquals(7L, feature.get("id"));
+        assertEquals(3L, feature.get("type"));
+        List<Long> geometry = geometry(feature);
+        assertEquals(9L, geometry.get(0).longValue());               // MoveTo(1)
+        assertEquals((3L << 3) | 2, geometry.get(3).longValue());    // LineTo(3)
+        assertEquals(15L, geometry.get(geometry.size() - 1).longValue()); // ClosePath
+        assertTrue(ringArea(geometry) > 0);
+    }
+
+    @Test
+    void testPolygonOutsideTileIsDropped() throws Exception {
+        PackedGeometry square = PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[" +
+                "[[-135,10],[-45,10],[-45,60],[-135,60],[-135,10]]]}"));
+        VectorTileEncoder encoder = new VectorTileEncoder(1, 1, 1);
+
+        encoder.addGeometry("route_areas", 1L, Map.of(), square);
+
+        assertTrue(encoder.isEmpty());
+        assertEquals(0, encoder.encode().length);
+    }
+
+    @Test
+    void testPolygonLargerThanTileIsClippedToBuffer() throws Exception {
+        PackedGeometry world = PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Polygon\",\"coordinates\":[" +
+                "[[-170,-80],[170,-80],[170,80],[-170,80],[-170,-80]]]}"));
+        VectorTileEncoder encoder = new VectorTileEncoder(4, 8, 8);
+
+        encoder.addGeometry("route_areas", 1L, Map.of(), world);
+
+        List<Long> geometry = geometry(features(decodeLayer(encoder.encode())).get(0));
+        long x = 0;
+        long y = 0;
+        int index = 0;
+        while (index < geometry.size()) {
+            long command = geometry.get(index++);
+            long count = command >> 3;
+            if ((command & 7) == 7) continue;
+            for (int i = 0; i < count; i++) {
+                x += decodeZigZag(geometry.get(index++));
+                y += decodeZigZag(geometry.get(index++));
+                assertTrue(x >= -64 && x <= 4096 + 64);
+                assertTrue(y >= -64 && y <= 4096 + 64);
+            }
+        }
+    }
+
+    @Test
+    void testLineStringCrossingTileIsSplit() {
+        VectorTileEncoder encoder = new VectorTileEncoder(1, 1, 1);
+
+        // Enters the south-east tile, leaves it to the north and comes back
+        encoder.addLineString("tracks", 3L, attributes("execution_id", 3L),
+                new double[]{90, -45, 90, 45, 120, 45, 120, -45});
+
+        Map<String, Object> feature = features(decodeLayer(encoder.encode())).get(0);
+        assertEquals(2L, feature.get("type"));
+        long moves = geometry(feature).stream().filter(value -> value == 9L).count();
+        assertEquals(2, moves);
+    }
+
+    @Test
+    void testAttributeValuesAreShared() throws Exception {
+        PackedGeometry point = PackedGeometry.fromGeoJson(objectMapper.readTree("{\"type\":\"Point\",\"coordinates\":[90,-45]}"));
+        VectorTileEncoder encoder = new VectorTileEncoder(1, 1, 1);
+
+        encoder.addGeometry("points", 1L, attributes("waste_type", "WET"), point);
+        encoder.addGeometry("points", 2L, attributes("waste_type", "WET"), point);
+
+        Map<String, Object> layer = decodeLayer(encoder.encode());
+        assertEquals(2, features(layer).size());
+        assertEquals(List.of("WET"), layer.get("values"));
+        assertEquals(List.of(0L, 0L), features(layer).get(1).get("tags"));
+    }
+
+    private static Map<String, Object> attributes(String key, Object value) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put(key, value);
+        return attributes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> features(Map<String, Object> layer) {
+        return (List<Map<String, Object>>) layer.get("features");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> geometry(Map<String, Object> feature) {
+        return (List<Long>) feature.get("geometry");
+    }
+
+    private static long decodeZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Twice the signed area of the first ring, in tile coordinates
+    private static long ringArea(List<Long> geometry) {
+        List<long[]> points = new ArrayList<>();
+        long x = decodeZigZag(geometry.get(1));
+        long y = decodeZigZag(geometry.get(2));
+        points.add(new long[]{x, y});
+        long count = geometry.get(3) >> 3;
+        for (int i = 0; i < count; i++) {
+            x += decodeZigZag(geometry.get(4 + i * 2));
+            y += decodeZigZag(geometry.get(5 + i * 2));
+            points.add(new long[]{x, y});
+        }
+        long area = 0;
+        for (int i = 0; i < points.size(); i++) {
+            long[] a = points.get(i);
+            long[] b = points.get((i + 1) % points.size());
+            area += a[0] * b[1] - b[0] * a[1];
+        }
+        return area;
+    }
+
+    // Minimal protobuf reader for the single layer written in these tests
+    private static Map<String, Object> decodeLayer(byte[] tile) {
+        Reader reader = new Reader(tile);
+        assertEquals(3, reader.tag() >> 3);
+        Reader layerReader = new Reader(reader.bytes());
+
+        Map<String, Object> layer = new LinkedHashMap<>();
+        List<Map<String, Object>> features = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        while (layerReader.hasMore()) {
+            long tag = layerReader.tag();
+            switch ((int) (tag >> 3)) {
+                case 1 -> layer.put("name", new String(layerReader.bytes(), StandardCharsets.UTF_8));
+                case 2 -> features.add(decodeFeature(layerReader.bytes()));
+                case 3 -> keys.add(new String(layerReader.bytes(), StandardCharsets.UTF_8));
+                case 4 -> {
+                    Reader value = new Reader(layerReader.bytes());
+                    long valueTag = value.tag();
+                    values.add((valueTag >> 3) == 1 ? new String(value.bytes(), StandardCharsets.UTF_8) : value.varint());
+                }
+                case 5 -> layer.put("extent", layerReader.varint());
+                default -> layerReader.varint();
+            }
+        }
+        layer.put("features", features);
+        layer.put("keys", keys);
+        layer.put("values", values);
+        return layer;
+    }
+
+    private static Map<String, Object> decodeFeature(byte[] bytes) {
+        Reader reader = new Reader(bytes);
+        Map<String, Object> feature = new LinkedHashMap<>();
+        while (reader.hasMore()) {
+            long tag = reader.tag();
+            switch ((int) (tag >> 3)) {
+                case 1 -> feature.put("id", reader.varint());
+                case 2 -> feature.put("tags", reader.packed());
+                case 3 -> feature.put("type", reader.varint());
+                case 4 -> feature.put("geometry", reader.packed());
+                default -> fail("Unexpected feature field " + (tag >> 3));
+            }
+        }
+        return feature;
+    }
+
+    private static class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return position < data.length;
+        }
+
+        long tag() {
+            return varint();
+        }
+
+        long varint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        byte[] bytes() {
+            int length = (int) varint();
+            byte[] bytes = new byte[length];
+            System.arraycopy(data, position, bytes, 0, length);
+            position += length;
+            return bytes;
+        }
+
+        List<Long> packed() {
+            Reader packed = new Reader(bytes());
+            List<Long> values = new ArrayList<>();
+            while (packed.hasMore()) {
+                values.add(packed.varint());
+            }
+            return values;
+        }
+    }
+}